@@ -0,0 +1,128 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.benchmarks.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+/**
+ * Benchmarks fanning a request out into many tasks through a
+ * {@link DelegatingSecurityContextExecutorService}. The tasks run on the submitting
+ * thread, so that the cost of wrapping the tasks and of propagating the
+ * {@link SecurityContext} is measured rather than the cost of switching threads. Each
+ * benchmark sets the current {@link SecurityContext} before it submits the tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DelegatingSecurityContextExecutorServiceBenchmarks {
+
+	@Param({ "10", "200" })
+	private int tasks;
+
+	private final ExecutorService delegate = new ExecutorServiceAdapter(new SyncTaskExecutor());
+
+	private final DelegatingSecurityContextExecutorService executor = new DelegatingSecurityContextExecutorService(
+			this.delegate);
+
+	private final DelegatingSecurityContextExecutorService threadPerTaskExecutor;
+
+	private final SecurityContext context = new SecurityContextImpl(
+			new TestingAuthenticationToken("user", null, "ROLE_USER"));
+
+	private List<Callable<Authentication>> callables;
+
+	public DelegatingSecurityContextExecutorServiceBenchmarks() {
+		this.threadPerTaskExecutor = new DelegatingSecurityContextExecutorService(this.delegate);
+		this.threadPerTaskExecutor.setRestoreOriginalContext(false);
+	}
+
+	@Setup
+	public void setup() {
+		this.callables = Collections.nCopies(this.tasks,
+				() -> SecurityContextHolder.getContext().getAuthentication());
+	}
+
+	@TearDown
+	public void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Benchmark
+	public List<Future<Authentication>> undecorated() {
+		SecurityContextHolder.setContext(this.context);
+		List<Future<Authentication>> futures = new ArrayList<>(this.tasks);
+		for (Callable<Authentication> callable : this.callables) {
+			futures.add(this.delegate.submit(callable));
+		}
+		return futures;
+	}
+
+	@Benchmark
+	public List<Future<Authentication>> submitEach() {
+		SecurityContextHolder.setContext(this.context);
+		List<Future<Authentication>> futures = new ArrayList<>(this.tasks);
+		for (Callable<Authentication> callable : this.callables) {
+			futures.add(this.executor.submit(callable));
+		}
+		return futures;
+	}
+
+	@Benchmark
+	public List<Future<Authentication>> invokeAll() throws InterruptedException {
+		SecurityContextHolder.setContext(this.context);
+		return this.executor.invokeAll(this.callables);
+	}
+
+	@Benchmark
+	public List<Future<Authentication>> submitAll() {
+		SecurityContextHolder.setContext(this.context);
+		return this.executor.submitAll(this.callables);
+	}
+
+	@Benchmark
+	public List<Future<Authentication>> submitAllWithoutRestoringOriginalContext() {
+		// the original context is cleared rather than restored after each task
+		SecurityContextHolder.setContext(this.context);
+		return this.threadPerTaskExecutor.submitAll(this.callables);
+	}
+
+}
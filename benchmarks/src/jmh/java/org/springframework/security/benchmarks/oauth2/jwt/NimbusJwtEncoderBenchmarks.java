@@ -0,0 +1,125 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.benchmarks.oauth2.jwt;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.KeyGenerator;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+/**
+ * Benchmarks minting a batch of tokens with a {@link NimbusJwtEncoder}, either one
+ * {@link NimbusJwtEncoder#encode(JwtEncoderParameters) encode} at a time or with a single
+ * {@link NimbusJwtEncoder#encodeAll(List) encodeAll}. All tokens in a batch share the same
+ * {@link JwsHeader} and differ in their subject. Scores are reported per token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NimbusJwtEncoderBenchmarks {
+
+	private static final int BATCH_SIZE = 100;
+
+	@Param({ "RS256", "HS256" })
+	private String algorithm;
+
+	private NimbusJwtEncoder encoder;
+
+	private List<JwtEncoderParameters> parameters;
+
+	@Setup
+	public void setup() throws Exception {
+		JWK jwk;
+		JwsHeader headers;
+		if ("RS256".equals(this.algorithm)) {
+			KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+			generator.initialize(2048);
+			KeyPair keyPair = generator.generateKeyPair();
+			jwk = new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+				.privateKey((RSAPrivateKey) keyPair.getPrivate())
+				.keyID("rsa")
+				.build();
+			headers = JwsHeader.with(SignatureAlgorithm.RS256).type("JWT").build();
+		}
+		else {
+			KeyGenerator generator = KeyGenerator.getInstance("HmacSHA256");
+			jwk = new OctetSequenceKey.Builder(generator.generateKey()).keyID("hmac").build();
+			headers = JwsHeader.with(MacAlgorithm.HS256).type("JWT").build();
+		}
+		this.encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(jwk)));
+		Instant issuedAt = Instant.now();
+		this.parameters = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			// @formatter:off
+			JwtClaimsSet claims = JwtClaimsSet.builder()
+				.issuer("https://issuer.example.org")
+				.subject("subject-" + i)
+				.audience(List.of("resource-server"))
+				.issuedAt(issuedAt)
+				.expiresAt(issuedAt.plusSeconds(300))
+				.claim("scope", "message:read message:write")
+				.build();
+			// @formatter:on
+			this.parameters.add(JwtEncoderParameters.from(headers, claims));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void encode(Blackhole blackhole) {
+		for (JwtEncoderParameters parameters : this.parameters) {
+			blackhole.consume(this.encoder.encode(parameters));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public List<Jwt> encodeAll() {
+		return this.encoder.encodeAll(this.parameters);
+	}
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.benchmarks.web;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+/**
+ * Benchmarks a complete {@link SecurityFilterChain}, as built by {@link HttpSecurity},
+ * against mock servlet requests for typical configurations.
+ * <p>
+ * Run with {@code ./gradlew :spring-security-benchmarks:jmh}, optionally restricting
+ * the benchmarks with {@code -PjmhIncludes=FilterChainProxyBenchmarks}. Throughput is
+ * reported in operations per second, and allocation rates are reported by the
+ * {@code gc} profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FilterChainProxyBenchmarks {
+
+	private static final String TOKEN = "eyJhbGciOiJub25lIn0.eyJzdWIiOiJ1c2VyIiwic2NvcGUiOiJyZWFkIn0.";
+
+	@Param({ "stateless-jwt", "session-form-login", "static-resources" })
+	private String configuration;
+
+	private AnnotationConfigWebApplicationContext context;
+
+	private Filter springSecurityFilterChain;
+
+	private MockHttpSession session;
+
+	@Setup
+	public void setup() {
+		this.context = new AnnotationConfigWebApplicationContext();
+		this.context.setServletContext(new MockServletContext());
+		this.context.register(configurationClass());
+		this.context.refresh();
+		this.springSecurityFilterChain = this.context.getBean("springSecurityFilterChain", Filter.class);
+		UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated("user",
+				null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+		this.session = new MockHttpSession();
+		this.session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+				new SecurityContextImpl(authentication));
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public MockHttpServletResponse doFilter() throws Exception {
+		MockHttpServletRequest request = request();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		this.springSecurityFilterChain.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private Class<?> configurationClass() {
+		return switch (this.configuration) {
+			case "stateless-jwt" -> StatelessJwtConfig.class;
+			case "session-form-login" -> SessionFormLoginConfig.class;
+			case "static-resources" -> StaticResourcesConfig.class;
+			default -> throw new IllegalArgumentException("Unknown configuration " + this.configuration);
+		};
+	}
+
+	private MockHttpServletRequest request() {
+		return switch (this.configuration) {
+			case "stateless-jwt" -> {
+				MockHttpServletRequest request = get("/api/messages");
+				request.addHeader("Authorization", "Bearer " + TOKEN);
+				yield request;
+			}
+			case "session-form-login" -> {
+				MockHttpServletRequest request = get("/messages");
+				request.setSession(this.session);
+				yield request;
+			}
+			default -> get("/static/css/app.css");
+		};
+	}
+
+	private static MockHttpServletRequest get(String path) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setServletPath(path);
+		request.addHeader("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8");
+		request.addHeader("User-Agent", "Mozilla/5.0 (X11; Linux x86_64; rv:125.0) Gecko/20100101 Firefox/125.0");
+		return request;
+	}
+
+	@Configuration
+	@EnableWebSecurity
+	static class StatelessJwtConfig {
+
+		@Bean
+		SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+			// @formatter:off
+			http
+				.authorizeHttpRequests((authorize) -> authorize
+					.anyRequest().hasAuthority("SCOPE_read")
+				)
+				.sessionManagement((session) -> session
+					.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+				)
+				.oauth2ResourceServer((oauth2) -> oauth2
+					.jwt(Customizer.withDefaults())
+				);
+			// @formatter:on
+			return http.build();
+		}
+
+		@Bean
+		JwtDecoder jwtDecoder() {
+			Jwt jwt = Jwt.withTokenValue(TOKEN).header("alg", "none").subject("user").claim("scope", "read").build();
+			return (token) -> jwt;
+		}
+
+	}
+
+	@Configuration
+	@EnableWebSecurity
+	static class SessionFormLoginConfig {
+
+		@Bean
+		SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+			// @formatter:off
+			http
+				.authorizeHttpRequests((authorize) -> authorize
+					.anyRequest().authenticated()
+				)
+				.formLogin(Customizer.withDefaults());
+			// @formatter:on
+			return http.build();
+		}
+
+	}
+
+	@Configuration
+	@EnableWebSecurity
+	static class StaticResourcesConfig {
+
+		@Bean
+		SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+			// @formatter:off
+			http
+				.securityMatcher(antMatcher("/static/**"))
+				.authorizeHttpRequests((authorize) -> authorize
+					.anyRequest().permitAll()
+				);
+			// @formatter:on
+			return http.build();
+		}
+
+	}
+
+}
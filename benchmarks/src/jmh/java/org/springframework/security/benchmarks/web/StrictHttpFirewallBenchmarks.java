@@ -0,0 +1,79 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.benchmarks.web;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.firewall.StrictHttpFirewall;
+
+/**
+ * Benchmarks {@link StrictHttpFirewall} validation of the request URL and of headers
+ * that are read several times by different filters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StrictHttpFirewallBenchmarks {
+
+	private static final String[] HEADER_NAMES = { "Accept", "Accept-Language", "Authorization", "Cookie",
+			"User-Agent", "X-Requested-With" };
+
+	private final StrictHttpFirewall firewall = new StrictHttpFirewall();
+
+	private MockHttpServletRequest request;
+
+	@Setup
+	public void setup() {
+		this.request = new MockHttpServletRequest("GET", "/context/api/v1/accounts/12345/transactions");
+		this.request.setContextPath("/context");
+		this.request.setServletPath("/api");
+		this.request.setPathInfo("/v1/accounts/12345/transactions");
+		this.request.addHeader("Accept", "application/json");
+		this.request.addHeader("Accept-Language", "en-US,en;q=0.5");
+		this.request.addHeader("Authorization", "Bearer " + "a".repeat(900));
+		this.request.addHeader("Cookie", "JSESSIONID=6A3C1F3B8D2E4F5A9B0C7D6E5F4A3B2C; theme=dark");
+		this.request.addHeader("User-Agent", "Mozilla/5.0 (X11; Linux x86_64; rv:125.0) Gecko/20100101 Firefox/125.0");
+		this.request.addHeader("X-Requested-With", "XMLHttpRequest");
+	}
+
+	@Benchmark
+	public HttpServletRequest getFirewalledRequest() {
+		return this.firewall.getFirewalledRequest(this.request);
+	}
+
+	@Benchmark
+	public void getFirewalledRequestAndReadHeadersTwice(Blackhole blackhole) {
+		HttpServletRequest firewalled = this.firewall.getFirewalledRequest(this.request);
+		for (int i = 0; i < 2; i++) {
+			for (String name : HEADER_NAMES) {
+				blackhole.consume(firewalled.getHeader(name));
+			}
+		}
+	}
+
+}
@@ -16,6 +16,11 @@
 
 package org.springframework.security.config.annotation.method.configuration;
 
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -23,18 +28,27 @@ import io.micrometer.observation.ObservationRegistry;
 import org.aopalliance.aop.Advice;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import org.springframework.aop.Pointcut;
+import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.aop.framework.AopInfrastructureBean;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.ListableBeanFactory;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.SingletonBeanRegistry;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.ImportAware;
 import org.springframework.context.annotation.Role;
+import org.springframework.core.log.LogMessage;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
 import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
@@ -52,6 +66,8 @@ import org.springframework.security.authorization.method.PreFilterAuthorizationM
 import org.springframework.security.authorization.method.PrePostTemplateDefaults;
 import org.springframework.security.config.core.GrantedAuthorityDefaults;
 import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.function.SingletonSupplier;
 
 /**
@@ -66,6 +82,8 @@ import org.springframework.util.function.SingletonSupplier;
 @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
 final class PrePostMethodSecurityConfiguration implements ImportAware, AopInfrastructureBean {
 
+	private static final Log logger = LogFactory.getLog(PrePostMethodSecurityConfiguration.class);
+
 	private int interceptorOrderOffset;
 
 	@Bean
@@ -84,7 +102,7 @@ final class PrePostMethodSecurityConfiguration implements ImportAware, AopInfras
 			f.setExpressionHandler(expressionHandlerProvider
 				.getIfAvailable(() -> defaultExpressionHandler(defaultsProvider, roleHierarchyProvider, context)));
 			strategyProvider.ifAvailable(f::setSecurityContextHolderStrategy);
-		});
+		}, context, preFilter::warmUp);
 	}
 
 	@Bean
@@ -108,7 +126,7 @@ final class PrePostMethodSecurityConfiguration implements ImportAware, AopInfras
 				.getIfAvailable(() -> defaultExpressionHandler(defaultsProvider, roleHierarchyProvider, context)));
 			strategyProvider.ifAvailable(f::setSecurityContextHolderStrategy);
 			eventPublisherProvider.ifAvailable(f::setAuthorizationEventPublisher);
-		});
+		}, context, manager::warmUp);
 	}
 
 	@Bean
@@ -132,7 +150,7 @@ final class PrePostMethodSecurityConfiguration implements ImportAware, AopInfras
 				.getIfAvailable(() -> defaultExpressionHandler(defaultsProvider, roleHierarchyProvider, context)));
 			strategyProvider.ifAvailable(f::setSecurityContextHolderStrategy);
 			eventPublisherProvider.ifAvailable(f::setAuthorizationEventPublisher);
-		});
+		}, context, manager::warmUp);
 	}
 
 	@Bean
@@ -151,7 +169,7 @@ final class PrePostMethodSecurityConfiguration implements ImportAware, AopInfras
 			f.setExpressionHandler(expressionHandlerProvider
 				.getIfAvailable(() -> defaultExpressionHandler(defaultsProvider, roleHierarchyProvider, context)));
 			strategyProvider.ifAvailable(f::setSecurityContextHolderStrategy);
-		});
+		}, context, postFilter::warmUp);
 	}
 
 	private static MethodSecurityExpressionHandler defaultExpressionHandler(
@@ -176,8 +194,14 @@ final class PrePostMethodSecurityConfiguration implements ImportAware, AopInfras
 		this.interceptorOrderOffset = annotation.offset();
 	}
 
+	/**
+	 * Defers configuring the delegate until it is first needed. Once all singletons are
+	 * instantiated, the delegate is configured and the expression attributes of every
+	 * method it applies to are resolved, so that the first invocations do not pay for
+	 * annotation lookup and expression parsing.
+	 */
 	private static final class DeferringMethodInterceptor<M extends AuthorizationAdvisor>
-			implements AuthorizationAdvisor {
+			implements AuthorizationAdvisor, SmartInitializingSingleton {
 
 		private final Pointcut pointcut;
 
@@ -185,13 +209,20 @@ final class PrePostMethodSecurityConfiguration implements ImportAware, AopInfras
 
 		private final Supplier<M> delegate;
 
-		DeferringMethodInterceptor(M delegate, Consumer<M> supplier) {
+		private final ListableBeanFactory beanFactory;
+
+		private final BiConsumer<Method, Class<?>> warmUp;
+
+		DeferringMethodInterceptor(M delegate, Consumer<M> supplier, ListableBeanFactory beanFactory,
+				BiConsumer<Method, Class<?>> warmUp) {
 			this.pointcut = delegate.getPointcut();
 			this.order = delegate.getOrder();
 			this.delegate = SingletonSupplier.of(() -> {
 				supplier.accept(delegate);
 				return delegate;
 			});
+			this.beanFactory = beanFactory;
+			this.warmUp = warmUp;
 		}
 
 		@Nullable
@@ -220,6 +251,59 @@ final class PrePostMethodSecurityConfiguration implements ImportAware, AopInfras
 			return true;
 		}
 
+		@Override
+		public void afterSingletonsInstantiated() {
+			this.delegate.get();
+			SingletonBeanRegistry singletons = singletonBeanRegistry();
+			for (String beanName : this.beanFactory.getBeanDefinitionNames()) {
+				Class<?> targetClass = targetClass(singletons, beanName);
+				if (targetClass != null) {
+					warmUp(targetClass);
+				}
+			}
+		}
+
+		private SingletonBeanRegistry singletonBeanRegistry() {
+			if (this.beanFactory instanceof ConfigurableApplicationContext context) {
+				return context.getBeanFactory();
+			}
+			return (this.beanFactory instanceof SingletonBeanRegistry registry) ? registry : null;
+		}
+
+		private Class<?> targetClass(SingletonBeanRegistry singletons, String beanName) {
+			// singletons are already proxied, so resolve the class behind a JDK proxy
+			Object singleton = (singletons != null) ? singletons.getSingleton(beanName) : null;
+			if (singleton != null && !(singleton instanceof FactoryBean)) {
+				return AopProxyUtils.ultimateTargetClass(singleton);
+			}
+			Class<?> beanType = this.beanFactory.getType(beanName, false);
+			return (beanType != null) ? ClassUtils.getUserClass(beanType) : null;
+		}
+
+		private void warmUp(Class<?> targetClass) {
+			if (!this.pointcut.getClassFilter().matches(targetClass)) {
+				return;
+			}
+			Set<Method> methods = new LinkedHashSet<>();
+			Collections.addAll(methods,
+					ReflectionUtils.getUniqueDeclaredMethods(targetClass, ReflectionUtils.USER_DECLARED_METHODS));
+			for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+				Collections.addAll(methods, type.getMethods());
+			}
+			for (Method method : methods) {
+				if (!this.pointcut.getMethodMatcher().matches(method, targetClass)) {
+					continue;
+				}
+				try {
+					this.warmUp.accept(method, targetClass);
+				}
+				catch (RuntimeException ex) {
+					// leave the failure to be reported when the method is invoked
+					logger.debug(LogMessage.format("Failed to resolve method security for %s", method), ex);
+				}
+			}
+		}
+
 	}
 
 }
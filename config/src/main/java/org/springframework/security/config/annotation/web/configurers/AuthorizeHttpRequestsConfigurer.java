@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2023 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -199,6 +199,22 @@ public final class AuthorizeHttpRequestsConfigurer<H extends HttpSecurityBuilder
 			return this;
 		}
 
+		/**
+		 * Sets whether the configured mappings should be indexed by HTTP method and
+		 * literal path segments, so that each request is only evaluated against the
+		 * mappings that can possibly match it. This is useful for large numbers of
+		 * mappings. Default is {@code false}.
+		 * @param indexed whether to index the mappings
+		 * @return the {@link AuthorizationManagerRequestMatcherRegistry} for further
+		 * customizations
+		 * @since 6.3
+		 * @see RequestMatcherDelegatingAuthorizationManager.Builder#indexed(boolean)
+		 */
+		public AuthorizationManagerRequestMatcherRegistry indexed(boolean indexed) {
+			this.managerBuilder.indexed(indexed);
+			return this;
+		}
+
 		/**
 		 * Sets whether all dispatcher types should be filtered.
 		 * @param shouldFilter should filter all dispatcher types. Default is {@code true}
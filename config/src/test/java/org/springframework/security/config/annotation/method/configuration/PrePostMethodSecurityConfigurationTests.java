@@ -25,6 +25,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -44,6 +45,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Role;
 import org.springframework.core.annotation.AnnotationConfigurationException;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.PermissionEvaluator;
 import org.springframework.security.access.annotation.BusinessService;
@@ -116,6 +119,17 @@ public class PrePostMethodSecurityConfigurationTests {
 	@Autowired(required = false)
 	BusinessService businessService;
 
+	@WithMockUser
+	@Test
+	public void methodSecurityWhenContextRefreshedThenExpressionsParsedBeforeFirstInvocation() {
+		this.spring.register(RecordingExpressionParserConfig.class, MethodSecurityServiceConfig.class).autowire();
+		RecordingExpressionParser parser = this.spring.getContext().getBean(RecordingExpressionParser.class);
+		assertThat(parser.expressions).contains("hasRole('ADMIN')", "denyAll", "@authz.check(#result)");
+		int parsed = parser.expressions.size();
+		assertThatExceptionOfType(AccessDeniedException.class).isThrownBy(this.methodSecurityService::preAuthorize);
+		assertThat(parser.expressions).hasSize(parsed);
+	}
+
 	@WithMockUser
 	@Test
 	public void customMethodSecurityPreAuthorizeAdminWhenRoleUserThenAccessDeniedException() {
@@ -1038,6 +1052,36 @@ public class PrePostMethodSecurityConfigurationTests {
 
 	}
 
+	@Configuration
+	@EnableMethodSecurity
+	static class RecordingExpressionParserConfig {
+
+		@Bean
+		RecordingExpressionParser recordingExpressionParser() {
+			return new RecordingExpressionParser();
+		}
+
+		@Bean
+		MethodSecurityExpressionHandler methodSecurityExpressionHandler(RecordingExpressionParser parser) {
+			DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+			expressionHandler.setExpressionParser(parser);
+			return expressionHandler;
+		}
+
+	}
+
+	static class RecordingExpressionParser extends SpelExpressionParser {
+
+		private final List<String> expressions = new CopyOnWriteArrayList<>();
+
+		@Override
+		public Expression parseExpression(String expressionString) {
+			this.expressions.add(expressionString);
+			return super.parseExpression(expressionString);
+		}
+
+	}
+
 	@Configuration
 	@EnableMethodSecurity
 	static class CustomPermissionEvaluatorConfig {
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.expression.method;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.EvaluationException;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+/**
+ * An {@link ExpressionParser} that parses expressions with a {@link SpelCompilerMode}
+ * and compiles each parsed {@link SpelExpression} to bytecode right after its first
+ * evaluation, when the types it operates on are known, rather than waiting for SpEL's
+ * own compilation threshold. The number of expressions that did and did not compile is
+ * recorded.
+ *
+ * @since 6.3
+ */
+final class CompilingExpressionParser implements ExpressionParser {
+
+	private final SpelExpressionParser delegate;
+
+	private final AtomicInteger compiled = new AtomicInteger();
+
+	private final AtomicInteger failed = new AtomicInteger();
+
+	CompilingExpressionParser(SpelCompilerMode compilerMode) {
+		this.delegate = new SpelExpressionParser(new SpelParserConfiguration(compilerMode, null));
+	}
+
+	@Override
+	public Expression parseExpression(String expressionString) throws ParseException {
+		return compiling(this.delegate.parseExpression(expressionString));
+	}
+
+	@Override
+	public Expression parseExpression(String expressionString, ParserContext context) throws ParseException {
+		return compiling(this.delegate.parseExpression(expressionString, context));
+	}
+
+	int getCompiledCount() {
+		return this.compiled.get();
+	}
+
+	int getFailedCount() {
+		return this.failed.get();
+	}
+
+	private Expression compiling(Expression expression) {
+		if (expression instanceof SpelExpression spel) {
+			return new CompilingExpression(spel);
+		}
+		return expression;
+	}
+
+	/**
+	 * Delegates to a {@link SpelExpression}, compiling it after its first successful
+	 * evaluation
+	 */
+	private final class CompilingExpression implements Expression {
+
+		private final SpelExpression delegate;
+
+		private final AtomicBoolean attempted = new AtomicBoolean();
+
+		private CompilingExpression(SpelExpression delegate) {
+			this.delegate = delegate;
+		}
+
+		private <T> T compile(T value) {
+			if (!this.attempted.get() && this.attempted.compareAndSet(false, true)) {
+				if (this.delegate.compileExpression()) {
+					CompilingExpressionParser.this.compiled.incrementAndGet();
+				}
+				else {
+					CompilingExpressionParser.this.failed.incrementAndGet();
+				}
+			}
+			return value;
+		}
+
+		@Override
+		public String getExpressionString() {
+			return this.delegate.getExpressionString();
+		}
+
+		@Override
+		public Object getValue() throws EvaluationException {
+			return compile(this.delegate.getValue());
+		}
+
+		@Override
+		public <T> T getValue(Class<T> desiredResultType) throws EvaluationException {
+			return compile(this.delegate.getValue(desiredResultType));
+		}
+
+		@Override
+		public Object getValue(Object rootObject) throws EvaluationException {
+			return compile(this.delegate.getValue(rootObject));
+		}
+
+		@Override
+		public <T> T getValue(Object rootObject, Class<T> desiredResultType) throws EvaluationException {
+			return compile(this.delegate.getValue(rootObject, desiredResultType));
+		}
+
+		@Override
+		public Object getValue(EvaluationContext context) throws EvaluationException {
+			return compile(this.delegate.getValue(context));
+		}
+
+		@Override
+		public Object getValue(EvaluationContext context, Object rootObject) throws EvaluationException {
+			return compile(this.delegate.getValue(context, rootObject));
+		}
+
+		@Override
+		public <T> T getValue(EvaluationContext context, Class<T> desiredResultType) throws EvaluationException {
+			return compile(this.delegate.getValue(context, desiredResultType));
+		}
+
+		@Override
+		public <T> T getValue(EvaluationContext context, Object rootObject, Class<T> desiredResultType)
+				throws EvaluationException {
+			return compile(this.delegate.getValue(context, rootObject, desiredResultType));
+		}
+
+		@Override
+		public Class<?> getValueType() throws EvaluationException {
+			return this.delegate.getValueType();
+		}
+
+		@Override
+		public Class<?> getValueType(Object rootObject) throws EvaluationException {
+			return this.delegate.getValueType(rootObject);
+		}
+
+		@Override
+		public Class<?> getValueType(EvaluationContext context) throws EvaluationException {
+			return this.delegate.getValueType(context);
+		}
+
+		@Override
+		public Class<?> getValueType(EvaluationContext context, Object rootObject) throws EvaluationException {
+			return this.delegate.getValueType(context, rootObject);
+		}
+
+		@Override
+		public TypeDescriptor getValueTypeDescriptor() throws EvaluationException {
+			return this.delegate.getValueTypeDescriptor();
+		}
+
+		@Override
+		public TypeDescriptor getValueTypeDescriptor(Object rootObject) throws EvaluationException {
+			return this.delegate.getValueTypeDescriptor(rootObject);
+		}
+
+		@Override
+		public TypeDescriptor getValueTypeDescriptor(EvaluationContext context) throws EvaluationException {
+			return this.delegate.getValueTypeDescriptor(context);
+		}
+
+		@Override
+		public TypeDescriptor getValueTypeDescriptor(EvaluationContext context, Object rootObject)
+				throws EvaluationException {
+			return this.delegate.getValueTypeDescriptor(context, rootObject);
+		}
+
+		@Override
+		public boolean isWritable(Object rootObject) throws EvaluationException {
+			return this.delegate.isWritable(rootObject);
+		}
+
+		@Override
+		public boolean isWritable(EvaluationContext context) throws EvaluationException {
+			return this.delegate.isWritable(context);
+		}
+
+		@Override
+		public boolean isWritable(EvaluationContext context, Object rootObject) throws EvaluationException {
+			return this.delegate.isWritable(context, rootObject);
+		}
+
+		@Override
+		public void setValue(Object rootObject, Object value) throws EvaluationException {
+			this.delegate.setValue(rootObject, value);
+		}
+
+		@Override
+		public void setValue(EvaluationContext context, Object value) throws EvaluationException {
+			this.delegate.setValue(context, value);
+		}
+
+		@Override
+		public void setValue(EvaluationContext context, Object rootObject, Object value)
+				throws EvaluationException {
+			this.delegate.setValue(context, rootObject, value);
+		}
+
+		@Override
+		public String toString() {
+			return this.delegate.toString();
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,12 +34,16 @@ import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.log.LogMessage;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.security.access.PermissionCacheOptimizer;
 import org.springframework.security.access.expression.AbstractSecurityExpressionHandler;
 import org.springframework.security.access.expression.ExpressionUtils;
 import org.springframework.security.authentication.AuthenticationTrustResolver;
 import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.parameters.DefaultSecurityParameterNameDiscoverer;
 import org.springframework.util.Assert;
@@ -67,6 +71,8 @@ public class DefaultMethodSecurityExpressionHandler extends AbstractSecurityExpr
 
 	private String defaultRolePrefix = "ROLE_";
 
+	private CompilingExpressionParser compilingExpressionParser;
+
 	public DefaultMethodSecurityExpressionHandler() {
 	}
 
@@ -108,6 +114,35 @@ public class DefaultMethodSecurityExpressionHandler extends AbstractSecurityExpr
 		return root;
 	}
 
+	/**
+	 * Creates an {@link AuthorizationManager} that makes the same decision as evaluating
+	 * the given expression with this handler, without creating an evaluation context or
+	 * a root object. This is only possible when the expression combines
+	 * {@code hasRole}, {@code hasAnyRole}, {@code hasAuthority}, {@code hasAnyAuthority},
+	 * {@code isAuthenticated}, {@code isFullyAuthenticated}, {@code isAnonymous},
+	 * {@code isRememberMe}, {@code permitAll} and {@code denyAll} with {@code and},
+	 * {@code or}, {@code not} and parentheses.
+	 * <p>
+	 * Since subclasses may customize the root object, this method returns {@code null}
+	 * for them unless it is overridden.
+	 * @param expression the expression
+	 * @param <T> the type of object being authorized
+	 * @return the equivalent {@link AuthorizationManager}, or {@code null} if the
+	 * expression must be evaluated
+	 * @since 6.3
+	 */
+	public <T> AuthorizationManager<T> createAuthorizationManager(String expression) {
+		if (getClass() != DefaultMethodSecurityExpressionHandler.class) {
+			return null;
+		}
+		ExpressionParser parser = getExpressionParser();
+		if (!(parser instanceof SpelExpressionParser) && !(parser instanceof CompilingExpressionParser)) {
+			return null;
+		}
+		return new SimpleSecurityExpressionParser(getRoleHierarchy(), getDefaultRolePrefix(), getTrustResolver())
+			.parse(expression);
+	}
+
 	/**
 	 * Filters the {@code filterTarget} object (which must be either a collection, array,
 	 * map or stream), by evaluating the supplied expression.
@@ -245,6 +280,59 @@ public class DefaultMethodSecurityExpressionHandler extends AbstractSecurityExpr
 		((MethodSecurityExpressionOperations) ctx.getRootObject().getValue()).setReturnObject(returnObject);
 	}
 
+	/**
+	 * Sets the {@link SpelCompilerMode} with which expressions are parsed. The default is
+	 * {@link SpelCompilerMode#OFF}, meaning that expressions are always interpreted.
+	 * <p>
+	 * With {@link SpelCompilerMode#IMMEDIATE} or {@link SpelCompilerMode#MIXED}, each
+	 * expression is compiled to bytecode right after it is first evaluated, and later
+	 * evaluations run the compiled form. Expressions that invoke the methods and
+	 * properties of {@link org.springframework.security.access.expression.SecurityExpressionRoot},
+	 * such as {@code hasRole}, {@code hasAuthority}, {@code isAuthenticated} or
+	 * {@code principal.username}, as well as method parameters and bean references, can
+	 * be compiled. See the Spring Framework reference for the restrictions of each mode.
+	 * <p>
+	 * This replaces any {@link org.springframework.expression.ExpressionParser}
+	 * previously configured, and so should be called before the expressions are parsed.
+	 * @param compilerMode the {@link SpelCompilerMode} to use
+	 * @since 6.3
+	 * @see #getCompiledExpressionCount()
+	 */
+	public void setCompilerMode(SpelCompilerMode compilerMode) {
+		Assert.notNull(compilerMode, "compilerMode cannot be null");
+		if (compilerMode == SpelCompilerMode.OFF) {
+			this.compilingExpressionParser = null;
+			setExpressionParser(new SpelExpressionParser());
+			return;
+		}
+		this.compilingExpressionParser = new CompilingExpressionParser(compilerMode);
+		setExpressionParser(this.compilingExpressionParser);
+	}
+
+	/**
+	 * Returns the number of expressions that were compiled to bytecode, when a
+	 * {@link SpelCompilerMode} is configured
+	 * @return the number of compiled expressions
+	 * @since 6.3
+	 * @see #setCompilerMode(SpelCompilerMode)
+	 */
+	public int getCompiledExpressionCount() {
+		CompilingExpressionParser parser = this.compilingExpressionParser;
+		return (parser != null && parser == getExpressionParser()) ? parser.getCompiledCount() : 0;
+	}
+
+	/**
+	 * Returns the number of expressions that could not be compiled to bytecode and are
+	 * instead interpreted, when a {@link SpelCompilerMode} is configured
+	 * @return the number of expressions that failed to compile
+	 * @since 6.3
+	 * @see #setCompilerMode(SpelCompilerMode)
+	 */
+	public int getFailedExpressionCompilationCount() {
+		CompilingExpressionParser parser = this.compilingExpressionParser;
+		return (parser != null && parser == getExpressionParser()) ? parser.getFailedCount() : 0;
+	}
+
 	/**
 	 * <p>
 	 * Sets the default prefix to be added to
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.expression.method;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManagers;
+
+/**
+ * Parses security expressions that only combine {@code hasRole}, {@code hasAnyRole},
+ * {@code hasAuthority}, {@code hasAnyAuthority}, {@code isAuthenticated},
+ * {@code isFullyAuthenticated}, {@code isAnonymous}, {@code isRememberMe},
+ * {@code permitAll} and {@code denyAll} with {@code and}, {@code or}, {@code not} and
+ * parentheses into an equivalent tree of {@link AuthorizationManager}s, following the
+ * syntax and operator precedence of SpEL.
+ *
+ * @since 6.3
+ */
+final class SimpleSecurityExpressionParser {
+
+	private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+
+	private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+	private final RoleHierarchy roleHierarchy;
+
+	private final String defaultRolePrefix;
+
+	private final AuthenticationTrustResolver trustResolver;
+
+	SimpleSecurityExpressionParser(RoleHierarchy roleHierarchy, String defaultRolePrefix,
+			AuthenticationTrustResolver trustResolver) {
+		this.roleHierarchy = roleHierarchy;
+		this.defaultRolePrefix = defaultRolePrefix;
+		this.trustResolver = trustResolver;
+	}
+
+	/**
+	 * Parses the expression
+	 * @param expression the expression to parse
+	 * @param <T> the type of object being authorized
+	 * @return the equivalent {@link AuthorizationManager}, or {@code null} if the
+	 * expression uses anything else
+	 */
+	<T> AuthorizationManager<T> parse(String expression) {
+		if (expression == null) {
+			return null;
+		}
+		Parser<T> parser = new Parser<>(expression);
+		AuthorizationManager<T> manager = parser.or();
+		return (manager != null && parser.isAtEnd()) ? manager : null;
+	}
+
+	private String getRoleWithDefaultPrefix(String role) {
+		if (this.defaultRolePrefix == null || this.defaultRolePrefix.isEmpty()) {
+			return role;
+		}
+		if (role.startsWith(this.defaultRolePrefix)) {
+			return role;
+		}
+		return this.defaultRolePrefix + role;
+	}
+
+	private static boolean isIdentifierPart(char ch, boolean first) {
+		if (ch == '_' || ch == '$' || (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z')) {
+			return true;
+		}
+		return !first && ch >= '0' && ch <= '9';
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> AuthorizationManager<T>[] toArray(List<AuthorizationManager<T>> managers) {
+		return managers.toArray(new AuthorizationManager[0]);
+	}
+
+	private final class Parser<T> {
+
+		private final String expression;
+
+		private int position;
+
+		private Parser(String expression) {
+			this.expression = expression;
+		}
+
+		AuthorizationManager<T> or() {
+			List<AuthorizationManager<T>> managers = new ArrayList<>();
+			do {
+				AuthorizationManager<T> manager = and();
+				if (manager == null) {
+					return null;
+				}
+				managers.add(manager);
+			}
+			while (consumeOperator("||", "or"));
+			return (managers.size() == 1) ? managers.get(0) : AuthorizationManagers.anyOf(toArray(managers));
+		}
+
+		private AuthorizationManager<T> and() {
+			List<AuthorizationManager<T>> managers = new ArrayList<>();
+			do {
+				AuthorizationManager<T> manager = not();
+				if (manager == null) {
+					return null;
+				}
+				managers.add(manager);
+			}
+			while (consumeOperator("&&", "and"));
+			return (managers.size() == 1) ? managers.get(0) : AuthorizationManagers.allOf(toArray(managers));
+		}
+
+		private AuthorizationManager<T> not() {
+			if (consumeOperator("!", "not")) {
+				AuthorizationManager<T> manager = not();
+				return (manager != null) ? AuthorizationManagers.not(manager) : null;
+			}
+			return primary();
+		}
+
+		private AuthorizationManager<T> primary() {
+			if (consume('(')) {
+				AuthorizationManager<T> manager = or();
+				return (manager != null && consume(')')) ? manager : null;
+			}
+			String name = identifier();
+			if (name == null) {
+				return null;
+			}
+			if (!consume('(')) {
+				return switch (name) {
+					case "permitAll" -> (authentication, object) -> GRANTED;
+					case "denyAll" -> (authentication, object) -> DENIED;
+					default -> null;
+				};
+			}
+			List<String> arguments = arguments();
+			if (arguments == null) {
+				return null;
+			}
+			return switch (name) {
+				case "hasRole" -> (arguments.size() == 1) ? hasRole(arguments) : null;
+				case "hasAnyRole" -> !arguments.isEmpty() ? hasRole(arguments) : null;
+				case "hasAuthority" -> (arguments.size() == 1) ? hasAuthority(arguments) : null;
+				case "hasAnyAuthority" -> !arguments.isEmpty() ? hasAuthority(arguments) : null;
+				case "isAuthenticated" -> arguments.isEmpty()
+						? trustResolver(AuthenticatedAuthorizationManager.authenticated()) : null;
+				case "isFullyAuthenticated" -> arguments.isEmpty()
+						? trustResolver(AuthenticatedAuthorizationManager.fullyAuthenticated()) : null;
+				case "isAnonymous" -> arguments.isEmpty()
+						? trustResolver(AuthenticatedAuthorizationManager.anonymous()) : null;
+				case "isRememberMe" -> arguments.isEmpty()
+						? trustResolver(AuthenticatedAuthorizationManager.rememberMe()) : null;
+				case "permitAll" -> arguments.isEmpty() ? (authentication, object) -> GRANTED : null;
+				case "denyAll" -> arguments.isEmpty() ? (authentication, object) -> DENIED : null;
+				default -> null;
+			};
+		}
+
+		private AuthorizationManager<T> hasRole(List<String> roles) {
+			List<String> authorities = new ArrayList<>(roles.size());
+			for (String role : roles) {
+				authorities.add(getRoleWithDefaultPrefix(role));
+			}
+			return hasAuthority(authorities);
+		}
+
+		private AuthorizationManager<T> hasAuthority(List<String> authorities) {
+			AuthorityAuthorizationManager<T> manager = AuthorityAuthorizationManager
+				.hasAnyAuthority(authorities.toArray(new String[0]));
+			if (SimpleSecurityExpressionParser.this.roleHierarchy != null) {
+				manager.setRoleHierarchy(SimpleSecurityExpressionParser.this.roleHierarchy);
+			}
+			return manager;
+		}
+
+		private AuthorizationManager<T> trustResolver(AuthenticatedAuthorizationManager<T> manager) {
+			manager.setTrustResolver(SimpleSecurityExpressionParser.this.trustResolver);
+			return manager;
+		}
+
+		private List<String> arguments() {
+			List<String> arguments = new ArrayList<>();
+			if (consume(')')) {
+				return arguments;
+			}
+			do {
+				String argument = stringLiteral();
+				if (argument == null) {
+					return null;
+				}
+				arguments.add(argument);
+			}
+			while (consume(','));
+			return consume(')') ? arguments : null;
+		}
+
+		private String stringLiteral() {
+			skipWhitespace();
+			if (this.position == this.expression.length()) {
+				return null;
+			}
+			char quote = this.expression.charAt(this.position);
+			if (quote != '\'' && quote != '"') {
+				return null;
+			}
+			StringBuilder literal = new StringBuilder();
+			int index = this.position + 1;
+			while (index < this.expression.length()) {
+				char ch = this.expression.charAt(index++);
+				if (ch != quote) {
+					literal.append(ch);
+				}
+				else if (index < this.expression.length() && this.expression.charAt(index) == quote) {
+					// a doubled quote stands for the quote itself
+					literal.append(quote);
+					index++;
+				}
+				else {
+					this.position = index;
+					return literal.toString();
+				}
+			}
+			return null;
+		}
+
+		private String identifier() {
+			skipWhitespace();
+			int start = this.position;
+			int index = start;
+			while (index < this.expression.length() && isIdentifierPart(this.expression.charAt(index), index == start)) {
+				index++;
+			}
+			if (index == start) {
+				return null;
+			}
+			this.position = index;
+			return this.expression.substring(start, index);
+		}
+
+		private boolean consumeOperator(String symbol, String keyword) {
+			skipWhitespace();
+			if (this.expression.startsWith(symbol, this.position)) {
+				this.position += symbol.length();
+				return true;
+			}
+			int end = this.position + keyword.length();
+			if (this.expression.regionMatches(true, this.position, keyword, 0, keyword.length())
+					&& (end == this.expression.length() || !isIdentifierPart(this.expression.charAt(end), false))) {
+				this.position = end;
+				return true;
+			}
+			return false;
+		}
+
+		private boolean consume(char ch) {
+			skipWhitespace();
+			if (this.position < this.expression.length() && this.expression.charAt(this.position) == ch) {
+				this.position++;
+				return true;
+			}
+			return false;
+		}
+
+		private boolean isAtEnd() {
+			skipWhitespace();
+			return this.position == this.expression.length();
+		}
+
+		private void skipWhitespace() {
+			while (this.position < this.expression.length()
+					&& Character.isWhitespace(this.expression.charAt(this.position))) {
+				this.position++;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.hierarchicalroles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
+
+/**
+ * A {@link RoleHierarchy} that is compiled from a {@link RoleHierarchyImpl} for
+ * hierarchies with many roles that are consulted on every request.
+ * <p>
+ * Each role name in the hierarchy is interned as an {@code int} id, and the roles
+ * reachable from each role are stored as a precomputed bit set, so that expanding a
+ * collection of authorities is a matter of combining bit sets. The expanded authorities
+ * of collections that only contain {@link SimpleGrantedAuthority} instances are
+ * additionally memoized in a bounded cache keyed by the authority names, and the same
+ * unmodifiable collection is returned to every caller with the same authorities.
+ * Collections containing any other type of {@link GrantedAuthority} are expanded
+ * without caching, since those authorities may carry state beyond their name.
+ * <p>
+ * The hierarchy is compiled when this instance is created, and so later changes to the
+ * {@link RoleHierarchyImpl} are not reflected.
+ *
+ * <pre>
+ * RoleHierarchy roleHierarchy = new InternedRoleHierarchy(RoleHierarchyImpl.withDefaultRolePrefix()
+ *     .role("ADMIN").implies("STAFF")
+ *     .role("STAFF").implies("USER")
+ *     .build());
+ * </pre>
+ *
+ * @since 6.3
+ * @see RoleHierarchyImpl
+ */
+public final class InternedRoleHierarchy implements RoleHierarchy {
+
+	private static final int DEFAULT_CACHE_SIZE = 1024;
+
+	private final Map<String, Integer> ids = new HashMap<>();
+
+	private final List<GrantedAuthority> roles = new ArrayList<>();
+
+	private final long[][] reachable;
+
+	private final int words;
+
+	private final ConcurrentLruCache<List<String>, Collection<GrantedAuthority>> cache;
+
+	/**
+	 * Compiles the given {@link RoleHierarchyImpl}, caching up to 1024 expanded
+	 * collections of authorities
+	 * @param roleHierarchy the role hierarchy to compile
+	 */
+	public InternedRoleHierarchy(RoleHierarchyImpl roleHierarchy) {
+		this(roleHierarchy, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Compiles the given {@link RoleHierarchyImpl}
+	 * @param roleHierarchy the role hierarchy to compile
+	 * @param cacheSize the maximum number of expanded collections of authorities to
+	 * cache, or {@code 0} to disable caching
+	 */
+	public InternedRoleHierarchy(RoleHierarchyImpl roleHierarchy, int cacheSize) {
+		Assert.notNull(roleHierarchy, "roleHierarchy cannot be null");
+		Assert.isTrue(cacheSize >= 0, "cacheSize cannot be negative");
+		Map<String, Set<GrantedAuthority>> hierarchy = roleHierarchy.getRolesReachableInOneOrMoreStepsMap();
+		for (Map.Entry<String, Set<GrantedAuthority>> entry : hierarchy.entrySet()) {
+			intern(new SimpleGrantedAuthority(entry.getKey()));
+			for (GrantedAuthority role : entry.getValue()) {
+				intern(role);
+			}
+		}
+		this.words = (this.roles.size() + 63) >>> 6;
+		this.reachable = new long[this.roles.size()][];
+		for (Map.Entry<String, Set<GrantedAuthority>> entry : hierarchy.entrySet()) {
+			long[] row = new long[this.words];
+			for (GrantedAuthority role : entry.getValue()) {
+				set(row, this.ids.get(role.getAuthority()));
+			}
+			this.reachable[this.ids.get(entry.getKey())] = row;
+		}
+		this.cache = new ConcurrentLruCache<>(cacheSize, this::expandNames);
+	}
+
+	private void intern(GrantedAuthority role) {
+		if (!this.ids.containsKey(role.getAuthority())) {
+			this.ids.put(role.getAuthority(), this.roles.size());
+			this.roles.add(role);
+		}
+	}
+
+	@Override
+	public Collection<GrantedAuthority> getReachableGrantedAuthorities(
+			Collection<? extends GrantedAuthority> authorities) {
+		if (authorities == null || authorities.isEmpty()) {
+			return AuthorityUtils.NO_AUTHORITIES;
+		}
+		String[] names = new String[authorities.size()];
+		int index = 0;
+		for (GrantedAuthority authority : authorities) {
+			if (authority.getClass() != SimpleGrantedAuthority.class || index == names.length) {
+				return expand(authorities);
+			}
+			names[index++] = authority.getAuthority();
+		}
+		return this.cache.get(Arrays.asList(names));
+	}
+
+	private Collection<GrantedAuthority> expandNames(List<String> names) {
+		List<GrantedAuthority> authorities = new ArrayList<>(names.size());
+		for (String name : names) {
+			authorities.add(new SimpleGrantedAuthority(name));
+		}
+		return expand(authorities);
+	}
+
+	private Collection<GrantedAuthority> expand(Collection<? extends GrantedAuthority> authorities) {
+		List<GrantedAuthority> result = new ArrayList<>(authorities.size());
+		long[] granted = new long[this.words];
+		long[] reachable = new long[this.words];
+		Set<String> other = null;
+		for (GrantedAuthority authority : authorities) {
+			String name = authority.getAuthority();
+			Integer id = (name != null) ? this.ids.get(name) : null;
+			if (id == null) {
+				// not part of the hierarchy, so only remove duplicates
+				if (name == null) {
+					result.add(authority);
+					continue;
+				}
+				other = (other != null) ? other : new HashSet<>();
+				if (other.add(name)) {
+					result.add(authority);
+				}
+				continue;
+			}
+			if (isSet(granted, id)) {
+				continue;
+			}
+			set(granted, id);
+			result.add(authority);
+			long[] row = this.reachable[id];
+			if (row != null) {
+				for (int i = 0; i < this.words; i++) {
+					reachable[i] |= row[i];
+				}
+			}
+		}
+		for (int i = 0; i < this.words; i++) {
+			long bits = reachable[i] & ~granted[i];
+			while (bits != 0) {
+				int id = (i << 6) + Long.numberOfTrailingZeros(bits);
+				result.add(this.roles.get(id));
+				bits &= bits - 1;
+			}
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	private static void set(long[] bits, int id) {
+		bits[id >>> 6] |= 1L << id;
+	}
+
+	private static boolean isSet(long[] bits, int id) {
+		return (bits[id >>> 6] & (1L << id)) != 0;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2023 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.security.access.hierarchicalroles;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -194,6 +195,16 @@ public class RoleHierarchyImpl implements RoleHierarchy {
 		return new ArrayList<>(reachableRoles);
 	}
 
+	/**
+	 * Returns the pre-calculated roles reachable from each role in one or more steps,
+	 * keyed by role name
+	 * @return the roles reachable from each role, never null
+	 */
+	Map<String, Set<GrantedAuthority>> getRolesReachableInOneOrMoreStepsMap() {
+		return (this.rolesReachableInOneOrMoreStepsMap != null) ? this.rolesReachableInOneOrMoreStepsMap
+				: Collections.emptyMap();
+	}
+
 	/**
 	 * Parse input and build the map for the roles reachable in one step: the higher role
 	 * will become a key that references a set of the reachable lower roles.
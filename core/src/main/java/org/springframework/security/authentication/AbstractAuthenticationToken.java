@@ -20,7 +20,10 @@ import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Set;
 
+import org.springframework.security.access.hierarchicalroles.NullRoleHierarchy;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
 import org.springframework.security.core.AuthenticatedPrincipal;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.CredentialsContainer;
@@ -39,8 +42,14 @@ import org.springframework.util.Assert;
  */
 public abstract class AbstractAuthenticationToken implements Authentication, CredentialsContainer {
 
+	// the default value computed by previous releases, pinned so that adding members
+	// does not break deserialization of existing tokens
+	private static final long serialVersionUID = -3194696462184782834L;
+
 	private final Collection<GrantedAuthority> authorities;
 
+	private transient volatile ReachableAuthorityNames reachableAuthorityNames;
+
 	private Object details;
 
 	private boolean authenticated = false;
@@ -66,6 +75,31 @@ public abstract class AbstractAuthenticationToken implements Authentication, Cre
 		return this.authorities;
 	}
 
+	/**
+	 * Returns the names of the authorities that are reachable from
+	 * {@link #getAuthorities()} through the given {@link RoleHierarchy}.
+	 * <p>
+	 * The names are computed on first use and remembered for as long as the same
+	 * {@link RoleHierarchy} is asked for, so that authorization checks evaluated
+	 * repeatedly against this token share a single hash-based lookup. The remembered
+	 * names are not serialized.
+	 * @param roleHierarchy the {@link RoleHierarchy} to use, or {@code null} to use the
+	 * authorities as they are
+	 * @return an unmodifiable set of the reachable authority names
+	 * @since 6.3
+	 */
+	public Set<String> getReachableAuthorityNames(RoleHierarchy roleHierarchy) {
+		RoleHierarchy key = (roleHierarchy instanceof NullRoleHierarchy) ? null : roleHierarchy;
+		ReachableAuthorityNames names = this.reachableAuthorityNames;
+		if (names == null || names.roleHierarchy != key) {
+			Collection<? extends GrantedAuthority> reachable = (key != null)
+					? key.getReachableGrantedAuthorities(getAuthorities()) : getAuthorities();
+			names = new ReachableAuthorityNames(key, AuthorityUtils.authorityListToSet(reachable));
+			this.reachableAuthorityNames = names;
+		}
+		return names.names;
+	}
+
 	@Override
 	public String getName() {
 		if (this.getPrincipal() instanceof UserDetails userDetails) {
@@ -183,4 +217,17 @@ public abstract class AbstractAuthenticationToken implements Authentication, Cre
 		return sb.toString();
 	}
 
+	private static final class ReachableAuthorityNames {
+
+		private final RoleHierarchy roleHierarchy;
+
+		private final Set<String> names;
+
+		private ReachableAuthorityNames(RoleHierarchy roleHierarchy, Set<String> names) {
+			this.roleHierarchy = roleHierarchy;
+			this.names = Collections.unmodifiableSet(names);
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,10 +17,12 @@
 package org.springframework.security.authorization;
 
 import java.util.Collection;
+import java.util.Set;
 import java.util.function.Supplier;
 
 import org.springframework.security.access.hierarchicalroles.NullRoleHierarchy;
 import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
@@ -66,6 +68,15 @@ public final class AuthoritiesAuthorizationManager implements AuthorizationManag
 	}
 
 	private boolean isAuthorized(Authentication authentication, Collection<String> authorities) {
+		if (authentication instanceof AbstractAuthenticationToken token) {
+			Set<String> grantedAuthorities = token.getReachableAuthorityNames(this.roleHierarchy);
+			for (String authority : authorities) {
+				if (grantedAuthorities.contains(authority)) {
+					return true;
+				}
+			}
+			return false;
+		}
 		for (GrantedAuthority grantedAuthority : getGrantedAuthorities(authentication)) {
 			if (authorities.contains(grantedAuthority.getAuthority())) {
 				return true;
@@ -29,6 +29,7 @@ import org.springframework.core.MethodClassKey;
 import org.springframework.lang.NonNull;
 import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
 import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.util.Assert;
 
 /**
@@ -86,6 +87,22 @@ abstract class AbstractExpressionAttributeRegistry<T extends ExpressionAttribute
 		this.expressionHandler = expressionHandler;
 	}
 
+	/**
+	 * Returns an {@link AuthorizationManager} that makes the same decision as the given
+	 * expression, so that the expression need not be evaluated, if the
+	 * {@link MethodSecurityExpressionHandler} is able to provide one.
+	 * @param expression the expression
+	 * @return the {@link AuthorizationManager} to use, or {@code null} if the expression
+	 * must be evaluated
+	 * @see DefaultMethodSecurityExpressionHandler#createAuthorizationManager(String)
+	 */
+	AuthorizationManager<Object> resolveAuthorizationManager(String expression) {
+		if (this.expressionHandler instanceof DefaultMethodSecurityExpressionHandler defaultExpressionHandler) {
+			return defaultExpressionHandler.createAuthorizationManager(expression);
+		}
+		return null;
+	}
+
 	void setTemplateDefaults(PrePostTemplateDefaults defaults) {
 		this.defaults = defaults;
 	}
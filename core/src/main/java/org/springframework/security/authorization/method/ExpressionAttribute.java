@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.security.authorization.method;
 
 import org.springframework.expression.Expression;
+import org.springframework.security.authorization.AuthorizationManager;
 
 /**
  * An {@link Expression} attribute.
@@ -33,12 +34,26 @@ class ExpressionAttribute {
 
 	private final Expression expression;
 
+	private final AuthorizationManager<Object> authorizationManager;
+
 	/**
 	 * Creates an instance.
 	 * @param expression the {@link Expression} to use
 	 */
 	ExpressionAttribute(Expression expression) {
+		this(expression, null);
+	}
+
+	/**
+	 * Creates an instance.
+	 * @param expression the {@link Expression} to use
+	 * @param authorizationManager the {@link AuthorizationManager} equivalent to the
+	 * {@link Expression}, or {@code null} if the {@link Expression} must be evaluated
+	 * @since 6.3
+	 */
+	ExpressionAttribute(Expression expression, AuthorizationManager<Object> authorizationManager) {
 		this.expression = expression;
+		this.authorizationManager = authorizationManager;
 	}
 
 	/**
@@ -49,6 +64,17 @@ class ExpressionAttribute {
 		return this.expression;
 	}
 
+	/**
+	 * Returns the {@link AuthorizationManager} that makes the same decision as the
+	 * {@link Expression}, if any.
+	 * @return the {@link AuthorizationManager} to use, or {@code null} if the
+	 * {@link Expression} must be evaluated
+	 * @since 6.3
+	 */
+	AuthorizationManager<Object> getAuthorizationManager() {
+		return this.authorizationManager;
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName() + " [Expression="
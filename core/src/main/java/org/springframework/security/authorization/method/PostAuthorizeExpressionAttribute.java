@@ -17,6 +17,7 @@
 package org.springframework.security.authorization.method;
 
 import org.springframework.expression.Expression;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.util.Assert;
 
 /**
@@ -30,7 +31,12 @@ class PostAuthorizeExpressionAttribute extends ExpressionAttribute {
 	private final MethodAuthorizationDeniedHandler handler;
 
 	PostAuthorizeExpressionAttribute(Expression expression, MethodAuthorizationDeniedHandler handler) {
-		super(expression);
+		this(expression, null, handler);
+	}
+
+	PostAuthorizeExpressionAttribute(Expression expression, AuthorizationManager<Object> authorizationManager,
+			MethodAuthorizationDeniedHandler handler) {
+		super(expression, authorizationManager);
 		Assert.notNull(handler, "handler cannot be null");
 		this.handler = handler;
 	}
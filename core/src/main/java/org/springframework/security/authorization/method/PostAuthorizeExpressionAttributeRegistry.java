@@ -27,6 +27,7 @@ import org.springframework.aop.support.AopUtils;
 import org.springframework.context.ApplicationContext;
 import org.springframework.expression.Expression;
 import org.springframework.security.access.prepost.PostAuthorize;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.util.Assert;
 
 /**
@@ -56,7 +57,8 @@ final class PostAuthorizeExpressionAttributeRegistry extends AbstractExpressionA
 		}
 		Expression expression = getExpressionHandler().getExpressionParser().parseExpression(postAuthorize.value());
 		MethodAuthorizationDeniedHandler deniedHandler = resolveHandler(method, targetClass);
-		return new PostAuthorizeExpressionAttribute(expression, deniedHandler);
+		AuthorizationManager<Object> authorizationManager = resolveAuthorizationManager(postAuthorize.value());
+		return new PostAuthorizeExpressionAttribute(expression, authorizationManager, deniedHandler);
 	}
 
 	private MethodAuthorizationDeniedHandler resolveHandler(Method method, Class<?> targetClass) {
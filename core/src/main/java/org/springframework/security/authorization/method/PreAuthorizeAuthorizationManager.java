@@ -16,6 +16,7 @@
 
 package org.springframework.security.authorization.method;
 
+import java.lang.reflect.Method;
 import java.util.function.Supplier;
 
 import org.aopalliance.intercept.MethodInvocation;
@@ -27,6 +28,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.ExpressionAuthorizationDecision;
 import org.springframework.security.core.Authentication;
 
 /**
@@ -62,6 +64,17 @@ public final class PreAuthorizeAuthorizationManager
 		this.registry.setTemplateDefaults(defaults);
 	}
 
+	/**
+	 * Resolves and caches the expression from the {@link PreAuthorize} annotation that
+	 * applies to the given method ahead of its first invocation.
+	 * @param method the method
+	 * @param targetClass the target class, or {@code null} to use the declaring class
+	 * @since 6.3
+	 */
+	public void warmUp(Method method, Class<?> targetClass) {
+		this.registry.getAttribute(method, targetClass);
+	}
+
 	public void setApplicationContext(ApplicationContext context) {
 		this.registry.setApplicationContext(context);
 	}
@@ -81,6 +94,11 @@ public final class PreAuthorizeAuthorizationManager
 		if (attribute == ExpressionAttribute.NULL_ATTRIBUTE) {
 			return null;
 		}
+		AuthorizationManager<Object> authorizationManager = attribute.getAuthorizationManager();
+		if (authorizationManager != null) {
+			AuthorizationDecision decision = authorizationManager.check(authentication, mi);
+			return new ExpressionAuthorizationDecision(decision.isGranted(), attribute.getExpression());
+		}
 		EvaluationContext ctx = this.registry.getExpressionHandler().createEvaluationContext(authentication, mi);
 		return (AuthorizationDecision) ExpressionUtils.evaluate(attribute.getExpression(), ctx);
 	}
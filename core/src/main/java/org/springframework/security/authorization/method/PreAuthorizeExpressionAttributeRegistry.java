@@ -27,6 +27,7 @@ import org.springframework.aop.support.AopUtils;
 import org.springframework.context.ApplicationContext;
 import org.springframework.expression.Expression;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.util.Assert;
 
 /**
@@ -56,7 +57,8 @@ final class PreAuthorizeExpressionAttributeRegistry extends AbstractExpressionAt
 		}
 		Expression expression = getExpressionHandler().getExpressionParser().parseExpression(preAuthorize.value());
 		MethodAuthorizationDeniedHandler handler = resolveHandler(method, targetClass);
-		return new PreAuthorizeExpressionAttribute(expression, handler);
+		AuthorizationManager<Object> authorizationManager = resolveAuthorizationManager(preAuthorize.value());
+		return new PreAuthorizeExpressionAttribute(expression, authorizationManager, handler);
 	}
 
 	private MethodAuthorizationDeniedHandler resolveHandler(Method method, Class<?> targetClass) {
@@ -16,6 +16,7 @@
 
 package org.springframework.security.authorization.method;
 
+import java.lang.reflect.Method;
 import java.util.function.Supplier;
 
 import org.aopalliance.aop.Advice;
@@ -79,6 +80,17 @@ public final class PreFilterAuthorizationMethodInterceptor implements Authorizat
 		this.registry.setTemplateDefaults(defaults);
 	}
 
+	/**
+	 * Resolves and caches the expression from the {@link PreFilter} annotation that
+	 * applies to the given method ahead of its first invocation.
+	 * @param method the method
+	 * @param targetClass the target class, or {@code null} to use the declaring class
+	 * @since 6.3
+	 */
+	public void warmUp(Method method, Class<?> targetClass) {
+		this.registry.getAttribute(method, targetClass);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
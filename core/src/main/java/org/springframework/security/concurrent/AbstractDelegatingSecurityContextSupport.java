@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,9 @@
 
 package org.springframework.security.concurrent;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 import org.springframework.security.core.context.SecurityContext;
@@ -38,6 +41,8 @@ abstract class AbstractDelegatingSecurityContextSupport {
 
 	private final SecurityContext securityContext;
 
+	private boolean restoreOriginalContext = true;
+
 	/**
 	 * Creates a new {@link AbstractDelegatingSecurityContextSupport} that uses the
 	 * specified {@link SecurityContext}.
@@ -55,14 +60,46 @@ abstract class AbstractDelegatingSecurityContextSupport {
 		this.securityContextHolderStrategy = securityContextHolderStrategy;
 	}
 
+	void setRestoreOriginalContext(boolean restoreOriginalContext) {
+		this.restoreOriginalContext = restoreOriginalContext;
+	}
+
 	protected final Runnable wrap(Runnable delegate) {
-		return DelegatingSecurityContextRunnable.create(delegate, this.securityContext,
+		Runnable wrapped = DelegatingSecurityContextRunnable.create(delegate, this.securityContext,
 				this.securityContextHolderStrategy);
+		if (!this.restoreOriginalContext && wrapped instanceof DelegatingSecurityContextRunnable runnable) {
+			runnable.setRestoreOriginalContext(false);
+		}
+		return wrapped;
 	}
 
 	protected final <T> Callable<T> wrap(Callable<T> delegate) {
-		return DelegatingSecurityContextCallable.create(delegate, this.securityContext,
+		return wrap(delegate, this.securityContext);
+	}
+
+	/**
+	 * Wraps each of the tasks, looking up the current {@link SecurityContext} only once
+	 * for all of them if no {@link SecurityContext} was specified.
+	 * @param tasks the tasks to wrap
+	 * @return the wrapped tasks
+	 */
+	final <T> List<Callable<T>> wrapAll(Collection<? extends Callable<T>> tasks) {
+		SecurityContext securityContext = (this.securityContext != null) ? this.securityContext
+				: this.securityContextHolderStrategy.getContext();
+		List<Callable<T>> results = new ArrayList<>(tasks.size());
+		for (Callable<T> task : tasks) {
+			results.add(wrap(task, securityContext));
+		}
+		return results;
+	}
+
+	private <T> Callable<T> wrap(Callable<T> delegate, SecurityContext securityContext) {
+		Callable<T> wrapped = DelegatingSecurityContextCallable.create(delegate, securityContext,
 				this.securityContextHolderStrategy);
+		if (!this.restoreOriginalContext && wrapped instanceof DelegatingSecurityContextCallable<T> callable) {
+			callable.setRestoreOriginalContext(false);
+		}
+		return wrapped;
 	}
 
 }
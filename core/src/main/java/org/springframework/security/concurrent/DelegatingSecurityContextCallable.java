@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.security.concurrent;
 
 import java.util.concurrent.Callable;
 
+import org.springframework.security.core.context.ScopedValueSecurityContextHolderStrategy;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.context.SecurityContextHolderStrategy;
@@ -57,6 +58,8 @@ public final class DelegatingSecurityContextCallable<V> implements Callable<V> {
 	 */
 	private SecurityContext originalSecurityContext;
 
+	private boolean restoreOriginalContext = true;
+
 	/**
 	 * Creates a new {@link DelegatingSecurityContextCallable} with a specific
 	 * {@link SecurityContext}.
@@ -90,6 +93,18 @@ public final class DelegatingSecurityContextCallable<V> implements Callable<V> {
 
 	@Override
 	public V call() throws Exception {
+		if (this.securityContextHolderStrategy instanceof ScopedValueSecurityContextHolderStrategy scoped) {
+			return scoped.call(this.delegateSecurityContext, this.delegate);
+		}
+		if (!this.restoreOriginalContext) {
+			try {
+				this.securityContextHolderStrategy.setContext(this.delegateSecurityContext);
+				return this.delegate.call();
+			}
+			finally {
+				this.securityContextHolderStrategy.clearContext();
+			}
+		}
 		this.originalSecurityContext = this.securityContextHolderStrategy.getContext();
 		try {
 			this.securityContextHolderStrategy.setContext(this.delegateSecurityContext);
@@ -121,6 +136,16 @@ public final class DelegatingSecurityContextCallable<V> implements Callable<V> {
 		}
 	}
 
+	/**
+	 * Whether the {@link SecurityContext} that the thread had before {@link #call()} is
+	 * looked up and restored afterwards. If false, the context is cleared afterwards
+	 * instead, which is cheaper when each task runs on a new thread.
+	 * @param restoreOriginalContext whether to restore the original context
+	 */
+	void setRestoreOriginalContext(boolean restoreOriginalContext) {
+		this.restoreOriginalContext = restoreOriginalContext;
+	}
+
 	@Override
 	public String toString() {
 		return this.delegate.toString();
@@ -146,9 +171,10 @@ public final class DelegatingSecurityContextCallable<V> implements Callable<V> {
 			SecurityContextHolderStrategy securityContextHolderStrategy) {
 		Assert.notNull(delegate, "delegate cannot be null");
 		Assert.notNull(securityContextHolderStrategy, "securityContextHolderStrategy cannot be null");
-		DelegatingSecurityContextCallable<V> callable = (securityContext != null)
-				? new DelegatingSecurityContextCallable<>(delegate, securityContext)
-				: new DelegatingSecurityContextCallable<>(delegate);
+		// look up the current context only once, using the given strategy
+		SecurityContext context = (securityContext != null) ? securityContext
+				: securityContextHolderStrategy.getContext();
+		DelegatingSecurityContextCallable<V> callable = new DelegatingSecurityContextCallable<>(delegate, context);
 		callable.setSecurityContextHolderStrategy(securityContextHolderStrategy);
 		return callable;
 	}
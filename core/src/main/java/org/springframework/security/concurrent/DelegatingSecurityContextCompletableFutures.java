@@ -0,0 +1,117 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.util.Assert;
+
+/**
+ * Static factory methods for {@link CompletableFuture} instances whose asynchronous task
+ * is run with the {@link SecurityContext} of the thread that created them. This includes
+ * tasks run by the default asynchronous executor of {@link CompletableFuture}.
+ * <p>
+ * To run dependent stages, such as {@link CompletableFuture#thenApplyAsync}, with the
+ * {@link SecurityContext}, pass a {@link DelegatingSecurityContextExecutor} to them.
+ *
+ * @since 6.3
+ */
+public final class DelegatingSecurityContextCompletableFutures {
+
+	private DelegatingSecurityContextCompletableFutures() {
+	}
+
+	/**
+	 * Returns a new {@link CompletableFuture} that is completed by a task running in the
+	 * default asynchronous executor of {@link CompletableFuture} with the current
+	 * {@link SecurityContext}.
+	 * @param supplier the supplier of the value. Cannot be null.
+	 * @param <U> the type of the value
+	 * @return the new {@link CompletableFuture}
+	 * @see CompletableFuture#supplyAsync(Supplier)
+	 */
+	public static <U> CompletableFuture<U> supplyAsync(Supplier<U> supplier) {
+		return CompletableFuture.supplyAsync(wrap(supplier));
+	}
+
+	/**
+	 * Returns a new {@link CompletableFuture} that is completed by a task running in the
+	 * given executor with the current {@link SecurityContext}.
+	 * @param supplier the supplier of the value. Cannot be null.
+	 * @param executor the executor to run the task with. Cannot be null.
+	 * @param <U> the type of the value
+	 * @return the new {@link CompletableFuture}
+	 * @see CompletableFuture#supplyAsync(Supplier, Executor)
+	 */
+	public static <U> CompletableFuture<U> supplyAsync(Supplier<U> supplier, Executor executor) {
+		return CompletableFuture.supplyAsync(wrap(supplier), executor);
+	}
+
+	/**
+	 * Returns a new {@link CompletableFuture} that is completed by a task running in the
+	 * default asynchronous executor of {@link CompletableFuture} with the current
+	 * {@link SecurityContext}.
+	 * @param runnable the action to run. Cannot be null.
+	 * @return the new {@link CompletableFuture}
+	 * @see CompletableFuture#runAsync(Runnable)
+	 */
+	public static CompletableFuture<Void> runAsync(Runnable runnable) {
+		return CompletableFuture.runAsync(wrap(runnable));
+	}
+
+	/**
+	 * Returns a new {@link CompletableFuture} that is completed by a task running in the
+	 * given executor with the current {@link SecurityContext}.
+	 * @param runnable the action to run. Cannot be null.
+	 * @param executor the executor to run the task with. Cannot be null.
+	 * @return the new {@link CompletableFuture}
+	 * @see CompletableFuture#runAsync(Runnable, Executor)
+	 */
+	public static CompletableFuture<Void> runAsync(Runnable runnable, Executor executor) {
+		return CompletableFuture.runAsync(wrap(runnable), executor);
+	}
+
+	private static Runnable wrap(Runnable runnable) {
+		SecurityContextHolderStrategy strategy = SecurityContextHolder.getContextHolderStrategy();
+		return DelegatingSecurityContextRunnable.create(runnable, null, strategy);
+	}
+
+	private static <U> Supplier<U> wrap(Supplier<U> supplier) {
+		Assert.notNull(supplier, "supplier cannot be null");
+		SecurityContextHolderStrategy strategy = SecurityContextHolder.getContextHolderStrategy();
+		Callable<U> callable = DelegatingSecurityContextCallable.create(supplier::get, null, strategy);
+		return () -> {
+			try {
+				return callable.call();
+			}
+			catch (RuntimeException ex) {
+				throw ex;
+			}
+			catch (Exception ex) {
+				// a Supplier cannot throw a checked exception
+				throw new IllegalStateException(ex);
+			}
+		};
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -77,4 +77,21 @@ public class DelegatingSecurityContextExecutor extends AbstractDelegatingSecurit
 		super.setSecurityContextHolderStrategy(securityContextHolderStrategy);
 	}
 
+	/**
+	 * Sets whether each task restores the {@link SecurityContext} that its thread had
+	 * before the task ran. The default is true.
+	 * <p>
+	 * When the delegate {@link Executor} runs each task on a new thread, such as an
+	 * executor that creates a virtual thread per task, there is no earlier
+	 * {@link SecurityContext} to restore. Setting this to false then avoids looking it up
+	 * and comparing it afterwards; the {@link SecurityContext} is simply cleared once the
+	 * task completes.
+	 * @param restoreOriginalContext whether to restore the original
+	 * {@link SecurityContext} after each task
+	 * @since 6.3
+	 */
+	public void setRestoreOriginalContext(boolean restoreOriginalContext) {
+		super.setRestoreOriginalContext(restoreOriginalContext);
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import java.util.concurrent.TimeoutException;
 
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.Assert;
 
 /**
  * An {@link ExecutorService} which wraps each {@link Runnable} in a
@@ -132,15 +133,31 @@ public class DelegatingSecurityContextExecutorService extends DelegatingSecurity
 		return getDelegate().invokeAny(tasks, timeout, unit);
 	}
 
+	/**
+	 * Submits each of the tasks for execution, looking up the current
+	 * {@link SecurityContext} only once for all of them. This is cheaper than invoking
+	 * {@link #submit(Callable)} for each task when a single request fans out into many
+	 * tasks.
+	 * @param tasks the tasks to submit
+	 * @param <T> the type of the results of the tasks
+	 * @return the {@link Future}s of the tasks, in the same order as the tasks
+	 * @since 6.3
+	 */
+	public final <T> List<Future<T>> submitAll(Collection<? extends Callable<T>> tasks) {
+		Assert.notNull(tasks, "tasks cannot be null");
+		ExecutorService delegate = getDelegate();
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+		for (Callable<T> task : wrapAll(tasks)) {
+			futures.add(delegate.submit(task));
+		}
+		return futures;
+	}
+
 	private <T> Collection<Callable<T>> createTasks(Collection<Callable<T>> tasks) {
 		if (tasks == null) {
 			return null;
 		}
-		List<Callable<T>> results = new ArrayList<>(tasks.size());
-		for (Callable<T> task : tasks) {
-			results.add(wrap(task));
-		}
-		return results;
+		return wrapAll(tasks);
 	}
 
 	private ExecutorService getDelegate() {
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link ForkJoinPool} which wraps each {@link Runnable}, {@link Callable} and
+ * {@link ForkJoinTask} that is submitted to it, so that it is run with a
+ * {@link SecurityContext}.
+ * <p>
+ * When no {@link SecurityContext} is specified, each task is run with the
+ * {@link SecurityContext} of the thread that submitted it. Subtasks that are forked by
+ * such a task and then stolen by another worker, such as the subtasks of a parallel
+ * stream, are run without a {@link SecurityContext}.
+ * <p>
+ * When a {@link SecurityContext} is specified, every task, including stolen subtasks, is
+ * run with that {@link SecurityContext} regardless of the submitting thread. This makes
+ * it possible to run a parallel stream with a {@link SecurityContext}:
+ *
+ * <pre>
+ * ForkJoinPool pool = new DelegatingSecurityContextForkJoinPool(4, securityContext);
+ * List&lt;Result&gt; results = pool.submit(() -&gt; items.parallelStream().map(this::process).toList()).get();
+ * </pre>
+ * <p>
+ * A submitted {@link ForkJoinTask} is run by a wrapping task, and the
+ * {@link #submit(ForkJoinTask)} and {@link #lazySubmit(ForkJoinTask)} methods return the
+ * original task, so that cancelling it prevents it from running.
+ * <p>
+ * <b>NOTE:</b> Only the methods declared by this class wrap their tasks. Newer JDKs add
+ * further entry points to {@link ForkJoinPool} that this class cannot override, since
+ * they do not exist on the JDK it is compiled against: {@code invokeAllUninterruptibly}
+ * as of JDK 22, and {@code schedule}, {@code scheduleAtFixedRate},
+ * {@code scheduleWithFixedDelay} and {@code submitWithTimeout} as of JDK 25. Tasks passed
+ * to these run with the specified {@link SecurityContext}, if any, since the worker
+ * threads hold it, and otherwise with whatever {@link SecurityContext} the worker thread
+ * holds rather than the one of the submitting thread.
+ *
+ * @since 6.3
+ * @see DelegatingSecurityContextForkJoinWorkerThreadFactory
+ */
+public class DelegatingSecurityContextForkJoinPool extends ForkJoinPool {
+
+	private final SecurityContext securityContext;
+
+	private final DelegatingSecurityContextForkJoinWorkerThreadFactory threadFactory;
+
+	private SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder
+		.getContextHolderStrategy();
+
+	/**
+	 * Creates a new {@link DelegatingSecurityContextForkJoinPool} that runs each submitted
+	 * task with the {@link SecurityContext} of the thread that submitted it.
+	 * @param parallelism the parallelism level
+	 */
+	public DelegatingSecurityContextForkJoinPool(int parallelism) {
+		super(parallelism);
+		this.securityContext = null;
+		this.threadFactory = null;
+	}
+
+	/**
+	 * Creates a new {@link DelegatingSecurityContextForkJoinPool} that runs every task with
+	 * the specified {@link SecurityContext}.
+	 * @param parallelism the parallelism level
+	 * @param securityContext the {@link SecurityContext} to run every task with. Cannot be
+	 * null.
+	 */
+	public DelegatingSecurityContextForkJoinPool(int parallelism, SecurityContext securityContext) {
+		this(parallelism, securityContext, new DelegatingSecurityContextForkJoinWorkerThreadFactory(securityContext));
+	}
+
+	private DelegatingSecurityContextForkJoinPool(int parallelism, SecurityContext securityContext,
+			DelegatingSecurityContextForkJoinWorkerThreadFactory threadFactory) {
+		super(parallelism, threadFactory, null, false);
+		this.securityContext = securityContext;
+		this.threadFactory = threadFactory;
+	}
+
+	@Override
+	public <T> T invoke(ForkJoinTask<T> task) {
+		return super.invoke(wrap(task));
+	}
+
+	@Override
+	public void execute(ForkJoinTask<?> task) {
+		super.execute(wrap(task));
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		super.execute(wrap(task));
+	}
+
+	@Override
+	public <T> ForkJoinTask<T> submit(ForkJoinTask<T> task) {
+		super.submit(wrap(task));
+		return task;
+	}
+
+	/**
+	 * Submits the task without waking up an idle worker, like
+	 * {@code ForkJoinPool#lazySubmit} as of JDK 19, which this method overrides when
+	 * running on such a JDK.
+	 * @param task the task to submit
+	 * @param <T> the type of the task's result
+	 * @return the task
+	 */
+	public <T> ForkJoinTask<T> lazySubmit(ForkJoinTask<T> task) {
+		return submit(task);
+	}
+
+	@Override
+	public <T> ForkJoinTask<T> submit(Callable<T> task) {
+		return super.submit(wrap(task));
+	}
+
+	@Override
+	public <T> ForkJoinTask<T> submit(Runnable task, T result) {
+		return super.submit(wrap(task), result);
+	}
+
+	@Override
+	public ForkJoinTask<?> submit(Runnable task) {
+		return super.submit(wrap(task));
+	}
+
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) {
+		return super.invokeAll(wrap(tasks));
+	}
+
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+			throws InterruptedException {
+		return super.invokeAll(wrap(tasks), timeout, unit);
+	}
+
+	@Override
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+		return super.invokeAny(wrap(tasks));
+	}
+
+	@Override
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		return super.invokeAny(wrap(tasks), timeout, unit);
+	}
+
+	/**
+	 * Sets the {@link SecurityContextHolderStrategy} to use. The default action is to use
+	 * the {@link SecurityContextHolderStrategy} stored in {@link SecurityContextHolder}.
+	 * <p>
+	 * When a {@link SecurityContext} is specified, this must be called before any task is
+	 * submitted.
+	 */
+	public void setSecurityContextHolderStrategy(SecurityContextHolderStrategy securityContextHolderStrategy) {
+		Assert.notNull(securityContextHolderStrategy, "securityContextHolderStrategy cannot be null");
+		this.securityContextHolderStrategy = securityContextHolderStrategy;
+		if (this.threadFactory != null) {
+			this.threadFactory.setSecurityContextHolderStrategy(securityContextHolderStrategy);
+		}
+	}
+
+	private <T> ForkJoinTask<T> wrap(ForkJoinTask<T> task) {
+		Assert.notNull(task, "task cannot be null");
+		Callable<T> invoke = task::invoke;
+		return ForkJoinTask.adapt(wrap(invoke));
+	}
+
+	private <T> List<Callable<T>> wrap(Collection<? extends Callable<T>> tasks) {
+		Assert.notNull(tasks, "tasks cannot be null");
+		SecurityContext context = getSecurityContext();
+		List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+		for (Callable<T> task : tasks) {
+			wrapped.add(DelegatingSecurityContextCallable.create(task, context, this.securityContextHolderStrategy));
+		}
+		return wrapped;
+	}
+
+	private <T> Callable<T> wrap(Callable<T> task) {
+		return DelegatingSecurityContextCallable.create(task, getSecurityContext(),
+				this.securityContextHolderStrategy);
+	}
+
+	private Runnable wrap(Runnable task) {
+		return DelegatingSecurityContextRunnable.create(task, getSecurityContext(),
+				this.securityContextHolderStrategy);
+	}
+
+	private SecurityContext getSecurityContext() {
+		return (this.securityContext != null) ? this.securityContext
+				: this.securityContextHolderStrategy.getContext();
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.concurrent;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link ForkJoinPool.ForkJoinWorkerThreadFactory} that creates worker threads which
+ * run every task with the specified {@link SecurityContext}.
+ * <p>
+ * Since a {@link ForkJoinPool} offers no way to intercept the subtasks that its workers
+ * steal from each other, such as those of a parallel stream, this is the only way for
+ * such subtasks to see a {@link SecurityContext}. A pool that uses this factory must
+ * therefore only run work on behalf of that {@link SecurityContext}, as
+ * {@link DelegatingSecurityContextForkJoinPool} does when it is created with an explicit
+ * {@link SecurityContext}.
+ * <p>
+ * Each worker is given its own copy of the {@link SecurityContext}, so that a task that
+ * changes the {@link SecurityContext} of its worker does not affect the other workers.
+ *
+ * @since 6.3
+ * @see DelegatingSecurityContextForkJoinPool
+ */
+public final class DelegatingSecurityContextForkJoinWorkerThreadFactory
+		implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+	private final SecurityContext securityContext;
+
+	private SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder
+		.getContextHolderStrategy();
+
+	/**
+	 * Creates a new instance
+	 * @param securityContext the {@link SecurityContext} to use for every task run by the
+	 * created worker threads. Cannot be null.
+	 */
+	public DelegatingSecurityContextForkJoinWorkerThreadFactory(SecurityContext securityContext) {
+		Assert.notNull(securityContext, "securityContext cannot be null");
+		this.securityContext = securityContext;
+	}
+
+	@Override
+	public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+		return new SecurityContextForkJoinWorkerThread(pool, this.securityContext,
+				this.securityContextHolderStrategy);
+	}
+
+	/**
+	 * Sets the {@link SecurityContextHolderStrategy} to use. The default action is to use
+	 * the {@link SecurityContextHolderStrategy} stored in {@link SecurityContextHolder}.
+	 */
+	public void setSecurityContextHolderStrategy(SecurityContextHolderStrategy securityContextHolderStrategy) {
+		Assert.notNull(securityContextHolderStrategy, "securityContextHolderStrategy cannot be null");
+		this.securityContextHolderStrategy = securityContextHolderStrategy;
+	}
+
+	private static final class SecurityContextForkJoinWorkerThread extends ForkJoinWorkerThread {
+
+		private final SecurityContext securityContext;
+
+		private final SecurityContextHolderStrategy securityContextHolderStrategy;
+
+		private SecurityContextForkJoinWorkerThread(ForkJoinPool pool, SecurityContext securityContext,
+				SecurityContextHolderStrategy securityContextHolderStrategy) {
+			super(pool);
+			this.securityContext = securityContext;
+			this.securityContextHolderStrategy = securityContextHolderStrategy;
+		}
+
+		@Override
+		protected void onStart() {
+			super.onStart();
+			SecurityContext context = this.securityContextHolderStrategy.createEmptyContext();
+			context.setAuthentication(this.securityContext.getAuthentication());
+			this.securityContextHolderStrategy.setContext(context);
+		}
+
+		@Override
+		protected void onTermination(Throwable exception) {
+			try {
+				this.securityContextHolderStrategy.clearContext();
+			}
+			finally {
+				super.onTermination(exception);
+			}
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.security.concurrent;
 
+import org.springframework.security.core.context.ScopedValueSecurityContextHolderStrategy;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.context.SecurityContextHolderStrategy;
@@ -55,6 +56,8 @@ public final class DelegatingSecurityContextRunnable implements Runnable {
 	 */
 	private SecurityContext originalSecurityContext;
 
+	private boolean restoreOriginalContext = true;
+
 	/**
 	 * Creates a new {@link DelegatingSecurityContextRunnable} with a specific
 	 * {@link SecurityContext}.
@@ -88,6 +91,20 @@ public final class DelegatingSecurityContextRunnable implements Runnable {
 
 	@Override
 	public void run() {
+		if (this.securityContextHolderStrategy instanceof ScopedValueSecurityContextHolderStrategy scoped) {
+			scoped.run(this.delegateSecurityContext, this.delegate);
+			return;
+		}
+		if (!this.restoreOriginalContext) {
+			try {
+				this.securityContextHolderStrategy.setContext(this.delegateSecurityContext);
+				this.delegate.run();
+			}
+			finally {
+				this.securityContextHolderStrategy.clearContext();
+			}
+			return;
+		}
 		this.originalSecurityContext = this.securityContextHolderStrategy.getContext();
 		try {
 			this.securityContextHolderStrategy.setContext(this.delegateSecurityContext);
@@ -119,6 +136,16 @@ public final class DelegatingSecurityContextRunnable implements Runnable {
 		}
 	}
 
+	/**
+	 * Whether the {@link SecurityContext} that the thread had before {@link #run()} is
+	 * looked up and restored afterwards. If false, the context is cleared afterwards
+	 * instead, which is cheaper when each task runs on a new thread.
+	 * @param restoreOriginalContext whether to restore the original context
+	 */
+	void setRestoreOriginalContext(boolean restoreOriginalContext) {
+		this.restoreOriginalContext = restoreOriginalContext;
+	}
+
 	@Override
 	public String toString() {
 		return this.delegate.toString();
@@ -144,9 +171,10 @@ public final class DelegatingSecurityContextRunnable implements Runnable {
 			SecurityContextHolderStrategy securityContextHolderStrategy) {
 		Assert.notNull(delegate, "delegate cannot be  null");
 		Assert.notNull(securityContextHolderStrategy, "securityContextHolderStrategy cannot be null");
-		DelegatingSecurityContextRunnable runnable = (securityContext != null)
-				? new DelegatingSecurityContextRunnable(delegate, securityContext)
-				: new DelegatingSecurityContextRunnable(delegate);
+		// look up the current context only once, using the given strategy
+		SecurityContext context = (securityContext != null) ? securityContext
+				: securityContextHolderStrategy.getContext();
+		DelegatingSecurityContextRunnable runnable = new DelegatingSecurityContextRunnable(delegate, context);
 		runnable.setSecurityContextHolderStrategy(securityContextHolderStrategy);
 		return runnable;
 	}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.context;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.SpringSecurityCoreVersion;
+
+/**
+ * A {@link SecurityContextImpl} that records whether its {@link Authentication} has been
+ * replaced since it was created or since {@link #clearChanged()} was last invoked.
+ * <p>
+ * This allows a {@link SecurityContext} repository to skip writing a context that has
+ * not changed back to its store, which matters when each write is a remote call, as is
+ * the case with a distributed {@code HttpSession}. Only calls to
+ * {@link #setAuthentication(Authentication)} are recorded; changes made to the
+ * {@link Authentication} itself are not.
+ * <p>
+ * The change flag is not serialized, so a deserialized instance is unchanged.
+ *
+ * @since 6.3
+ */
+public class ChangeTrackingSecurityContext extends SecurityContextImpl {
+
+	private static final long serialVersionUID = SpringSecurityCoreVersion.SERIAL_VERSION_UID;
+
+	private transient volatile boolean changed;
+
+	public ChangeTrackingSecurityContext() {
+	}
+
+	public ChangeTrackingSecurityContext(Authentication authentication) {
+		super(authentication);
+	}
+
+	@Override
+	public void setAuthentication(Authentication authentication) {
+		if (authentication != getAuthentication()) {
+			this.changed = true;
+		}
+		super.setAuthentication(authentication);
+	}
+
+	/**
+	 * Whether {@link #setAuthentication(Authentication)} replaced the
+	 * {@link Authentication} since this context was created or since
+	 * {@link #clearChanged()} was last invoked
+	 * @return true if the {@link Authentication} was replaced
+	 */
+	public boolean isChanged() {
+		return this.changed;
+	}
+
+	/**
+	 * Marks this context as unchanged, typically once it has been saved.
+	 */
+	public void clearChanged() {
+		this.changed = false;
+	}
+
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.context;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+import org.springframework.util.Assert;
+
+/**
+ * A {@link SecurityContextHolderStrategy} that binds the {@link SecurityContext} to a
+ * {@code java.lang.ScopedValue} for the duration of {@link #run(SecurityContext, Runnable)}
+ * or {@link #call(Supplier, Callable)}, rather than storing it in a {@link ThreadLocal}.
+ * <p>
+ * A scope ends with the task that it was bound for, so that nothing needs to be cleared
+ * afterwards and nothing can leak to the next task that runs on the same thread. This
+ * suits virtual threads, which are not pooled and would otherwise each carry their own
+ * {@link ThreadLocal} map. Within a scope, {@link #setContext(SecurityContext)} and
+ * {@link #clearContext()} only affect that scope. Outside of any scope, this strategy
+ * behaves like the default {@link ThreadLocal} based strategy.
+ * <p>
+ * {@code ScopedValue} is looked up at runtime, since it is only available from JDK 21
+ * (as a preview API, which requires {@code --enable-preview}) and is final from JDK 25.
+ * When it is not available, scopes are emulated by setting and restoring a
+ * {@link ThreadLocal}; see {@link #isScopedValueAvailable()}.
+ * <p>
+ * This strategy can be selected with the
+ * {@link SecurityContextHolder#MODE_SCOPED_VALUE} mode.
+ *
+ * @since 6.3
+ */
+public final class ScopedValueSecurityContextHolderStrategy implements SecurityContextHolderStrategy {
+
+	private static final ThreadLocal<Scope> threadLocalScope = new ThreadLocal<>();
+
+	/**
+	 * Whether {@code java.lang.ScopedValue} is used to bind scopes
+	 * @return true if {@code java.lang.ScopedValue} is available, false if scopes are
+	 * emulated with a {@link ThreadLocal}
+	 */
+	public static boolean isScopedValueAvailable() {
+		return ScopedValues.AVAILABLE;
+	}
+
+	/**
+	 * Runs the task with the provided {@link SecurityContext} bound to a new scope
+	 * @param context the {@link SecurityContext} to use for the duration of the task
+	 * @param task the task to run
+	 */
+	public void run(SecurityContext context, Runnable task) {
+		Assert.notNull(context, "Only non-null SecurityContext instances are permitted");
+		Assert.notNull(task, "task cannot be null");
+		runInScope(new Scope(() -> context), task);
+	}
+
+	/**
+	 * Calls the task with the provided {@link SecurityContext} bound to a new scope
+	 * @param context the {@link SecurityContext} to use for the duration of the task
+	 * @param task the task to call
+	 * @param <T> the type of the result
+	 * @return the result of the task
+	 * @throws Exception if the task throws an exception
+	 */
+	public <T> T call(SecurityContext context, Callable<T> task) throws Exception {
+		Assert.notNull(context, "Only non-null SecurityContext instances are permitted");
+		return call(() -> context, task);
+	}
+
+	/**
+	 * Calls the task with the provided deferred {@link SecurityContext} bound to a new
+	 * scope. The {@link Supplier} is only invoked when the {@link SecurityContext} is
+	 * first looked up within the scope.
+	 * @param deferredContext a {@link Supplier} that returns the {@link SecurityContext}
+	 * to use for the duration of the task
+	 * @param task the task to call
+	 * @param <T> the type of the result
+	 * @return the result of the task
+	 * @throws Exception if the task throws an exception
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T call(Supplier<SecurityContext> deferredContext, Callable<T> task) throws Exception {
+		Assert.notNull(deferredContext, "Only non-null Supplier instances are permitted");
+		Assert.notNull(task, "task cannot be null");
+		Object[] result = new Object[1];
+		Exception[] failure = new Exception[1];
+		runInScope(new Scope(notNull(deferredContext)), () -> {
+			try {
+				result[0] = task.call();
+			}
+			catch (Exception ex) {
+				failure[0] = ex;
+			}
+		});
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+		return (T) result[0];
+	}
+
+	private static void runInScope(Scope scope, Runnable task) {
+		if (ScopedValues.AVAILABLE) {
+			ScopedValues.run(scope, task);
+			return;
+		}
+		Scope previous = threadLocalScope.get();
+		threadLocalScope.set(scope);
+		try {
+			task.run();
+		}
+		finally {
+			if (previous != null) {
+				threadLocalScope.set(previous);
+			}
+			else {
+				threadLocalScope.remove();
+			}
+		}
+	}
+
+	@Override
+	public void clearContext() {
+		Scope scope = ScopedValues.current();
+		if (scope != null) {
+			scope.context = null;
+		}
+		else {
+			threadLocalScope.remove();
+		}
+	}
+
+	@Override
+	public SecurityContext getContext() {
+		return getDeferredContext().get();
+	}
+
+	@Override
+	public Supplier<SecurityContext> getDeferredContext() {
+		Scope scope = getScope();
+		Supplier<SecurityContext> result = scope.context;
+		if (result == null) {
+			SecurityContext context = createEmptyContext();
+			result = () -> context;
+			scope.context = result;
+		}
+		return result;
+	}
+
+	@Override
+	public void setContext(SecurityContext context) {
+		Assert.notNull(context, "Only non-null SecurityContext instances are permitted");
+		getScope().context = () -> context;
+	}
+
+	@Override
+	public void setDeferredContext(Supplier<SecurityContext> deferredContext) {
+		Assert.notNull(deferredContext, "Only non-null Supplier instances are permitted");
+		getScope().context = notNull(deferredContext);
+	}
+
+	@Override
+	public SecurityContext createEmptyContext() {
+		return new SecurityContextImpl();
+	}
+
+	private static Scope getScope() {
+		Scope scope = ScopedValues.current();
+		if (scope != null) {
+			return scope;
+		}
+		scope = threadLocalScope.get();
+		if (scope == null) {
+			scope = new Scope(null);
+			threadLocalScope.set(scope);
+		}
+		return scope;
+	}
+
+	private static Supplier<SecurityContext> notNull(Supplier<SecurityContext> deferredContext) {
+		return () -> {
+			SecurityContext result = deferredContext.get();
+			Assert.notNull(result, "A Supplier<SecurityContext> returned null and is not allowed.");
+			return result;
+		};
+	}
+
+	/**
+	 * The mutable state of a scope. A scope is confined to the task that it was bound for
+	 * and to any subtasks that inherit its binding.
+	 */
+	private static final class Scope {
+
+		private volatile Supplier<SecurityContext> context;
+
+		private Scope(Supplier<SecurityContext> context) {
+			this.context = context;
+		}
+
+	}
+
+	/**
+	 * Reflective access to {@code java.lang.ScopedValue}, which cannot be referenced
+	 * directly while compiling for JDK 17.
+	 */
+	private static final class ScopedValues {
+
+		private static final Scope UNBOUND = new Scope(null);
+
+		private static final boolean AVAILABLE;
+
+		private static final Object KEY;
+
+		private static final MethodHandle WHERE;
+
+		private static final MethodHandle RUN;
+
+		private static final MethodHandle OR_ELSE;
+
+		static {
+			boolean available = false;
+			Object key = null;
+			MethodHandle where = null;
+			MethodHandle run = null;
+			MethodHandle orElse = null;
+			try {
+				MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+				Class<?> scopedValue = Class.forName("java.lang.ScopedValue");
+				Class<?> carrier = Class.forName("java.lang.ScopedValue$Carrier");
+				key = lookup.findStatic(scopedValue, "newInstance", MethodType.methodType(scopedValue)).invoke();
+				where = lookup
+					.findStatic(scopedValue, "where", MethodType.methodType(carrier, scopedValue, Object.class))
+					.asType(MethodType.methodType(Object.class, Object.class, Object.class));
+				run = lookup.findVirtual(carrier, "run", MethodType.methodType(void.class, Runnable.class))
+					.asType(MethodType.methodType(void.class, Object.class, Runnable.class));
+				orElse = lookup.findVirtual(scopedValue, "orElse", MethodType.methodType(Object.class, Object.class))
+					.asType(MethodType.methodType(Object.class, Object.class, Object.class));
+				available = probe(key, where, run, orElse);
+			}
+			catch (Throwable ex) {
+				// not available, for example before JDK 21 or without --enable-preview
+			}
+			AVAILABLE = available;
+			KEY = key;
+			WHERE = where;
+			RUN = run;
+			OR_ELSE = orElse;
+		}
+
+		private ScopedValues() {
+		}
+
+		private static boolean probe(Object key, MethodHandle where, MethodHandle run, MethodHandle orElse)
+				throws Throwable {
+			Scope value = new Scope(null);
+			boolean[] bound = new boolean[1];
+			Runnable check = () -> {
+				try {
+					bound[0] = (Object) orElse.invokeExact(key, (Object) UNBOUND) == value;
+				}
+				catch (Throwable ex) {
+					bound[0] = false;
+				}
+			};
+			run.invokeExact((Object) where.invokeExact(key, (Object) value), check);
+			return bound[0] && (Object) orElse.invokeExact(key, (Object) UNBOUND) == UNBOUND;
+		}
+
+		static Scope current() {
+			if (!AVAILABLE) {
+				return null;
+			}
+			try {
+				Object scope = (Object) OR_ELSE.invokeExact(KEY, (Object) UNBOUND);
+				return (scope != UNBOUND) ? (Scope) scope : null;
+			}
+			catch (RuntimeException | Error ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+
+		static void run(Scope scope, Runnable task) {
+			try {
+				RUN.invokeExact((Object) WHERE.invokeExact(KEY, (Object) scope), task);
+			}
+			catch (RuntimeException | Error ex) {
+				throw ex;
+			}
+			catch (Throwable ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+
+	}
+
+}
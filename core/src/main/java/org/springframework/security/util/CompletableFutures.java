@@ -0,0 +1,57 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Offers static methods for waiting on a {@link CompletableFuture} that is shared by
+ * concurrent callers.
+ *
+ * @since 6.3
+ */
+public final class CompletableFutures {
+
+	private CompletableFutures() {
+	}
+
+	/**
+	 * Waits for the given future to complete, and returns its value. Unlike
+	 * {@link CompletableFuture#join()}, a {@link RuntimeException} or {@link Error} that
+	 * the future completed with is rethrown as is, rather than wrapped in a
+	 * {@link CompletionException}, so that each caller sees the same failure.
+	 * @param future the future to wait for
+	 * @param <T> the type of the value
+	 * @return the value of the future
+	 */
+	public static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		}
+		catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			if (ex.getCause() instanceof Error cause) {
+				throw cause;
+			}
+			throw ex;
+		}
+	}
+
+}
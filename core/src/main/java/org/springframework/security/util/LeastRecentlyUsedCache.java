@@ -0,0 +1,100 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.util;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
+
+/**
+ * A cache of up to a maximum number of values, that evicts the least recently used value
+ * when full. Unlike a {@link ConcurrentLruCache}, looking up a key that is not cached
+ * does not add an entry, so that misses cannot evict cached values.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @since 6.3
+ */
+public final class LeastRecentlyUsedCache<K, V> {
+
+	private final ConcurrentLruCache<K, AtomicReference<V>> cache;
+
+	/**
+	 * Constructs a {@code LeastRecentlyUsedCache} that holds up to the given number of
+	 * values.
+	 * @param maximumSize the maximum number of cached values
+	 */
+	public LeastRecentlyUsedCache(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		this.cache = new ConcurrentLruCache<>(maximumSize, (key) -> new AtomicReference<>());
+	}
+
+	/**
+	 * Returns the value cached for the given key, marking it as recently used.
+	 * @param key the key
+	 * @return the cached value, or {@code null} if none is cached
+	 */
+	@Nullable
+	public V get(K key) {
+		return this.cache.contains(key) ? this.cache.get(key).get() : null;
+	}
+
+	/**
+	 * Caches the given value for the given key, replacing any cached value.
+	 * @param key the key
+	 * @param value the value to cache
+	 */
+	public void put(K key, V value) {
+		AtomicReference<V> entry = this.cache.get(key);
+		entry.set(value);
+		// a concurrent first access of the same key may have added a different entry
+		AtomicReference<V> added = this.cache.get(key);
+		if (added != entry) {
+			added.set(value);
+		}
+	}
+
+	/**
+	 * Caches the given value for the given key, only if the cached value is the expected
+	 * one.
+	 * @param key the key
+	 * @param expected the expected cached value, or {@code null} if none is expected
+	 * @param value the value to cache, or {@code null} to remove the cached value
+	 * @return whether the value was cached
+	 */
+	public boolean compareAndSet(K key, @Nullable V expected, @Nullable V value) {
+		return this.cache.get(key).compareAndSet(expected, value);
+	}
+
+	/**
+	 * Removes the value cached for the given key, if any.
+	 * @param key the key
+	 */
+	public void remove(K key) {
+		this.cache.remove(key);
+	}
+
+	/**
+	 * Removes all cached values.
+	 */
+	public void clear() {
+		this.cache.clear();
+	}
+
+}
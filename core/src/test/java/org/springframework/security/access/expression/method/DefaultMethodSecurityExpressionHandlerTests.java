@@ -35,10 +35,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.security.access.expression.ExpressionUtils;
 import org.springframework.security.access.expression.SecurityExpressionRoot;
 import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.util.SimpleMethodInvocation;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
@@ -187,6 +194,60 @@ public class DefaultMethodSecurityExpressionHandlerTests {
 		verify(mockAuthenticationSupplier).get();
 	}
 
+	@Test
+	public void setCompilerModeWhenNullThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.handler.setCompilerMode(null));
+	}
+
+	@Test
+	public void setCompilerModeWhenImmediateThenCompilesSecurityExpressionRootExpressions() throws Exception {
+		this.handler.setCompilerMode(SpelCompilerMode.IMMEDIATE);
+		Expression expression = this.handler.getExpressionParser()
+			.parseExpression("hasRole('USER') and isAuthenticated() and principal.username == 'user'");
+		Authentication user = authenticated("user", "USER");
+		Authentication admin = authenticated("admin", "ADMIN");
+		assertThat(this.handler.getCompiledExpressionCount()).isZero();
+		for (int i = 0; i < 3; i++) {
+			assertThat(evaluate(expression, user)).isTrue();
+			assertThat(evaluate(expression, admin)).isFalse();
+		}
+		assertThat(this.handler.getCompiledExpressionCount()).isEqualTo(1);
+		assertThat(this.handler.getFailedExpressionCompilationCount()).isZero();
+	}
+
+	@Test
+	public void setCompilerModeWhenMixedAndNotCompilableThenInterpreted() throws Exception {
+		this.handler.setCompilerMode(SpelCompilerMode.MIXED);
+		Expression expression = this.handler.getExpressionParser()
+			.parseExpression("{'a', 'b'}.?[#this == 'a'].size() == 1");
+		Authentication user = authenticated("user", "USER");
+		assertThat(evaluate(expression, user)).isTrue();
+		assertThat(evaluate(expression, user)).isTrue();
+		assertThat(this.handler.getCompiledExpressionCount()).isZero();
+		assertThat(this.handler.getFailedExpressionCompilationCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void setCompilerModeWhenOffThenNotCompiled() throws Exception {
+		this.handler.setCompilerMode(SpelCompilerMode.IMMEDIATE);
+		this.handler.setCompilerMode(SpelCompilerMode.OFF);
+		Expression expression = this.handler.getExpressionParser().parseExpression("hasRole('USER')");
+		assertThat(expression).isInstanceOf(SpelExpression.class);
+		assertThat(evaluate(expression, authenticated("user", "USER"))).isTrue();
+		assertThat(this.handler.getCompiledExpressionCount()).isZero();
+	}
+
+	private boolean evaluate(Expression expression, Authentication authentication) throws Exception {
+		MethodInvocation invocation = new SimpleMethodInvocation(new Foo(), Foo.class.getDeclaredMethod("bar"));
+		EvaluationContext context = this.handler.createEvaluationContext(() -> authentication, invocation);
+		return ExpressionUtils.evaluateAsBoolean(expression, context);
+	}
+
+	private static Authentication authenticated(String username, String... roles) {
+		UserDetails user = User.withUsername(username).password("password").roles(roles).build();
+		return UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+	}
+
 	static class Foo {
 
 		void bar() {
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.expression.method;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.RememberMeAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SimpleSecurityExpressionParser}.
+ */
+public class SimpleSecurityExpressionParserTests {
+
+	private static final List<String> SUPPORTED = List.of("permitAll", "denyAll", "permitAll()", "denyAll()",
+			"hasRole('USER')", "hasRole('ROLE_USER')", "hasRole(\"ADMIN\")", "hasAnyRole('ADMIN', 'USER')",
+			"hasAuthority('ROLE_USER')", "hasAnyAuthority('read', 'write')", "hasAuthority('it''s')",
+			"isAuthenticated()", "isFullyAuthenticated()", "isAnonymous()", "isRememberMe()",
+			"hasRole('USER') and hasAuthority('read')", "hasRole('USER') && !hasRole('ADMIN')",
+			"hasRole('ADMIN') or hasAuthority('read') and isAuthenticated()",
+			"(hasRole('ADMIN') or hasAuthority('read')) and not isAnonymous()",
+			"NOT hasRole('ADMIN') AND (isAnonymous() OR hasRole('USER'))", "!!isAuthenticated()",
+			"hasRole('ADMIN') || hasRole('STAFF')");
+
+	private static final List<String> UNSUPPORTED = List.of("", "hasRole", "hasRole()", "hasRole('A', 'B')",
+			"hasAnyRole()", "isAuthenticated('x')", "hasRole('USER') and", "hasRole('USER'", "hasRole('USER'))",
+			"hasRole(#role)", "hasPermission(#id, 'read')", "principal.username == 'user'", "@bean.check()",
+			"hasRole('USER') and true", "isAuthenticated() != false", "hasRole('unterminated)", "android()",
+			"hasRole('USER') ornot hasRole('ADMIN')");
+
+	private final DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler();
+
+	@Test
+	public void parseWhenSupportedThenSameDecisionAsSpel() throws Exception {
+		this.handler.setRoleHierarchy(RoleHierarchyImpl.fromHierarchy("ROLE_ADMIN > ROLE_STAFF"));
+		List<Authentication> authentications = List.of(
+				new TestingAuthenticationToken("user", "password", "ROLE_USER", "read"),
+				new TestingAuthenticationToken("admin", "password", "ROLE_ADMIN"),
+				new TestingAuthenticationToken("quote", "password", "it's"),
+				new AnonymousAuthenticationToken("key", "anonymous",
+						AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")),
+				new RememberMeAuthenticationToken("key", "remembered", AuthorityUtils.createAuthorityList("ROLE_USER")));
+		for (String expression : SUPPORTED) {
+			AuthorizationManager<Object> manager = this.handler.createAuthorizationManager(expression);
+			assertThat(manager).describedAs(expression).isNotNull();
+			for (Authentication authentication : authentications) {
+				assertThat(manager.check(() -> authentication, null).isGranted())
+					.describedAs(expression + " for " + authentication.getName())
+					.isEqualTo(evaluate(expression, authentication));
+			}
+		}
+	}
+
+	@Test
+	public void parseWhenUnsupportedThenNull() {
+		for (String expression : UNSUPPORTED) {
+			assertThat(this.handler.<Object>createAuthorizationManager(expression)).describedAs(expression).isNull();
+		}
+		assertThat(this.handler.<Object>createAuthorizationManager(null)).isNull();
+	}
+
+	@Test
+	public void parseWhenCustomRolePrefixThenPrefixApplied() {
+		this.handler.setDefaultRolePrefix("GROUP_");
+		AuthorizationManager<Object> manager = this.handler.createAuthorizationManager("hasRole('USER')");
+		Authentication user = new TestingAuthenticationToken("user", "password", "GROUP_USER");
+		assertThat(manager.check(() -> user, null).isGranted()).isTrue();
+	}
+
+	@Test
+	public void createAuthorizationManagerWhenSubclassThenNull() {
+		DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler() {
+		};
+		assertThat(handler.<Object>createAuthorizationManager("permitAll")).isNull();
+	}
+
+	@Test
+	public void parseWhenPermitAllThenAuthenticationNotRequested() {
+		AuthorizationManager<Object> manager = this.handler.createAuthorizationManager("permitAll");
+		assertThat(manager.check(() -> {
+			throw new IllegalStateException("authentication should not be requested");
+		}, null).isGranted()).isTrue();
+	}
+
+	private boolean evaluate(String expression, Authentication authentication) throws Exception {
+		Expression parsed = this.handler.getExpressionParser().parseExpression(expression);
+		EvaluationContext context = this.handler.createEvaluationContext(() -> authentication,
+				new SimpleMethodInvocation(this, Object.class.getMethod("toString")));
+		return ExpressionUtils.evaluateAsBoolean(parsed, context);
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.access.hierarchicalroles;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link InternedRoleHierarchy}.
+ */
+public class InternedRoleHierarchyTests {
+
+	private final RoleHierarchyImpl roleHierarchyImpl = RoleHierarchyImpl
+		.fromHierarchy("ROLE_A > ROLE_B\nROLE_B > ROLE_C\nROLE_C > ROLE_D\nROLE_X > ROLE_C");
+
+	private final InternedRoleHierarchy roleHierarchy = new InternedRoleHierarchy(this.roleHierarchyImpl);
+
+	@Test
+	public void constructorWhenNegativeCacheSizeThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new InternedRoleHierarchy(this.roleHierarchyImpl, -1));
+	}
+
+	@Test
+	public void getReachableGrantedAuthoritiesWhenNullOrEmptyThenEmpty() {
+		assertThat(this.roleHierarchy.getReachableGrantedAuthorities(null)).isEmpty();
+		assertThat(this.roleHierarchy.getReachableGrantedAuthorities(new ArrayList<>())).isEmpty();
+	}
+
+	@Test
+	public void getReachableGrantedAuthoritiesWhenSameAuthoritiesThenSameAsRoleHierarchyImpl() {
+		for (List<GrantedAuthority> authorities : List.of(AuthorityUtils.createAuthorityList("ROLE_A"),
+				AuthorityUtils.createAuthorityList("ROLE_B", "ROLE_X"),
+				AuthorityUtils.createAuthorityList("ROLE_0", "ROLE_C", "ROLE_0"),
+				AuthorityUtils.createAuthorityList("ROLE_D", "ROLE_A"))) {
+			assertThat(HierarchicalRolesTestHelper.containTheSameGrantedAuthoritiesCompareByAuthorityString(
+					this.roleHierarchy.getReachableGrantedAuthorities(authorities),
+					this.roleHierarchyImpl.getReachableGrantedAuthorities(authorities)))
+				.describedAs(authorities.toString())
+				.isTrue();
+		}
+	}
+
+	@Test
+	public void getReachableGrantedAuthoritiesWhenSameAuthorityNamesThenSharedUnmodifiableResult() {
+		Collection<GrantedAuthority> first = this.roleHierarchy
+			.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_B"));
+		Collection<GrantedAuthority> second = this.roleHierarchy
+			.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_B"));
+		assertThat(second).isSameAs(first);
+		assertThat(AuthorityUtils.authorityListToSet(first)).containsExactlyInAnyOrder("ROLE_B", "ROLE_C", "ROLE_D");
+		assertThatExceptionOfType(UnsupportedOperationException.class)
+			.isThrownBy(() -> first.add(new SimpleGrantedAuthority("ROLE_A")));
+	}
+
+	@Test
+	public void getReachableGrantedAuthoritiesWhenCacheDisabledThenNotShared() {
+		InternedRoleHierarchy roleHierarchy = new InternedRoleHierarchy(this.roleHierarchyImpl, 0);
+		Collection<GrantedAuthority> first = roleHierarchy
+			.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_B"));
+		Collection<GrantedAuthority> second = roleHierarchy
+			.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_B"));
+		assertThat(second).isNotSameAs(first).containsExactlyElementsOf(first);
+	}
+
+	@Test
+	public void getReachableGrantedAuthoritiesWhenOtherAuthorityTypeThenRetainsInstance() {
+		GrantedAuthority authority = new CustomAuthority("ROLE_C");
+		Collection<GrantedAuthority> reachable = this.roleHierarchy
+			.getReachableGrantedAuthorities(List.of(authority));
+		assertThat(reachable).contains(authority);
+		assertThat(AuthorityUtils.authorityListToSet(reachable)).containsExactlyInAnyOrder("ROLE_C", "ROLE_D");
+	}
+
+	@Test
+	public void getReachableGrantedAuthoritiesWhenUsedByAuthenticationThenExpands() {
+		TestingAuthenticationToken authentication = new TestingAuthenticationToken("user", "password", "ROLE_X");
+		assertThat(AuthorityUtils
+			.authorityListToSet(this.roleHierarchy.getReachableGrantedAuthorities(authentication.getAuthorities())))
+			.containsExactlyInAnyOrder("ROLE_X", "ROLE_C", "ROLE_D");
+	}
+
+	private static final class CustomAuthority implements GrantedAuthority {
+
+		private final String authority;
+
+		private CustomAuthority(String authority) {
+			this.authority = authority;
+		}
+
+		@Override
+		public String getAuthority() {
+			return this.authority;
+		}
+
+	}
+
+}
@@ -17,19 +17,26 @@
 package org.springframework.security.authentication;
 
 import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.security.access.hierarchicalroles.NullRoleHierarchy;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
 import org.springframework.security.core.AuthenticatedPrincipal;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.SerializationUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -126,6 +133,44 @@ public class AbstractAuthenticationTokenTests {
 		verify(principal, times(1)).getName();
 	}
 
+	@Test
+	public void getReachableAuthorityNamesWhenNoRoleHierarchyThenAuthorityNames() {
+		MockAuthenticationImpl token = new MockAuthenticationImpl("Test", "Password", this.authorities);
+		Set<String> names = token.getReachableAuthorityNames(null);
+		assertThat(names).containsExactlyInAnyOrder("ROLE_ONE", "ROLE_TWO");
+		assertThat(token.getReachableAuthorityNames(null)).isSameAs(names);
+		assertThat(token.getReachableAuthorityNames(new NullRoleHierarchy())).isSameAs(names);
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> names.add("ROLE_THREE"));
+	}
+
+	@Test
+	public void getReachableAuthorityNamesWhenRoleHierarchyThenComputedOnce() {
+		MockAuthenticationImpl token = new MockAuthenticationImpl("Test", "Password", this.authorities);
+		RoleHierarchy roleHierarchy = spy(RoleHierarchyImpl.fromHierarchy("ROLE_ONE > ROLE_THREE"));
+		Set<String> names = token.getReachableAuthorityNames(roleHierarchy);
+		assertThat(names).containsExactlyInAnyOrder("ROLE_ONE", "ROLE_TWO", "ROLE_THREE");
+		assertThat(token.getReachableAuthorityNames(roleHierarchy)).isSameAs(names);
+		verify(roleHierarchy, times(1)).getReachableGrantedAuthorities(any());
+	}
+
+	@Test
+	public void getReachableAuthorityNamesWhenDifferentRoleHierarchyThenRecomputed() {
+		MockAuthenticationImpl token = new MockAuthenticationImpl("Test", "Password", this.authorities);
+		Set<String> names = token.getReachableAuthorityNames(RoleHierarchyImpl.fromHierarchy("ROLE_ONE > ROLE_THREE"));
+		assertThat(token.getReachableAuthorityNames(null)).isNotSameAs(names)
+			.containsExactlyInAnyOrder("ROLE_ONE", "ROLE_TWO");
+	}
+
+	@Test
+	public void getReachableAuthorityNamesWhenDeserializedThenRecomputed() {
+		UsernamePasswordAuthenticationToken token = UsernamePasswordAuthenticationToken.authenticated("Test",
+				"Password", this.authorities);
+		Set<String> names = token.getReachableAuthorityNames(null);
+		UsernamePasswordAuthenticationToken deserialized = SerializationUtils.clone(token);
+		assertThat(deserialized).isEqualTo(token);
+		assertThat(deserialized.getReachableAuthorityNames(null)).isNotSameAs(names).isEqualTo(names);
+	}
+
 	private class MockAuthenticationImpl extends AbstractAuthenticationToken {
 
 		private Object credentials;
@@ -27,9 +27,16 @@ import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
 import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests for {@link AuthoritiesAuthorizationManager}.
@@ -84,4 +91,25 @@ class AuthoritiesAuthorizationManagerTests {
 		assertThat(manager.check(authentication, Collections.singleton("ROLE_USER")).isGranted()).isTrue();
 	}
 
+	@Test
+	void checkWhenSameAuthenticationThenRoleHierarchyConsultedOnce() {
+		AuthoritiesAuthorizationManager manager = new AuthoritiesAuthorizationManager();
+		RoleHierarchy roleHierarchy = spy(RoleHierarchyImpl.fromHierarchy("ROLE_ADMIN > ROLE_USER"));
+		manager.setRoleHierarchy(roleHierarchy);
+		Authentication authentication = new TestingAuthenticationToken("admin", "password", "ROLE_ADMIN");
+		assertThat(manager.check(() -> authentication, Collections.singleton("ROLE_USER")).isGranted()).isTrue();
+		assertThat(manager.check(() -> authentication, Collections.singleton("ROLE_OTHER")).isGranted()).isFalse();
+		assertThat(manager.check(() -> authentication, Arrays.asList("ROLE_OTHER", "ROLE_ADMIN")).isGranted())
+			.isTrue();
+		verify(roleHierarchy, times(1)).getReachableGrantedAuthorities(any());
+	}
+
+	@Test
+	void checkWhenNotAbstractAuthenticationTokenThenGrantedDecision() {
+		AuthoritiesAuthorizationManager manager = new AuthoritiesAuthorizationManager();
+		Authentication authentication = mock(Authentication.class);
+		given(authentication.getAuthorities()).willAnswer((invocation) -> AuthorityUtils.createAuthorityList("USER"));
+		assertThat(manager.check(() -> authentication, Arrays.asList("ADMIN", "USER")).isGranted()).isTrue();
+	}
+
 }
@@ -18,12 +18,18 @@ package org.springframework.security.authorization.method;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
+import org.aopalliance.intercept.MethodInvocation;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 
 import org.springframework.aop.TargetClassAware;
 import org.springframework.core.annotation.AnnotationConfigurationException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
 import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.access.intercept.method.MockMethodInvocation;
@@ -31,11 +37,16 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.TestAuthentication;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ExpressionAuthorizationDecision;
 import org.springframework.security.core.Authentication;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests for {@link PreAuthorizeAuthorizationManager}.
@@ -101,6 +112,70 @@ public class PreAuthorizeAuthorizationManagerTests {
 		assertThat(decision.isGranted()).isTrue();
 	}
 
+	@Test
+	public void checkWhenSimpleExpressionThenExpressionDecisionWithoutEvaluationContext() throws Exception {
+		Supplier<Authentication> authentication = () -> new TestingAuthenticationToken("user", "password",
+				"ROLE_ADMIN");
+		MockMethodInvocation methodInvocation = new MockMethodInvocation(new ClassLevelAnnotations(),
+				ClassLevelAnnotations.class, "securedAdmin");
+		DefaultMethodSecurityExpressionHandler expressionHandler = spy(new DefaultMethodSecurityExpressionHandler());
+		PreAuthorizeAuthorizationManager manager = new PreAuthorizeAuthorizationManager();
+		manager.setExpressionHandler(expressionHandler);
+		AuthorizationDecision decision = manager.check(authentication, methodInvocation);
+		assertThat(decision.isGranted()).isTrue();
+		assertThat(decision).isInstanceOf(ExpressionAuthorizationDecision.class);
+		assertThat(((ExpressionAuthorizationDecision) decision).getExpression().getExpressionString())
+			.isEqualTo("hasRole('ADMIN')");
+		verify(expressionHandler, never()).createEvaluationContext(ArgumentMatchers.<Supplier<Authentication>>any(),
+				any(MethodInvocation.class));
+		verify(expressionHandler, never()).createEvaluationContext(any(Authentication.class),
+				any(MethodInvocation.class));
+	}
+
+	@Test
+	public void checkWhenSimpleExpressionAndExpressionHandlerSubclassThenEvaluationContext() throws Exception {
+		Supplier<Authentication> authentication = () -> new TestingAuthenticationToken("user", "password",
+				"ROLE_ADMIN");
+		AtomicInteger evaluations = new AtomicInteger();
+		DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler() {
+			@Override
+			public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication,
+					MethodInvocation mi) {
+				evaluations.incrementAndGet();
+				return super.createEvaluationContext(authentication, mi);
+			}
+		};
+		PreAuthorizeAuthorizationManager manager = new PreAuthorizeAuthorizationManager();
+		manager.setExpressionHandler(expressionHandler);
+		AuthorizationDecision decision = manager.check(authentication, new MockMethodInvocation(
+				new ClassLevelAnnotations(), ClassLevelAnnotations.class, "securedUser"));
+		assertThat(decision.isGranted()).isFalse();
+		assertThat(evaluations).hasValue(1);
+	}
+
+	@Test
+	public void warmUpWhenMethodThenExpressionParsedOnce() throws Exception {
+		AtomicInteger parsed = new AtomicInteger();
+		DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+		expressionHandler.setExpressionParser(new SpelExpressionParser() {
+			@Override
+			public Expression parseExpression(String expressionString) {
+				parsed.incrementAndGet();
+				return super.parseExpression(expressionString);
+			}
+		});
+		PreAuthorizeAuthorizationManager manager = new PreAuthorizeAuthorizationManager();
+		manager.setExpressionHandler(expressionHandler);
+		manager.warmUp(ClassLevelAnnotations.class.getMethod("securedAdmin"), ClassLevelAnnotations.class);
+		assertThat(parsed).hasValue(1);
+		MockMethodInvocation methodInvocation = new MockMethodInvocation(new ClassLevelAnnotations(),
+				ClassLevelAnnotations.class, "securedAdmin");
+		AuthorizationDecision decision = manager.check(
+				() -> new TestingAuthenticationToken("user", "password", "ROLE_ADMIN"), methodInvocation);
+		assertThat(decision.isGranted()).isTrue();
+		assertThat(parsed).hasValue(1);
+	}
+
 	@Test
 	public void checkRequiresUserWhenClassAnnotationsThenApplies() throws Exception {
 		Supplier<Authentication> authentication = () -> new TestingAuthenticationToken("user", "password", "ROLE_USER");
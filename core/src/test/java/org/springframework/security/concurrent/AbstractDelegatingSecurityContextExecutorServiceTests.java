@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,6 +29,7 @@ import org.mockito.Mock;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -133,6 +134,14 @@ public abstract class AbstractDelegatingSecurityContextExecutorServiceTests
 		assertThat(result).isEqualTo(exectedResult);
 	}
 
+	@Test
+	public void submitAll() {
+		given(this.delegate.submit(this.wrappedCallable)).willReturn(this.expectedFutureObject);
+		List<Future<Object>> result = this.executor.submitAll(Arrays.asList(this.callable, this.callable));
+		verify(this.delegate, times(2)).submit(this.wrappedCallable);
+		assertThat(result).containsExactly(this.expectedFutureObject, this.expectedFutureObject);
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void invokeAllTimeout() throws Exception {
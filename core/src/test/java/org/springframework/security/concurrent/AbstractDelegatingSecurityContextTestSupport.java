@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,9 +30,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import static org.mockito.AdditionalMatchers.or;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.same;
 
 /**
  * Abstract base class for testing classes that extend
@@ -85,7 +87,8 @@ public abstract class AbstractDelegatingSecurityContextTestSupport {
 
 	public final void currentSecurityContextSetup() throws Exception {
 		this.delegatingSecurityContextCallable
-			.when(() -> DelegatingSecurityContextCallable.create(eq(this.callable), isNull(), any()))
+			.when(() -> DelegatingSecurityContextCallable.create(eq(this.callable),
+					or(isNull(), same(this.currentSecurityContext)), any()))
 			.thenReturn(this.wrappedCallable);
 		this.delegatingSecurityContextRunnable
 			.when(() -> DelegatingSecurityContextRunnable.create(eq(this.runnable), isNull(), any()))
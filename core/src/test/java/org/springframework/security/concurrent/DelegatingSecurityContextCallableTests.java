@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,10 +30,12 @@ import org.mockito.internal.stubbing.answers.Returns;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.context.MockSecurityContextHolderStrategy;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.core.context.SecurityContextImpl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
@@ -155,6 +157,16 @@ public class DelegatingSecurityContextCallableTests {
 		assertWrapped(this.callable.call());
 	}
 
+	@Test
+	public void callWhenNotRestoringOriginalContextThenContextCleared() throws Exception {
+		givenDelegateCallWillAnswerWithCurrentSecurityContext();
+		SecurityContextHolder.setContext(new SecurityContextImpl(new TestingAuthenticationToken("original", null)));
+		DelegatingSecurityContextCallable<Object> callable = new DelegatingSecurityContextCallable<>(this.delegate,
+				this.securityContext);
+		callable.setRestoreOriginalContext(false);
+		assertWrapped(callable.call());
+	}
+
 	@Test
 	public void createNullDelegate() {
 		assertThatIllegalArgumentException()
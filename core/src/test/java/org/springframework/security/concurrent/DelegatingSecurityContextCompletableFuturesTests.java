@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link DelegatingSecurityContextCompletableFutures}.
+ */
+public class DelegatingSecurityContextCompletableFuturesTests {
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	private final Authentication authentication = new TestingAuthenticationToken("user", "password", "ROLE_USER");
+
+	@AfterEach
+	public void cleanup() throws Exception {
+		SecurityContextHolder.clearContext();
+		this.executor.shutdown();
+		this.executor.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void supplyAsyncWhenDefaultExecutorThenContextPropagated() throws Exception {
+		SecurityContextHolder.setContext(new SecurityContextImpl(this.authentication));
+		assertThat(DelegatingSecurityContextCompletableFutures.supplyAsync(this::currentAuthentication).get())
+			.isSameAs(this.authentication);
+	}
+
+	@Test
+	public void supplyAsyncWhenExecutorThenContextPropagatedAndCleared() throws Exception {
+		SecurityContextHolder.setContext(new SecurityContextImpl(this.authentication));
+		assertThat(DelegatingSecurityContextCompletableFutures.supplyAsync(this::currentAuthentication, this.executor)
+			.get()).isSameAs(this.authentication);
+		assertThat(this.executor.submit(this::currentAuthentication).get()).isNull();
+	}
+
+	@Test
+	public void runAsyncWhenExecutorThenContextPropagated() throws Exception {
+		SecurityContextHolder.setContext(new SecurityContextImpl(this.authentication));
+		Authentication[] result = new Authentication[1];
+		DelegatingSecurityContextCompletableFutures.runAsync(() -> result[0] = currentAuthentication(), this.executor)
+			.get();
+		assertThat(result[0]).isSameAs(this.authentication);
+	}
+
+	@Test
+	public void runAsyncWhenDefaultExecutorThenContextPropagated() throws Exception {
+		SecurityContextHolder.setContext(new SecurityContextImpl(this.authentication));
+		SecurityContext[] result = new SecurityContext[1];
+		DelegatingSecurityContextCompletableFutures.runAsync(() -> result[0] = SecurityContextHolder.getContext())
+			.get();
+		assertThat(result[0].getAuthentication()).isSameAs(this.authentication);
+	}
+
+	@Test
+	public void supplyAsyncWhenNullSupplierThenException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> DelegatingSecurityContextCompletableFutures.supplyAsync(null));
+	}
+
+	private Authentication currentAuthentication() {
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+
+}
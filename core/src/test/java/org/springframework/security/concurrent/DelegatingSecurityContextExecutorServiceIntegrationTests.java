@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2023 the original author or authors.
+ * Copyright 2020-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,12 @@
 
 package org.springframework.security.concurrent;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 
@@ -25,9 +29,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledOnJre;
 import org.junit.jupiter.api.condition.JRE;
 
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
 import org.springframework.security.DelegatingSecurityContextTestUtils;
 import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -84,6 +91,46 @@ public class DelegatingSecurityContextExecutorServiceIntegrationTests {
 		// @formatter:on
 	}
 
+	@Test
+	public void submitAllWhenManyTasksThenSecurityContextPropagatedToEach() throws Exception {
+		ExecutorService delegate = Executors.newFixedThreadPool(4);
+		try {
+			DelegatingSecurityContextExecutorService executor = new DelegatingSecurityContextExecutorService(delegate);
+			SecurityContextHolder.setContext(securityContext());
+			List<Callable<Authentication>> tasks = Collections.nCopies(200,
+					() -> SecurityContextHolder.getContext().getAuthentication());
+			List<Future<Authentication>> futures = executor.submitAll(tasks);
+			assertThat(futures).hasSize(200);
+			for (Future<Authentication> future : futures) {
+				assertThat(future.get().getName()).isEqualTo("user");
+			}
+		}
+		finally {
+			SecurityContextHolder.clearContext();
+			delegate.shutdownNow();
+		}
+	}
+
+	@Test
+	public void submitWhenRestoreOriginalContextFalseThenSecurityContextPropagatedAndCleared() throws Exception {
+		DelegatingSecurityContextExecutorService executor = new DelegatingSecurityContextExecutorService(
+				new ExecutorServiceAdapter(new SyncTaskExecutor()), securityContext());
+		executor.setRestoreOriginalContext(false);
+		SecurityContext original = SecurityContextHolder.createEmptyContext();
+		original.setAuthentication(new TestingAuthenticationToken("original", null));
+		SecurityContextHolder.setContext(original);
+		try {
+			Authentication authentication = executor
+				.submit(() -> SecurityContextHolder.getContext().getAuthentication())
+				.get();
+			assertThat(authentication.getName()).isEqualTo("user");
+			assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+		}
+		finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
 	private DelegatingSecurityContextExecutorService createExecutor(ScheduledExecutorService delegate) {
 		return new DelegatingSecurityContextExecutorService(delegate, securityContext());
 	}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.concurrent;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link DelegatingSecurityContextForkJoinPool}.
+ */
+public class DelegatingSecurityContextForkJoinPoolTests {
+
+	private ForkJoinPool pool;
+
+	@AfterEach
+	public void cleanup() throws Exception {
+		SecurityContextHolder.clearContext();
+		if (this.pool != null) {
+			this.pool.shutdown();
+			this.pool.awaitTermination(10, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	public void constructorWhenNullSecurityContextThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new DelegatingSecurityContextForkJoinPool(2, null));
+	}
+
+	@Test
+	public void submitCallableWhenCurrentContextThenPropagated() throws Exception {
+		this.pool = new DelegatingSecurityContextForkJoinPool(2);
+		Authentication authentication = authenticate("user");
+		assertThat(this.pool.submit(currentAuthentication()).get()).isSameAs(authentication);
+	}
+
+	@Test
+	public void submitRunnableWhenCurrentContextThenPropagated() throws Exception {
+		this.pool = new DelegatingSecurityContextForkJoinPool(2);
+		Authentication authentication = authenticate("user");
+		Authentication[] result = new Authentication[1];
+		this.pool.submit(() -> result[0] = SecurityContextHolder.getContext().getAuthentication()).get();
+		assertThat(result[0]).isSameAs(authentication);
+	}
+
+	@Test
+	public void invokeForkJoinTaskWhenCurrentContextThenPropagated() {
+		this.pool = new DelegatingSecurityContextForkJoinPool(2);
+		Authentication authentication = authenticate("user");
+		assertThat(this.pool.invoke(new AuthenticationTask())).isSameAs(authentication);
+	}
+
+	@Test
+	public void submitForkJoinTaskWhenCompletedThenOriginalTaskCompleted() throws Exception {
+		this.pool = new DelegatingSecurityContextForkJoinPool(2);
+		Authentication authentication = authenticate("user");
+		AuthenticationTask task = new AuthenticationTask();
+		assertThat(this.pool.submit(task).get()).isSameAs(authentication);
+		assertThat(task.join()).isSameAs(authentication);
+	}
+
+	@Test
+	public void invokeAllWhenCurrentContextThenEachTaskPropagated() throws Exception {
+		this.pool = new DelegatingSecurityContextForkJoinPool(2);
+		Authentication authentication = authenticate("user");
+		List<Future<Authentication>> futures = this.pool
+			.invokeAll(List.of(currentAuthentication(), currentAuthentication()));
+		for (Future<Authentication> future : futures) {
+			assertThat(future.get()).isSameAs(authentication);
+		}
+	}
+
+	@Test
+	public void invokeAllWhenTimeoutThenEachTaskPropagated() throws Exception {
+		this.pool = new DelegatingSecurityContextForkJoinPool(2);
+		Authentication authentication = authenticate("user");
+		List<Future<Authentication>> futures = this.pool
+			.invokeAll(List.of(currentAuthentication(), currentAuthentication()), 10, TimeUnit.SECONDS);
+		for (Future<Authentication> future : futures) {
+			assertThat(future.get()).isSameAs(authentication);
+		}
+	}
+
+	@Test
+	public void invokeAnyWhenCurrentContextThenPropagated() throws Exception {
+		this.pool = new DelegatingSecurityContextForkJoinPool(2);
+		Authentication authentication = authenticate("user");
+		assertThat(this.pool.invokeAny(List.of(currentAuthentication(), currentAuthentication())))
+			.isSameAs(authentication);
+	}
+
+	@Test
+	public void invokeAnyWhenTimeoutThenPropagated() throws Exception {
+		this.pool = new DelegatingSecurityContextForkJoinPool(2);
+		Authentication authentication = authenticate("user");
+		assertThat(this.pool.invokeAny(List.of(currentAuthentication()), 10, TimeUnit.SECONDS))
+			.isSameAs(authentication);
+	}
+
+	@Test
+	public void lazySubmitWhenCurrentContextThenPropagated() throws Exception {
+		DelegatingSecurityContextForkJoinPool pool = new DelegatingSecurityContextForkJoinPool(2);
+		this.pool = pool;
+		Authentication authentication = authenticate("user");
+		AuthenticationTask task = new AuthenticationTask();
+		assertThat(pool.lazySubmit(task)).isSameAs(task);
+		assertThat(task.get()).isSameAs(authentication);
+	}
+
+	@Test
+	public void submitForkJoinTaskThenOriginalTaskReturned() throws Exception {
+		this.pool = new DelegatingSecurityContextForkJoinPool(2);
+		AuthenticationTask task = new AuthenticationTask();
+		assertThat(this.pool.submit(task)).isSameAs(task);
+		task.get();
+	}
+
+	@Test
+	public void submitForkJoinTaskWhenCancelledThenNotRun() throws Exception {
+		this.pool = new DelegatingSecurityContextForkJoinPool(1);
+		AtomicBoolean ran = new AtomicBoolean();
+		ForkJoinTask<?> task = ForkJoinTask.adapt(() -> ran.set(true));
+		assertThat(task.cancel(true)).isTrue();
+		this.pool.submit(task);
+		this.pool.shutdown();
+		assertThat(this.pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(task.isCancelled()).isTrue();
+		assertThat(ran).isFalse();
+	}
+
+	@Test
+	public void submitWhenDifferentSubmittersThenEachTaskUsesItsSubmittersContext() throws Exception {
+		this.pool = new DelegatingSecurityContextForkJoinPool(1);
+		Authentication first = authenticate("first");
+		ForkJoinTask<Authentication> firstResult = this.pool.submit(currentAuthentication());
+		Authentication second = authenticate("second");
+		ForkJoinTask<Authentication> secondResult = this.pool.submit(currentAuthentication());
+		assertThat(firstResult.get()).isSameAs(first);
+		assertThat(secondResult.get()).isSameAs(second);
+	}
+
+	@Test
+	public void submitWhenSubmitterHasNoContextThenPreviousContextNotLeaked() throws Exception {
+		this.pool = new DelegatingSecurityContextForkJoinPool(1);
+		authenticate("user");
+		this.pool.submit(currentAuthentication()).get();
+		SecurityContextHolder.clearContext();
+		assertThat(this.pool.submit(currentAuthentication()).get()).isNull();
+	}
+
+	@Test
+	public void submitWhenExplicitContextThenUsedRegardlessOfSubmitter() throws Exception {
+		Authentication explicit = new TestingAuthenticationToken("explicit", "password", "ROLE_USER");
+		this.pool = new DelegatingSecurityContextForkJoinPool(2, new SecurityContextImpl(explicit));
+		authenticate("user");
+		assertThat(this.pool.submit(currentAuthentication()).get()).isSameAs(explicit);
+	}
+
+	@Test
+	public void submitWhenExplicitContextAndParallelStreamThenEveryElementSeesContext() throws Exception {
+		Authentication explicit = new TestingAuthenticationToken("explicit", "password", "ROLE_USER");
+		this.pool = new DelegatingSecurityContextForkJoinPool(4, new SecurityContextImpl(explicit));
+		List<Authentication> authentications = this.pool.submit(() -> IntStream.range(0, 1000)
+			.parallel()
+			.mapToObj((i) -> SecurityContextHolder.getContext().getAuthentication())
+			.toList()).get();
+		assertThat(authentications).hasSize(1000).allMatch((authentication) -> authentication == explicit);
+	}
+
+	private static Authentication authenticate(String username) {
+		Authentication authentication = new TestingAuthenticationToken(username, "password", "ROLE_USER");
+		SecurityContextHolder.setContext(new SecurityContextImpl(authentication));
+		return authentication;
+	}
+
+	private static Callable<Authentication> currentAuthentication() {
+		return () -> SecurityContextHolder.getContext().getAuthentication();
+	}
+
+	private static final class AuthenticationTask extends RecursiveTask<Authentication> {
+
+		@Override
+		protected Authentication compute() {
+			return SecurityContextHolder.getContext().getAuthentication();
+		}
+
+	}
+
+}
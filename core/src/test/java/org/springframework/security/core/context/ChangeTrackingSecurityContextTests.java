@@ -0,0 +1,72 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.context;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.security.authentication.TestAuthentication;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.SerializationUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ChangeTrackingSecurityContext}.
+ */
+public class ChangeTrackingSecurityContextTests {
+
+	@Test
+	public void isChangedWhenCreatedThenFalse() {
+		assertThat(new ChangeTrackingSecurityContext().isChanged()).isFalse();
+		assertThat(new ChangeTrackingSecurityContext(TestAuthentication.authenticatedUser()).isChanged()).isFalse();
+	}
+
+	@Test
+	public void isChangedWhenAuthenticationReplacedThenTrue() {
+		ChangeTrackingSecurityContext context = new ChangeTrackingSecurityContext(
+				TestAuthentication.authenticatedUser());
+		context.setAuthentication(TestAuthentication.authenticatedAdmin());
+		assertThat(context.isChanged()).isTrue();
+		context.clearChanged();
+		assertThat(context.isChanged()).isFalse();
+	}
+
+	@Test
+	public void isChangedWhenSameAuthenticationSetThenFalse() {
+		Authentication authentication = TestAuthentication.authenticatedUser();
+		ChangeTrackingSecurityContext context = new ChangeTrackingSecurityContext(authentication);
+		context.setAuthentication(authentication);
+		assertThat(context.isChanged()).isFalse();
+	}
+
+	@Test
+	public void equalsWhenSameAuthenticationThenEqualToSecurityContextImpl() {
+		Authentication authentication = TestAuthentication.authenticatedUser();
+		assertThat(new ChangeTrackingSecurityContext(authentication))
+			.isEqualTo(new SecurityContextImpl(authentication));
+	}
+
+	@Test
+	public void serializeWhenChangedThenDeserializedUnchanged() {
+		ChangeTrackingSecurityContext context = new ChangeTrackingSecurityContext();
+		context.setAuthentication(TestAuthentication.authenticatedUser());
+		ChangeTrackingSecurityContext deserialized = SerializationUtils.clone(context);
+		assertThat(deserialized.isChanged()).isFalse();
+		assertThat(deserialized.getAuthentication().getName()).isEqualTo("user");
+	}
+
+}
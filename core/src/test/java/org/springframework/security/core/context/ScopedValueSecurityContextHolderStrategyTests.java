@@ -0,0 +1,130 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.core.context;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.security.authentication.TestAuthentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Tests for {@link ScopedValueSecurityContextHolderStrategy}.
+ */
+class ScopedValueSecurityContextHolderStrategyTests {
+
+	ScopedValueSecurityContextHolderStrategy strategy = new ScopedValueSecurityContextHolderStrategy();
+
+	@AfterEach
+	void clearContext() {
+		this.strategy.clearContext();
+	}
+
+	@Test
+	void runWhenContextThenBoundOnlyWithinScope() {
+		SecurityContext outer = new SecurityContextImpl(TestAuthentication.authenticatedUser());
+		SecurityContext inner = new SecurityContextImpl(TestAuthentication.authenticatedAdmin());
+		this.strategy.setContext(outer);
+		AtomicReference<SecurityContext> observed = new AtomicReference<>();
+		this.strategy.run(inner, () -> observed.set(this.strategy.getContext()));
+		assertThat(observed.get()).isSameAs(inner);
+		assertThat(this.strategy.getContext()).isSameAs(outer);
+	}
+
+	@Test
+	void runWhenContextChangedWithinScopeThenNotVisibleAfterwards() {
+		SecurityContext outer = new SecurityContextImpl(TestAuthentication.authenticatedUser());
+		this.strategy.setContext(outer);
+		this.strategy.run(new SecurityContextImpl(), () -> {
+			this.strategy.setContext(new SecurityContextImpl(TestAuthentication.authenticatedAdmin()));
+			this.strategy.clearContext();
+			assertThat(this.strategy.getContext().getAuthentication()).isNull();
+		});
+		assertThat(this.strategy.getContext()).isSameAs(outer);
+	}
+
+	@Test
+	void runWhenNestedThenInnermostScopeUsed() {
+		SecurityContext first = new SecurityContextImpl(TestAuthentication.authenticatedUser());
+		SecurityContext second = new SecurityContextImpl(TestAuthentication.authenticatedAdmin());
+		this.strategy.run(first, () -> {
+			this.strategy.run(second, () -> assertThat(this.strategy.getContext()).isSameAs(second));
+			assertThat(this.strategy.getContext()).isSameAs(first);
+		});
+		assertThat(this.strategy.getContext().getAuthentication()).isNull();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void callWhenDeferredContextThenNotInvokedUntilAccessed() throws Exception {
+		Supplier<SecurityContext> deferredContext = mock(Supplier.class);
+		String result = this.strategy.call(deferredContext, () -> "result");
+		assertThat(result).isEqualTo("result");
+		verifyNoInteractions(deferredContext);
+	}
+
+	@Test
+	void callWhenDeferredContextReturnsNullThenException() {
+		assertThatExceptionOfType(IllegalArgumentException.class)
+			.isThrownBy(() -> this.strategy.call(() -> null, this.strategy::getContext));
+	}
+
+	@Test
+	void callWhenTaskThrowsThenSameException() {
+		IOException failure = new IOException("failed");
+		assertThatExceptionOfType(IOException.class)
+			.isThrownBy(() -> this.strategy.call(new SecurityContextImpl(), () -> {
+				throw failure;
+			}))
+			.isSameAs(failure);
+	}
+
+	@Test
+	void setDeferredContextWhenOutsideScopeThenBehavesLikeThreadLocal() {
+		SecurityContext context = new SecurityContextImpl(TestAuthentication.authenticatedUser());
+		this.strategy.setDeferredContext(() -> context);
+		assertThat(this.strategy.getContext()).isSameAs(context);
+		this.strategy.clearContext();
+		assertThat(this.strategy.getContext()).isNotSameAs(context);
+	}
+
+	@Test
+	void getContextWhenEmptyThenReturnsSameInstance() {
+		this.strategy.run(new SecurityContextImpl(), () -> {
+			this.strategy.clearContext();
+			SecurityContext context = this.strategy.getContext();
+			assertThat(this.strategy.getContext()).isSameAs(context);
+		});
+	}
+
+	@Test
+	void contextValidates() {
+		assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> this.strategy.setContext(null));
+		assertThatExceptionOfType(IllegalArgumentException.class)
+			.isThrownBy(() -> this.strategy.run(null, () -> {
+			}));
+	}
+
+}
@@ -49,6 +49,13 @@ public class SecurityContextHolderTests {
 		SecurityContextHolder.clearContext();
 	}
 
+	@Test
+	public void setStrategyNameWhenScopedValueThenScopedValueStrategy() {
+		SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_SCOPED_VALUE);
+		assertThat(SecurityContextHolder.getContextHolderStrategy())
+			.isInstanceOf(ScopedValueSecurityContextHolderStrategy.class);
+	}
+
 	@Test
 	public void testNeverReturnsNull() {
 		assertThat(SecurityContextHolder.getContext()).isNotNull();
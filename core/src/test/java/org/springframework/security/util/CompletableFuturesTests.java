@@ -0,0 +1,61 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Tests for {@link CompletableFutures}.
+ */
+public class CompletableFuturesTests {
+
+	@Test
+	public void joinWhenCompletedThenReturnsValue() {
+		assertThat(CompletableFutures.join(CompletableFuture.completedFuture("value"))).isEqualTo("value");
+	}
+
+	@Test
+	public void joinWhenCompletedWithRuntimeExceptionThenThrowsIt() {
+		IllegalStateException failure = new IllegalStateException("failed");
+		assertThatExceptionOfType(IllegalStateException.class)
+			.isThrownBy(() -> CompletableFutures.join(CompletableFuture.failedFuture(failure)))
+			.isSameAs(failure);
+	}
+
+	@Test
+	public void joinWhenCompletedWithErrorThenThrowsIt() {
+		AssertionError failure = new AssertionError("failed");
+		assertThatExceptionOfType(AssertionError.class)
+			.isThrownBy(() -> CompletableFutures.join(CompletableFuture.failedFuture(failure)))
+			.isSameAs(failure);
+	}
+
+	@Test
+	public void joinWhenCompletedWithCheckedExceptionThenThrowsCompletionException() {
+		Exception failure = new Exception("failed");
+		assertThatExceptionOfType(CompletionException.class)
+			.isThrownBy(() -> CompletableFutures.join(CompletableFuture.failedFuture(failure)))
+			.withCause(failure);
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link LeastRecentlyUsedCache}.
+ */
+public class LeastRecentlyUsedCacheTests {
+
+	@Test
+	public void constructorWhenMaximumSizeZeroThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new LeastRecentlyUsedCache<>(0))
+			.withMessage("maximumSize must be greater than 0");
+	}
+
+	@Test
+	public void getWhenPutThenReturnsValue() {
+		LeastRecentlyUsedCache<String, String> cache = new LeastRecentlyUsedCache<>(2);
+		cache.put("a", "1");
+		cache.put("a", "2");
+		assertThat(cache.get("a")).isEqualTo("2");
+		assertThat(cache.get("b")).isNull();
+	}
+
+	@Test
+	public void getWhenMissThenDoesNotEvict() {
+		LeastRecentlyUsedCache<String, String> cache = new LeastRecentlyUsedCache<>(2);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		for (int i = 0; i < 10; i++) {
+			assertThat(cache.get("miss-" + i)).isNull();
+		}
+		assertThat(cache.get("a")).isEqualTo("1");
+		assertThat(cache.get("b")).isEqualTo("2");
+	}
+
+	@Test
+	public void putWhenFullThenEvictsLeastRecentlyUsed() {
+		LeastRecentlyUsedCache<String, String> cache = new LeastRecentlyUsedCache<>(2);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.put("c", "3");
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.get("b")).isEqualTo("2");
+		assertThat(cache.get("c")).isEqualTo("3");
+	}
+
+	@Test
+	public void compareAndSetWhenExpectedThenSetsValue() {
+		LeastRecentlyUsedCache<String, String> cache = new LeastRecentlyUsedCache<>(2);
+		assertThat(cache.compareAndSet("a", null, "1")).isTrue();
+		assertThat(cache.compareAndSet("a", "2", "3")).isFalse();
+		assertThat(cache.get("a")).isEqualTo("1");
+		assertThat(cache.compareAndSet("a", "1", null)).isTrue();
+		assertThat(cache.get("a")).isNull();
+	}
+
+	@Test
+	public void removeWhenCachedThenRemovesValue() {
+		LeastRecentlyUsedCache<String, String> cache = new LeastRecentlyUsedCache<>(2);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.remove("a");
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.get("b")).isEqualTo("2");
+	}
+
+	@Test
+	public void clearWhenCachedThenRemovesAllValues() {
+		LeastRecentlyUsedCache<String, String> cache = new LeastRecentlyUsedCache<>(2);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.clear();
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.get("b")).isNull();
+	}
+
+}
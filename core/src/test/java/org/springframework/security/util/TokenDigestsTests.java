@@ -0,0 +1,38 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TokenDigests}.
+ */
+public class TokenDigestsTests {
+
+	@Test
+	public void sha256WhenTokenThenBase64EncodedDigestWithoutPadding() {
+		assertThat(TokenDigests.sha256("token")).isEqualTo("PEaenWxYddN6Q/NT1PiOYfz4EsZu7jRXRlpAsNpBU+A");
+	}
+
+	@Test
+	public void sha256WhenDifferentTokensThenDifferentDigests() {
+		assertThat(TokenDigests.sha256("token")).isNotEqualTo(TokenDigests.sha256("other"));
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,19 +16,34 @@
 
 package org.springframework.security.oauth2.client;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.lang.Nullable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.oauth2.client.web.DefaultOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
 import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
 import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.util.CompletableFutures;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
@@ -64,6 +79,17 @@ import org.springframework.util.StringUtils;
  * {@link OAuth2AuthorizationFailureHandler} via
  * {@link #setAuthorizationFailureHandler(OAuth2AuthorizationFailureHandler)}.
  *
+ * <h2>Concurrent Authorization</h2>
+ *
+ * <p>
+ * Concurrent authorization attempts for the same client registration and principal are
+ * coalesced when the access token is about to expire, see
+ * {@link #setClockSkew(Duration)}, so that only one of them calls the
+ * {@link OAuth2AuthorizedClientProvider} and the handlers, and the others share its
+ * outcome. Optionally, an
+ * {@link OAuth2AuthorizedClient} can be re-authorized in the background ahead of its
+ * expiry, see {@link #setRefreshAhead(Duration)}.
+ *
  * @author Joe Grandja
  * @since 5.2
  * @see OAuth2AuthorizedClientManager
@@ -91,6 +117,20 @@ public final class AuthorizedClientServiceOAuth2AuthorizedClientManager implemen
 
 	private OAuth2AuthorizationFailureHandler authorizationFailureHandler;
 
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final Map<AuthorizationKey, CompletableFuture<OAuth2AuthorizedClient>> authorizations = new ConcurrentHashMap<>();
+
+	private final Set<OAuth2AuthorizedClientId> refreshes = ConcurrentHashMap.newKeySet();
+
+	private Duration refreshAhead = Duration.ZERO;
+
+	private Executor refreshExecutor = new SimpleAsyncTaskExecutor("oauth2-client-refresh-");
+
+	private Clock clock = Clock.systemUTC();
+
+	private Duration clockSkew = Duration.ofSeconds(60);
+
 	/**
 	 * Constructs an {@code AuthorizedClientServiceOAuth2AuthorizedClientManager} using
 	 * the provided parameters.
@@ -140,6 +180,47 @@ public final class AuthorizedClientServiceOAuth2AuthorizedClientManager implemen
 		}
 		OAuth2AuthorizationContext authorizationContext = buildAuthorizationContext(authorizeRequest, principal,
 				contextBuilder);
+		authorizedClient = authorizeOnce(authorizationContext);
+		if (authorizedClient == null) {
+			// In the case of re-authorization, the returned `authorizedClient` may be
+			// null if re-authorization is not supported.
+			// For these cases, return the provided
+			// `authorizationContext.authorizedClient`.
+			if (authorizationContext.getAuthorizedClient() != null) {
+				refreshAheadIfNecessary(authorizeRequest, authorizationContext.getAuthorizedClient());
+				return authorizationContext.getAuthorizedClient();
+			}
+		}
+		return authorizedClient;
+	}
+
+	private OAuth2AuthorizedClient authorizeOnce(OAuth2AuthorizationContext authorizationContext) {
+		AuthorizationKey key = AuthorizationKey.of(authorizationContext, this.clock, this.clockSkew);
+		if (key == null) {
+			return authorize(authorizationContext);
+		}
+		CompletableFuture<OAuth2AuthorizedClient> authorization = new CompletableFuture<>();
+		CompletableFuture<OAuth2AuthorizedClient> inFlight = this.authorizations.putIfAbsent(key, authorization);
+		if (inFlight != null) {
+			return CompletableFutures.join(inFlight);
+		}
+		try {
+			OAuth2AuthorizedClient authorizedClient = authorize(authorizationContext);
+			authorization.complete(authorizedClient);
+			return authorizedClient;
+		}
+		catch (Throwable ex) {
+			authorization.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			this.authorizations.remove(key, authorization);
+		}
+	}
+
+	private OAuth2AuthorizedClient authorize(OAuth2AuthorizationContext authorizationContext) {
+		Authentication principal = authorizationContext.getPrincipal();
+		OAuth2AuthorizedClient authorizedClient;
 		try {
 			authorizedClient = this.authorizedClientProvider.authorize(authorizationContext);
 		}
@@ -151,18 +232,60 @@ public final class AuthorizedClientServiceOAuth2AuthorizedClientManager implemen
 			this.authorizationSuccessHandler.onAuthorizationSuccess(authorizedClient, principal,
 					Collections.emptyMap());
 		}
-		else {
-			// In the case of re-authorization, the returned `authorizedClient` may be
-			// null if re-authorization is not supported.
-			// For these cases, return the provided
-			// `authorizationContext.authorizedClient`.
-			if (authorizationContext.getAuthorizedClient() != null) {
-				return authorizationContext.getAuthorizedClient();
-			}
-		}
 		return authorizedClient;
 	}
 
+	private void refreshAheadIfNecessary(OAuth2AuthorizeRequest authorizeRequest,
+			OAuth2AuthorizedClient authorizedClient) {
+		if (this.refreshAhead.isZero()) {
+			return;
+		}
+		OAuth2AuthorizedClientId id = new OAuth2AuthorizedClientId(authorizeRequest.getClientRegistrationId(),
+				authorizeRequest.getPrincipal().getName());
+		Instant now = this.clock.instant();
+		Instant expiresAt = authorizedClient.getAccessToken().getExpiresAt();
+		if (expiresAt == null || now.isBefore(expiresAt.minus(this.refreshAhead)) || !this.refreshes.add(id)) {
+			return;
+		}
+		OAuth2AuthorizationContext authorizationContext = buildAuthorizationContext(authorizeRequest,
+				authorizeRequest.getPrincipal(),
+				OAuth2AuthorizationContext.withAuthorizedClient(withExpiredAccessToken(authorizedClient, now)));
+		try {
+			this.refreshExecutor.execute(() -> {
+				try {
+					authorizeOnce(authorizationContext);
+				}
+				catch (RuntimeException ex) {
+					this.logger.debug(LogMessage.format("Failed to refresh authorized client %s ahead of expiry",
+							id.getClientRegistrationId()), ex);
+				}
+				finally {
+					this.refreshes.remove(id);
+				}
+			});
+		}
+		catch (RuntimeException ex) {
+			this.refreshes.remove(id);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Copies the authorized client with an access token that has already expired, so
+	 * that the {@link OAuth2AuthorizedClientProvider} re-authorizes it, regardless of the
+	 * clock skew it is configured with
+	 */
+	static OAuth2AuthorizedClient withExpiredAccessToken(OAuth2AuthorizedClient authorizedClient,
+			Instant now) {
+		OAuth2AccessToken accessToken = authorizedClient.getAccessToken();
+		Instant issuedAt = accessToken.getIssuedAt();
+		Instant expiresAt = (issuedAt != null) ? issuedAt.plusMillis(1) : now.minusMillis(1);
+		OAuth2AccessToken expired = new OAuth2AccessToken(accessToken.getTokenType(), accessToken.getTokenValue(),
+				issuedAt, expiresAt, accessToken.getScopes());
+		return new OAuth2AuthorizedClient(authorizedClient.getClientRegistration(),
+				authorizedClient.getPrincipalName(), expired, authorizedClient.getRefreshToken());
+	}
+
 	private OAuth2AuthorizationContext buildAuthorizationContext(OAuth2AuthorizeRequest authorizeRequest,
 			Authentication principal, OAuth2AuthorizationContext.Builder contextBuilder) {
 		// @formatter:off
@@ -235,6 +358,60 @@ public final class AuthorizedClientServiceOAuth2AuthorizedClientManager implemen
 		this.authorizationFailureHandler = authorizationFailureHandler;
 	}
 
+	/**
+	 * Sets how long before the access token of an {@link OAuth2AuthorizedClient} expires
+	 * it is re-authorized in the background, when it is requested. This should be greater
+	 * than the clock skew of the {@link OAuth2AuthorizedClientProvider}, so that the
+	 * re-authorization happens before requests need to wait for it. The default is
+	 * {@link Duration#ZERO}, which disables re-authorization in the background.
+	 * @param refreshAhead how long before expiry to re-authorize in the background
+	 * @since 6.3
+	 */
+	public void setRefreshAhead(Duration refreshAhead) {
+		Assert.notNull(refreshAhead, "refreshAhead cannot be null");
+		Assert.isTrue(!refreshAhead.isNegative(), "refreshAhead cannot be negative");
+		this.refreshAhead = refreshAhead;
+	}
+
+	/**
+	 * Sets the {@link Executor} used to re-authorize an {@link OAuth2AuthorizedClient} in
+	 * the background. The default is a {@link SimpleAsyncTaskExecutor}.
+	 * @param refreshExecutor the {@link Executor} to re-authorize in the background with
+	 * @since 6.3
+	 * @see #setRefreshAhead(Duration)
+	 */
+	public void setRefreshExecutor(Executor refreshExecutor) {
+		Assert.notNull(refreshExecutor, "refreshExecutor cannot be null");
+		this.refreshExecutor = refreshExecutor;
+	}
+
+	/**
+	 * Sets the {@link Clock} used to determine whether an {@link OAuth2AuthorizedClient}
+	 * should be re-authorized in the background, and whether concurrent authorization
+	 * attempts are coalesced. The default is {@link Clock#systemUTC()}.
+	 * @param clock the clock
+	 * @since 6.3
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	/**
+	 * Sets the maximum acceptable clock skew, which is used to determine whether the
+	 * access token of an {@link OAuth2AuthorizedClient} is about to expire. Only
+	 * authorization attempts for an access token that has expired, or expires within
+	 * this clock skew, are coalesced; others call the {@link OAuth2AuthorizedClientProvider} directly. This should
+	 * be at least the clock skew of the {@link OAuth2AuthorizedClientProvider}. The default is 60 seconds.
+	 * @param clockSkew the maximum acceptable clock skew
+	 * @since 6.3
+	 */
+	public void setClockSkew(Duration clockSkew) {
+		Assert.notNull(clockSkew, "clockSkew cannot be null");
+		Assert.isTrue(clockSkew.getSeconds() >= 0, "clockSkew must be >= 0");
+		this.clockSkew = clockSkew;
+	}
+
 	/**
 	 * The default implementation of the {@link #setContextAttributesMapper(Function)
 	 * contextAttributesMapper}.
@@ -256,4 +433,41 @@ public final class AuthorizedClientServiceOAuth2AuthorizedClientManager implemen
 
 	}
 
+	/**
+	 * Identifies authorization attempts that can share an outcome. Attempts with an
+	 * authorized client are only coalesced when its access token is about to expire,
+	 * since the provider otherwise returns without re-authorizing. Attempts without an
+	 * authorized client are only coalesced for the
+	 * {@link AuthorizationGrantType#CLIENT_CREDENTIALS client_credentials} grant, since
+	 * the context may otherwise carry request specific attributes, such as credentials.
+	 */
+	record AuthorizationKey(String clientRegistrationId, String principalName, String accessTokenValue) {
+
+		@Nullable
+		static AuthorizationKey of(OAuth2AuthorizationContext authorizationContext, Clock clock,
+				Duration clockSkew) {
+			ClientRegistration clientRegistration = authorizationContext.getClientRegistration();
+			OAuth2AuthorizedClient authorizedClient = authorizationContext.getAuthorizedClient();
+			String principalName = authorizationContext.getPrincipal().getName();
+			if (authorizedClient != null) {
+				OAuth2AccessToken accessToken = authorizedClient.getAccessToken();
+				if (!hasTokenExpired(accessToken, clock, clockSkew)) {
+					return null;
+				}
+				return new AuthorizationKey(clientRegistration.getRegistrationId(), principalName,
+						accessToken.getTokenValue());
+			}
+			if (AuthorizationGrantType.CLIENT_CREDENTIALS.equals(clientRegistration.getAuthorizationGrantType())) {
+				return new AuthorizationKey(clientRegistration.getRegistrationId(), principalName, null);
+			}
+			return null;
+		}
+
+		private static boolean hasTokenExpired(OAuth2AccessToken accessToken, Clock clock, Duration clockSkew) {
+			Instant expiresAt = accessToken.getExpiresAt();
+			return expiresAt != null && clock.instant().isAfter(expiresAt.minus(clockSkew));
+		}
+
+	}
+
 }
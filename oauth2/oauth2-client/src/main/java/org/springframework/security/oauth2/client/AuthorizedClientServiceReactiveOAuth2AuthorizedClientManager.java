@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,24 @@
 
 package org.springframework.security.oauth2.client;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import org.springframework.core.log.LogMessage;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager.AuthorizationKey;
 import org.springframework.security.oauth2.client.registration.ReactiveClientRegistrationRepository;
 import org.springframework.security.oauth2.client.web.DefaultReactiveOAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
@@ -70,6 +81,15 @@ import org.springframework.web.server.ServerWebExchange;
  * {@link #setAuthorizationFailureHandler(ReactiveOAuth2AuthorizationFailureHandler)}.
  * </p>
  *
+ * <p>
+ * Concurrent authorization attempts for the same client registration and principal are
+ * coalesced when the access token is about to expire, see
+ * {@link #setClockSkew(Duration)}, so that only one of them calls the
+ * {@link ReactiveOAuth2AuthorizedClientProvider} and the handlers, and the others share
+ * its outcome. Optionally, an {@link OAuth2AuthorizedClient} can be re-authorized in the
+ * background ahead of its expiry, see {@link #setRefreshAhead(Duration)}.
+ * </p>
+ *
  * @author Ankur Pathak
  * @author Phil Clay
  * @since 5.2.2
@@ -99,6 +119,20 @@ public final class AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager
 
 	private ReactiveOAuth2AuthorizationFailureHandler authorizationFailureHandler;
 
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final Map<AuthorizationKey, Mono<OAuth2AuthorizedClient>> authorizations = new ConcurrentHashMap<>();
+
+	private final Set<OAuth2AuthorizedClientId> refreshes = ConcurrentHashMap.newKeySet();
+
+	private Duration refreshAhead = Duration.ZERO;
+
+	private Scheduler refreshScheduler = Schedulers.boundedElastic();
+
+	private Clock clock = Clock.systemUTC();
+
+	private Duration clockSkew = Duration.ofSeconds(60);
+
 	/**
 	 * Constructs an {@code AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager}
 	 * using the provided parameters.
@@ -123,7 +157,13 @@ public final class AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager
 	public Mono<OAuth2AuthorizedClient> authorize(OAuth2AuthorizeRequest authorizeRequest) {
 		Assert.notNull(authorizeRequest, "authorizeRequest cannot be null");
 		return createAuthorizationContext(authorizeRequest)
-			.flatMap((authorizationContext) -> authorize(authorizationContext, authorizeRequest.getPrincipal()));
+			.flatMap((authorizationContext) -> authorizeOnce(authorizationContext, authorizeRequest.getPrincipal())
+				.doOnNext((authorizedClient) -> {
+					// the provider did not re-authorize the client
+					if (authorizedClient == authorizationContext.getAuthorizedClient()) {
+						refreshAheadIfNecessary(authorizationContext, authorizedClient);
+					}
+				}));
 	}
 
 	private Mono<OAuth2AuthorizationContext> createAuthorizationContext(OAuth2AuthorizeRequest authorizeRequest) {
@@ -177,6 +217,50 @@ public final class AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager
 			.switchIfEmpty(Mono.defer(() -> Mono.justOrEmpty(authorizationContext.getAuthorizedClient())));
 	}
 
+	private Mono<OAuth2AuthorizedClient> authorizeOnce(OAuth2AuthorizationContext authorizationContext,
+			Authentication principal) {
+		AuthorizationKey key = AuthorizationKey.of(authorizationContext, this.clock, this.clockSkew);
+		if (key == null) {
+			return authorize(authorizationContext, principal);
+		}
+		return Mono.defer(() -> this.authorizations.computeIfAbsent(key,
+				(k) -> authorize(authorizationContext, principal)
+					.doFinally((signalType) -> this.authorizations.remove(k))
+					.cache()));
+	}
+
+	private void refreshAheadIfNecessary(OAuth2AuthorizationContext authorizationContext,
+			OAuth2AuthorizedClient authorizedClient) {
+		if (this.refreshAhead.isZero()) {
+			return;
+		}
+		Instant now = this.clock.instant();
+		Instant expiresAt = authorizedClient.getAccessToken().getExpiresAt();
+		if (expiresAt == null || now.isBefore(expiresAt.minus(this.refreshAhead))) {
+			return;
+		}
+		Authentication principal = authorizationContext.getPrincipal();
+		OAuth2AuthorizedClientId id = new OAuth2AuthorizedClientId(
+				authorizedClient.getClientRegistration().getRegistrationId(), principal.getName());
+		if (!this.refreshes.add(id)) {
+			return;
+		}
+		// @formatter:off
+		OAuth2AuthorizationContext refreshContext = OAuth2AuthorizationContext
+				.withAuthorizedClient(AuthorizedClientServiceOAuth2AuthorizedClientManager
+						.withExpiredAccessToken(authorizedClient, now))
+				.principal(principal)
+				.attributes((attributes) -> attributes.putAll(authorizationContext.getAttributes()))
+				.build();
+		// not coalesced, since the authorization that triggered the refresh may still be in flight
+		authorize(refreshContext, principal)
+				.subscribeOn(this.refreshScheduler)
+				.doFinally((signalType) -> this.refreshes.remove(id))
+				.subscribe(null, (ex) -> this.logger.debug(LogMessage.format(
+						"Failed to refresh authorized client %s ahead of expiry", id.getClientRegistrationId()), ex));
+		// @formatter:on
+	}
+
 	/**
 	 * Sets the {@link ReactiveOAuth2AuthorizedClientProvider} used for authorizing (or
 	 * re-authorizing) an OAuth 2.0 Client.
@@ -232,6 +316,63 @@ public final class AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager
 		this.authorizationFailureHandler = authorizationFailureHandler;
 	}
 
+	/**
+	 * Sets how long before the access token of an {@link OAuth2AuthorizedClient} expires
+	 * it is re-authorized in the background, when it is requested. This should be greater
+	 * than the clock skew of the {@link ReactiveOAuth2AuthorizedClientProvider}, so that
+	 * the re-authorization happens before requests need to wait for it. The default is
+	 * {@link Duration#ZERO}, which disables re-authorization in the background.
+	 * @param refreshAhead how long before expiry to re-authorize in the background
+	 * @since 6.3
+	 */
+	public void setRefreshAhead(Duration refreshAhead) {
+		Assert.notNull(refreshAhead, "refreshAhead cannot be null");
+		Assert.isTrue(!refreshAhead.isNegative(), "refreshAhead cannot be negative");
+		this.refreshAhead = refreshAhead;
+	}
+
+	/**
+	 * Sets the {@link Scheduler} used to re-authorize an {@link OAuth2AuthorizedClient}
+	 * in the background. The default is {@link Schedulers#boundedElastic()}.
+	 * @param refreshScheduler the {@link Scheduler} to re-authorize in the background
+	 * with
+	 * @since 6.3
+	 * @see #setRefreshAhead(Duration)
+	 */
+	public void setRefreshScheduler(Scheduler refreshScheduler) {
+		Assert.notNull(refreshScheduler, "refreshScheduler cannot be null");
+		this.refreshScheduler = refreshScheduler;
+	}
+
+	/**
+	 * Sets the {@link Clock} used to determine whether an {@link OAuth2AuthorizedClient}
+	 * should be re-authorized in the background, and whether concurrent authorization
+	 * attempts are coalesced. The default is {@link Clock#systemUTC()}.
+	 * @param clock the clock
+	 * @since 6.3
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	/**
+	 * Sets the maximum acceptable clock skew, which is used to determine whether the
+	 * access token of an {@link OAuth2AuthorizedClient} is about to expire. Only
+	 * authorization attempts for an access token that has expired, or expires within
+	 * this clock skew, are coalesced; others call the
+	 * {@link ReactiveOAuth2AuthorizedClientProvider} directly. This should be at least
+	 * the clock skew of the {@link ReactiveOAuth2AuthorizedClientProvider}. The default
+	 * is 60 seconds.
+	 * @param clockSkew the maximum acceptable clock skew
+	 * @since 6.3
+	 */
+	public void setClockSkew(Duration clockSkew) {
+		Assert.notNull(clockSkew, "clockSkew cannot be null");
+		Assert.isTrue(clockSkew.getSeconds() >= 0, "clockSkew must be >= 0");
+		this.clockSkew = clockSkew;
+	}
+
 	/**
 	 * The default implementation of the {@link #setContextAttributesMapper(Function)
 	 * contextAttributesMapper}.
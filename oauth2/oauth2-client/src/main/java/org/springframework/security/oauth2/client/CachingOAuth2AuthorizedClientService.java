@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.LeastRecentlyUsedCache;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link OAuth2AuthorizedClientService} that caches the
+ * {@link OAuth2AuthorizedClient Authorized Client(s)} loaded from, and saved to, another
+ * {@link OAuth2AuthorizedClientService}, such as a
+ * {@link JdbcOAuth2AuthorizedClientService}.
+ * <p>
+ * An {@link OAuth2AuthorizedClient} is cached until its access token expires, but no
+ * longer than the configured time to live, so that the delegate is consulted again once
+ * the access token needs to be refreshed. Saves and removals are written to the
+ * delegate before the cache is updated.
+ * <p>
+ * <b>NOTE:</b> Changes made by other instances of the application are only seen once the
+ * cached {@link OAuth2AuthorizedClient} expires.
+ *
+ * @since 6.3
+ * @see CachingReactiveOAuth2AuthorizedClientService
+ */
+public final class CachingOAuth2AuthorizedClientService implements OAuth2AuthorizedClientService {
+
+	private LeastRecentlyUsedCache<OAuth2AuthorizedClientId, CachedAuthorizedClient> cache;
+
+	private final AtomicLong removals = new AtomicLong();
+
+	private final OAuth2AuthorizedClientService delegate;
+
+	private Duration timeToLive = Duration.ofMinutes(5);
+
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Constructs a {@code CachingOAuth2AuthorizedClientService} using the provided
+	 * parameters.
+	 * @param delegate the {@link OAuth2AuthorizedClientService} to cache
+	 */
+	public CachingOAuth2AuthorizedClientService(OAuth2AuthorizedClientService delegate) {
+		Assert.notNull(delegate, "delegate cannot be null");
+		this.delegate = delegate;
+		this.cache = new LeastRecentlyUsedCache<>(10000);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T extends OAuth2AuthorizedClient> T loadAuthorizedClient(String clientRegistrationId,
+			String principalName) {
+		Assert.hasText(clientRegistrationId, "clientRegistrationId cannot be empty");
+		Assert.hasText(principalName, "principalName cannot be empty");
+		OAuth2AuthorizedClientId id = new OAuth2AuthorizedClientId(clientRegistrationId, principalName);
+		Instant now = this.clock.instant();
+		CachedAuthorizedClient cached = this.cache.get(id);
+		if (cached != null && !cached.isExpired(now)) {
+			return (T) cached.getAuthorizedClient();
+		}
+		long removals = this.removals.get();
+		T authorizedClient = this.delegate.loadAuthorizedClient(clientRegistrationId, principalName);
+		if (authorizedClient != null) {
+			CachedAuthorizedClient.load(this.cache, id, cached, cache(authorizedClient, now),
+					() -> removals != this.removals.get());
+		}
+		return authorizedClient;
+	}
+
+	@Override
+	public void saveAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal) {
+		Assert.notNull(authorizedClient, "authorizedClient cannot be null");
+		Assert.notNull(principal, "principal cannot be null");
+		this.delegate.saveAuthorizedClient(authorizedClient, principal);
+		this.cache.put(new OAuth2AuthorizedClientId(authorizedClient.getClientRegistration().getRegistrationId(),
+				principal.getName()), cache(authorizedClient, this.clock.instant()));
+	}
+
+	@Override
+	public void removeAuthorizedClient(String clientRegistrationId, String principalName) {
+		Assert.hasText(clientRegistrationId, "clientRegistrationId cannot be empty");
+		Assert.hasText(principalName, "principalName cannot be empty");
+		this.delegate.removeAuthorizedClient(clientRegistrationId, principalName);
+		this.removals.incrementAndGet();
+		this.cache.remove(new OAuth2AuthorizedClientId(clientRegistrationId, principalName));
+	}
+
+	/**
+	 * Sets the maximum time to cache an {@link OAuth2AuthorizedClient} for. An
+	 * {@link OAuth2AuthorizedClient} is never cached beyond the expiry of its access
+	 * token. The default is 5 minutes.
+	 * @param timeToLive the maximum time to cache an {@link OAuth2AuthorizedClient} for
+	 */
+	public void setTimeToLive(Duration timeToLive) {
+		Assert.notNull(timeToLive, "timeToLive cannot be null");
+		Assert.isTrue(!timeToLive.isNegative(), "timeToLive cannot be negative");
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Sets the maximum number of {@link OAuth2AuthorizedClient Authorized Client(s)} to
+	 * cache. When exceeded, the least recently used {@link OAuth2AuthorizedClient} is
+	 * evicted. Setting the maximum size clears the cache. The default is 10000.
+	 * @param maximumSize the maximum number of cached
+	 * {@link OAuth2AuthorizedClient Authorized Client(s)}
+	 */
+	public void setMaximumSize(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		this.cache = new LeastRecentlyUsedCache<>(maximumSize);
+	}
+
+	/**
+	 * Sets the {@link Clock} used to determine when a cached
+	 * {@link OAuth2AuthorizedClient} expires. The default is {@link Clock#systemUTC()}.
+	 * @param clock the clock
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	private CachedAuthorizedClient cache(OAuth2AuthorizedClient authorizedClient, Instant now) {
+		return CachedAuthorizedClient.of(authorizedClient, now, this.timeToLive);
+	}
+
+	static final class CachedAuthorizedClient {
+
+		private final OAuth2AuthorizedClient authorizedClient;
+
+		private final Instant expiresAt;
+
+		private CachedAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Instant expiresAt) {
+			this.authorizedClient = authorizedClient;
+			this.expiresAt = expiresAt;
+		}
+
+		OAuth2AuthorizedClient getAuthorizedClient() {
+			return this.authorizedClient;
+		}
+
+		boolean isExpired(Instant now) {
+			return !now.isBefore(this.expiresAt);
+		}
+
+		static CachedAuthorizedClient of(OAuth2AuthorizedClient authorizedClient, Instant now, Duration timeToLive) {
+			Instant expiresAt = now.plus(timeToLive);
+			Instant accessTokenExpiresAt = authorizedClient.getAccessToken().getExpiresAt();
+			if (accessTokenExpiresAt != null && accessTokenExpiresAt.isBefore(expiresAt)) {
+				expiresAt = accessTokenExpiresAt;
+			}
+			return new CachedAuthorizedClient(authorizedClient, expiresAt);
+		}
+
+		static <K> void load(LeastRecentlyUsedCache<K, CachedAuthorizedClient> cache, K key,
+				CachedAuthorizedClient previous, CachedAuthorizedClient loaded, BooleanSupplier removed) {
+			// a concurrent save wins over the loaded value, and a concurrent removal discards it
+			if (cache.compareAndSet(key, previous, loaded) && removed.getAsBoolean()) {
+				cache.compareAndSet(key, loaded, null);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.CachingOAuth2AuthorizedClientService.CachedAuthorizedClient;
+import org.springframework.security.util.LeastRecentlyUsedCache;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link ReactiveOAuth2AuthorizedClientService} that caches the
+ * {@link OAuth2AuthorizedClient Authorized Client(s)} loaded from, and saved to, another
+ * {@link ReactiveOAuth2AuthorizedClientService}, such as a
+ * {@link R2dbcReactiveOAuth2AuthorizedClientService}.
+ * <p>
+ * An {@link OAuth2AuthorizedClient} is cached until its access token expires, but no
+ * longer than the configured time to live, so that the delegate is consulted again once
+ * the access token needs to be refreshed. Saves and removals are written to the
+ * delegate before the cache is updated.
+ * <p>
+ * <b>NOTE:</b> Changes made by other instances of the application are only seen once the
+ * cached {@link OAuth2AuthorizedClient} expires.
+ *
+ * @since 6.3
+ * @see CachingOAuth2AuthorizedClientService
+ */
+public final class CachingReactiveOAuth2AuthorizedClientService implements ReactiveOAuth2AuthorizedClientService {
+
+	private LeastRecentlyUsedCache<OAuth2AuthorizedClientId, CachedAuthorizedClient> cache;
+
+	private final AtomicLong removals = new AtomicLong();
+
+	private final ReactiveOAuth2AuthorizedClientService delegate;
+
+	private Duration timeToLive = Duration.ofMinutes(5);
+
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Constructs a {@code CachingReactiveOAuth2AuthorizedClientService} using the
+	 * provided parameters.
+	 * @param delegate the {@link ReactiveOAuth2AuthorizedClientService} to cache
+	 */
+	public CachingReactiveOAuth2AuthorizedClientService(ReactiveOAuth2AuthorizedClientService delegate) {
+		Assert.notNull(delegate, "delegate cannot be null");
+		this.delegate = delegate;
+		this.cache = new LeastRecentlyUsedCache<>(10000);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T extends OAuth2AuthorizedClient> Mono<T> loadAuthorizedClient(String clientRegistrationId,
+			String principalName) {
+		Assert.hasText(clientRegistrationId, "clientRegistrationId cannot be empty");
+		Assert.hasText(principalName, "principalName cannot be empty");
+		OAuth2AuthorizedClientId id = new OAuth2AuthorizedClientId(clientRegistrationId, principalName);
+		return Mono.defer(() -> {
+			Instant now = this.clock.instant();
+			CachedAuthorizedClient cached = this.cache.get(id);
+			if (cached != null && !cached.isExpired(now)) {
+				return Mono.just((T) cached.getAuthorizedClient());
+			}
+			long removals = this.removals.get();
+			return this.delegate.<T>loadAuthorizedClient(clientRegistrationId, principalName)
+				.doOnNext((authorizedClient) -> CachedAuthorizedClient.load(this.cache, id, cached,
+						cache(authorizedClient, now), () -> removals != this.removals.get()));
+		});
+	}
+
+	@Override
+	public Mono<Void> saveAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal) {
+		Assert.notNull(authorizedClient, "authorizedClient cannot be null");
+		Assert.notNull(principal, "principal cannot be null");
+		OAuth2AuthorizedClientId id = new OAuth2AuthorizedClientId(
+				authorizedClient.getClientRegistration().getRegistrationId(), principal.getName());
+		return this.delegate.saveAuthorizedClient(authorizedClient, principal)
+			.then(Mono.fromRunnable(
+					() -> this.cache.put(id, cache(authorizedClient, this.clock.instant()))));
+	}
+
+	@Override
+	public Mono<Void> removeAuthorizedClient(String clientRegistrationId, String principalName) {
+		Assert.hasText(clientRegistrationId, "clientRegistrationId cannot be empty");
+		Assert.hasText(principalName, "principalName cannot be empty");
+		OAuth2AuthorizedClientId id = new OAuth2AuthorizedClientId(clientRegistrationId, principalName);
+		return this.delegate.removeAuthorizedClient(clientRegistrationId, principalName)
+			.then(Mono.fromRunnable(() -> {
+				this.removals.incrementAndGet();
+				this.cache.remove(id);
+			}));
+	}
+
+	/**
+	 * Sets the maximum time to cache an {@link OAuth2AuthorizedClient} for. An
+	 * {@link OAuth2AuthorizedClient} is never cached beyond the expiry of its access
+	 * token. The default is 5 minutes.
+	 * @param timeToLive the maximum time to cache an {@link OAuth2AuthorizedClient} for
+	 */
+	public void setTimeToLive(Duration timeToLive) {
+		Assert.notNull(timeToLive, "timeToLive cannot be null");
+		Assert.isTrue(!timeToLive.isNegative(), "timeToLive cannot be negative");
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Sets the maximum number of {@link OAuth2AuthorizedClient Authorized Client(s)} to
+	 * cache. When exceeded, the least recently used {@link OAuth2AuthorizedClient} is
+	 * evicted. Setting the maximum size clears the cache. The default is 10000.
+	 * @param maximumSize the maximum number of cached
+	 * {@link OAuth2AuthorizedClient Authorized Client(s)}
+	 */
+	public void setMaximumSize(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		this.cache = new LeastRecentlyUsedCache<>(maximumSize);
+	}
+
+	/**
+	 * Sets the {@link Clock} used to determine when a cached
+	 * {@link OAuth2AuthorizedClient} expires. The default is {@link Clock#systemUTC()}.
+	 * @param clock the clock
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	private CachedAuthorizedClient cache(OAuth2AuthorizedClient authorizedClient, Instant now) {
+		return CachedAuthorizedClient.of(authorizedClient, now, this.timeToLive);
+	}
+
+}
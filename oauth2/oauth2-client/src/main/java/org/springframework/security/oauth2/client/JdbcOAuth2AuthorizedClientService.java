@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,7 @@ import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -32,6 +33,7 @@ import java.util.function.Function;
 import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.jdbc.core.RowMapper;
@@ -114,6 +116,16 @@ public class JdbcOAuth2AuthorizedClientService implements OAuth2AuthorizedClient
 
 	protected final LobHandler lobHandler;
 
+	private final Object pendingSavesLock = new Object();
+
+	private final Object saveBatchLock = new Object();
+
+	private List<PendingSave> pendingSaves = new ArrayList<>();
+
+	private String upsertAuthorizedClientSql;
+
+	private boolean batchConcurrentSaves;
+
 	/**
 	 * Constructs a {@code JdbcOAuth2AuthorizedClientService} using the provided
 	 * parameters.
@@ -166,6 +178,17 @@ public class JdbcOAuth2AuthorizedClientService implements OAuth2AuthorizedClient
 	public void saveAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal) {
 		Assert.notNull(authorizedClient, "authorizedClient cannot be null");
 		Assert.notNull(principal, "principal cannot be null");
+		if (this.upsertAuthorizedClientSql != null) {
+			List<SqlParameterValue> parameters = this.authorizedClientParametersMapper
+				.apply(new OAuth2AuthorizedClientHolder(authorizedClient, principal));
+			if (this.batchConcurrentSaves) {
+				batchUpsertAuthorizedClient(parameters.toArray());
+			}
+			else {
+				upsertAuthorizedClient(Collections.singletonList(parameters.toArray()));
+			}
+			return;
+		}
 		boolean existsAuthorizedClient = null != this
 			.loadAuthorizedClient(authorizedClient.getClientRegistration().getRegistrationId(), principal.getName());
 		if (existsAuthorizedClient) {
@@ -205,6 +228,66 @@ public class JdbcOAuth2AuthorizedClientService implements OAuth2AuthorizedClient
 		}
 	}
 
+	private void batchUpsertAuthorizedClient(Object[] parameters) {
+		PendingSave save = new PendingSave(parameters);
+		synchronized (this.pendingSavesLock) {
+			this.pendingSaves.add(save);
+		}
+		synchronized (this.saveBatchLock) {
+			// another thread may have written this save as part of its batch
+			if (!save.completed) {
+				List<PendingSave> batch;
+				synchronized (this.pendingSavesLock) {
+					batch = this.pendingSaves;
+					this.pendingSaves = new ArrayList<>();
+				}
+				Throwable failure = null;
+				try {
+					upsertAuthorizedClient(batch.stream().map((pending) -> pending.parameters).toList());
+				}
+				catch (Throwable ex) {
+					failure = ex;
+					throw ex;
+				}
+				finally {
+					for (PendingSave pending : batch) {
+						pending.failure = failure;
+						pending.completed = true;
+					}
+				}
+			}
+		}
+		if (save.failure instanceof Error error) {
+			throw error;
+		}
+		if (save.failure != null) {
+			throw (RuntimeException) save.failure;
+		}
+	}
+
+	private void upsertAuthorizedClient(List<Object[]> batch) {
+		try (LobCreator lobCreator = this.lobHandler.getLobCreator()) {
+			if (batch.size() == 1) {
+				PreparedStatementSetter pss = new LobCreatorArgumentPreparedStatementSetter(lobCreator, batch.get(0));
+				this.jdbcOperations.update(this.upsertAuthorizedClientSql, pss);
+				return;
+			}
+			this.jdbcOperations.batchUpdate(this.upsertAuthorizedClientSql, new BatchPreparedStatementSetter() {
+
+				@Override
+				public void setValues(PreparedStatement ps, int i) throws SQLException {
+					new LobCreatorArgumentPreparedStatementSetter(lobCreator, batch.get(i)).setValues(ps);
+				}
+
+				@Override
+				public int getBatchSize() {
+					return batch.size();
+				}
+
+			});
+		}
+	}
+
 	@Override
 	public void removeAuthorizedClient(String clientRegistrationId, String principalName) {
 		Assert.hasText(clientRegistrationId, "clientRegistrationId cannot be empty");
@@ -241,6 +324,36 @@ public class JdbcOAuth2AuthorizedClientService implements OAuth2AuthorizedClient
 		this.authorizedClientParametersMapper = authorizedClientParametersMapper;
 	}
 
+	/**
+	 * Sets the {@link OAuth2AuthorizedClientUpsertDialect} of the database, so that
+	 * {@link #saveAuthorizedClient(OAuth2AuthorizedClient, Authentication)} uses a single
+	 * upsert statement instead of a query followed by an update or an insert. The default
+	 * is to not use an upsert statement.
+	 * @param upsertDialect the dialect of the database
+	 * @since 6.3
+	 */
+	public final void setUpsertDialect(OAuth2AuthorizedClientUpsertDialect upsertDialect) {
+		Assert.notNull(upsertDialect, "upsertDialect cannot be null");
+		String[] columns = StringUtils.tokenizeToStringArray(COLUMN_NAMES, ",");
+		String[] placeholders = new String[columns.length];
+		Arrays.fill(placeholders, "?");
+		this.upsertAuthorizedClientSql = upsertDialect.getUpsertSql(TABLE_NAME, columns, placeholders);
+	}
+
+	/**
+	 * Sets whether saves that arrive while another save is being written are combined
+	 * into a single JDBC batch. This only applies when an
+	 * {@link #setUpsertDialect(OAuth2AuthorizedClientUpsertDialect) upsert dialect} is
+	 * set. Since the batch is written by one of the saving threads, this must not be
+	 * enabled when saves participate in a transaction of the caller. The default is
+	 * {@code false}.
+	 * @param batchConcurrentSaves whether to batch concurrent saves
+	 * @since 6.3
+	 */
+	public final void setBatchConcurrentSaves(boolean batchConcurrentSaves) {
+		this.batchConcurrentSaves = batchConcurrentSaves;
+	}
+
 	/**
 	 * The default {@link RowMapper} that maps the current row in
 	 * {@code java.sql.ResultSet} to {@link OAuth2AuthorizedClient}.
@@ -385,6 +498,20 @@ public class JdbcOAuth2AuthorizedClientService implements OAuth2AuthorizedClient
 
 	}
 
+	private static final class PendingSave {
+
+		private final Object[] parameters;
+
+		private boolean completed;
+
+		private Throwable failure;
+
+		private PendingSave(Object[] parameters) {
+			this.parameters = parameters;
+		}
+
+	}
+
 	private static final class LobCreatorArgumentPreparedStatementSetter extends ArgumentPreparedStatementSetter {
 
 		protected final LobCreator lobCreator;
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.client;
+
+import java.util.StringJoiner;
+
+/**
+ * The SQL dialects for which {@link JdbcOAuth2AuthorizedClientService} and
+ * {@link R2dbcReactiveOAuth2AuthorizedClientService} can save an
+ * {@link OAuth2AuthorizedClient} with a single insert-or-update ("upsert") statement,
+ * instead of a query followed by an update or an insert.
+ *
+ * @since 6.3
+ * @see JdbcOAuth2AuthorizedClientService#setUpsertDialect(OAuth2AuthorizedClientUpsertDialect)
+ * @see R2dbcReactiveOAuth2AuthorizedClientService#setUpsertDialect(OAuth2AuthorizedClientUpsertDialect)
+ */
+public enum OAuth2AuthorizedClientUpsertDialect {
+
+	/**
+	 * PostgreSQL, using {@code INSERT ... ON CONFLICT ... DO UPDATE}
+	 */
+	POSTGRESQL,
+
+	/**
+	 * MySQL and MariaDB, using {@code INSERT ... ON DUPLICATE KEY UPDATE}
+	 */
+	MYSQL,
+
+	/**
+	 * H2, using {@code MERGE INTO ... KEY}
+	 */
+	H2;
+
+	/**
+	 * Returns the upsert statement for the given table
+	 * @param tableName the name of the table
+	 * @param columns the columns to insert, the first two of which are the primary key
+	 * @param values the values or placeholders of the columns, in the same order
+	 * @return the upsert statement
+	 */
+	String getUpsertSql(String tableName, String[] columns, String[] values) {
+		String columnList = String.join(", ", columns);
+		String valueList = String.join(", ", values);
+		String keyList = columns[0] + ", " + columns[1];
+		if (this == H2) {
+			return "MERGE INTO " + tableName + " (" + columnList + ") KEY (" + keyList + ") VALUES (" + valueList
+					+ ")";
+		}
+		StringJoiner updates = new StringJoiner(", ");
+		for (int i = 2; i < columns.length; i++) {
+			updates.add((this == POSTGRESQL) ? columns[i] + " = EXCLUDED." + columns[i]
+					: columns[i] + " = VALUES(" + columns[i] + ")");
+		}
+		String insert = "INSERT INTO " + tableName + " (" + columnList + ") VALUES (" + valueList + ")";
+		if (this == POSTGRESQL) {
+			return insert + " ON CONFLICT (" + keyList + ") DO UPDATE SET " + updates;
+		}
+		return insert + " ON DUPLICATE KEY UPDATE " + updates;
+	}
+
+}
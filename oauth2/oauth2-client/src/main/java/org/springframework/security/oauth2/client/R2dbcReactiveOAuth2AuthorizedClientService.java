@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -116,6 +116,8 @@ public class R2dbcReactiveOAuth2AuthorizedClientService implements ReactiveOAuth
 
 	protected BiFunction<Row, RowMetadata, OAuth2AuthorizedClientHolder> authorizedClientRowMapper;
 
+	private String upsertAuthorizedClientSql;
+
 	/**
 	 * Constructs a {@code R2dbcReactiveOAuth2AuthorizedClientService} using the provided
 	 * parameters.
@@ -164,6 +166,9 @@ public class R2dbcReactiveOAuth2AuthorizedClientService implements ReactiveOAuth
 	public Mono<Void> saveAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal) {
 		Assert.notNull(authorizedClient, "authorizedClient cannot be null");
 		Assert.notNull(principal, "principal cannot be null");
+		if (this.upsertAuthorizedClientSql != null) {
+			return execute(this.upsertAuthorizedClientSql, authorizedClient, principal).then();
+		}
 		return this
 			.loadAuthorizedClient(authorizedClient.getClientRegistration().getRegistrationId(), principal.getName())
 			.flatMap((dbAuthorizedClient) -> updateAuthorizedClient(authorizedClient, principal))
@@ -172,17 +177,15 @@ public class R2dbcReactiveOAuth2AuthorizedClientService implements ReactiveOAuth
 	}
 
 	private Mono<Long> updateAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal) {
-		GenericExecuteSpec executeSpec = this.databaseClient.sql(UPDATE_AUTHORIZED_CLIENT_SQL);
-		for (Entry<String, Parameter> entry : this.authorizedClientParametersMapper
-			.apply(new OAuth2AuthorizedClientHolder(authorizedClient, principal))
-			.entrySet()) {
-			executeSpec = executeSpec.bind(entry.getKey(), entry.getValue());
-		}
-		return executeSpec.fetch().rowsUpdated();
+		return execute(UPDATE_AUTHORIZED_CLIENT_SQL, authorizedClient, principal);
 	}
 
 	private Mono<Long> insertAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal) {
-		GenericExecuteSpec executeSpec = this.databaseClient.sql(SAVE_AUTHORIZED_CLIENT_SQL);
+		return execute(SAVE_AUTHORIZED_CLIENT_SQL, authorizedClient, principal);
+	}
+
+	private Mono<Long> execute(String sql, OAuth2AuthorizedClient authorizedClient, Authentication principal) {
+		GenericExecuteSpec executeSpec = this.databaseClient.sql(sql);
 		for (Entry<String, Parameter> entry : this.authorizedClientParametersMapper
 			.apply(new OAuth2AuthorizedClientHolder(authorizedClient, principal))
 			.entrySet()) {
@@ -215,6 +218,23 @@ public class R2dbcReactiveOAuth2AuthorizedClientService implements ReactiveOAuth
 		this.authorizedClientParametersMapper = authorizedClientParametersMapper;
 	}
 
+	/**
+	 * Sets the {@link OAuth2AuthorizedClientUpsertDialect} of the database, so that
+	 * {@link #saveAuthorizedClient(OAuth2AuthorizedClient, Authentication)} uses a single
+	 * upsert statement instead of a query followed by an update or an insert. The default
+	 * is to not use an upsert statement.
+	 * @param upsertDialect the dialect of the database
+	 * @since 6.3
+	 */
+	public final void setUpsertDialect(OAuth2AuthorizedClientUpsertDialect upsertDialect) {
+		Assert.notNull(upsertDialect, "upsertDialect cannot be null");
+		String[] columns = StringUtils.tokenizeToStringArray(COLUMN_NAMES, ",");
+		String[] parameters = { ":clientRegistrationId", ":principalName", ":accessTokenType", ":accessTokenValue",
+				":accessTokenIssuedAt", ":accessTokenExpiresAt", ":accessTokenScopes", ":refreshTokenValue",
+				":refreshTokenIssuedAt" };
+		this.upsertAuthorizedClientSql = upsertDialect.getUpsertSql(TABLE_NAME, columns, parameters);
+	}
+
 	/**
 	 * Sets the {@link BiFunction} used for mapping the current {@code io.r2dbc.spi.Row}
 	 * to {@link OAuth2AuthorizedClientHolder}. The default is
@@ -0,0 +1,420 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.log.LogMessage;
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link OAuth2AuthorizedClientManager} that re-authorizes
+ * {@link AuthorizationGrantType#CLIENT_CREDENTIALS client_credentials} clients on a
+ * schedule, before their access token expires, so that requests do not have to wait for
+ * the token endpoint.
+ *
+ * <p>
+ * A client is tracked once it has been authorized by the delegate
+ * {@link OAuth2AuthorizedClientManager}, and is then re-authorized once a configurable
+ * ratio of the lifetime of its access token has passed, minus a random jitter so that
+ * several instances of the application do not all call the token endpoint at the same
+ * time. Until its access token is within the clock skew of expiring, a tracked client is
+ * returned without calling the delegate. Other clients, and requests for a specific
+ * {@link OAuth2AuthorizeRequest#getAuthorizedClient() authorized client}, are passed to
+ * the delegate.
+ *
+ * <p>
+ * A tracked client is only re-authorized if it served a request since it was last
+ * authorized; otherwise it is no longer tracked, and its next request is passed to the
+ * delegate again. At most {@link #setMaximumSize(int) maximumSize} clients are tracked at
+ * a time, so that clients authorized per end user cannot grow the number of scheduled
+ * re-authorizations without bound.
+ *
+ * <p>
+ * The delegate must be able to authorize without a request, such as an
+ * {@link AuthorizedClientServiceOAuth2AuthorizedClientManager}. The number of requests
+ * served by a tracked client and the number of requests that had to be authorized by the
+ * delegate are available from {@link #getHitCount()} and {@link #getFallbackCount()}, and
+ * are recorded as events on the current {@link Observation} of the
+ * {@link #setObservationRegistry(ObservationRegistry) ObservationRegistry}.
+ *
+ * @since 6.3
+ * @see ScheduledRefreshReactiveOAuth2AuthorizedClientManager
+ */
+public final class ScheduledRefreshOAuth2AuthorizedClientManager
+		implements OAuth2AuthorizedClientManager, DisposableBean {
+
+	static final String REFRESH_HIT = "spring.security.oauth2.client.refresh.hit";
+
+	static final String REFRESH_FALLBACK = "spring.security.oauth2.client.refresh.fallback";
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final OAuth2AuthorizedClientManager delegate;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final boolean ownsScheduler;
+
+	private final Map<OAuth2AuthorizedClientId, Refresh> refreshes = new ConcurrentHashMap<>();
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder fallbacks = new LongAdder();
+
+	private final LongAdder failures = new LongAdder();
+
+	private double refreshRatio = 0.8;
+
+	private double jitterRatio = 0.1;
+
+	private Duration clockSkew = Duration.ofSeconds(60);
+
+	private Duration retryInterval = Duration.ofSeconds(30);
+
+	private int maximumSize = 10000;
+
+	private Clock clock = Clock.systemUTC();
+
+	private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+	/**
+	 * Creates a new instance that re-authorizes clients using its own background thread
+	 * @param delegate the {@link OAuth2AuthorizedClientManager} to authorize clients with
+	 */
+	public ScheduledRefreshOAuth2AuthorizedClientManager(OAuth2AuthorizedClientManager delegate) {
+		this(delegate, Executors.newSingleThreadScheduledExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, "oauth2-client-refresh");
+			thread.setDaemon(true);
+			return thread;
+		}), true);
+	}
+
+	/**
+	 * Creates a new instance that re-authorizes clients using the given scheduler, which
+	 * is not shut down by {@link #destroy()}
+	 * @param delegate the {@link OAuth2AuthorizedClientManager} to authorize clients with
+	 * @param scheduler the scheduler to re-authorize clients with
+	 */
+	public ScheduledRefreshOAuth2AuthorizedClientManager(OAuth2AuthorizedClientManager delegate,
+			ScheduledExecutorService scheduler) {
+		this(delegate, scheduler, false);
+	}
+
+	private ScheduledRefreshOAuth2AuthorizedClientManager(OAuth2AuthorizedClientManager delegate,
+			ScheduledExecutorService scheduler, boolean ownsScheduler) {
+		Assert.notNull(delegate, "delegate cannot be null");
+		Assert.notNull(scheduler, "scheduler cannot be null");
+		this.delegate = delegate;
+		this.scheduler = scheduler;
+		this.ownsScheduler = ownsScheduler;
+	}
+
+	@Nullable
+	@Override
+	public OAuth2AuthorizedClient authorize(OAuth2AuthorizeRequest authorizeRequest) {
+		Assert.notNull(authorizeRequest, "authorizeRequest cannot be null");
+		if (authorizeRequest.getAuthorizedClient() != null) {
+			return this.delegate.authorize(authorizeRequest);
+		}
+		OAuth2AuthorizedClientId id = new OAuth2AuthorizedClientId(authorizeRequest.getClientRegistrationId(),
+				authorizeRequest.getPrincipal().getName());
+		Refresh refresh = this.refreshes.get(id);
+		if (refresh != null && !isExpiring(refresh.authorizedClient)) {
+			refresh.lastHit = this.clock.instant();
+			this.hits.increment();
+			recordEvent(this.observationRegistry.getCurrentObservation(), REFRESH_HIT);
+			return refresh.authorizedClient;
+		}
+		OAuth2AuthorizedClient authorizedClient = this.delegate.authorize(authorizeRequest);
+		if (isRefreshable(authorizedClient)) {
+			this.fallbacks.increment();
+			recordEvent(this.observationRegistry.getCurrentObservation(), REFRESH_FALLBACK);
+			track(id, authorizeRequest.getPrincipal(), authorizedClient);
+		}
+		return authorizedClient;
+	}
+
+	static void recordEvent(@Nullable Observation observation, String name) {
+		if (observation != null) {
+			observation.event(Observation.Event.of(name));
+		}
+	}
+
+	private void track(OAuth2AuthorizedClientId id, Authentication principal,
+			OAuth2AuthorizedClient authorizedClient) {
+		if (this.refreshes.size() >= this.maximumSize && !this.refreshes.containsKey(id)) {
+			this.logger.trace("Not tracking authorized client since the maximum number of clients are tracked");
+			return;
+		}
+		Refresh refresh = new Refresh(principal, authorizedClient);
+		Refresh previous = this.refreshes.put(id, refresh);
+		if (previous != null) {
+			previous.cancel();
+		}
+		Duration delay = refreshDelay(authorizedClient.getAccessToken(), this.clock.instant(), this.refreshRatio,
+				this.jitterRatio);
+		schedule(id, refresh, delay);
+	}
+
+	private void schedule(OAuth2AuthorizedClientId id, Refresh refresh, Duration delay) {
+		try {
+			refresh.future = this.scheduler.schedule(() -> refresh(id, refresh), delay.toMillis(),
+					TimeUnit.MILLISECONDS);
+		}
+		catch (RejectedExecutionException ex) {
+			this.logger.debug("Failed to schedule the refresh of an authorized client", ex);
+			this.refreshes.remove(id, refresh);
+			return;
+		}
+		if (refresh.cancelled) {
+			refresh.future.cancel(false);
+		}
+	}
+
+	private void refresh(OAuth2AuthorizedClientId id, Refresh refresh) {
+		if (this.refreshes.get(id) != refresh) {
+			return;
+		}
+		if (refresh.lastHit == null) {
+			// not used since it was last authorized, so leave it to the next request
+			this.logger.trace(LogMessage.format("Not refreshing idle authorized client %s",
+					id.getClientRegistrationId()));
+			this.refreshes.remove(id, refresh);
+			return;
+		}
+		OAuth2AuthorizedClient authorizedClient = refresh.authorizedClient;
+		OAuth2AuthorizeRequest authorizeRequest = OAuth2AuthorizeRequest
+			.withAuthorizedClient(AuthorizedClientServiceOAuth2AuthorizedClientManager
+				.withExpiredAccessToken(authorizedClient, this.clock.instant()))
+			.principal(refresh.principal)
+			.build();
+		OAuth2AuthorizedClient refreshedClient;
+		try {
+			refreshedClient = this.delegate.authorize(authorizeRequest);
+		}
+		catch (RuntimeException ex) {
+			this.failures.increment();
+			this.logger.debug(LogMessage.format("Failed to refresh authorized client %s, retrying in %s",
+					id.getClientRegistrationId(), this.retryInterval), ex);
+			Instant retryAt = this.clock.instant().plus(this.retryInterval);
+			if (retryAt.isBefore(authorizedClient.getAccessToken().getExpiresAt())) {
+				schedule(id, refresh, this.retryInterval);
+			}
+			else {
+				this.refreshes.remove(id, refresh);
+			}
+			return;
+		}
+		if (isRefreshable(refreshedClient) && !refreshedClient.getAccessToken()
+			.getTokenValue()
+			.equals(authorizedClient.getAccessToken().getTokenValue())) {
+			track(id, refresh.principal, refreshedClient);
+		}
+		else {
+			// the delegate did not re-authorize the client, so leave it to the next request
+			this.refreshes.remove(id, refresh);
+		}
+	}
+
+	private boolean isExpiring(OAuth2AuthorizedClient authorizedClient) {
+		Instant expiresAt = authorizedClient.getAccessToken().getExpiresAt();
+		return !this.clock.instant().isBefore(expiresAt.minus(this.clockSkew));
+	}
+
+	static boolean isRefreshable(@Nullable OAuth2AuthorizedClient authorizedClient) {
+		return authorizedClient != null
+				&& AuthorizationGrantType.CLIENT_CREDENTIALS
+					.equals(authorizedClient.getClientRegistration().getAuthorizationGrantType())
+				&& authorizedClient.getAccessToken().getExpiresAt() != null;
+	}
+
+	static Duration refreshDelay(OAuth2AccessToken accessToken, Instant now, double refreshRatio,
+			double jitterRatio) {
+		Instant issuedAt = (accessToken.getIssuedAt() != null) ? accessToken.getIssuedAt() : now;
+		long lifetime = Duration.between(issuedAt, accessToken.getExpiresAt()).toMillis();
+		long jitter = (long) (lifetime * jitterRatio * ThreadLocalRandom.current().nextDouble());
+		Instant refreshAt = issuedAt.plusMillis((long) (lifetime * refreshRatio) - jitter);
+		return now.isBefore(refreshAt) ? Duration.between(now, refreshAt) : Duration.ZERO;
+	}
+
+	/**
+	 * Stops re-authorizing clients, and shuts down the scheduler if it was created by
+	 * this instance
+	 */
+	@Override
+	public void destroy() {
+		this.refreshes.values().forEach(Refresh::cancel);
+		this.refreshes.clear();
+		if (this.ownsScheduler) {
+			this.scheduler.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the number of requests that were served by a client re-authorized on
+	 * schedule
+	 * @return the number of requests served without calling the delegate
+	 */
+	public long getHitCount() {
+		return this.hits.sum();
+	}
+
+	/**
+	 * Returns the number of requests for a
+	 * {@link AuthorizationGrantType#CLIENT_CREDENTIALS client_credentials} client that had
+	 * to be authorized by the delegate, because the client was not tracked yet or its
+	 * access token was about to expire
+	 * @return the number of requests authorized by the delegate
+	 */
+	public long getFallbackCount() {
+		return this.fallbacks.sum();
+	}
+
+	/**
+	 * Returns the number of scheduled re-authorizations that failed
+	 * @return the number of failed re-authorizations
+	 */
+	public long getRefreshFailureCount() {
+		return this.failures.sum();
+	}
+
+	/**
+	 * Sets the ratio of the lifetime of an access token after which the client is
+	 * re-authorized. The default is {@code 0.8}.
+	 * @param refreshRatio the ratio, greater than 0 and at most 1
+	 */
+	public void setRefreshRatio(double refreshRatio) {
+		Assert.isTrue(refreshRatio > 0 && refreshRatio <= 1, "refreshRatio must be greater than 0 and at most 1");
+		this.refreshRatio = refreshRatio;
+	}
+
+	/**
+	 * Sets the maximum ratio of the lifetime of an access token by which a
+	 * re-authorization is randomly brought forward, to spread the re-authorizations of
+	 * several instances of the application. The default is {@code 0.1}.
+	 * @param jitterRatio the ratio, at least 0 and less than 1
+	 */
+	public void setJitterRatio(double jitterRatio) {
+		Assert.isTrue(jitterRatio >= 0 && jitterRatio < 1, "jitterRatio must be at least 0 and less than 1");
+		this.jitterRatio = jitterRatio;
+	}
+
+	/**
+	 * Sets the maximum acceptable clock skew, within which the access token of a tracked
+	 * client is considered expired and the request is passed to the delegate. The default
+	 * is 60 seconds.
+	 * @param clockSkew the maximum acceptable clock skew
+	 */
+	public void setClockSkew(Duration clockSkew) {
+		Assert.notNull(clockSkew, "clockSkew cannot be null");
+		Assert.isTrue(!clockSkew.isNegative(), "clockSkew cannot be negative");
+		this.clockSkew = clockSkew;
+	}
+
+	/**
+	 * Sets how long to wait before retrying a failed re-authorization. The default is 30
+	 * seconds.
+	 * @param retryInterval the interval to retry failed re-authorizations at
+	 */
+	public void setRetryInterval(Duration retryInterval) {
+		Assert.notNull(retryInterval, "retryInterval cannot be null");
+		Assert.isTrue(!retryInterval.isNegative(), "retryInterval cannot be negative");
+		this.retryInterval = retryInterval;
+	}
+
+	/**
+	 * Sets the maximum number of clients to track. Once reached, newly authorized clients
+	 * are not re-authorized on schedule until tracked clients become idle or expire. The
+	 * default is {@code 10000}.
+	 * @param maximumSize the maximum number of tracked clients, greater than 0
+	 */
+	public void setMaximumSize(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Sets the {@link ObservationRegistry} used to record whether each request was served
+	 * by a tracked client or authorized by the delegate, as events on the current
+	 * {@link Observation}. The default is {@link ObservationRegistry#NOOP}.
+	 * @param observationRegistry the {@link ObservationRegistry} to use
+	 */
+	public void setObservationRegistry(ObservationRegistry observationRegistry) {
+		Assert.notNull(observationRegistry, "observationRegistry cannot be null");
+		this.observationRegistry = observationRegistry;
+	}
+
+	/**
+	 * Sets the {@link Clock} used to schedule re-authorizations and check the expiry of
+	 * access tokens. The default is {@link Clock#systemUTC()}.
+	 * @param clock the clock
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	private static final class Refresh {
+
+		private final Authentication principal;
+
+		private final OAuth2AuthorizedClient authorizedClient;
+
+		private volatile Future<?> future;
+
+		private volatile boolean cancelled;
+
+		private volatile Instant lastHit;
+
+		private Refresh(Authentication principal, OAuth2AuthorizedClient authorizedClient) {
+			this.principal = principal;
+			this.authorizedClient = authorizedClient;
+		}
+
+		private void cancel() {
+			this.cancelled = true;
+			Future<?> future = this.future;
+			if (future != null) {
+				future.cancel(false);
+			}
+		}
+
+	}
+
+}
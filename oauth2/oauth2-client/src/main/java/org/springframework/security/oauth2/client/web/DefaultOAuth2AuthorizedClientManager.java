@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,14 @@
 
 package org.springframework.security.oauth2.client.web;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -38,9 +43,11 @@ import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProvider
 import org.springframework.security.oauth2.client.RemoveAuthorizedClientOAuth2AuthorizationFailureHandler;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
 import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
 import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.util.CompletableFutures;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
@@ -78,6 +85,14 @@ import org.springframework.web.context.request.ServletRequestAttributes;
  * {@link OAuth2AuthorizationFailureHandler} via
  * {@link #setAuthorizationFailureHandler(OAuth2AuthorizationFailureHandler)}.
  *
+ * <p>
+ * Concurrent re-authorization attempts of the same {@link OAuth2AuthorizedClient} are
+ * coalesced when its access token is about to expire, see
+ * {@link #setClockSkew(Duration)}, so that only one of them calls the
+ * {@link OAuth2AuthorizedClientProvider} and the others share its outcome. The
+ * {@link OAuth2AuthorizationSuccessHandler} and {@link OAuth2AuthorizationFailureHandler}
+ * are still invoked for each request.
+ *
  * @author Joe Grandja
  * @since 5.2
  * @see OAuth2AuthorizedClientManager
@@ -108,6 +123,12 @@ public final class DefaultOAuth2AuthorizedClientManager implements OAuth2Authori
 
 	private OAuth2AuthorizationFailureHandler authorizationFailureHandler;
 
+	private final Map<AuthorizationKey, CompletableFuture<OAuth2AuthorizedClient>> authorizations = new ConcurrentHashMap<>();
+
+	private Clock clock = Clock.systemUTC();
+
+	private Duration clockSkew = Duration.ofSeconds(60);
+
 	/**
 	 * Constructs a {@code DefaultOAuth2AuthorizedClientManager} using the provided
 	 * parameters.
@@ -173,7 +194,7 @@ public final class DefaultOAuth2AuthorizedClientManager implements OAuth2Authori
 				.build();
 		// @formatter:on
 		try {
-			authorizedClient = this.authorizedClientProvider.authorize(authorizationContext);
+			authorizedClient = authorize(authorizationContext);
 		}
 		catch (OAuth2AuthorizationException ex) {
 			this.authorizationFailureHandler.onAuthorizationFailure(ex, principal,
@@ -196,6 +217,40 @@ public final class DefaultOAuth2AuthorizedClientManager implements OAuth2Authori
 		return authorizedClient;
 	}
 
+	private OAuth2AuthorizedClient authorize(OAuth2AuthorizationContext authorizationContext) {
+		OAuth2AuthorizedClient authorizedClient = authorizationContext.getAuthorizedClient();
+		if (authorizedClient == null || !hasTokenExpired(authorizedClient.getAccessToken())) {
+			// the context may carry request specific attributes, such as credentials, so
+			// only re-authorization of the same authorized client is coalesced, and only
+			// when the provider is going to re-authorize it
+			return this.authorizedClientProvider.authorize(authorizationContext);
+		}
+		AuthorizationKey key = new AuthorizationKey(authorizedClient.getClientRegistration().getRegistrationId(),
+				authorizationContext.getPrincipal().getName(), authorizedClient.getAccessToken().getTokenValue());
+		CompletableFuture<OAuth2AuthorizedClient> authorization = new CompletableFuture<>();
+		CompletableFuture<OAuth2AuthorizedClient> inFlight = this.authorizations.putIfAbsent(key, authorization);
+		if (inFlight != null) {
+			return CompletableFutures.join(inFlight);
+		}
+		try {
+			authorizedClient = this.authorizedClientProvider.authorize(authorizationContext);
+			authorization.complete(authorizedClient);
+			return authorizedClient;
+		}
+		catch (Throwable ex) {
+			authorization.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			this.authorizations.remove(key, authorization);
+		}
+	}
+
+	private boolean hasTokenExpired(OAuth2AccessToken accessToken) {
+		Instant expiresAt = accessToken.getExpiresAt();
+		return expiresAt != null && this.clock.instant().isAfter(expiresAt.minus(this.clockSkew));
+	}
+
 	private static Map<String, Object> createAttributes(HttpServletRequest servletRequest,
 			HttpServletResponse servletResponse) {
 		Map<String, Object> attributes = new HashMap<>();
@@ -284,6 +339,32 @@ public final class DefaultOAuth2AuthorizedClientManager implements OAuth2Authori
 		this.authorizationFailureHandler = authorizationFailureHandler;
 	}
 
+	/**
+	 * Sets the {@link Clock} used to determine whether concurrent re-authorization
+	 * attempts are coalesced. The default is {@link Clock#systemUTC()}.
+	 * @param clock the clock
+	 * @since 6.3
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	/**
+	 * Sets the maximum acceptable clock skew, which is used to determine whether the
+	 * access token of an {@link OAuth2AuthorizedClient} is about to expire. Only
+	 * re-authorization attempts for an access token that has expired, or expires within
+	 * this clock skew, are coalesced; others call the {@link OAuth2AuthorizedClientProvider} directly. This should
+	 * be at least the clock skew of the {@link OAuth2AuthorizedClientProvider}. The default is 60 seconds.
+	 * @param clockSkew the maximum acceptable clock skew
+	 * @since 6.3
+	 */
+	public void setClockSkew(Duration clockSkew) {
+		Assert.notNull(clockSkew, "clockSkew cannot be null");
+		Assert.isTrue(clockSkew.getSeconds() >= 0, "clockSkew must be >= 0");
+		this.clockSkew = clockSkew;
+	}
+
 	/**
 	 * The default implementation of the {@link #setContextAttributesMapper(Function)
 	 * contextAttributesMapper}.
@@ -306,4 +387,8 @@ public final class DefaultOAuth2AuthorizedClientManager implements OAuth2Authori
 
 	}
 
+	private record AuthorizationKey(String clientRegistrationId, String principalName, String accessTokenValue) {
+
+	}
+
 }
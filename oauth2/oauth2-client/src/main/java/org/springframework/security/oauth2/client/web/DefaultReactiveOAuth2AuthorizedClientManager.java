@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,13 @@
 
 package org.springframework.security.oauth2.client.web;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import reactor.core.publisher.Mono;
@@ -36,6 +40,7 @@ import org.springframework.security.oauth2.client.RemoveAuthorizedClientReactive
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ReactiveClientRegistrationRepository;
 import org.springframework.security.oauth2.client.web.server.ServerOAuth2AuthorizedClientRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
 import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
 import org.springframework.util.Assert;
@@ -83,6 +88,15 @@ import org.springframework.web.server.ServerWebExchange;
  * {@link #setAuthorizationFailureHandler(ReactiveOAuth2AuthorizationFailureHandler)}.
  * </p>
  *
+ * <p>
+ * Concurrent re-authorization attempts of the same {@link OAuth2AuthorizedClient} are
+ * coalesced when its access token is about to expire, see
+ * {@link #setClockSkew(Duration)}, so that only one of them calls the
+ * {@link ReactiveOAuth2AuthorizedClientProvider} and the others share its outcome. The
+ * {@link ReactiveOAuth2AuthorizationSuccessHandler} and
+ * {@link ReactiveOAuth2AuthorizationFailureHandler} are still invoked for each exchange.
+ * </p>
+ *
  * @author Joe Grandja
  * @author Phil Clay
  * @since 5.2
@@ -120,6 +134,12 @@ public final class DefaultReactiveOAuth2AuthorizedClientManager implements React
 
 	private ReactiveOAuth2AuthorizationFailureHandler authorizationFailureHandler;
 
+	private final Map<AuthorizationKey, Mono<OAuth2AuthorizedClient>> authorizations = new ConcurrentHashMap<>();
+
+	private Clock clock = Clock.systemUTC();
+
+	private Duration clockSkew = Duration.ofSeconds(60);
+
 	/**
 	 * Constructs a {@code DefaultReactiveOAuth2AuthorizedClientManager} using the
 	 * provided parameters.
@@ -195,7 +215,7 @@ public final class DefaultReactiveOAuth2AuthorizedClientManager implements React
 	private Mono<OAuth2AuthorizedClient> authorize(OAuth2AuthorizationContext authorizationContext,
 			Authentication principal, ServerWebExchange serverWebExchange) {
 		// @formatter:off
-		return this.authorizedClientProvider.authorize(authorizationContext)
+		return authorizeOnce(authorizationContext)
 				// Delegate to the authorizationSuccessHandler of the successful
 				// authorization
 				.flatMap((authorizedClient) ->
@@ -212,6 +232,29 @@ public final class DefaultReactiveOAuth2AuthorizedClientManager implements React
 		// @formatter:on
 	}
 
+	private Mono<OAuth2AuthorizedClient> authorizeOnce(OAuth2AuthorizationContext authorizationContext) {
+		OAuth2AuthorizedClient authorizedClient = authorizationContext.getAuthorizedClient();
+		if (authorizedClient == null || !hasTokenExpired(authorizedClient.getAccessToken())) {
+			// the context may carry exchange specific attributes, such as credentials, so
+			// only re-authorization of the same authorized client is coalesced, and only
+			// when the provider is going to re-authorize it
+			return this.authorizedClientProvider.authorize(authorizationContext);
+		}
+		AuthorizationKey key = new AuthorizationKey(authorizedClient.getClientRegistration().getRegistrationId(),
+				authorizationContext.getPrincipal().getName(), authorizedClient.getAccessToken().getTokenValue());
+		// @formatter:off
+		return Mono.defer(() -> this.authorizations.computeIfAbsent(key, (k) -> this.authorizedClientProvider
+				.authorize(authorizationContext)
+				.doFinally((signalType) -> this.authorizations.remove(k))
+				.cache()));
+		// @formatter:on
+	}
+
+	private boolean hasTokenExpired(OAuth2AccessToken accessToken) {
+		Instant expiresAt = accessToken.getExpiresAt();
+		return expiresAt != null && this.clock.instant().isAfter(expiresAt.minus(this.clockSkew));
+	}
+
 	private Map<String, Object> createAttributes(ServerWebExchange serverWebExchange) {
 		return Collections.singletonMap(ServerWebExchange.class.getName(), serverWebExchange);
 	}
@@ -305,6 +348,34 @@ public final class DefaultReactiveOAuth2AuthorizedClientManager implements React
 		this.authorizationFailureHandler = authorizationFailureHandler;
 	}
 
+	/**
+	 * Sets the {@link Clock} used to determine whether concurrent re-authorization
+	 * attempts are coalesced. The default is {@link Clock#systemUTC()}.
+	 * @param clock the clock
+	 * @since 6.3
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	/**
+	 * Sets the maximum acceptable clock skew, which is used to determine whether the
+	 * access token of an {@link OAuth2AuthorizedClient} is about to expire. Only
+	 * re-authorization attempts for an access token that has expired, or expires within
+	 * this clock skew, are coalesced; others call the
+	 * {@link ReactiveOAuth2AuthorizedClientProvider} directly. This should be at least
+	 * the clock skew of the {@link ReactiveOAuth2AuthorizedClientProvider}. The default
+	 * is 60 seconds.
+	 * @param clockSkew the maximum acceptable clock skew
+	 * @since 6.3
+	 */
+	public void setClockSkew(Duration clockSkew) {
+		Assert.notNull(clockSkew, "clockSkew cannot be null");
+		Assert.isTrue(clockSkew.getSeconds() >= 0, "clockSkew must be >= 0");
+		this.clockSkew = clockSkew;
+	}
+
 	/**
 	 * The default implementation of the {@link #setContextAttributesMapper(Function)
 	 * contextAttributesMapper}.
@@ -334,4 +405,8 @@ public final class DefaultReactiveOAuth2AuthorizedClientManager implements React
 
 	}
 
+	private record AuthorizationKey(String clientRegistrationId, String principalName, String accessTokenValue) {
+
+	}
+
 }
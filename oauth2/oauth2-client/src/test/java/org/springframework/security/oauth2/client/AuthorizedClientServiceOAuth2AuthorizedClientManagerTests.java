@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,14 @@
 
 package org.springframework.security.oauth2.client;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -28,6 +35,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.oauth2.client.registration.TestClientRegistrations;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
 import org.springframework.security.oauth2.core.TestOAuth2AccessTokens;
@@ -43,6 +51,7 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
@@ -371,4 +380,191 @@ public class AuthorizedClientServiceOAuth2AuthorizedClientManagerTests {
 		verifyNoInteractions(this.authorizedClientService);
 	}
 
+	@Test
+	public void setRefreshAheadWhenNegativeThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> this.authorizedClientManager.setRefreshAhead(Duration.ofSeconds(-1)))
+			.withMessage("refreshAhead cannot be negative");
+	}
+
+	@Test
+	public void setRefreshExecutorWhenNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.setRefreshExecutor(null))
+			.withMessage("refreshExecutor cannot be null");
+	}
+
+	@Test
+	public void setClockWhenNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.setClock(null))
+			.withMessage("clock cannot be null");
+	}
+
+	@Test
+	public void setClockSkewWhenNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.setClockSkew(null))
+			.withMessage("clockSkew cannot be null");
+	}
+
+	@Test
+	public void setClockSkewWhenNegativeThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> this.authorizedClientManager.setClockSkew(Duration.ofSeconds(-1)))
+			.withMessage("clockSkew must be >= 0");
+	}
+
+	@Test
+	public void reauthorizeWhenConcurrentThenAuthorizedClientProviderInvokedOnce() throws Exception {
+		// the access token expires within the clock skew
+		this.authorizedClientManager.setClock(Clock.offset(Clock.systemUTC(), Duration.ofDays(1)));
+		OAuth2AuthorizedClient reauthorizedClient = new OAuth2AuthorizedClient(this.clientRegistration,
+				this.principal.getName(), TestOAuth2AccessTokens.noScopes(), TestOAuth2RefreshTokens.refreshToken());
+		CountDownLatch authorizing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		given(this.authorizedClientProvider.authorize(any(OAuth2AuthorizationContext.class)))
+			.willAnswer((invocation) -> {
+				authorizing.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				return reauthorizedClient;
+			});
+		OAuth2AuthorizeRequest reauthorizeRequest = OAuth2AuthorizeRequest.withAuthorizedClient(this.authorizedClient)
+			.principal(this.principal)
+			.build();
+		CompletableFuture<OAuth2AuthorizedClient> first = CompletableFuture
+			.supplyAsync(() -> this.authorizedClientManager.authorize(reauthorizeRequest));
+		assertThat(authorizing.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<OAuth2AuthorizedClient> second = new CompletableFuture<>();
+		Thread waiter = new Thread(() -> second.complete(this.authorizedClientManager.authorize(reauthorizeRequest)));
+		waiter.start();
+		awaitWaiting(waiter);
+		release.countDown();
+		assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(reauthorizedClient);
+		assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(reauthorizedClient);
+		verify(this.authorizedClientProvider).authorize(any(OAuth2AuthorizationContext.class));
+		verify(this.authorizationSuccessHandler).onAuthorizationSuccess(eq(reauthorizedClient), eq(this.principal),
+				any());
+	}
+
+	@Test
+	public void reauthorizeWhenConcurrentAndProviderThrowsErrorThenWaiterReceivesError() throws Exception {
+		// the access token expires within the clock skew
+		this.authorizedClientManager.setClock(Clock.offset(Clock.systemUTC(), Duration.ofDays(1)));
+		CountDownLatch authorizing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AssertionError error = new AssertionError("failed");
+		given(this.authorizedClientProvider.authorize(any(OAuth2AuthorizationContext.class)))
+			.willAnswer((invocation) -> {
+				authorizing.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				throw error;
+			});
+		OAuth2AuthorizeRequest reauthorizeRequest = OAuth2AuthorizeRequest.withAuthorizedClient(this.authorizedClient)
+			.principal(this.principal)
+			.build();
+		CompletableFuture<OAuth2AuthorizedClient> first = CompletableFuture
+			.supplyAsync(() -> this.authorizedClientManager.authorize(reauthorizeRequest));
+		assertThat(authorizing.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<OAuth2AuthorizedClient> second = new CompletableFuture<>();
+		Thread waiter = new Thread(() -> {
+			try {
+				second.complete(this.authorizedClientManager.authorize(reauthorizeRequest));
+			}
+			catch (Throwable ex) {
+				second.completeExceptionally(ex);
+			}
+		});
+		waiter.start();
+		awaitWaiting(waiter);
+		release.countDown();
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+			.withCause(error);
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+			.withCause(error);
+		verify(this.authorizedClientProvider).authorize(any(OAuth2AuthorizationContext.class));
+	}
+
+	@Test
+	public void reauthorizeWhenConcurrentAndAccessTokenNotExpiredThenAuthorizedClientProviderInvokedEachTime()
+			throws Exception {
+		CountDownLatch authorizing = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+		given(this.authorizedClientProvider.authorize(any(OAuth2AuthorizationContext.class)))
+			.willAnswer((invocation) -> {
+				authorizing.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				return null;
+			});
+		OAuth2AuthorizeRequest reauthorizeRequest = OAuth2AuthorizeRequest.withAuthorizedClient(this.authorizedClient)
+			.principal(this.principal)
+			.build();
+		CompletableFuture<OAuth2AuthorizedClient> first = CompletableFuture
+			.supplyAsync(() -> this.authorizedClientManager.authorize(reauthorizeRequest));
+		CompletableFuture<OAuth2AuthorizedClient> second = CompletableFuture
+			.supplyAsync(() -> this.authorizedClientManager.authorize(reauthorizeRequest));
+		assertThat(authorizing.await(5, TimeUnit.SECONDS)).isTrue();
+		release.countDown();
+		assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(this.authorizedClient);
+		assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(this.authorizedClient);
+		verify(this.authorizedClientProvider, times(2)).authorize(any(OAuth2AuthorizationContext.class));
+	}
+
+	@Test
+	public void reauthorizeWhenSequentialThenAuthorizedClientProviderInvokedEachTime() {
+		OAuth2AuthorizeRequest reauthorizeRequest = OAuth2AuthorizeRequest.withAuthorizedClient(this.authorizedClient)
+			.principal(this.principal)
+			.build();
+		this.authorizedClientManager.authorize(reauthorizeRequest);
+		this.authorizedClientManager.authorize(reauthorizeRequest);
+		verify(this.authorizedClientProvider, times(2)).authorize(any(OAuth2AuthorizationContext.class));
+	}
+
+	@Test
+	public void reauthorizeWhenExpiresWithinRefreshAheadThenReauthorizeInBackground() {
+		Instant issuedAt = Instant.now().minus(Duration.ofMinutes(50));
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "expiring",
+				issuedAt, issuedAt.plus(Duration.ofHours(1)));
+		OAuth2AuthorizedClient expiringClient = new OAuth2AuthorizedClient(this.clientRegistration,
+				this.principal.getName(), accessToken);
+		OAuth2AuthorizedClient reauthorizedClient = new OAuth2AuthorizedClient(this.clientRegistration,
+				this.principal.getName(), TestOAuth2AccessTokens.noScopes());
+		given(this.authorizedClientProvider.authorize(any(OAuth2AuthorizationContext.class)))
+			.willAnswer((invocation) -> {
+				OAuth2AuthorizationContext context = invocation.getArgument(0);
+				Instant expiresAt = context.getAuthorizedClient().getAccessToken().getExpiresAt();
+				return expiresAt.isBefore(Instant.now()) ? reauthorizedClient : null;
+			});
+		this.authorizedClientManager.setRefreshAhead(Duration.ofMinutes(15));
+		this.authorizedClientManager.setRefreshExecutor(Runnable::run);
+		OAuth2AuthorizeRequest reauthorizeRequest = OAuth2AuthorizeRequest.withAuthorizedClient(expiringClient)
+			.principal(this.principal)
+			.build();
+		OAuth2AuthorizedClient authorizedClient = this.authorizedClientManager.authorize(reauthorizeRequest);
+		assertThat(authorizedClient).isSameAs(expiringClient);
+		verify(this.authorizedClientProvider, times(2)).authorize(this.authorizationContextCaptor.capture());
+		OAuth2AuthorizationContext refreshContext = this.authorizationContextCaptor.getValue();
+		assertThat(refreshContext.getPrincipal()).isEqualTo(this.principal);
+		assertThat(refreshContext.getAuthorizedClient().getAccessToken().getTokenValue()).isEqualTo("expiring");
+		verify(this.authorizedClientService).saveAuthorizedClient(reauthorizedClient, this.principal);
+	}
+
+	@Test
+	public void reauthorizeWhenNotExpiringWithinRefreshAheadThenNotReauthorizedInBackground() {
+		this.authorizedClientManager.setRefreshAhead(Duration.ofMinutes(15));
+		this.authorizedClientManager.setRefreshExecutor(Runnable::run);
+		OAuth2AuthorizeRequest reauthorizeRequest = OAuth2AuthorizeRequest.withAuthorizedClient(this.authorizedClient)
+			.principal(this.principal)
+			.build();
+		OAuth2AuthorizedClient authorizedClient = this.authorizedClientManager.authorize(reauthorizeRequest);
+		assertThat(authorizedClient).isSameAs(this.authorizedClient);
+		verify(this.authorizedClientProvider).authorize(any(OAuth2AuthorizationContext.class));
+		verifyNoInteractions(this.authorizedClientService);
+	}
+
+	private static void awaitWaiting(Thread thread) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(thread.getState()).isEqualTo(Thread.State.WAITING);
+	}
+
 }
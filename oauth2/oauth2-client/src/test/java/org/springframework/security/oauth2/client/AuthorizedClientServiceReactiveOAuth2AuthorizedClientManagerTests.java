@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,9 @@
 
 package org.springframework.security.oauth2.client;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -23,6 +26,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 import reactor.test.publisher.PublisherProbe;
 
@@ -31,6 +36,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ReactiveClientRegistrationRepository;
 import org.springframework.security.oauth2.client.registration.TestClientRegistrations;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
 import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
@@ -46,6 +52,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -508,4 +515,130 @@ public class AuthorizedClientServiceReactiveOAuth2AuthorizedClientManagerTests {
 		assertThat(requestScopeAttribute).contains("read", "write");
 	}
 
+	@Test
+	public void setRefreshAheadWhenNegativeThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> this.authorizedClientManager.setRefreshAhead(Duration.ofSeconds(-1)))
+			.withMessage("refreshAhead cannot be negative");
+	}
+
+	@Test
+	public void setRefreshSchedulerWhenNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.setRefreshScheduler(null))
+			.withMessage("refreshScheduler cannot be null");
+	}
+
+	@Test
+	public void setClockWhenNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.setClock(null))
+			.withMessage("clock cannot be null");
+	}
+
+	@Test
+	public void setClockSkewWhenNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.setClockSkew(null))
+			.withMessage("clockSkew cannot be null");
+	}
+
+	@Test
+	public void setClockSkewWhenNegativeThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> this.authorizedClientManager.setClockSkew(Duration.ofSeconds(-1)))
+			.withMessage("clockSkew must be >= 0");
+	}
+
+	@Test
+	public void reauthorizeWhenConcurrentThenAuthorizedClientProviderInvokedOnce() {
+		// the access token expires within the clock skew
+		this.authorizedClientManager.setClock(Clock.offset(Clock.systemUTC(), Duration.ofDays(1)));
+		OAuth2AuthorizedClient reauthorizedClient = new OAuth2AuthorizedClient(this.clientRegistration,
+				this.principal.getName(), TestOAuth2AccessTokens.noScopes(), TestOAuth2RefreshTokens.refreshToken());
+		Sinks.One<OAuth2AuthorizedClient> authorization = Sinks.one();
+		given(this.authorizedClientProvider.authorize(any(OAuth2AuthorizationContext.class)))
+			.willReturn(authorization.asMono());
+		OAuth2AuthorizeRequest reauthorizeRequest = OAuth2AuthorizeRequest.withAuthorizedClient(this.authorizedClient)
+			.principal(this.principal)
+			.build();
+		StepVerifier first = StepVerifier.create(this.authorizedClientManager.authorize(reauthorizeRequest))
+			.expectNext(reauthorizedClient)
+			.expectComplete()
+			.verifyLater();
+		StepVerifier second = StepVerifier.create(this.authorizedClientManager.authorize(reauthorizeRequest))
+			.expectNext(reauthorizedClient)
+			.expectComplete()
+			.verifyLater();
+		authorization.tryEmitValue(reauthorizedClient);
+		first.verify();
+		second.verify();
+		verify(this.authorizedClientProvider).authorize(any(OAuth2AuthorizationContext.class));
+		verify(this.authorizedClientService).saveAuthorizedClient(eq(reauthorizedClient), eq(this.principal));
+	}
+
+	@Test
+	public void reauthorizeWhenConcurrentAndAccessTokenNotExpiredThenAuthorizedClientProviderInvokedEachTime() {
+		Sinks.One<OAuth2AuthorizedClient> authorization = Sinks.one();
+		given(this.authorizedClientProvider.authorize(any(OAuth2AuthorizationContext.class)))
+			.willReturn(authorization.asMono());
+		OAuth2AuthorizeRequest reauthorizeRequest = OAuth2AuthorizeRequest.withAuthorizedClient(this.authorizedClient)
+			.principal(this.principal)
+			.build();
+		StepVerifier first = StepVerifier.create(this.authorizedClientManager.authorize(reauthorizeRequest))
+			.expectNext(this.authorizedClient)
+			.expectComplete()
+			.verifyLater();
+		StepVerifier second = StepVerifier.create(this.authorizedClientManager.authorize(reauthorizeRequest))
+			.expectNext(this.authorizedClient)
+			.expectComplete()
+			.verifyLater();
+		authorization.tryEmitEmpty();
+		first.verify();
+		second.verify();
+		verify(this.authorizedClientProvider, times(2)).authorize(any(OAuth2AuthorizationContext.class));
+	}
+
+	@Test
+	public void reauthorizeWhenExpiresWithinRefreshAheadThenReauthorizeInBackground() {
+		Instant issuedAt = Instant.now().minus(Duration.ofMinutes(50));
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "expiring",
+				issuedAt, issuedAt.plus(Duration.ofHours(1)));
+		OAuth2AuthorizedClient expiringClient = new OAuth2AuthorizedClient(this.clientRegistration,
+				this.principal.getName(), accessToken);
+		OAuth2AuthorizedClient reauthorizedClient = new OAuth2AuthorizedClient(this.clientRegistration,
+				this.principal.getName(), TestOAuth2AccessTokens.noScopes());
+		given(this.authorizedClientProvider.authorize(any(OAuth2AuthorizationContext.class)))
+			.willAnswer((invocation) -> {
+				OAuth2AuthorizationContext context = invocation.getArgument(0);
+				Instant expiresAt = context.getAuthorizedClient().getAccessToken().getExpiresAt();
+				return expiresAt.isBefore(Instant.now()) ? Mono.just(reauthorizedClient) : Mono.empty();
+			});
+		this.authorizedClientManager.setRefreshAhead(Duration.ofMinutes(15));
+		this.authorizedClientManager.setRefreshScheduler(Schedulers.immediate());
+		OAuth2AuthorizeRequest reauthorizeRequest = OAuth2AuthorizeRequest.withAuthorizedClient(expiringClient)
+			.principal(this.principal)
+			.build();
+		StepVerifier.create(this.authorizedClientManager.authorize(reauthorizeRequest))
+			.expectNext(expiringClient)
+			.verifyComplete();
+		verify(this.authorizedClientProvider, times(2)).authorize(this.authorizationContextCaptor.capture());
+		OAuth2AuthorizationContext refreshContext = this.authorizationContextCaptor.getValue();
+		assertThat(refreshContext.getPrincipal()).isEqualTo(this.principal);
+		assertThat(refreshContext.getAuthorizedClient().getAccessToken().getTokenValue()).isEqualTo("expiring");
+		verify(this.authorizedClientService).saveAuthorizedClient(eq(reauthorizedClient), eq(this.principal));
+	}
+
+	@Test
+	public void reauthorizeWhenNotExpiringWithinRefreshAheadThenNotReauthorizedInBackground() {
+		given(this.authorizedClientProvider.authorize(any(OAuth2AuthorizationContext.class))).willReturn(Mono.empty());
+		this.authorizedClientManager.setRefreshAhead(Duration.ofMinutes(15));
+		this.authorizedClientManager.setRefreshScheduler(Schedulers.immediate());
+		OAuth2AuthorizeRequest reauthorizeRequest = OAuth2AuthorizeRequest.withAuthorizedClient(this.authorizedClient)
+			.principal(this.principal)
+			.build();
+		StepVerifier.create(this.authorizedClientManager.authorize(reauthorizeRequest))
+			.expectNext(this.authorizedClient)
+			.verifyComplete();
+		verify(this.authorizedClientProvider).authorize(any(OAuth2AuthorizationContext.class));
+		verify(this.authorizedClientService, never()).saveAuthorizedClient(any(), any());
+	}
+
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.TestClientRegistrations;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link CachingOAuth2AuthorizedClientService}.
+ */
+public class CachingOAuth2AuthorizedClientServiceTests {
+
+	private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+	private final ClientRegistration clientRegistration = TestClientRegistrations.clientRegistration().build();
+
+	private final Authentication principal = new TestingAuthenticationToken("principal", "password");
+
+	private OAuth2AuthorizedClientService delegate;
+
+	private CachingOAuth2AuthorizedClientService authorizedClientService;
+
+	@BeforeEach
+	public void setUp() {
+		this.delegate = mock(OAuth2AuthorizedClientService.class);
+		this.authorizedClientService = new CachingOAuth2AuthorizedClientService(this.delegate);
+		this.authorizedClientService.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+	}
+
+	@Test
+	public void constructorWhenDelegateIsNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new CachingOAuth2AuthorizedClientService(null))
+			.withMessage("delegate cannot be null");
+	}
+
+	@Test
+	public void loadAuthorizedClientWhenCachedThenDelegateNotCalledAgain() {
+		OAuth2AuthorizedClient authorizedClient = authorizedClient(NOW.plus(Duration.ofHours(1)));
+		given(this.delegate.loadAuthorizedClient("registration-id", "principal")).willReturn(authorizedClient);
+		assertThat((OAuth2AuthorizedClient) load()).isSameAs(authorizedClient);
+		assertThat((OAuth2AuthorizedClient) load()).isSameAs(authorizedClient);
+		verify(this.delegate).loadAuthorizedClient("registration-id", "principal");
+	}
+
+	@Test
+	public void loadAuthorizedClientWhenNotFoundThenNotCached() {
+		assertThat((OAuth2AuthorizedClient) load()).isNull();
+		assertThat((OAuth2AuthorizedClient) load()).isNull();
+		verify(this.delegate, times(2)).loadAuthorizedClient("registration-id", "principal");
+	}
+
+	@Test
+	public void loadAuthorizedClientWhenAccessTokenExpiredThenLoadedAgain() {
+		OAuth2AuthorizedClient authorizedClient = authorizedClient(NOW.plus(Duration.ofMinutes(1)));
+		given(this.delegate.loadAuthorizedClient("registration-id", "principal")).willReturn(authorizedClient);
+		load();
+		this.authorizedClientService.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(1)), ZoneOffset.UTC));
+		load();
+		verify(this.delegate, times(2)).loadAuthorizedClient("registration-id", "principal");
+	}
+
+	@Test
+	public void loadAuthorizedClientWhenTimeToLiveElapsedThenLoadedAgain() {
+		OAuth2AuthorizedClient authorizedClient = authorizedClient(NOW.plus(Duration.ofHours(1)));
+		given(this.delegate.loadAuthorizedClient("registration-id", "principal")).willReturn(authorizedClient);
+		this.authorizedClientService.setTimeToLive(Duration.ofSeconds(30));
+		load();
+		this.authorizedClientService.setClock(Clock.fixed(NOW.plus(Duration.ofSeconds(29)), ZoneOffset.UTC));
+		load();
+		this.authorizedClientService.setClock(Clock.fixed(NOW.plus(Duration.ofSeconds(30)), ZoneOffset.UTC));
+		load();
+		verify(this.delegate, times(2)).loadAuthorizedClient("registration-id", "principal");
+	}
+
+	@Test
+	public void saveAuthorizedClientThenSavedToDelegateAndCached() {
+		OAuth2AuthorizedClient authorizedClient = authorizedClient(NOW.plus(Duration.ofHours(1)));
+		this.authorizedClientService.saveAuthorizedClient(authorizedClient, this.principal);
+		verify(this.delegate).saveAuthorizedClient(authorizedClient, this.principal);
+		assertThat((OAuth2AuthorizedClient) load()).isSameAs(authorizedClient);
+		verify(this.delegate, never()).loadAuthorizedClient("registration-id", "principal");
+	}
+
+	@Test
+	public void removeAuthorizedClientThenRemovedFromDelegateAndCache() {
+		this.authorizedClientService.saveAuthorizedClient(authorizedClient(NOW.plus(Duration.ofHours(1))),
+				this.principal);
+		this.authorizedClientService.removeAuthorizedClient("registration-id", "principal");
+		verify(this.delegate).removeAuthorizedClient("registration-id", "principal");
+		assertThat((OAuth2AuthorizedClient) load()).isNull();
+	}
+
+	@Test
+	public void saveAuthorizedClientWhenMaximumSizeExceededThenEvicted() {
+		this.authorizedClientService.setMaximumSize(1);
+		OAuth2AuthorizedClient authorizedClient = authorizedClient(NOW.plus(Duration.ofHours(1)));
+		this.authorizedClientService.saveAuthorizedClient(authorizedClient, this.principal);
+		this.authorizedClientService.saveAuthorizedClient(authorizedClient,
+				new TestingAuthenticationToken("other", "password"));
+		load();
+		this.authorizedClientService.loadAuthorizedClient("registration-id", "other");
+		verify(this.delegate).loadAuthorizedClient(eq("registration-id"), any());
+	}
+
+	@Test
+	public void saveAuthorizedClientWhenMaximumSizeExceededThenLeastRecentlyUsedEvicted() {
+		this.authorizedClientService.setMaximumSize(2);
+		OAuth2AuthorizedClient authorizedClient = authorizedClient(NOW.plus(Duration.ofHours(1)));
+		this.authorizedClientService.saveAuthorizedClient(authorizedClient, this.principal);
+		this.authorizedClientService.saveAuthorizedClient(authorizedClient,
+				new TestingAuthenticationToken("other", "password"));
+		load();
+		this.authorizedClientService.saveAuthorizedClient(authorizedClient,
+				new TestingAuthenticationToken("third", "password"));
+		assertThat((OAuth2AuthorizedClient) load()).isSameAs(authorizedClient);
+		assertThat((OAuth2AuthorizedClient) this.authorizedClientService.loadAuthorizedClient("registration-id",
+				"other"))
+			.isNull();
+		verify(this.delegate, never()).loadAuthorizedClient("registration-id", "principal");
+		verify(this.delegate).loadAuthorizedClient("registration-id", "other");
+	}
+
+	@Test
+	public void loadAuthorizedClientWhenNotFoundThenCachedClientsNotEvicted() {
+		this.authorizedClientService.setMaximumSize(1);
+		OAuth2AuthorizedClient authorizedClient = authorizedClient(NOW.plus(Duration.ofHours(1)));
+		this.authorizedClientService.saveAuthorizedClient(authorizedClient, this.principal);
+		this.authorizedClientService.loadAuthorizedClient("registration-id", "unknown");
+		assertThat((OAuth2AuthorizedClient) load()).isSameAs(authorizedClient);
+		verify(this.delegate, never()).loadAuthorizedClient("registration-id", "principal");
+	}
+
+	@Test
+	public void setTimeToLiveWhenNegativeThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> this.authorizedClientService.setTimeToLive(Duration.ofSeconds(-1)));
+	}
+
+	private <T extends OAuth2AuthorizedClient> T load() {
+		return this.authorizedClientService.loadAuthorizedClient("registration-id", "principal");
+	}
+
+	private OAuth2AuthorizedClient authorizedClient(Instant expiresAt) {
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "token",
+				NOW.minusSeconds(1), expiresAt);
+		return new OAuth2AuthorizedClient(this.clientRegistration, "principal", accessToken);
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.TestClientRegistrations;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link CachingReactiveOAuth2AuthorizedClientService}.
+ */
+public class CachingReactiveOAuth2AuthorizedClientServiceTests {
+
+	private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+	private final ClientRegistration clientRegistration = TestClientRegistrations.clientRegistration().build();
+
+	private final Authentication principal = new TestingAuthenticationToken("principal", "password");
+
+	private ReactiveOAuth2AuthorizedClientService delegate;
+
+	private CachingReactiveOAuth2AuthorizedClientService authorizedClientService;
+
+	@BeforeEach
+	public void setUp() {
+		this.delegate = mock(ReactiveOAuth2AuthorizedClientService.class);
+		this.authorizedClientService = new CachingReactiveOAuth2AuthorizedClientService(this.delegate);
+		this.authorizedClientService.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+	}
+
+	@Test
+	public void constructorWhenDelegateIsNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new CachingReactiveOAuth2AuthorizedClientService(null))
+			.withMessage("delegate cannot be null");
+	}
+
+	@Test
+	public void loadAuthorizedClientWhenCachedThenDelegateNotCalledAgain() {
+		OAuth2AuthorizedClient authorizedClient = authorizedClient(NOW.plus(Duration.ofHours(1)));
+		given(this.delegate.loadAuthorizedClient("registration-id", "principal"))
+			.willReturn(Mono.just(authorizedClient));
+		StepVerifier.create(load()).expectNext(authorizedClient).verifyComplete();
+		StepVerifier.create(load()).expectNext(authorizedClient).verifyComplete();
+		verify(this.delegate).loadAuthorizedClient("registration-id", "principal");
+	}
+
+	@Test
+	public void loadAuthorizedClientWhenAccessTokenExpiredThenLoadedAgain() {
+		OAuth2AuthorizedClient authorizedClient = authorizedClient(NOW.plus(Duration.ofMinutes(1)));
+		given(this.delegate.loadAuthorizedClient("registration-id", "principal"))
+			.willReturn(Mono.just(authorizedClient));
+		StepVerifier.create(load()).expectNext(authorizedClient).verifyComplete();
+		this.authorizedClientService.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(1)), ZoneOffset.UTC));
+		StepVerifier.create(load()).expectNext(authorizedClient).verifyComplete();
+		verify(this.delegate, times(2)).loadAuthorizedClient("registration-id", "principal");
+	}
+
+	@Test
+	public void saveAuthorizedClientThenSavedToDelegateAndCached() {
+		OAuth2AuthorizedClient authorizedClient = authorizedClient(NOW.plus(Duration.ofHours(1)));
+		given(this.delegate.saveAuthorizedClient(authorizedClient, this.principal)).willReturn(Mono.empty());
+		StepVerifier.create(this.authorizedClientService.saveAuthorizedClient(authorizedClient, this.principal))
+			.verifyComplete();
+		StepVerifier.create(load()).expectNext(authorizedClient).verifyComplete();
+		verify(this.delegate, never()).loadAuthorizedClient("registration-id", "principal");
+	}
+
+	@Test
+	public void saveAuthorizedClientWhenDelegateFailsThenNotCached() {
+		OAuth2AuthorizedClient authorizedClient = authorizedClient(NOW.plus(Duration.ofHours(1)));
+		given(this.delegate.saveAuthorizedClient(authorizedClient, this.principal))
+			.willReturn(Mono.error(new IllegalStateException("failed")));
+		given(this.delegate.loadAuthorizedClient("registration-id", "principal")).willReturn(Mono.empty());
+		StepVerifier.create(this.authorizedClientService.saveAuthorizedClient(authorizedClient, this.principal))
+			.verifyError(IllegalStateException.class);
+		StepVerifier.create(load()).verifyComplete();
+	}
+
+	@Test
+	public void removeAuthorizedClientThenRemovedFromDelegateAndCache() {
+		OAuth2AuthorizedClient authorizedClient = authorizedClient(NOW.plus(Duration.ofHours(1)));
+		given(this.delegate.saveAuthorizedClient(authorizedClient, this.principal)).willReturn(Mono.empty());
+		given(this.delegate.removeAuthorizedClient("registration-id", "principal")).willReturn(Mono.empty());
+		given(this.delegate.loadAuthorizedClient("registration-id", "principal")).willReturn(Mono.empty());
+		StepVerifier.create(this.authorizedClientService.saveAuthorizedClient(authorizedClient, this.principal))
+			.verifyComplete();
+		StepVerifier.create(this.authorizedClientService.removeAuthorizedClient("registration-id", "principal"))
+			.verifyComplete();
+		StepVerifier.create(load()).verifyComplete();
+	}
+
+	@Test
+	public void saveAuthorizedClientWhenMaximumSizeExceededThenLeastRecentlyUsedEvicted() {
+		this.authorizedClientService.setMaximumSize(2);
+		OAuth2AuthorizedClient authorizedClient = authorizedClient(NOW.plus(Duration.ofHours(1)));
+		given(this.delegate.saveAuthorizedClient(any(), any())).willReturn(Mono.empty());
+		given(this.delegate.loadAuthorizedClient("registration-id", "other")).willReturn(Mono.empty());
+		this.authorizedClientService.saveAuthorizedClient(authorizedClient, this.principal).block();
+		this.authorizedClientService
+			.saveAuthorizedClient(authorizedClient, new TestingAuthenticationToken("other", "password"))
+			.block();
+		load().block();
+		this.authorizedClientService
+			.saveAuthorizedClient(authorizedClient, new TestingAuthenticationToken("third", "password"))
+			.block();
+		StepVerifier.create(load()).expectNext(authorizedClient).verifyComplete();
+		StepVerifier.create(this.authorizedClientService.loadAuthorizedClient("registration-id", "other"))
+			.verifyComplete();
+		verify(this.delegate, never()).loadAuthorizedClient("registration-id", "principal");
+	}
+
+	private Mono<OAuth2AuthorizedClient> load() {
+		return this.authorizedClientService.loadAuthorizedClient("registration-id", "principal");
+	}
+
+	private OAuth2AuthorizedClient authorizedClient(Instant expiresAt) {
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "token",
+				NOW.minusSeconds(1), expiresAt);
+		return new OAuth2AuthorizedClient(this.clientRegistration, "principal", accessToken);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,9 +23,14 @@ import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,6 +38,7 @@ import org.junit.jupiter.api.Test;
 
 import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementSetter;
@@ -59,8 +65,11 @@ import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException
 import static org.assertj.core.api.Assertions.within;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
@@ -356,15 +365,156 @@ public class JdbcOAuth2AuthorizedClientServiceTests {
 		assertThat(authorizedClient).isNull();
 	}
 
+	@Test
+	public void setUpsertDialectWhenNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientService.setUpsertDialect(null))
+			.withMessage("upsertDialect cannot be null");
+	}
+
+	@Test
+	public void saveAuthorizedClientWhenPostgresqlUpsertDialectThenSingleUpsertStatement() {
+		JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+		JdbcOAuth2AuthorizedClientService authorizedClientService = new JdbcOAuth2AuthorizedClientService(
+				jdbcOperations, this.clientRegistrationRepository);
+		authorizedClientService.setUpsertDialect(OAuth2AuthorizedClientUpsertDialect.POSTGRESQL);
+		Authentication principal = createPrincipal();
+		authorizedClientService.saveAuthorizedClient(createAuthorizedClient(principal, this.clientRegistration),
+				principal);
+		verify(jdbcOperations).update(eq("INSERT INTO oauth2_authorized_client (client_registration_id, principal_name,"
+				+ " access_token_type, access_token_value, access_token_issued_at, access_token_expires_at,"
+				+ " access_token_scopes, refresh_token_value, refresh_token_issued_at)"
+				+ " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (client_registration_id, principal_name)"
+				+ " DO UPDATE SET access_token_type = EXCLUDED.access_token_type,"
+				+ " access_token_value = EXCLUDED.access_token_value,"
+				+ " access_token_issued_at = EXCLUDED.access_token_issued_at,"
+				+ " access_token_expires_at = EXCLUDED.access_token_expires_at,"
+				+ " access_token_scopes = EXCLUDED.access_token_scopes,"
+				+ " refresh_token_value = EXCLUDED.refresh_token_value,"
+				+ " refresh_token_issued_at = EXCLUDED.refresh_token_issued_at"), any(PreparedStatementSetter.class));
+		verify(jdbcOperations, never()).query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class));
+	}
+
+	@Test
+	public void saveAuthorizedClientWhenMysqlUpsertDialectThenSingleUpsertStatement() {
+		JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+		JdbcOAuth2AuthorizedClientService authorizedClientService = new JdbcOAuth2AuthorizedClientService(
+				jdbcOperations, this.clientRegistrationRepository);
+		authorizedClientService.setUpsertDialect(OAuth2AuthorizedClientUpsertDialect.MYSQL);
+		Authentication principal = createPrincipal();
+		authorizedClientService.saveAuthorizedClient(createAuthorizedClient(principal, this.clientRegistration),
+				principal);
+		verify(jdbcOperations).update(eq("INSERT INTO oauth2_authorized_client (client_registration_id, principal_name,"
+				+ " access_token_type, access_token_value, access_token_issued_at, access_token_expires_at,"
+				+ " access_token_scopes, refresh_token_value, refresh_token_issued_at)"
+				+ " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE"
+				+ " access_token_type = VALUES(access_token_type),"
+				+ " access_token_value = VALUES(access_token_value),"
+				+ " access_token_issued_at = VALUES(access_token_issued_at),"
+				+ " access_token_expires_at = VALUES(access_token_expires_at),"
+				+ " access_token_scopes = VALUES(access_token_scopes),"
+				+ " refresh_token_value = VALUES(refresh_token_value),"
+				+ " refresh_token_issued_at = VALUES(refresh_token_issued_at)"), any(PreparedStatementSetter.class));
+		verify(jdbcOperations, never()).query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class));
+	}
+
+	@Test
+	public void saveAuthorizedClientWhenH2UpsertDialectThenInsertedAndUpdated() {
+		EmbeddedDatabase db = createDb(OAUTH2_CLIENT_SCHEMA_SQL_RESOURCE, EmbeddedDatabaseType.H2);
+		try {
+			JdbcOAuth2AuthorizedClientService authorizedClientService = new JdbcOAuth2AuthorizedClientService(
+					new JdbcTemplate(db), this.clientRegistrationRepository);
+			authorizedClientService.setUpsertDialect(OAuth2AuthorizedClientUpsertDialect.H2);
+			Authentication principal = createPrincipal();
+			authorizedClientService.saveAuthorizedClient(createAuthorizedClient(principal, this.clientRegistration),
+					principal);
+			OAuth2AuthorizedClient updatedClient = createAuthorizedClient(principal, this.clientRegistration, true);
+			authorizedClientService.saveAuthorizedClient(updatedClient, principal);
+			OAuth2AuthorizedClient savedClient = authorizedClientService
+				.loadAuthorizedClient(this.clientRegistration.getRegistrationId(), principal.getName());
+			assertThat(savedClient.getAccessToken().getTokenValue())
+				.isEqualTo(updatedClient.getAccessToken().getTokenValue());
+			assertThat(savedClient.getRefreshToken()).isNull();
+		}
+		finally {
+			db.shutdown();
+		}
+	}
+
+	@Test
+	public void saveAuthorizedClientWhenBatchConcurrentSavesThenAllSaved() throws Exception {
+		EmbeddedDatabase db = createDb(OAUTH2_CLIENT_SCHEMA_SQL_RESOURCE, EmbeddedDatabaseType.H2);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			JdbcOAuth2AuthorizedClientService authorizedClientService = new JdbcOAuth2AuthorizedClientService(
+					new JdbcTemplate(db), this.clientRegistrationRepository);
+			authorizedClientService.setUpsertDialect(OAuth2AuthorizedClientUpsertDialect.H2);
+			authorizedClientService.setBatchConcurrentSaves(true);
+			List<Authentication> principals = new ArrayList<>();
+			List<Future<?>> saves = new ArrayList<>();
+			for (int i = 0; i < 50; i++) {
+				Authentication principal = createPrincipal();
+				principals.add(principal);
+				OAuth2AuthorizedClient authorizedClient = createAuthorizedClient(principal, this.clientRegistration);
+				saves.add(executor
+					.submit(() -> authorizedClientService.saveAuthorizedClient(authorizedClient, principal)));
+			}
+			for (Future<?> save : saves) {
+				save.get();
+			}
+			for (Authentication principal : principals) {
+				assertThat((OAuth2AuthorizedClient) authorizedClientService
+					.loadAuthorizedClient(this.clientRegistration.getRegistrationId(), principal.getName()))
+					.isNotNull();
+			}
+		}
+		finally {
+			executor.shutdown();
+			db.shutdown();
+		}
+	}
+
+	@Test
+	public void saveAuthorizedClientWhenBatchConcurrentSavesAndUpsertThrowsErrorThenEachSaveThrowsError()
+			throws Exception {
+		AssertionError error = new AssertionError("failed");
+		JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+		given(jdbcOperations.update(anyString(), any(PreparedStatementSetter.class))).willThrow(error);
+		given(jdbcOperations.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).willThrow(error);
+		JdbcOAuth2AuthorizedClientService authorizedClientService = new JdbcOAuth2AuthorizedClientService(
+				jdbcOperations, this.clientRegistrationRepository);
+		authorizedClientService.setUpsertDialect(OAuth2AuthorizedClientUpsertDialect.H2);
+		authorizedClientService.setBatchConcurrentSaves(true);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> saves = new ArrayList<>();
+			for (int i = 0; i < 50; i++) {
+				Authentication principal = createPrincipal();
+				OAuth2AuthorizedClient authorizedClient = createAuthorizedClient(principal, this.clientRegistration);
+				saves.add(executor
+					.submit(() -> authorizedClientService.saveAuthorizedClient(authorizedClient, principal)));
+			}
+			for (Future<?> save : saves) {
+				assertThatExceptionOfType(ExecutionException.class).isThrownBy(save::get).withCause(error);
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
 	private static EmbeddedDatabase createDb() {
 		return createDb(OAUTH2_CLIENT_SCHEMA_SQL_RESOURCE);
 	}
 
 	private static EmbeddedDatabase createDb(String schema) {
+		return createDb(schema, EmbeddedDatabaseType.HSQL);
+	}
+
+	private static EmbeddedDatabase createDb(String schema, EmbeddedDatabaseType type) {
 		// @formatter:off
 		return new EmbeddedDatabaseBuilder()
 				.generateUniqueName(true)
-				.setType(EmbeddedDatabaseType.HSQL)
+				.setType(type)
 				.setScriptEncoding("UTF-8")
 				.addScript(schema)
 				.build();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -349,6 +349,37 @@ public class R2dbcReactiveOAuth2AuthorizedClientServiceTests {
 			.withMessageContaining("authorizedClientParametersMapper cannot be nul");
 	}
 
+	@Test
+	public void setUpsertDialectWhenNullThenThrowIllegalArgumentException() {
+		assertThatExceptionOfType(IllegalArgumentException.class)
+			.isThrownBy(() -> this.authorizedClientService.setUpsertDialect(null))
+			.withMessageContaining("upsertDialect cannot be null");
+	}
+
+	@Test
+	public void saveAuthorizedClientWhenUpsertDialectThenInsertedAndUpdated() {
+		this.authorizedClientService.setUpsertDialect(OAuth2AuthorizedClientUpsertDialect.H2);
+		Authentication principal = createPrincipal();
+		this.authorizedClientService
+			.saveAuthorizedClient(createAuthorizedClient(principal, this.clientRegistration), principal)
+			.as(StepVerifier::create)
+			.verifyComplete();
+		OAuth2AuthorizedClient updatedAuthorizedClient = createAuthorizedClient(principal, this.clientRegistration,
+				true);
+		this.authorizedClientService.saveAuthorizedClient(updatedAuthorizedClient, principal)
+			.as(StepVerifier::create)
+			.verifyComplete();
+		this.authorizedClientService
+			.loadAuthorizedClient(this.clientRegistration.getRegistrationId(), principal.getName())
+			.as(StepVerifier::create)
+			.assertNext((savedClient) -> {
+				assertThat(savedClient.getAccessToken().getTokenValue())
+					.isEqualTo(updatedAuthorizedClient.getAccessToken().getTokenValue());
+				assertThat(savedClient.getRefreshToken()).isNull();
+			})
+			.verifyComplete();
+	}
+
 	private static ConnectionFactory createDb() {
 		ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory("oauth-test");
 
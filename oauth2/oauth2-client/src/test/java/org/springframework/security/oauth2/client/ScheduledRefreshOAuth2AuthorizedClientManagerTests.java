@@ -0,0 +1,304 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.TestClientRegistrations;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link ScheduledRefreshOAuth2AuthorizedClientManager}.
+ */
+public class ScheduledRefreshOAuth2AuthorizedClientManagerTests {
+
+	private final Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+	private OAuth2AuthorizedClientManager delegate;
+
+	private ScheduledExecutorService scheduler;
+
+	private ScheduledFuture<?> future;
+
+	private ScheduledRefreshOAuth2AuthorizedClientManager authorizedClientManager;
+
+	private ClientRegistration clientRegistration;
+
+	private Authentication principal;
+
+	private OAuth2AuthorizeRequest authorizeRequest;
+
+	@BeforeEach
+	public void setup() {
+		this.delegate = mock(OAuth2AuthorizedClientManager.class);
+		this.scheduler = mock(ScheduledExecutorService.class);
+		this.future = mock(ScheduledFuture.class);
+		willReturn(this.future).given(this.scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+		this.authorizedClientManager = new ScheduledRefreshOAuth2AuthorizedClientManager(this.delegate,
+				this.scheduler);
+		this.authorizedClientManager.setJitterRatio(0);
+		this.authorizedClientManager.setClock(Clock.fixed(this.now, ZoneOffset.UTC));
+		this.clientRegistration = TestClientRegistrations.clientCredentials().build();
+		this.principal = new TestingAuthenticationToken("principal", "password");
+		this.authorizeRequest = OAuth2AuthorizeRequest
+			.withClientRegistrationId(this.clientRegistration.getRegistrationId())
+			.principal(this.principal)
+			.build();
+	}
+
+	@Test
+	public void constructorWhenDelegateIsNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new ScheduledRefreshOAuth2AuthorizedClientManager(null, this.scheduler))
+			.withMessage("delegate cannot be null");
+	}
+
+	@Test
+	public void setRefreshRatioWhenGreaterThanOneThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.setRefreshRatio(1.5))
+			.withMessage("refreshRatio must be greater than 0 and at most 1");
+	}
+
+	@Test
+	public void setJitterRatioWhenNegativeThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.setJitterRatio(-0.1))
+			.withMessage("jitterRatio must be at least 0 and less than 1");
+	}
+
+	@Test
+	public void authorizeWhenClientCredentialsThenScheduledAtRefreshRatioOfLifetime() {
+		given(this.delegate.authorize(this.authorizeRequest)).willReturn(authorizedClient("token", Duration.ZERO));
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		verify(this.scheduler).schedule(any(Runnable.class), eq(Duration.ofMinutes(48).toMillis()),
+				eq(TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void authorizeWhenTrackedThenReturnedWithoutDelegate() {
+		OAuth2AuthorizedClient authorizedClient = authorizedClient("token", Duration.ZERO);
+		given(this.delegate.authorize(this.authorizeRequest)).willReturn(authorizedClient);
+		assertThat(this.authorizedClientManager.authorize(this.authorizeRequest)).isSameAs(authorizedClient);
+		assertThat(this.authorizedClientManager.authorize(this.authorizeRequest)).isSameAs(authorizedClient);
+		verify(this.delegate).authorize(this.authorizeRequest);
+		assertThat(this.authorizedClientManager.getFallbackCount()).isEqualTo(1);
+		assertThat(this.authorizedClientManager.getHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void authorizeWhenTrackedClientExpiringThenDelegate() {
+		given(this.delegate.authorize(this.authorizeRequest))
+			.willReturn(authorizedClient("token", Duration.ofMinutes(-59).minusSeconds(30)));
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		verify(this.delegate, times(2)).authorize(this.authorizeRequest);
+		assertThat(this.authorizedClientManager.getFallbackCount()).isEqualTo(2);
+		assertThat(this.authorizedClientManager.getHitCount()).isZero();
+	}
+
+	@Test
+	public void authorizeWhenNotClientCredentialsThenNotTracked() {
+		OAuth2AuthorizedClient authorizedClient = new OAuth2AuthorizedClient(
+				TestClientRegistrations.clientRegistration().build(), this.principal.getName(),
+				accessToken("token", Duration.ZERO));
+		given(this.delegate.authorize(this.authorizeRequest)).willReturn(authorizedClient);
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		verify(this.delegate, times(2)).authorize(this.authorizeRequest);
+		verify(this.scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+		assertThat(this.authorizedClientManager.getFallbackCount()).isZero();
+	}
+
+	@Test
+	public void authorizeWhenAuthorizedClientThenDelegate() {
+		OAuth2AuthorizedClient authorizedClient = authorizedClient("token", Duration.ZERO);
+		OAuth2AuthorizeRequest reauthorizeRequest = OAuth2AuthorizeRequest.withAuthorizedClient(authorizedClient)
+			.principal(this.principal)
+			.build();
+		given(this.delegate.authorize(reauthorizeRequest)).willReturn(authorizedClient);
+		this.authorizedClientManager.authorize(reauthorizeRequest);
+		verify(this.scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+	}
+
+	@Test
+	public void refreshWhenScheduledThenDelegateReauthorizesExpiredClient() {
+		OAuth2AuthorizedClient refreshedClient = authorizedClient("refreshed", Duration.ZERO);
+		given(this.delegate.authorize(any())).willReturn(authorizedClient("token", Duration.ZERO), refreshedClient);
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		scheduledRefresh().run();
+		ArgumentCaptor<OAuth2AuthorizeRequest> reauthorizeRequest = ArgumentCaptor
+			.forClass(OAuth2AuthorizeRequest.class);
+		verify(this.delegate, times(2)).authorize(reauthorizeRequest.capture());
+		OAuth2AccessToken accessToken = reauthorizeRequest.getValue().getAuthorizedClient().getAccessToken();
+		assertThat(accessToken.getTokenValue()).isEqualTo("token");
+		assertThat(accessToken.getExpiresAt()).isBefore(this.now);
+		assertThat(reauthorizeRequest.getValue().getPrincipal()).isSameAs(this.principal);
+		assertThat(this.authorizedClientManager.authorize(this.authorizeRequest)).isSameAs(refreshedClient);
+		verify(this.scheduler, times(2)).schedule(any(Runnable.class), eq(Duration.ofMinutes(48).toMillis()),
+				eq(TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void refreshWhenDelegateFailsThenRetried() {
+		given(this.delegate.authorize(any())).willReturn(authorizedClient("token", Duration.ZERO))
+			.willThrow(new OAuth2AuthorizationException(new OAuth2Error("server_error")));
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		scheduledRefresh().run();
+		assertThat(this.authorizedClientManager.getRefreshFailureCount()).isEqualTo(1);
+		verify(this.scheduler).schedule(any(Runnable.class), eq(Duration.ofSeconds(30).toMillis()),
+				eq(TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void refreshWhenNotUsedSinceAuthorizedThenNotRefreshed() {
+		given(this.delegate.authorize(this.authorizeRequest)).willReturn(authorizedClient("token", Duration.ZERO));
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		scheduledRefresh().run();
+		verify(this.delegate).authorize(any());
+		verify(this.scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		verify(this.delegate, times(2)).authorize(this.authorizeRequest);
+	}
+
+	@Test
+	public void refreshWhenNotUsedSinceLastRefreshThenNotRefreshedAgain() {
+		given(this.delegate.authorize(any())).willReturn(authorizedClient("token", Duration.ZERO),
+				authorizedClient("refreshed", Duration.ZERO));
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		scheduledRefresh().run();
+		ArgumentCaptor<Runnable> refreshes = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.scheduler, times(2)).schedule(refreshes.capture(), anyLong(), any(TimeUnit.class));
+		refreshes.getAllValues().get(1).run();
+		verify(this.delegate, times(2)).authorize(any());
+		verify(this.scheduler, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+	}
+
+	@Test
+	public void authorizeWhenMaximumSizeReachedThenNotTracked() {
+		this.authorizedClientManager.setMaximumSize(1);
+		Authentication other = new TestingAuthenticationToken("other", "password");
+		OAuth2AuthorizeRequest otherRequest = OAuth2AuthorizeRequest
+			.withClientRegistrationId(this.clientRegistration.getRegistrationId())
+			.principal(other)
+			.build();
+		given(this.delegate.authorize(this.authorizeRequest)).willReturn(authorizedClient("token", Duration.ZERO));
+		given(this.delegate.authorize(otherRequest)).willReturn(new OAuth2AuthorizedClient(this.clientRegistration,
+				other.getName(), accessToken("other", Duration.ZERO)));
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		this.authorizedClientManager.authorize(otherRequest);
+		this.authorizedClientManager.authorize(otherRequest);
+		verify(this.delegate, times(2)).authorize(otherRequest);
+		verify(this.scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+	}
+
+	@Test
+	public void setMaximumSizeWhenZeroThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.setMaximumSize(0))
+			.withMessage("maximumSize must be greater than 0");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void authorizeWhenObservationRegistryThenEventsRecorded() {
+		ObservationHandler<Observation.Context> handler = mock(ObservationHandler.class);
+		given(handler.supportsContext(any())).willReturn(true);
+		ObservationRegistry registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(handler);
+		this.authorizedClientManager.setObservationRegistry(registry);
+		given(this.delegate.authorize(this.authorizeRequest)).willReturn(authorizedClient("token", Duration.ZERO));
+		Observation.createNotStarted("test", registry).observe(() -> {
+			this.authorizedClientManager.authorize(this.authorizeRequest);
+			this.authorizedClientManager.authorize(this.authorizeRequest);
+		});
+		verify(handler).onEvent(argThat((event) -> ScheduledRefreshOAuth2AuthorizedClientManager.REFRESH_FALLBACK
+			.equals(event.getName())), any());
+		verify(handler).onEvent(
+				argThat((event) -> ScheduledRefreshOAuth2AuthorizedClientManager.REFRESH_HIT.equals(event.getName())),
+				any());
+	}
+
+	@Test
+	public void destroyWhenTrackedThenRefreshCancelled() {
+		given(this.delegate.authorize(this.authorizeRequest)).willReturn(authorizedClient("token", Duration.ZERO));
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		this.authorizedClientManager.destroy();
+		verify(this.future).cancel(false);
+		this.authorizedClientManager.authorize(this.authorizeRequest);
+		verify(this.delegate, times(2)).authorize(this.authorizeRequest);
+	}
+
+	@Test
+	public void refreshDelayWhenJitterThenBroughtForwardByAtMostJitterRatio() {
+		OAuth2AccessToken accessToken = accessToken("token", Duration.ZERO);
+		for (int i = 0; i < 100; i++) {
+			Duration delay = ScheduledRefreshOAuth2AuthorizedClientManager.refreshDelay(accessToken, this.now, 0.8,
+					0.1);
+			assertThat(delay).isBetween(Duration.ofMinutes(42), Duration.ofMinutes(48));
+		}
+	}
+
+	private Runnable scheduledRefresh() {
+		ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.scheduler).schedule(refresh.capture(), anyLong(), any(TimeUnit.class));
+		return refresh.getValue();
+	}
+
+	private OAuth2AuthorizedClient authorizedClient(String tokenValue, Duration issuedOffset) {
+		return new OAuth2AuthorizedClient(this.clientRegistration, this.principal.getName(),
+				accessToken(tokenValue, issuedOffset));
+	}
+
+	private OAuth2AccessToken accessToken(String tokenValue, Duration issuedOffset) {
+		Instant issuedAt = this.now.plus(issuedOffset);
+		return new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, tokenValue, issuedAt,
+				issuedAt.plus(Duration.ofHours(1)));
+	}
+
+}
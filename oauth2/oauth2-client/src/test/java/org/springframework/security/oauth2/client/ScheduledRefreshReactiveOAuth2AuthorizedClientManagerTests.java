@@ -0,0 +1,219 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.test.StepVerifier;
+
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.TestClientRegistrations;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link ScheduledRefreshReactiveOAuth2AuthorizedClientManager}.
+ */
+public class ScheduledRefreshReactiveOAuth2AuthorizedClientManagerTests {
+
+	private final Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+	private ReactiveOAuth2AuthorizedClientManager delegate;
+
+	private Scheduler scheduler;
+
+	private Disposable task;
+
+	private ScheduledRefreshReactiveOAuth2AuthorizedClientManager authorizedClientManager;
+
+	private ClientRegistration clientRegistration;
+
+	private Authentication principal;
+
+	private OAuth2AuthorizeRequest authorizeRequest;
+
+	@BeforeEach
+	public void setup() {
+		this.delegate = mock(ReactiveOAuth2AuthorizedClientManager.class);
+		this.scheduler = mock(Scheduler.class);
+		this.task = mock(Disposable.class);
+		given(this.scheduler.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).willReturn(this.task);
+		this.authorizedClientManager = new ScheduledRefreshReactiveOAuth2AuthorizedClientManager(this.delegate,
+				this.scheduler);
+		this.authorizedClientManager.setJitterRatio(0);
+		this.authorizedClientManager.setClock(Clock.fixed(this.now, ZoneOffset.UTC));
+		this.clientRegistration = TestClientRegistrations.clientCredentials().build();
+		this.principal = new TestingAuthenticationToken("principal", "password");
+		this.authorizeRequest = OAuth2AuthorizeRequest
+			.withClientRegistrationId(this.clientRegistration.getRegistrationId())
+			.principal(this.principal)
+			.build();
+	}
+
+	@Test
+	public void constructorWhenSchedulerIsNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new ScheduledRefreshReactiveOAuth2AuthorizedClientManager(this.delegate, null))
+			.withMessage("scheduler cannot be null");
+	}
+
+	@Test
+	public void authorizeWhenTrackedThenReturnedWithoutDelegate() {
+		OAuth2AuthorizedClient authorizedClient = authorizedClient("token");
+		given(this.delegate.authorize(this.authorizeRequest)).willReturn(Mono.just(authorizedClient));
+		StepVerifier.create(this.authorizedClientManager.authorize(this.authorizeRequest))
+			.expectNext(authorizedClient)
+			.verifyComplete();
+		StepVerifier.create(this.authorizedClientManager.authorize(this.authorizeRequest))
+			.expectNext(authorizedClient)
+			.verifyComplete();
+		verify(this.delegate).authorize(this.authorizeRequest);
+		verify(this.scheduler).schedule(any(Runnable.class), eq(Duration.ofMinutes(48).toMillis()),
+				eq(TimeUnit.MILLISECONDS));
+		assertThat(this.authorizedClientManager.getFallbackCount()).isEqualTo(1);
+		assertThat(this.authorizedClientManager.getHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void refreshWhenScheduledThenDelegateReauthorizesExpiredClient() {
+		OAuth2AuthorizedClient refreshedClient = authorizedClient("refreshed");
+		given(this.delegate.authorize(any())).willReturn(Mono.just(authorizedClient("token")),
+				Mono.just(refreshedClient));
+		this.authorizedClientManager.authorize(this.authorizeRequest).block();
+		this.authorizedClientManager.authorize(this.authorizeRequest).block();
+		scheduledRefresh().run();
+		ArgumentCaptor<OAuth2AuthorizeRequest> reauthorizeRequest = ArgumentCaptor
+			.forClass(OAuth2AuthorizeRequest.class);
+		verify(this.delegate, times(2)).authorize(reauthorizeRequest.capture());
+		OAuth2AccessToken accessToken = reauthorizeRequest.getValue().getAuthorizedClient().getAccessToken();
+		assertThat(accessToken.getTokenValue()).isEqualTo("token");
+		assertThat(accessToken.getExpiresAt()).isBefore(this.now);
+		StepVerifier.create(this.authorizedClientManager.authorize(this.authorizeRequest))
+			.expectNext(refreshedClient)
+			.verifyComplete();
+	}
+
+	@Test
+	public void refreshWhenDelegateFailsThenRetried() {
+		given(this.delegate.authorize(any())).willReturn(Mono.just(authorizedClient("token")),
+				Mono.error(new OAuth2AuthorizationException(new OAuth2Error("server_error"))));
+		this.authorizedClientManager.authorize(this.authorizeRequest).block();
+		this.authorizedClientManager.authorize(this.authorizeRequest).block();
+		scheduledRefresh().run();
+		assertThat(this.authorizedClientManager.getRefreshFailureCount()).isEqualTo(1);
+		verify(this.scheduler).schedule(any(Runnable.class), eq(Duration.ofSeconds(30).toMillis()),
+				eq(TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void refreshWhenNotUsedSinceAuthorizedThenNotRefreshed() {
+		given(this.delegate.authorize(this.authorizeRequest)).willReturn(Mono.just(authorizedClient("token")));
+		this.authorizedClientManager.authorize(this.authorizeRequest).block();
+		scheduledRefresh().run();
+		verify(this.delegate).authorize(any());
+		this.authorizedClientManager.authorize(this.authorizeRequest).block();
+		verify(this.delegate, times(2)).authorize(this.authorizeRequest);
+	}
+
+	@Test
+	public void authorizeWhenMaximumSizeReachedThenNotTracked() {
+		this.authorizedClientManager.setMaximumSize(1);
+		Authentication other = new TestingAuthenticationToken("other", "password");
+		OAuth2AuthorizeRequest otherRequest = OAuth2AuthorizeRequest
+			.withClientRegistrationId(this.clientRegistration.getRegistrationId())
+			.principal(other)
+			.build();
+		given(this.delegate.authorize(any())).willReturn(Mono.just(authorizedClient("token")));
+		this.authorizedClientManager.authorize(this.authorizeRequest).block();
+		this.authorizedClientManager.authorize(otherRequest).block();
+		this.authorizedClientManager.authorize(otherRequest).block();
+		verify(this.delegate, times(2)).authorize(otherRequest);
+		verify(this.scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void authorizeWhenObservationInContextThenEventsRecorded() {
+		ObservationHandler<Observation.Context> handler = mock(ObservationHandler.class);
+		given(handler.supportsContext(any())).willReturn(true);
+		ObservationRegistry registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(handler);
+		Observation observation = Observation.start("test", registry);
+		given(this.delegate.authorize(this.authorizeRequest)).willReturn(Mono.just(authorizedClient("token")));
+		this.authorizedClientManager.authorize(this.authorizeRequest)
+			.contextWrite((context) -> context.put(ObservationThreadLocalAccessor.KEY, observation))
+			.block();
+		this.authorizedClientManager.authorize(this.authorizeRequest)
+			.contextWrite((context) -> context.put(ObservationThreadLocalAccessor.KEY, observation))
+			.block();
+		observation.stop();
+		verify(handler).onEvent(argThat((event) -> ScheduledRefreshOAuth2AuthorizedClientManager.REFRESH_FALLBACK
+			.equals(event.getName())), any());
+		verify(handler).onEvent(
+				argThat((event) -> ScheduledRefreshOAuth2AuthorizedClientManager.REFRESH_HIT.equals(event.getName())),
+				any());
+	}
+
+	@Test
+	public void destroyWhenTrackedThenRefreshDisposed() {
+		given(this.delegate.authorize(this.authorizeRequest)).willReturn(Mono.just(authorizedClient("token")));
+		this.authorizedClientManager.authorize(this.authorizeRequest).block();
+		this.authorizedClientManager.destroy();
+		verify(this.task).dispose();
+	}
+
+	private Runnable scheduledRefresh() {
+		ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+		verify(this.scheduler).schedule(refresh.capture(), anyLong(), any(TimeUnit.class));
+		return refresh.getValue();
+	}
+
+	private OAuth2AuthorizedClient authorizedClient(String tokenValue) {
+		OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, tokenValue, this.now,
+				this.now.plus(Duration.ofHours(1)));
+		return new OAuth2AuthorizedClient(this.clientRegistration, this.principal.getName(), accessToken);
+	}
+
+}
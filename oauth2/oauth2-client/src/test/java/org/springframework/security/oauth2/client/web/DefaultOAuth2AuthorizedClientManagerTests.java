@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,14 @@
 
 package org.springframework.security.oauth2.client.web;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -57,6 +63,7 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
@@ -172,6 +179,25 @@ public class DefaultOAuth2AuthorizedClientManagerTests {
 			.withMessage("authorizationFailureHandler cannot be null");
 	}
 
+	@Test
+	public void setClockWhenNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.setClock(null))
+			.withMessage("clock cannot be null");
+	}
+
+	@Test
+	public void setClockSkewWhenNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.setClockSkew(null))
+			.withMessage("clockSkew cannot be null");
+	}
+
+	@Test
+	public void setClockSkewWhenNegativeThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> this.authorizedClientManager.setClockSkew(Duration.ofSeconds(-1)))
+			.withMessage("clockSkew must be >= 0");
+	}
+
 	@Test
 	public void authorizeWhenRequestIsNullThenThrowIllegalArgumentException() {
 		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.authorize(null))
@@ -478,4 +504,119 @@ public class DefaultOAuth2AuthorizedClientManagerTests {
 		verifyNoInteractions(this.authorizedClientRepository);
 	}
 
+	@Test
+	public void reauthorizeWhenConcurrentThenAuthorizedClientProviderInvokedOnceAndSavedForEachRequest()
+			throws Exception {
+		// the access token expires within the clock skew
+		this.authorizedClientManager.setClock(Clock.offset(Clock.systemUTC(), Duration.ofDays(1)));
+		OAuth2AuthorizedClient reauthorizedClient = new OAuth2AuthorizedClient(this.clientRegistration,
+				this.principal.getName(), TestOAuth2AccessTokens.noScopes(), TestOAuth2RefreshTokens.refreshToken());
+		CountDownLatch authorizing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		given(this.authorizedClientProvider.authorize(any(OAuth2AuthorizationContext.class)))
+			.willAnswer((invocation) -> {
+				authorizing.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				return reauthorizedClient;
+			});
+		MockHttpServletRequest otherRequest = new MockHttpServletRequest();
+		MockHttpServletResponse otherResponse = new MockHttpServletResponse();
+		CompletableFuture<OAuth2AuthorizedClient> first = CompletableFuture.supplyAsync(
+				() -> this.authorizedClientManager.authorize(reauthorizeRequest(this.request, this.response)));
+		assertThat(authorizing.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<OAuth2AuthorizedClient> second = new CompletableFuture<>();
+		Thread waiter = new Thread(() -> second
+			.complete(this.authorizedClientManager.authorize(reauthorizeRequest(otherRequest, otherResponse))));
+		waiter.start();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (waiter.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		release.countDown();
+		assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(reauthorizedClient);
+		assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(reauthorizedClient);
+		verify(this.authorizedClientProvider).authorize(any(OAuth2AuthorizationContext.class));
+		verify(this.authorizedClientRepository).saveAuthorizedClient(eq(reauthorizedClient), eq(this.principal),
+				eq(this.request), eq(this.response));
+		verify(this.authorizedClientRepository).saveAuthorizedClient(eq(reauthorizedClient), eq(this.principal),
+				eq(otherRequest), eq(otherResponse));
+	}
+
+	@Test
+	public void reauthorizeWhenConcurrentAndProviderThrowsErrorThenWaiterReceivesError() throws Exception {
+		// the access token expires within the clock skew
+		this.authorizedClientManager.setClock(Clock.offset(Clock.systemUTC(), Duration.ofDays(1)));
+		CountDownLatch authorizing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AssertionError error = new AssertionError("failed");
+		given(this.authorizedClientProvider.authorize(any(OAuth2AuthorizationContext.class)))
+			.willAnswer((invocation) -> {
+				authorizing.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				throw error;
+			});
+		MockHttpServletRequest otherRequest = new MockHttpServletRequest();
+		MockHttpServletResponse otherResponse = new MockHttpServletResponse();
+		CompletableFuture<OAuth2AuthorizedClient> first = CompletableFuture.supplyAsync(
+				() -> this.authorizedClientManager.authorize(reauthorizeRequest(this.request, this.response)));
+		assertThat(authorizing.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<OAuth2AuthorizedClient> second = new CompletableFuture<>();
+		Thread waiter = new Thread(() -> {
+			try {
+				second.complete(
+						this.authorizedClientManager.authorize(reauthorizeRequest(otherRequest, otherResponse)));
+			}
+			catch (Throwable ex) {
+				second.completeExceptionally(ex);
+			}
+		});
+		waiter.start();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (waiter.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		release.countDown();
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+			.withCause(error);
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+			.withCause(error);
+		verify(this.authorizedClientProvider).authorize(any(OAuth2AuthorizationContext.class));
+	}
+
+	@Test
+	public void reauthorizeWhenConcurrentAndAccessTokenNotExpiredThenAuthorizedClientProviderInvokedEachTime()
+			throws Exception {
+		CountDownLatch authorizing = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+		given(this.authorizedClientProvider.authorize(any(OAuth2AuthorizationContext.class)))
+			.willAnswer((invocation) -> {
+				authorizing.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				return null;
+			});
+		MockHttpServletRequest otherRequest = new MockHttpServletRequest();
+		MockHttpServletResponse otherResponse = new MockHttpServletResponse();
+		CompletableFuture<OAuth2AuthorizedClient> first = CompletableFuture.supplyAsync(
+				() -> this.authorizedClientManager.authorize(reauthorizeRequest(this.request, this.response)));
+		CompletableFuture<OAuth2AuthorizedClient> second = CompletableFuture.supplyAsync(
+				() -> this.authorizedClientManager.authorize(reauthorizeRequest(otherRequest, otherResponse)));
+		assertThat(authorizing.await(5, TimeUnit.SECONDS)).isTrue();
+		release.countDown();
+		assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(this.authorizedClient);
+		assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(this.authorizedClient);
+		verify(this.authorizedClientProvider, times(2)).authorize(any(OAuth2AuthorizationContext.class));
+	}
+
+	private OAuth2AuthorizeRequest reauthorizeRequest(HttpServletRequest request, HttpServletResponse response) {
+		// @formatter:off
+		return OAuth2AuthorizeRequest.withAuthorizedClient(this.authorizedClient)
+				.principal(this.principal)
+				.attributes((attrs) -> {
+					attrs.put(HttpServletRequest.class.getName(), request);
+					attrs.put(HttpServletResponse.class.getName(), response);
+				})
+				.build();
+		// @formatter:on
+	}
+
 }
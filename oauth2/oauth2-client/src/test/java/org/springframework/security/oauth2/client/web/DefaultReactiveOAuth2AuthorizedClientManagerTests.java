@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.security.oauth2.client.web;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -25,6 +27,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
 import reactor.test.publisher.PublisherProbe;
 import reactor.util.context.Context;
 
@@ -59,6 +63,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -173,6 +178,25 @@ public class DefaultReactiveOAuth2AuthorizedClientManagerTests {
 			.withMessage("contextAttributesMapper cannot be null");
 	}
 
+	@Test
+	public void setClockWhenNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.setClock(null))
+			.withMessage("clock cannot be null");
+	}
+
+	@Test
+	public void setClockSkewWhenNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.setClockSkew(null))
+			.withMessage("clockSkew cannot be null");
+	}
+
+	@Test
+	public void setClockSkewWhenNegativeThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> this.authorizedClientManager.setClockSkew(Duration.ofSeconds(-1)))
+			.withMessage("clockSkew must be >= 0");
+	}
+
 	@Test
 	public void authorizeWhenRequestIsNullThenThrowIllegalArgumentException() {
 		assertThatIllegalArgumentException().isThrownBy(() -> this.authorizedClientManager.authorize(null).block())
@@ -571,4 +595,62 @@ public class DefaultReactiveOAuth2AuthorizedClientManagerTests {
 			.map((c) -> c.get(ServerWebExchange.class));
 	}
 
+	@Test
+	public void reauthorizeWhenConcurrentThenAuthorizedClientProviderInvokedOnceAndSavedForEachExchange() {
+		// the access token expires within the clock skew
+		this.authorizedClientManager.setClock(Clock.offset(Clock.systemUTC(), Duration.ofDays(1)));
+		OAuth2AuthorizedClient reauthorizedClient = new OAuth2AuthorizedClient(this.clientRegistration,
+				this.principal.getName(), TestOAuth2AccessTokens.noScopes(), TestOAuth2RefreshTokens.refreshToken());
+		Sinks.One<OAuth2AuthorizedClient> authorization = Sinks.one();
+		given(this.authorizedClientProvider.authorize(any(OAuth2AuthorizationContext.class)))
+			.willReturn(authorization.asMono());
+		OAuth2AuthorizeRequest reauthorizeRequest = OAuth2AuthorizeRequest.withAuthorizedClient(this.authorizedClient)
+			.principal(this.principal)
+			.build();
+		MockServerWebExchange otherExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/").build());
+		StepVerifier first = StepVerifier
+			.create(this.authorizedClientManager.authorize(reauthorizeRequest).contextWrite(this.context))
+			.expectNext(reauthorizedClient)
+			.expectComplete()
+			.verifyLater();
+		StepVerifier second = StepVerifier
+			.create(this.authorizedClientManager.authorize(reauthorizeRequest)
+				.contextWrite(Context.of(ServerWebExchange.class, otherExchange)))
+			.expectNext(reauthorizedClient)
+			.expectComplete()
+			.verifyLater();
+		authorization.tryEmitValue(reauthorizedClient);
+		first.verify();
+		second.verify();
+		verify(this.authorizedClientProvider).authorize(any(OAuth2AuthorizationContext.class));
+		verify(this.authorizedClientRepository).saveAuthorizedClient(eq(reauthorizedClient), eq(this.principal),
+				eq(this.serverWebExchange));
+		verify(this.authorizedClientRepository).saveAuthorizedClient(eq(reauthorizedClient), eq(this.principal),
+				eq(otherExchange));
+	}
+
+	@Test
+	public void reauthorizeWhenConcurrentAndAccessTokenNotExpiredThenAuthorizedClientProviderInvokedEachTime() {
+		Sinks.One<OAuth2AuthorizedClient> authorization = Sinks.one();
+		given(this.authorizedClientProvider.authorize(any(OAuth2AuthorizationContext.class)))
+			.willReturn(authorization.asMono());
+		OAuth2AuthorizeRequest reauthorizeRequest = OAuth2AuthorizeRequest.withAuthorizedClient(this.authorizedClient)
+			.principal(this.principal)
+			.build();
+		StepVerifier first = StepVerifier
+			.create(this.authorizedClientManager.authorize(reauthorizeRequest).contextWrite(this.context))
+			.expectNext(this.authorizedClient)
+			.expectComplete()
+			.verifyLater();
+		StepVerifier second = StepVerifier
+			.create(this.authorizedClientManager.authorize(reauthorizeRequest).contextWrite(this.context))
+			.expectNext(this.authorizedClient)
+			.expectComplete()
+			.verifyLater();
+		authorization.tryEmitEmpty();
+		first.verify();
+		second.verify();
+		verify(this.authorizedClientProvider, times(2)).authorize(any(OAuth2AuthorizationContext.class));
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.net.URI;
 import java.net.URL;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -33,6 +34,11 @@ import org.springframework.util.Assert;
 /**
  * Converts a JWT claim set, claim by claim. Can be configured with custom converters by
  * claim name.
+ * <p>
+ * Only claims that have a converter are converted; all other claims are carried over as
+ * they are. The default converters return claims that are already of the target type
+ * without consulting the {@link ConversionService}, and the most recently converted
+ * issuer is remembered, since it is typically the same for every token.
  *
  * @author Josh Cummings
  * @since 5.1
@@ -98,14 +104,14 @@ public final class MappedJwtClaimSetConverter implements Converter<Map<String, O
 	 */
 	public static MappedJwtClaimSetConverter withDefaults(Map<String, Converter<Object, ?>> claimTypeConverters) {
 		Assert.notNull(claimTypeConverters, "claimTypeConverters cannot be null");
-		Converter<Object, ?> stringConverter = getConverter(STRING_TYPE_DESCRIPTOR);
+		Converter<Object, ?> stringConverter = MappedJwtClaimSetConverter::convertString;
 		Converter<Object, ?> collectionStringConverter = getConverter(
 				TypeDescriptor.collection(Collection.class, STRING_TYPE_DESCRIPTOR));
 		Map<String, Converter<Object, ?>> claimNameToConverter = new HashMap<>();
 		claimNameToConverter.put(JwtClaimNames.AUD, collectionStringConverter);
 		claimNameToConverter.put(JwtClaimNames.EXP, MappedJwtClaimSetConverter::convertInstant);
 		claimNameToConverter.put(JwtClaimNames.IAT, MappedJwtClaimSetConverter::convertInstant);
-		claimNameToConverter.put(JwtClaimNames.ISS, MappedJwtClaimSetConverter::convertIssuer);
+		claimNameToConverter.put(JwtClaimNames.ISS, new IssuerConverter());
 		claimNameToConverter.put(JwtClaimNames.JTI, stringConverter);
 		claimNameToConverter.put(JwtClaimNames.NBF, MappedJwtClaimSetConverter::convertInstant);
 		claimNameToConverter.put(JwtClaimNames.SUB, stringConverter);
@@ -117,9 +123,19 @@ public final class MappedJwtClaimSetConverter implements Converter<Map<String, O
 		return (source) -> CONVERSION_SERVICE.convert(source, OBJECT_TYPE_DESCRIPTOR, targetDescriptor);
 	}
 
+	private static String convertString(Object source) {
+		if (source == null || source instanceof String) {
+			return (String) source;
+		}
+		return (String) CONVERSION_SERVICE.convert(source, OBJECT_TYPE_DESCRIPTOR, STRING_TYPE_DESCRIPTOR);
+	}
+
 	private static Instant convertInstant(Object source) {
-		if (source == null) {
-			return null;
+		if (source == null || source instanceof Instant) {
+			return (Instant) source;
+		}
+		if (source instanceof Date date) {
+			return date.toInstant();
 		}
 		Instant result = (Instant) CONVERSION_SERVICE.convert(source, OBJECT_TYPE_DESCRIPTOR, INSTANT_TYPE_DESCRIPTOR);
 		Assert.state(result != null, () -> "Could not coerce " + source + " into an Instant");
@@ -155,7 +171,12 @@ public final class MappedJwtClaimSetConverter implements Converter<Map<String, O
 			if (converter != null) {
 				Object claim = claims.get(claimName);
 				Object mappedClaim = converter.convert(claim);
-				mappedClaims.compute(claimName, (key, value) -> mappedClaim);
+				if (mappedClaim == null) {
+					mappedClaims.remove(claimName);
+				}
+				else if (mappedClaim != claim) {
+					mappedClaims.put(claimName, mappedClaim);
+				}
 			}
 		}
 		Instant issuedAt = (Instant) mappedClaims.get(JwtClaimNames.IAT);
@@ -166,4 +187,41 @@ public final class MappedJwtClaimSetConverter implements Converter<Map<String, O
 		return mappedClaims;
 	}
 
+	/**
+	 * Converts the issuer claim, remembering the most recent {@link String} issuer and its
+	 * conversion
+	 */
+	private static final class IssuerConverter implements Converter<Object, String> {
+
+		private volatile Conversion last;
+
+		@Override
+		public String convert(Object source) {
+			if (!(source instanceof String issuer)) {
+				return convertIssuer(source);
+			}
+			Conversion last = this.last;
+			if (last != null && last.issuer.equals(issuer)) {
+				return last.converted;
+			}
+			String converted = convertIssuer(issuer);
+			this.last = new Conversion(issuer, converted);
+			return converted;
+		}
+
+		private static final class Conversion {
+
+			private final String issuer;
+
+			private final String converted;
+
+			private Conversion(String issuer, String converted) {
+				this.issuer = issuer;
+				this.converted = converted;
+			}
+
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2023 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,11 +21,11 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.security.interfaces.RSAPublicKey;
 import java.text.ParseException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -156,7 +156,7 @@ public final class NimbusJwtDecoder implements JwtDecoder {
 		try {
 			// Verify the signature
 			JWTClaimsSet jwtClaimsSet = this.jwtProcessor.process(parsedJwt, null);
-			Map<String, Object> headers = new LinkedHashMap<>(parsedJwt.getHeader().toJSONObject());
+			Map<String, Object> headers = parsedJwt.getHeader().toJSONObject();
 			Map<String, Object> claims = this.claimSetConverter.convert(jwtClaimsSet.getClaims());
 			// @formatter:off
 			return Jwt.withTokenValue(token)
@@ -277,6 +277,10 @@ public final class NimbusJwtDecoder implements JwtDecoder {
 
 		private Consumer<ConfigurableJWTProcessor<SecurityContext>> jwtProcessorCustomizer;
 
+		private Duration jwkSetRefreshInterval;
+
+		private Duration jwkSetRateLimit;
+
 		private JwkSetUriJwtDecoderBuilder(String jwkSetUri) {
 			Assert.hasText(jwkSetUri, "jwkSetUri cannot be empty");
 			this.jwkSetUri = (rest) -> jwkSetUri;
@@ -349,6 +353,46 @@ public final class NimbusJwtDecoder implements JwtDecoder {
 			return this;
 		}
 
+		/**
+		 * Refresh the <a href="https://tools.ietf.org/html/rfc7517#section-5">JWK Set</a>
+		 * in the background once it is older than the given interval. The previous JWK
+		 * Set keeps being used until the refresh succeeds, so that requests do not wait
+		 * for the JWK Set endpoint. The default, when either this or
+		 * {@link #jwkSetRateLimit(Duration)} is configured, is 5 minutes.
+		 *
+		 * <p>
+		 * This cannot be combined with {@link #cache(Cache)}.
+		 * @param refreshInterval the age after which the JWK Set is refreshed
+		 * @return a {@link JwkSetUriJwtDecoderBuilder} for further configurations
+		 * @since 6.3
+		 */
+		public JwkSetUriJwtDecoderBuilder jwkSetRefreshInterval(Duration refreshInterval) {
+			Assert.notNull(refreshInterval, "refreshInterval cannot be null");
+			Assert.isTrue(!refreshInterval.isNegative(), "refreshInterval cannot be negative");
+			this.jwkSetRefreshInterval = refreshInterval;
+			return this;
+		}
+
+		/**
+		 * Retrieve the <a href="https://tools.ietf.org/html/rfc7517#section-5">JWK
+		 * Set</a> at most once per the given interval, when a JWT refers to a key ID that
+		 * is not in the JWK Set or the JWK Set is refreshed. Concurrent requests for
+		 * unknown key IDs share a single retrieval. The default, when either this or
+		 * {@link #jwkSetRefreshInterval(Duration)} is configured, is 30 seconds.
+		 *
+		 * <p>
+		 * This cannot be combined with {@link #cache(Cache)}.
+		 * @param rateLimit the minimum interval between retrievals of the JWK Set
+		 * @return a {@link JwkSetUriJwtDecoderBuilder} for further configurations
+		 * @since 6.3
+		 */
+		public JwkSetUriJwtDecoderBuilder jwkSetRateLimit(Duration rateLimit) {
+			Assert.notNull(rateLimit, "rateLimit cannot be null");
+			Assert.isTrue(!rateLimit.isNegative(), "rateLimit cannot be negative");
+			this.jwkSetRateLimit = rateLimit;
+			return this;
+		}
+
 		/**
 		 * Use the given {@link Consumer} to customize the {@link JWTProcessor
 		 * ConfigurableJWTProcessor} before passing it to the build
@@ -377,6 +421,19 @@ public final class NimbusJwtDecoder implements JwtDecoder {
 		}
 
 		JWKSource<SecurityContext> jwkSource(ResourceRetriever jwkSetRetriever, String jwkSetUri) {
+			if (this.jwkSetRefreshInterval != null || this.jwkSetRateLimit != null) {
+				Assert.state(this.cache == null,
+						"cache cannot be combined with jwkSetRefreshInterval or jwkSetRateLimit");
+				RevalidatingRemoteJWKSource jwkSource = new RevalidatingRemoteJWKSource(toURL(jwkSetUri),
+						jwkSetRetriever);
+				if (this.jwkSetRefreshInterval != null) {
+					jwkSource.setRefreshInterval(this.jwkSetRefreshInterval);
+				}
+				if (this.jwkSetRateLimit != null) {
+					jwkSource.setRateLimit(this.jwkSetRateLimit);
+				}
+				return jwkSource;
+			}
 			if (this.cache == null) {
 				return new RemoteJWKSet<>(toURL(jwkSetUri), jwkSetRetriever);
 			}
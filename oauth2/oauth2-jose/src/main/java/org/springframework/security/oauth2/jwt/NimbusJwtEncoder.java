@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,10 +18,12 @@ package org.springframework.security.oauth2.jwt;
 
 import java.net.URI;
 import java.net.URL;
+import java.text.ParseException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -105,12 +107,58 @@ public final class NimbusJwtEncoder implements JwtEncoder {
 		}
 		JwtClaimsSet claims = parameters.getClaims();
 
+		return prepare(headers, false).encode(claims);
+	}
+
+	/**
+	 * Encodes each of the provided parameters, in order.
+	 * <p>
+	 * Parameters that share the same {@link JwsHeader} instance, or that have no
+	 * {@link JwsHeader}, are encoded using a single JWK selection, a single
+	 * {@code JWSSigner} and a single serialization of the JOSE header, which makes this
+	 * method cheaper than calling {@link #encode(JwtEncoderParameters)} for each of them.
+	 * @param parameters the parameters containing the JOSE header and JWT Claims Set
+	 * @return the encoded {@link Jwt}s, in the same order as the parameters
+	 * @throws JwtEncodingException if an error occurs while attempting to encode any of
+	 * the JWTs
+	 * @since 6.3
+	 */
+	public List<Jwt> encodeAll(List<JwtEncoderParameters> parameters) throws JwtEncodingException {
+		Assert.notNull(parameters, "parameters cannot be null");
+		Assert.noNullElements(parameters, "parameters cannot contain null values");
+
+		Map<JwsHeader, PreparedHeader> preparedHeaders = new IdentityHashMap<>();
+		List<Jwt> jwts = new ArrayList<>(parameters.size());
+		for (JwtEncoderParameters parameter : parameters) {
+			JwsHeader headers = parameter.getJwsHeader();
+			if (headers == null) {
+				headers = DEFAULT_JWS_HEADER;
+			}
+			PreparedHeader preparedHeader = preparedHeaders.computeIfAbsent(headers, (h) -> prepare(h, true));
+			jwts.add(preparedHeader.encode(parameter.getClaims()));
+		}
+		return jwts;
+	}
+
+	private PreparedHeader prepare(JwsHeader headers, boolean reusable) {
 		JWK jwk = selectJwk(headers);
 		headers = addKeyIdentifierHeadersIfNecessary(headers, jwk);
 
-		String jws = serialize(headers, claims, jwk);
+		JWSHeader jwsHeader = convert(headers);
+		if (reusable) {
+			// a parsed header retains its serialization instead of serializing on every use
+			try {
+				jwsHeader = JWSHeader.parse(jwsHeader.toBase64URL());
+			}
+			catch (ParseException ex) {
+				throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
+						"Unable to serialize the JOSE header -> " + ex.getMessage()), ex);
+			}
+		}
 
-		return new Jwt(jws, claims.getIssuedAt(), claims.getExpiresAt(), headers.getHeaders(), claims.getClaims());
+		JWSSigner jwsSigner = this.jwsSigners.computeIfAbsent(jwk, NimbusJwtEncoder::createSigner);
+
+		return new PreparedHeader(headers, jwsHeader, jwsSigner);
 	}
 
 	private JWK selectJwk(JwsHeader headers) {
@@ -137,23 +185,6 @@ public final class NimbusJwtEncoder implements JwtEncoder {
 		return jwks.get(0);
 	}
 
-	private String serialize(JwsHeader headers, JwtClaimsSet claims, JWK jwk) {
-		JWSHeader jwsHeader = convert(headers);
-		JWTClaimsSet jwtClaimsSet = convert(claims);
-
-		JWSSigner jwsSigner = this.jwsSigners.computeIfAbsent(jwk, NimbusJwtEncoder::createSigner);
-
-		SignedJWT signedJwt = new SignedJWT(jwsHeader, jwtClaimsSet);
-		try {
-			signedJwt.sign(jwsSigner);
-		}
-		catch (JOSEException ex) {
-			throw new JwtEncodingException(
-					String.format(ENCODING_ERROR_MESSAGE_TEMPLATE, "Failed to sign the JWT -> " + ex.getMessage()), ex);
-		}
-		return signedJwt.serialize();
-	}
-
 	private static JWKMatcher createJwkMatcher(JwsHeader headers) {
 		JWSAlgorithm jwsAlgorithm = JWSAlgorithm.parse(headers.getAlgorithm().getName());
 
@@ -349,4 +380,41 @@ public final class NimbusJwtEncoder implements JwtEncoder {
 		}
 	}
 
+	/**
+	 * A JOSE header whose JWK has been selected and whose signer has been resolved
+	 */
+	private static final class PreparedHeader {
+
+		private final JwsHeader headers;
+
+		private final JWSHeader jwsHeader;
+
+		private final JWSSigner jwsSigner;
+
+		private PreparedHeader(JwsHeader headers, JWSHeader jwsHeader, JWSSigner jwsSigner) {
+			this.headers = headers;
+			this.jwsHeader = jwsHeader;
+			this.jwsSigner = jwsSigner;
+		}
+
+		private Jwt encode(JwtClaimsSet claims) {
+			JWTClaimsSet jwtClaimsSet = convert(claims);
+
+			SignedJWT signedJwt = new SignedJWT(this.jwsHeader, jwtClaimsSet);
+			try {
+				signedJwt.sign(this.jwsSigner);
+			}
+			catch (JOSEException ex) {
+				throw new JwtEncodingException(
+						String.format(ENCODING_ERROR_MESSAGE_TEMPLATE, "Failed to sign the JWT -> " + ex.getMessage()),
+						ex);
+			}
+			String jws = signedJwt.serialize();
+
+			return new Jwt(jws, claims.getIssuedAt(), claims.getExpiresAt(), this.headers.getHeaders(),
+					claims.getClaims());
+		}
+
+	}
+
 }
@@ -21,7 +21,6 @@ import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.BiFunction;
@@ -178,7 +177,7 @@ public final class NimbusReactiveJwtDecoder implements ReactiveJwtDecoder {
 
 	private Jwt createJwt(JWT parsedJwt, JWTClaimsSet jwtClaimsSet) {
 		try {
-			Map<String, Object> headers = new LinkedHashMap<>(parsedJwt.getHeader().toJSONObject());
+			Map<String, Object> headers = parsedJwt.getHeader().toJSONObject();
 			Map<String, Object> claims = this.claimSetConverter.convert(jwtClaimsSet.getClaims());
 			return Jwt.withTokenValue(parsedJwt.getParsedString())
 				.headers((h) -> h.putAll(headers))
@@ -321,6 +320,10 @@ public final class NimbusReactiveJwtDecoder implements ReactiveJwtDecoder {
 
 		private BiFunction<ReactiveRemoteJWKSource, ConfigurableJWTProcessor<JWKSecurityContext>, Mono<ConfigurableJWTProcessor<JWKSecurityContext>>> jwtProcessorCustomizer;
 
+		private Duration jwkSetRefreshInterval;
+
+		private Duration jwkSetRateLimit;
+
 		private JwkSetUriReactiveJwtDecoderBuilder(String jwkSetUri) {
 			Assert.hasText(jwkSetUri, "jwkSetUri cannot be empty");
 			this.jwkSetUri = (web) -> Mono.just(jwkSetUri);
@@ -378,6 +381,39 @@ public final class NimbusReactiveJwtDecoder implements ReactiveJwtDecoder {
 			return this;
 		}
 
+		/**
+		 * Refresh the <a href="https://tools.ietf.org/html/rfc7517#section-5">JWK Set</a>
+		 * in the background once it is older than the given interval. The previous JWK
+		 * Set keeps being used until the refresh succeeds, so that requests do not wait
+		 * for the JWK Set endpoint. The default, when either this or
+		 * {@link #jwkSetRateLimit(Duration)} is configured, is 5 minutes.
+		 * @param refreshInterval the age after which the JWK Set is refreshed
+		 * @return a {@link JwkSetUriReactiveJwtDecoderBuilder} for further configurations
+		 * @since 6.3
+		 */
+		public JwkSetUriReactiveJwtDecoderBuilder jwkSetRefreshInterval(Duration refreshInterval) {
+			Assert.notNull(refreshInterval, "refreshInterval cannot be null");
+			Assert.isTrue(!refreshInterval.isNegative(), "refreshInterval cannot be negative");
+			this.jwkSetRefreshInterval = refreshInterval;
+			return this;
+		}
+
+		/**
+		 * Retrieve the <a href="https://tools.ietf.org/html/rfc7517#section-5">JWK
+		 * Set</a> at most once per the given interval, when a JWT refers to a key ID that
+		 * is not in the JWK Set or the JWK Set is refreshed. The default, when either this
+		 * or {@link #jwkSetRefreshInterval(Duration)} is configured, is 30 seconds.
+		 * @param rateLimit the minimum interval between retrievals of the JWK Set
+		 * @return a {@link JwkSetUriReactiveJwtDecoderBuilder} for further configurations
+		 * @since 6.3
+		 */
+		public JwkSetUriReactiveJwtDecoderBuilder jwkSetRateLimit(Duration rateLimit) {
+			Assert.notNull(rateLimit, "rateLimit cannot be null");
+			Assert.isTrue(!rateLimit.isNegative(), "rateLimit cannot be negative");
+			this.jwkSetRateLimit = rateLimit;
+			return this;
+		}
+
 		/**
 		 * Use the given {@link Consumer} to customize the {@link JWTProcessor
 		 * ConfigurableJWTProcessor} before passing it to the build
@@ -431,6 +467,11 @@ public final class NimbusReactiveJwtDecoder implements ReactiveJwtDecoder {
 			});
 			ReactiveRemoteJWKSource source = new ReactiveRemoteJWKSource(this.jwkSetUri.apply(this.webClient));
 			source.setWebClient(this.webClient);
+			if (this.jwkSetRefreshInterval != null || this.jwkSetRateLimit != null) {
+				source.setRefreshInterval(
+						(this.jwkSetRefreshInterval != null) ? this.jwkSetRefreshInterval : Duration.ofMinutes(5));
+				source.setRateLimit((this.jwkSetRateLimit != null) ? this.jwkSetRateLimit : Duration.ofSeconds(30));
+			}
 			Mono<JWSKeySelector<JWKSecurityContext>> jwsKeySelector = jwsKeySelector(source);
 			Mono<Tuple2<ConfigurableJWTProcessor<JWKSecurityContext>, Function<JWSAlgorithm, Boolean>>> jwtProcessorMono = jwsKeySelector
 				.flatMap((selector) -> {
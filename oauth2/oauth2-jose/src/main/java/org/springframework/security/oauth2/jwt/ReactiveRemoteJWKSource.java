@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2023 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,9 @@
 package org.springframework.security.oauth2.jwt;
 
 import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -27,6 +30,8 @@ import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKMatcher;
 import com.nimbusds.jose.jwk.JWKSelector;
 import com.nimbusds.jose.jwk.JWKSet;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import reactor.core.publisher.Mono;
 
 import org.springframework.util.Assert;
@@ -48,10 +53,27 @@ class ReactiveRemoteJWKSource implements ReactiveJWKSource {
 	 */
 	private final AtomicReference<String> cachedJwkSetUrl = new AtomicReference<>();
 
+	/**
+	 * The retrieval of the JWK set that is in progress, if any.
+	 */
+	private final AtomicReference<Mono<JWKSet>> retrieval = new AtomicReference<>();
+
+	private final Log logger = LogFactory.getLog(getClass());
+
 	private WebClient webClient = WebClient.create();
 
 	private final Mono<String> jwkSetUrlProvider;
 
+	private volatile Instant retrievedAt = Instant.EPOCH;
+
+	private volatile Instant lastRetrieval = Instant.MIN;
+
+	private Duration refreshInterval;
+
+	private Duration rateLimit = Duration.ZERO;
+
+	private Clock clock = Clock.systemUTC();
+
 	ReactiveRemoteJWKSource(String jwkSetURL) {
 		Assert.hasText(jwkSetURL, "jwkSetURL cannot be empty");
 		this.jwkSetUrlProvider = Mono.just(jwkSetURL);
@@ -67,10 +89,12 @@ class ReactiveRemoteJWKSource implements ReactiveJWKSource {
 	public Mono<List<JWK>> get(JWKSelector jwkSelector) {
 		// @formatter:off
 		return this.cachedJWKSet.get()
+				.doOnNext((jwkSet) -> refreshIfNecessary())
 				.switchIfEmpty(Mono.defer(this::getJWKSet))
 				.flatMap((jwkSet) -> get(jwkSelector, jwkSet))
-				.switchIfEmpty(Mono.defer(() -> getJWKSet()
-						.map(jwkSelector::select))
+				.switchIfEmpty(Mono.defer(() -> isRateLimited()
+						? Mono.just(Collections.<JWK>emptyList())
+						: getJWKSet().map(jwkSelector::select))
 				);
 		// @formatter:on
 	}
@@ -100,24 +124,54 @@ class ReactiveRemoteJWKSource implements ReactiveJWKSource {
 	}
 
 	/**
-	 * Updates the cached JWK set from the configured URL.
+	 * Refreshes the cached JWK set in the background, if it is older than the refresh
+	 * interval. The cached JWK set is used until the refresh succeeds.
+	 */
+	private void refreshIfNecessary() {
+		if (this.refreshInterval == null || isRateLimited()
+				|| this.clock.instant().isBefore(this.retrievedAt.plus(this.refreshInterval))) {
+			return;
+		}
+		getJWKSet().subscribe(null,
+				(ex) -> this.logger.debug("Failed to refresh the JWK set, continuing to use the previous JWK set", ex));
+	}
+
+	private boolean isRateLimited() {
+		return this.clock.instant().isBefore(this.lastRetrieval.plus(this.rateLimit));
+	}
+
+	/**
+	 * Updates the cached JWK set from the configured URL. Concurrent updates share a
+	 * single retrieval.
 	 * @return The updated JWK set.
 	 * @throws RemoteKeySourceException If JWK retrieval failed.
 	 */
 	private Mono<JWKSet> getJWKSet() {
-		// @formatter:off
-		return this.jwkSetUrlProvider
-				.flatMap((jwkSetURL) -> this.webClient.get()
-					.uri(jwkSetURL)
-					.retrieve()
-					.bodyToMono(String.class)
-				)
-				.map(this::parse)
-				.doOnNext((jwkSet) -> this.cachedJWKSet
-					.set(Mono.just(jwkSet))
-				)
-				.cache();
-		// @formatter:on
+		return Mono.defer(() -> {
+			Mono<JWKSet> retrieval = this.retrieval.get();
+			if (retrieval != null) {
+				return retrieval;
+			}
+			AtomicReference<Mono<JWKSet>> self = new AtomicReference<>();
+			// @formatter:off
+			Mono<JWKSet> jwkSet = this.jwkSetUrlProvider
+					.doOnSubscribe((subscription) -> this.lastRetrieval = this.clock.instant())
+					.flatMap((jwkSetURL) -> this.webClient.get()
+						.uri(jwkSetURL)
+						.retrieve()
+						.bodyToMono(String.class)
+					)
+					.map(this::parse)
+					.doOnNext((retrieved) -> {
+						this.retrievedAt = this.clock.instant();
+						this.cachedJWKSet.set(Mono.just(retrieved));
+					})
+					.doOnTerminate(() -> this.retrieval.compareAndSet(self.get(), null))
+					.cache();
+			// @formatter:on
+			self.set(jwkSet);
+			return this.retrieval.compareAndSet(null, jwkSet) ? jwkSet : getJWKSet();
+		});
 	}
 
 	private JWKSet parse(String body) {
@@ -151,4 +205,21 @@ class ReactiveRemoteJWKSource implements ReactiveJWKSource {
 		this.webClient = webClient;
 	}
 
+	void setRefreshInterval(Duration refreshInterval) {
+		Assert.notNull(refreshInterval, "refreshInterval cannot be null");
+		Assert.isTrue(!refreshInterval.isNegative(), "refreshInterval cannot be negative");
+		this.refreshInterval = refreshInterval;
+	}
+
+	void setRateLimit(Duration rateLimit) {
+		Assert.notNull(rateLimit, "rateLimit cannot be null");
+		Assert.isTrue(!rateLimit.isNegative(), "rateLimit cannot be negative");
+		this.rateLimit = rateLimit;
+	}
+
+	void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.jwt;
+
+import java.io.IOException;
+import java.net.URL;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.nimbusds.jose.RemoteKeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.ResourceRetriever;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link JWKSource} that retrieves a remote
+ * <a href="https://tools.ietf.org/html/rfc7517#section-5">JWK Set</a> and keeps it up to
+ * date without blocking requests on the JWK Set endpoint.
+ *
+ * <p>
+ * Once the JWK Set is older than the refresh interval, it is refreshed in the
+ * background, and the previous JWK Set keeps being used until the refresh succeeds. When
+ * a JWT refers to a key ID that is not in the JWK Set, the JWK Set is retrieved again,
+ * at most once per rate limit interval, and concurrent requests for unknown key IDs share
+ * a single retrieval.
+ *
+ * @since 6.3
+ */
+final class RevalidatingRemoteJWKSource implements JWKSource<SecurityContext> {
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final URL jwkSetUrl;
+
+	private final ResourceRetriever resourceRetriever;
+
+	private final ReentrantLock retrieveLock = new ReentrantLock();
+
+	private final AtomicBoolean refreshing = new AtomicBoolean();
+
+	private volatile CachedJWKSet cached;
+
+	private volatile Instant lastRetrieval = Instant.MIN;
+
+	private Duration refreshInterval = Duration.ofMinutes(5);
+
+	private Duration rateLimit = Duration.ofSeconds(30);
+
+	private Executor executor = new SimpleAsyncTaskExecutor("jwk-set-refresh-");
+
+	private Clock clock = Clock.systemUTC();
+
+	RevalidatingRemoteJWKSource(URL jwkSetUrl, ResourceRetriever resourceRetriever) {
+		Assert.notNull(jwkSetUrl, "jwkSetUrl cannot be null");
+		Assert.notNull(resourceRetriever, "resourceRetriever cannot be null");
+		this.jwkSetUrl = jwkSetUrl;
+		this.resourceRetriever = resourceRetriever;
+	}
+
+	@Override
+	public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws RemoteKeySourceException {
+		CachedJWKSet cached = this.cached;
+		if (cached == null) {
+			cached = retrieve(null, false);
+		}
+		else if (!this.clock.instant().isBefore(cached.retrievedAt.plus(this.refreshInterval))) {
+			refreshInBackground(cached);
+		}
+		List<JWK> matches = jwkSelector.select(cached.jwkSet);
+		if (!matches.isEmpty()) {
+			return matches;
+		}
+		String keyId = ReactiveRemoteJWKSource.getFirstSpecifiedKeyID(jwkSelector.getMatcher());
+		if (keyId == null || cached.jwkSet.getKeyByKeyId(keyId) != null) {
+			return Collections.emptyList();
+		}
+		CachedJWKSet retrieved = retrieve(cached, true);
+		return (retrieved != cached) ? jwkSelector.select(retrieved.jwkSet) : Collections.emptyList();
+	}
+
+	private void refreshInBackground(CachedJWKSet cached) {
+		if (isRateLimited() || !this.refreshing.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			this.executor.execute(() -> {
+				try {
+					retrieve(cached, true);
+				}
+				catch (RemoteKeySourceException ex) {
+					this.logger.debug("Failed to refresh the JWK Set, continuing to use the previous JWK Set", ex);
+				}
+				finally {
+					this.refreshing.set(false);
+				}
+			});
+		}
+		catch (RejectedExecutionException ex) {
+			this.refreshing.set(false);
+			this.logger.debug("Failed to schedule the refresh of the JWK Set", ex);
+		}
+	}
+
+	private CachedJWKSet retrieve(CachedJWKSet expected, boolean rateLimited) throws RemoteKeySourceException {
+		this.retrieveLock.lock();
+		try {
+			CachedJWKSet cached = this.cached;
+			// another thread already retrieved it, or it was retrieved too recently
+			if (cached != expected || (rateLimited && isRateLimited())) {
+				return cached;
+			}
+			this.lastRetrieval = this.clock.instant();
+			JWKSet jwkSet = JWKSet.parse(this.resourceRetriever.retrieveResource(this.jwkSetUrl).getContent());
+			cached = new CachedJWKSet(jwkSet, this.clock.instant());
+			this.cached = cached;
+			return cached;
+		}
+		catch (IOException ex) {
+			throw new RemoteKeySourceException("Couldn't retrieve remote JWK set: " + ex.getMessage(), ex);
+		}
+		catch (ParseException ex) {
+			throw new RemoteKeySourceException("Couldn't parse remote JWK set: " + ex.getMessage(), ex);
+		}
+		finally {
+			this.retrieveLock.unlock();
+		}
+	}
+
+	private boolean isRateLimited() {
+		return this.clock.instant().isBefore(this.lastRetrieval.plus(this.rateLimit));
+	}
+
+	void setRefreshInterval(Duration refreshInterval) {
+		Assert.notNull(refreshInterval, "refreshInterval cannot be null");
+		Assert.isTrue(!refreshInterval.isNegative(), "refreshInterval cannot be negative");
+		this.refreshInterval = refreshInterval;
+	}
+
+	void setRateLimit(Duration rateLimit) {
+		Assert.notNull(rateLimit, "rateLimit cannot be null");
+		Assert.isTrue(!rateLimit.isNegative(), "rateLimit cannot be negative");
+		this.rateLimit = rateLimit;
+	}
+
+	void setExecutor(Executor executor) {
+		Assert.notNull(executor, "executor cannot be null");
+		this.executor = executor;
+	}
+
+	void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	private static final class CachedJWKSet {
+
+		private final JWKSet jwkSet;
+
+		private final Instant retrievedAt;
+
+		private CachedJWKSet(JWKSet jwkSet, Instant retrievedAt) {
+			this.jwkSet = jwkSet;
+			this.retrievedAt = retrievedAt;
+		}
+
+	}
+
+}
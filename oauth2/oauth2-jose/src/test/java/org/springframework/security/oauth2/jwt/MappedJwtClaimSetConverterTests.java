@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -207,6 +207,34 @@ public class MappedJwtClaimSetConverterTests {
 		assertThat(target).containsEntry(JwtClaimNames.ISS, "https://issuer");
 	}
 
+	@Test
+	public void convertWhenIssuerRepeatsThenConvertsConsistently() {
+		MappedJwtClaimSetConverter converter = MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
+		Map<String, Object> first = converter.convert(Collections.singletonMap(JwtClaimNames.ISS, "https://one"));
+		Map<String, Object> second = converter.convert(Collections.singletonMap(JwtClaimNames.ISS, "https://two"));
+		Map<String, Object> third = converter.convert(Collections.singletonMap(JwtClaimNames.ISS, "https://two"));
+		assertThat(first).containsEntry(JwtClaimNames.ISS, "https://one");
+		assertThat(second).containsEntry(JwtClaimNames.ISS, "https://two");
+		assertThat(third).containsEntry(JwtClaimNames.ISS, "https://two");
+	}
+
+	@Test
+	public void convertWhenClaimsAlreadyOfTargetTypeThenSameInstances() {
+		MappedJwtClaimSetConverter converter = MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
+		Instant expiresAt = Instant.ofEpochSecond(2000000000L);
+		Map<String, Object> custom = Collections.singletonMap("nested", "value");
+		Map<String, Object> source = new HashMap<>();
+		source.put(JwtClaimNames.SUB, "subject");
+		source.put(JwtClaimNames.EXP, expiresAt);
+		source.put(JwtClaimNames.IAT, Date.from(expiresAt.minusSeconds(60)));
+		source.put("custom", custom);
+		Map<String, Object> target = converter.convert(source);
+		assertThat(target.get(JwtClaimNames.SUB)).isSameAs(source.get(JwtClaimNames.SUB));
+		assertThat(target.get(JwtClaimNames.EXP)).isSameAs(expiresAt);
+		assertThat(target).containsEntry(JwtClaimNames.IAT, expiresAt.minusSeconds(60));
+		assertThat(target.get("custom")).isSameAs(custom);
+	}
+
 	@Test
 	public void constructWhenAnyParameterIsNullThenIllegalArgumentException() {
 		assertThatIllegalArgumentException().isThrownBy(() -> new MappedJwtClaimSetConverter(null));
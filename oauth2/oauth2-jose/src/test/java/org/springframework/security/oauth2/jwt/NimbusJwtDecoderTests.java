@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2023 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import java.security.spec.EncodedKeySpec;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
 import java.text.ParseException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Base64;
@@ -772,6 +773,59 @@ public class NimbusJwtDecoderTests {
 				APPLICATION_JWK_SET_JSON);
 	}
 
+	@Test
+	public void decodeWhenJwkSetRateLimitAndUnknownKidThenDoesNotFetchJwkSetAgain() {
+		RestOperations restOperations = mock(RestOperations.class);
+		given(restOperations.exchange(any(RequestEntity.class), eq(String.class))).willReturn(
+				new ResponseEntity<>(JWK_SET, HttpStatus.OK), new ResponseEntity<>(NEW_KID_JWK_SET, HttpStatus.OK));
+		// @formatter:off
+		NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withJwkSetUri(JWK_SET_URI)
+				.restOperations(restOperations)
+				.jwkSetRateLimit(Duration.ofMinutes(1))
+				.build();
+		// @formatter:on
+		jwtDecoder.decode(SIGNED_JWT);
+		assertThatExceptionOfType(JwtException.class).isThrownBy(() -> jwtDecoder.decode(NEW_KID_SIGNED_JWT));
+		verify(restOperations).exchange(any(RequestEntity.class), eq(String.class));
+	}
+
+	@Test
+	public void decodeWhenJwkSetRefreshIntervalAndUnknownKidThenFetchesJwkSet() {
+		RestOperations restOperations = mock(RestOperations.class);
+		given(restOperations.exchange(any(RequestEntity.class), eq(String.class))).willReturn(
+				new ResponseEntity<>(JWK_SET, HttpStatus.OK), new ResponseEntity<>(NEW_KID_JWK_SET, HttpStatus.OK));
+		// @formatter:off
+		NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withJwkSetUri(JWK_SET_URI)
+				.restOperations(restOperations)
+				.jwkSetRefreshInterval(Duration.ofMinutes(5))
+				.jwkSetRateLimit(Duration.ZERO)
+				.build();
+		// @formatter:on
+		jwtDecoder.decode(SIGNED_JWT);
+		jwtDecoder.decode(NEW_KID_SIGNED_JWT);
+		verify(restOperations, times(2)).exchange(any(RequestEntity.class), eq(String.class));
+	}
+
+	@Test
+	public void buildWhenCacheAndJwkSetRateLimitThenThrowsException() {
+		// @formatter:off
+		NimbusJwtDecoder.JwkSetUriJwtDecoderBuilder builder = NimbusJwtDecoder.withJwkSetUri(JWK_SET_URI)
+				.cache(new ConcurrentMapCache("test-jwk-set-cache"))
+				.jwkSetRateLimit(Duration.ofMinutes(1));
+		assertThatIllegalStateException()
+				.isThrownBy(builder::build);
+		// @formatter:on
+	}
+
+	@Test
+	public void jwkSetRefreshIntervalWhenNegativeThenThrowsException() {
+		NimbusJwtDecoder.JwkSetUriJwtDecoderBuilder builder = NimbusJwtDecoder.withJwkSetUri(JWK_SET_URI);
+		// @formatter:off
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> builder.jwkSetRefreshInterval(Duration.ofSeconds(-1)));
+		// @formatter:on
+	}
+
 	@Test
 	public void decodeWhenCacheIsConfiguredAndValueLoaderErrorsThenThrowsJwtException() {
 		Cache cache = new ConcurrentMapCache("test-jwk-set-cache");
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2021 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -41,6 +41,7 @@ import org.mockito.stubbing.Answer;
 
 import org.springframework.security.oauth2.jose.TestJwks;
 import org.springframework.security.oauth2.jose.TestKeys;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -51,6 +52,8 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests for {@link NimbusJwtEncoder}.
@@ -291,6 +294,73 @@ public class NimbusJwtEncoderTests {
 		assertThat(jwk1.getKeyID()).isNotEqualTo(jwk2.getKeyID());
 	}
 
+	@Test
+	public void encodeAllWhenParametersNullThenThrowIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.jwtEncoder.encodeAll(null))
+			.withMessage("parameters cannot be null");
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> this.jwtEncoder.encodeAll(Collections.singletonList(null)))
+			.withMessage("parameters cannot contain null values");
+	}
+
+	@Test
+	public void encodeAllWhenSameHeadersThenJwkSelectedOnceAndDecodes() throws Exception {
+		// @formatter:off
+		RSAKey rsaJwk = TestJwks.jwk(TestKeys.DEFAULT_PUBLIC_KEY, TestKeys.DEFAULT_PRIVATE_KEY)
+				.keyID("rsa-jwk-1")
+				.build();
+		// @formatter:on
+		this.jwkList.add(rsaJwk);
+		JWKSource<SecurityContext> jwkSource = spy(new JWKSource<SecurityContext>() {
+			@Override
+			public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+				return jwkSelector.select(new JWKSet(NimbusJwtEncoderTests.this.jwkList));
+			}
+		});
+		NimbusJwtEncoder jwtEncoder = new NimbusJwtEncoder(jwkSource);
+		JwsHeader jwsHeader = JwsHeader.with(SignatureAlgorithm.RS256).type("JWT").build();
+		List<JwtEncoderParameters> parameters = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			JwtClaimsSet claims = TestJwtClaimsSets.jwtClaimsSet().subject("subject-" + i).build();
+			parameters.add(JwtEncoderParameters.from(jwsHeader, claims));
+		}
+		List<Jwt> encodedJwts = jwtEncoder.encodeAll(parameters);
+		verify(jwkSource, times(1)).get(any(), any());
+		assertThat(encodedJwts).hasSize(3);
+		NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withPublicKey(rsaJwk.toRSAPublicKey()).build();
+		for (int i = 0; i < 3; i++) {
+			Jwt encodedJws = encodedJwts.get(i);
+			assertThat(encodedJws.getHeaders()).containsEntry(JoseHeaderNames.KID, rsaJwk.getKeyID());
+			assertThat(encodedJws.getHeaders()).containsEntry(JoseHeaderNames.TYP, "JWT");
+			assertThat(encodedJws.getSubject()).isEqualTo("subject-" + i);
+			Jwt decoded = jwtDecoder.decode(encodedJws.getTokenValue());
+			assertThat(decoded.getSubject()).isEqualTo("subject-" + i);
+			assertThat(decoded.getHeaders()).containsEntry(JoseHeaderNames.KID, rsaJwk.getKeyID());
+		}
+	}
+
+	@Test
+	public void encodeAllWhenDifferentHeadersThenEachSignedWithSelectedJwk() throws Exception {
+		// @formatter:off
+		RSAKey rsaJwk = TestJwks.jwk(TestKeys.DEFAULT_PUBLIC_KEY, TestKeys.DEFAULT_PRIVATE_KEY)
+				.keyID("rsa-jwk-1")
+				.build();
+		// @formatter:on
+		OctetSequenceKey secretJwk = TestJwks.DEFAULT_SECRET_JWK;
+		this.jwkList.add(rsaJwk);
+		this.jwkList.add(secretJwk);
+		JwtClaimsSet claims = TestJwtClaimsSets.jwtClaimsSet().build();
+		List<Jwt> encodedJwts = this.jwtEncoder.encodeAll(Arrays.asList(
+				JwtEncoderParameters.from(JwsHeader.with(SignatureAlgorithm.RS256).build(), claims),
+				JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims),
+				JwtEncoderParameters.from(claims)));
+		NimbusJwtDecoder rsaDecoder = NimbusJwtDecoder.withPublicKey(rsaJwk.toRSAPublicKey()).build();
+		NimbusJwtDecoder secretDecoder = NimbusJwtDecoder.withSecretKey(secretJwk.toSecretKey()).build();
+		rsaDecoder.decode(encodedJwts.get(0).getTokenValue());
+		secretDecoder.decode(encodedJwts.get(1).getTokenValue());
+		rsaDecoder.decode(encodedJwts.get(2).getTokenValue());
+	}
+
 	private static final class JwkListResultCaptor implements Answer<List<JWK>> {
 
 		private List<JWK> result;
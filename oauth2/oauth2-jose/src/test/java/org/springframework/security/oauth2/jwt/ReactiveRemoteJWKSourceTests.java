@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2023 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,13 @@
 
 package org.springframework.security.oauth2.jwt;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import com.nimbusds.jose.jwk.JWK;
@@ -166,6 +171,37 @@ public class ReactiveRemoteJWKSourceTests {
 		assertThat(this.source.get(this.selector).block()).isEmpty();
 	}
 
+	@Test
+	public void getWhenNoMatchAndKeyIdNotMatchAndRateLimitedThenEmpty() {
+		this.source.setRateLimit(Duration.ofMinutes(1));
+		given(this.matcher.matches(any())).willReturn(false);
+		given(this.matcher.getKeyIDs()).willReturn(Collections.singleton("rotated"));
+		assertThat(this.source.get(this.selector).block()).isEmpty();
+		assertThat(this.server.getRequestCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void getWhenConcurrentRequestsThenSingleRetrieval() {
+		given(this.matcher.matches(any())).willReturn(true);
+		Mono.zip(this.source.get(this.selector), this.source.get(this.selector)).block();
+		assertThat(this.server.getRequestCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void getWhenJwkSetStaleThenRefreshesInBackground() throws Exception {
+		Instant now = Instant.now();
+		this.server.enqueue(new MockResponse().setBody(this.keys2));
+		this.source.setRefreshInterval(Duration.ofMinutes(5));
+		this.source.setClock(Clock.fixed(now, ZoneOffset.UTC));
+		given(this.matcher.matches(any())).willReturn(true);
+		this.source.get(this.selector).block();
+		this.source.setClock(Clock.fixed(now.plus(Duration.ofMinutes(10)), ZoneOffset.UTC));
+		// the previous JWK set is used while the refresh is in progress
+		assertThat(this.source.get(this.selector).block()).hasSize(2);
+		assertThat(this.server.takeRequest(1, TimeUnit.SECONDS)).isNotNull();
+		assertThat(this.server.takeRequest(1, TimeUnit.SECONDS)).isNotNull();
+	}
+
 	@Test
 	public void getShouldRecoverAndReturnKeysAfterErrorCase() {
 		given(this.matcher.matches(any())).willReturn(true);
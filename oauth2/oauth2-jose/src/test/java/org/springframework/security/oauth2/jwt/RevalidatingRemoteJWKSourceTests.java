@@ -0,0 +1,173 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.jwt;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import com.nimbusds.jose.RemoteKeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Resource;
+import com.nimbusds.jose.util.ResourceRetriever;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.security.oauth2.jose.TestKeys;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Tests for {@link RevalidatingRemoteJWKSource}.
+ */
+public class RevalidatingRemoteJWKSourceTests {
+
+	private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+	private static final Resource ONE = jwkSet("one");
+
+	private static final Resource TWO = jwkSet("two");
+
+	private ResourceRetriever retriever;
+
+	private RevalidatingRemoteJWKSource source;
+
+	@BeforeEach
+	public void setup() throws Exception {
+		this.retriever = mock(ResourceRetriever.class);
+		this.source = new RevalidatingRemoteJWKSource(new URL("https://issuer/.well-known/jwks.json"), this.retriever);
+		this.source.setRefreshInterval(Duration.ofMinutes(5));
+		this.source.setRateLimit(Duration.ofSeconds(30));
+		this.source.setExecutor(Runnable::run);
+		this.source.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+	}
+
+	@Test
+	public void constructorWhenNullUrlThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new RevalidatingRemoteJWKSource(null, this.retriever));
+	}
+
+	@Test
+	public void getWhenMultipleRequestsThenCached() throws Exception {
+		given(this.retriever.retrieveResource(any())).willReturn(ONE);
+		assertThat(keyIds(this.source.get(selector("one"), null))).containsExactly("one");
+		assertThat(keyIds(this.source.get(selector("one"), null))).containsExactly("one");
+		verify(this.retriever).retrieveResource(any());
+	}
+
+	@Test
+	public void getWhenStaleThenRefreshesInBackgroundAndServesPreviousJwkSet() throws Exception {
+		Executor executor = mock(Executor.class);
+		this.source.setExecutor(executor);
+		given(this.retriever.retrieveResource(any())).willReturn(ONE);
+		this.source.get(selector("one"), null);
+		this.source.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(10)), ZoneOffset.UTC));
+		assertThat(keyIds(this.source.get(selector("one"), null))).containsExactly("one");
+		assertThat(keyIds(this.source.get(selector("one"), null))).containsExactly("one");
+		// only one refresh is scheduled while a refresh is in progress
+		verify(executor).execute(any());
+		verify(this.retriever).retrieveResource(any());
+	}
+
+	@Test
+	public void getWhenStaleAndRefreshedThenServesRefreshedJwkSet() throws Exception {
+		given(this.retriever.retrieveResource(any())).willReturn(ONE, TWO);
+		this.source.get(selector("one"), null);
+		this.source.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(10)), ZoneOffset.UTC));
+		this.source.get(selector("one"), null);
+		assertThat(keyIds(this.source.get(selector("two"), null))).containsExactly("two");
+		verify(this.retriever, times(2)).retrieveResource(any());
+	}
+
+	@Test
+	public void getWhenRefreshFailsThenServesPreviousJwkSet() throws Exception {
+		given(this.retriever.retrieveResource(any())).willReturn(ONE).willThrow(new IOException("unavailable"));
+		this.source.get(selector("one"), null);
+		this.source.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(10)), ZoneOffset.UTC));
+		assertThat(keyIds(this.source.get(selector("one"), null))).containsExactly("one");
+		verify(this.retriever, times(2)).retrieveResource(any());
+	}
+
+	@Test
+	public void getWhenUnknownKeyIdThenRetrievesJwkSet() throws Exception {
+		given(this.retriever.retrieveResource(any())).willReturn(ONE, TWO);
+		this.source.get(selector("one"), null);
+		this.source.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(1)), ZoneOffset.UTC));
+		assertThat(keyIds(this.source.get(selector("two"), null))).containsExactly("two");
+		verify(this.retriever, times(2)).retrieveResource(any());
+	}
+
+	@Test
+	public void getWhenUnknownKeyIdAndRateLimitedThenDoesNotRetrieveJwkSet() throws Exception {
+		given(this.retriever.retrieveResource(any())).willReturn(ONE, TWO);
+		this.source.get(selector("one"), null);
+		assertThat(this.source.get(selector("two"), null)).isEmpty();
+		assertThat(this.source.get(selector("three"), null)).isEmpty();
+		verify(this.retriever).retrieveResource(any());
+	}
+
+	@Test
+	public void getWhenKnownKeyIdDoesNotMatchThenDoesNotRetrieveJwkSet() throws Exception {
+		given(this.retriever.retrieveResource(any())).willReturn(ONE);
+		this.source.setRateLimit(Duration.ZERO);
+		this.source.get(selector("one"), null);
+		JWKSelector selector = new JWKSelector(new JWKMatcher.Builder().keyID("one").privateOnly(true).build());
+		assertThat(this.source.get(selector, null)).isEmpty();
+		verify(this.retriever).retrieveResource(any());
+	}
+
+	@Test
+	public void getWhenInitialRetrievalFailsThenException() throws Exception {
+		Executor executor = mock(Executor.class);
+		this.source.setExecutor(executor);
+		given(this.retriever.retrieveResource(any())).willThrow(new IOException("unavailable"));
+		assertThatExceptionOfType(RemoteKeySourceException.class)
+			.isThrownBy(() -> this.source.get(selector("one"), null));
+		verifyNoInteractions(executor);
+	}
+
+	private static JWKSelector selector(String keyId) {
+		return new JWKSelector(new JWKMatcher.Builder().keyID(keyId).build());
+	}
+
+	private static List<String> keyIds(List<JWK> jwks) {
+		return jwks.stream().map(JWK::getKeyID).toList();
+	}
+
+	private static Resource jwkSet(String keyId) {
+		RSAKey key = new RSAKey.Builder(TestKeys.DEFAULT_PUBLIC_KEY).keyID(keyId).build();
+		return new Resource(new JWKSet(key).toString(), "application/json");
+	}
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.server.resource.authentication;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.log.LogMessage;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationManagerResolver;
+import org.springframework.security.oauth2.jwt.JwtDecoders;
+import org.springframework.security.util.CompletableFutures;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
+
+/**
+ * An {@link AuthenticationManagerResolver} that resolves an {@link AuthenticationManager}
+ * for each trusted <a href=
+ * "https://openid.net/specs/openid-connect-core-1_0.html#IssuerIdentifier">Issuer</a>,
+ * and caches up to a maximum number of them, evicting the least recently used.
+ * <p>
+ * By default, an {@link AuthenticationManager} is constructed by performing OpenID
+ * Provider Configuration discovery with {@link JwtDecoders#fromIssuerLocation(String)}.
+ * Concurrent resolutions of the same issuer share a single construction, and
+ * {@link #prefetch(Collection)} constructs the {@link AuthenticationManager} of known
+ * issuers one at a time in the background, for example from a list of tenants at
+ * startup.
+ * <p>
+ * To share the same {@link org.springframework.web.client.RestOperations} for the
+ * discovery and JWK Set requests of every issuer, provide a {@link Converter}:
+ *
+ * <pre>
+ *     RestOperations rest = ...;
+ *     CachingJwtIssuerAuthenticationManagerResolver issuers = new CachingJwtIssuerAuthenticationManagerResolver(
+ *         trustedIssuers::contains, (issuer) -&gt; {
+ *             NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withIssuerLocation(issuer).restOperations(rest).build();
+ *             jwtDecoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
+ *             return new JwtAuthenticationProvider(jwtDecoder)::authenticate;
+ *         });
+ *     JwtIssuerAuthenticationManagerResolver resolver = new JwtIssuerAuthenticationManagerResolver(issuers);
+ * </pre>
+ *
+ * @since 6.3
+ * @see JwtIssuerAuthenticationManagerResolver
+ * @see CachingJwtIssuerReactiveAuthenticationManagerResolver
+ */
+public final class CachingJwtIssuerAuthenticationManagerResolver implements AuthenticationManagerResolver<String> {
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private ConcurrentLruCache<String, CachedAuthenticationManager> authenticationManagers = cache(1000);
+
+	private final Predicate<String> trustedIssuer;
+
+	private final Converter<String, AuthenticationManager> authenticationManagerConverter;
+
+	private Executor prefetchExecutor = new SimpleAsyncTaskExecutor("jwt-issuer-prefetch-");
+
+	/**
+	 * Constructs a {@code CachingJwtIssuerAuthenticationManagerResolver} that performs
+	 * OpenID Provider Configuration discovery for each trusted issuer.
+	 * @param trustedIssuer a predicate to validate issuers
+	 */
+	public CachingJwtIssuerAuthenticationManagerResolver(Predicate<String> trustedIssuer) {
+		this(trustedIssuer,
+				(issuer) -> new JwtAuthenticationProvider(JwtDecoders.fromIssuerLocation(issuer))::authenticate);
+	}
+
+	/**
+	 * Constructs a {@code CachingJwtIssuerAuthenticationManagerResolver} using the
+	 * provided parameters.
+	 * @param trustedIssuer a predicate to validate issuers
+	 * @param authenticationManagerConverter the strategy for constructing the
+	 * {@link AuthenticationManager} of a trusted issuer
+	 */
+	public CachingJwtIssuerAuthenticationManagerResolver(Predicate<String> trustedIssuer,
+			Converter<String, AuthenticationManager> authenticationManagerConverter) {
+		Assert.notNull(trustedIssuer, "trustedIssuer cannot be null");
+		Assert.notNull(authenticationManagerConverter, "authenticationManagerConverter cannot be null");
+		this.trustedIssuer = trustedIssuer;
+		this.authenticationManagerConverter = authenticationManagerConverter;
+	}
+
+	@Override
+	public AuthenticationManager resolve(String issuer) {
+		if (!this.trustedIssuer.test(issuer)) {
+			this.logger.debug("Did not resolve AuthenticationManager since issuer is not trusted");
+			return null;
+		}
+		AuthenticationManager authenticationManager = getOrConstruct(issuer).await();
+		this.logger.debug(LogMessage.format("Resolved AuthenticationManager for issuer '%s'", issuer));
+		return authenticationManager;
+	}
+
+	/**
+	 * Constructs the {@link AuthenticationManager} of each of the given issuers in the
+	 * background, one at a time, unless it is already cached. Issuers that are not
+	 * trusted are ignored, and failures are logged. Prefetching more issuers than the
+	 * maximum size evicts some of them again.
+	 * @param issuers the issuers to prefetch
+	 */
+	public void prefetch(Collection<String> issuers) {
+		Assert.notNull(issuers, "issuers cannot be null");
+		List<String> trustedIssuers = new ArrayList<>(issuers.size());
+		for (String issuer : issuers) {
+			if (!this.trustedIssuer.test(issuer)) {
+				this.logger.debug(LogMessage.format("Did not prefetch issuer '%s' since it is not trusted", issuer));
+				continue;
+			}
+			trustedIssuers.add(issuer);
+		}
+		if (trustedIssuers.isEmpty()) {
+			return;
+		}
+		this.prefetchExecutor.execute(() -> {
+			for (String issuer : trustedIssuers) {
+				try {
+					getOrConstruct(issuer).await();
+				}
+				catch (RuntimeException ex) {
+					this.logger.debug(LogMessage.format("Failed to prefetch issuer '%s'", issuer), ex);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Sets the maximum number of issuers to cache the {@link AuthenticationManager} of.
+	 * When exceeded, the least recently used {@link AuthenticationManager} is evicted.
+	 * Setting the maximum size clears the cache. The default is 1000.
+	 * @param maximumSize the maximum number of cached issuers
+	 */
+	public void setMaximumSize(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		this.authenticationManagers = cache(maximumSize);
+	}
+
+	/**
+	 * Sets the {@link Executor} used by {@link #prefetch(Collection)}, which submits a
+	 * single task for each invocation. The default is a {@link SimpleAsyncTaskExecutor}.
+	 * @param prefetchExecutor the {@link Executor} to use
+	 */
+	public void setPrefetchExecutor(Executor prefetchExecutor) {
+		Assert.notNull(prefetchExecutor, "prefetchExecutor cannot be null");
+		this.prefetchExecutor = prefetchExecutor;
+	}
+
+	private CachedAuthenticationManager getOrConstruct(String issuer) {
+		ConcurrentLruCache<String, CachedAuthenticationManager> authenticationManagers = this.authenticationManagers;
+		if (!authenticationManagers.contains(issuer)) {
+			// a concurrent first resolution of the same issuer may add a different entry,
+			// so only the entry that ends up cached is constructed
+			authenticationManagers.get(issuer);
+		}
+		CachedAuthenticationManager cached = authenticationManagers.get(issuer);
+		if (!cached.constructing.compareAndSet(false, true)) {
+			return cached;
+		}
+		try {
+			this.logger.debug("Constructing AuthenticationManager");
+			cached.authenticationManager.complete(this.authenticationManagerConverter.convert(issuer));
+		}
+		catch (Throwable ex) {
+			// do not cache the failure, so that the next resolution tries again
+			authenticationManagers.remove(issuer);
+			cached.authenticationManager.completeExceptionally(ex);
+		}
+		return cached;
+	}
+
+	private static ConcurrentLruCache<String, CachedAuthenticationManager> cache(int maximumSize) {
+		return new ConcurrentLruCache<>(maximumSize, (issuer) -> new CachedAuthenticationManager());
+	}
+
+	private static final class CachedAuthenticationManager {
+
+		private final CompletableFuture<AuthenticationManager> authenticationManager = new CompletableFuture<>();
+
+		private final AtomicBoolean constructing = new AtomicBoolean();
+
+		private AuthenticationManager await() {
+			return CompletableFutures.join(this.authenticationManager);
+		}
+
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.server.resource.authentication;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.log.LogMessage;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManagerResolver;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoders;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
+
+/**
+ * A {@link ReactiveAuthenticationManagerResolver} that resolves a
+ * {@link ReactiveAuthenticationManager} for each trusted <a href=
+ * "https://openid.net/specs/openid-connect-core-1_0.html#IssuerIdentifier">Issuer</a>,
+ * and caches up to a maximum number of them, evicting the least recently used.
+ * <p>
+ * By default, a {@link ReactiveAuthenticationManager} is constructed by performing
+ * OpenID Provider Configuration discovery with
+ * {@link ReactiveJwtDecoders#fromIssuerLocation(String)} on
+ * {@link Schedulers#boundedElastic()}. Concurrent resolutions of the same issuer share a
+ * single construction, and {@link #prefetch(Collection)} constructs the
+ * {@link ReactiveAuthenticationManager} of known issuers one at a time in the background,
+ * for example from a list of tenants at startup.
+ * <p>
+ * To share the same {@link org.springframework.web.reactive.function.client.WebClient}
+ * for the JWK Set requests of every issuer, provide a {@link Converter} that builds a
+ * {@link org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder} with it.
+ *
+ * @since 6.3
+ * @see JwtIssuerReactiveAuthenticationManagerResolver
+ * @see CachingJwtIssuerAuthenticationManagerResolver
+ */
+public final class CachingJwtIssuerReactiveAuthenticationManagerResolver
+		implements ReactiveAuthenticationManagerResolver<String> {
+
+	private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final Predicate<String> trustedIssuer;
+
+	private final Converter<String, Mono<ReactiveAuthenticationManager>> authenticationManagerConverter;
+
+	private ConcurrentLruCache<String, Mono<ReactiveAuthenticationManager>> authenticationManagers;
+
+	/**
+	 * Constructs a {@code CachingJwtIssuerReactiveAuthenticationManagerResolver} that
+	 * performs OpenID Provider Configuration discovery for each trusted issuer.
+	 * @param trustedIssuer a predicate to validate issuers
+	 */
+	public CachingJwtIssuerReactiveAuthenticationManagerResolver(Predicate<String> trustedIssuer) {
+		// @formatter:off
+		this(trustedIssuer, (issuer) -> Mono.<ReactiveAuthenticationManager>fromCallable(() ->
+					new JwtReactiveAuthenticationManager(ReactiveJwtDecoders.fromIssuerLocation(issuer)))
+				.subscribeOn(Schedulers.boundedElastic()));
+		// @formatter:on
+	}
+
+	/**
+	 * Constructs a {@code CachingJwtIssuerReactiveAuthenticationManagerResolver} using
+	 * the provided parameters.
+	 * @param trustedIssuer a predicate to validate issuers
+	 * @param authenticationManagerConverter the strategy for constructing the
+	 * {@link ReactiveAuthenticationManager} of a trusted issuer
+	 */
+	public CachingJwtIssuerReactiveAuthenticationManagerResolver(Predicate<String> trustedIssuer,
+			Converter<String, Mono<ReactiveAuthenticationManager>> authenticationManagerConverter) {
+		Assert.notNull(trustedIssuer, "trustedIssuer cannot be null");
+		Assert.notNull(authenticationManagerConverter, "authenticationManagerConverter cannot be null");
+		this.trustedIssuer = trustedIssuer;
+		this.authenticationManagerConverter = authenticationManagerConverter;
+		this.authenticationManagers = cache(1000);
+	}
+
+	@Override
+	public Mono<ReactiveAuthenticationManager> resolve(String issuer) {
+		if (!this.trustedIssuer.test(issuer)) {
+			this.logger.debug("Did not resolve AuthenticationManager since issuer is not trusted");
+			return Mono.empty();
+		}
+		return getOrConstruct(issuer).doOnNext((manager) -> this.logger
+			.debug(LogMessage.format("Resolved AuthenticationManager for issuer '%s'", issuer)));
+	}
+
+	/**
+	 * Constructs the {@link ReactiveAuthenticationManager} of each of the given issuers
+	 * in the background, one at a time, unless it is already cached. Issuers that are not
+	 * trusted are ignored, and failures are logged. Prefetching more issuers than the
+	 * maximum size evicts some of them again.
+	 * @param issuers the issuers to prefetch
+	 */
+	public void prefetch(Collection<String> issuers) {
+		Assert.notNull(issuers, "issuers cannot be null");
+		List<String> trustedIssuers = new ArrayList<>(issuers.size());
+		for (String issuer : issuers) {
+			if (!this.trustedIssuer.test(issuer)) {
+				this.logger.debug(LogMessage.format("Did not prefetch issuer '%s' since it is not trusted", issuer));
+				continue;
+			}
+			trustedIssuers.add(issuer);
+		}
+		// @formatter:off
+		Flux.fromIterable(trustedIssuers)
+				.concatMap((issuer) -> getOrConstruct(issuer)
+					.onErrorResume((ex) -> {
+						this.logger.debug(LogMessage.format("Failed to prefetch issuer '%s'", issuer), ex);
+						return Mono.empty();
+					})
+				)
+				.subscribe();
+		// @formatter:on
+	}
+
+	/**
+	 * Sets the maximum number of issuers to cache the
+	 * {@link ReactiveAuthenticationManager} of. When exceeded, the least recently used
+	 * {@link ReactiveAuthenticationManager} is evicted. Setting the maximum size clears
+	 * the cache. The default is 1000.
+	 * @param maximumSize the maximum number of cached issuers
+	 */
+	public void setMaximumSize(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		this.authenticationManagers = cache(maximumSize);
+	}
+
+	private Mono<ReactiveAuthenticationManager> getOrConstruct(String issuer) {
+		if (!this.authenticationManagers.contains(issuer)) {
+			this.authenticationManagers.get(issuer);
+		}
+		// get it again, since a concurrent first resolution may have cached another one
+		return this.authenticationManagers.get(issuer);
+	}
+
+	private ConcurrentLruCache<String, Mono<ReactiveAuthenticationManager>> cache(int maximumSize) {
+		// failures are not cached, so that the next resolution tries again
+		// @formatter:off
+		return new ConcurrentLruCache<>(maximumSize, (issuer) -> Mono
+				.defer(() -> this.authenticationManagerConverter.convert(issuer))
+				.cache((manager) -> FOREVER, (ex) -> Duration.ZERO, () -> Duration.ZERO));
+		// @formatter:on
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.server.resource.authentication;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.function.Function;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.util.LeastRecentlyUsedCache;
+import org.springframework.security.util.TokenDigests;
+import org.springframework.util.Assert;
+
+/**
+ * A bounded cache of the {@link Jwt}s decoded from bearer tokens, and of the
+ * {@link JwtAuthenticationToken}s converted from them, keyed by the SHA-256 digest of the
+ * bearer token. When full, the least recently used entry is evicted.
+ * <p>
+ * An entry expires when its {@link Jwt} does, and a {@link Jwt} without an expiry is
+ * never cached. Since an {@link AbstractAuthenticationToken} is mutable, a cached
+ * {@link JwtAuthenticationToken} is copied for each request. Other types of
+ * authentication are converted again from the cached {@link Jwt}.
+ *
+ * @since 6.3
+ * @see JwtAuthenticationProvider#setCacheMaximumSize(int)
+ * @see JwtReactiveAuthenticationManager#setCacheMaximumSize(int)
+ */
+final class JwtAuthenticationCache {
+
+	private final LeastRecentlyUsedCache<String, CachedJwt> cache;
+
+	private Clock clock = Clock.systemUTC();
+
+	JwtAuthenticationCache(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		this.cache = new LeastRecentlyUsedCache<>(maximumSize);
+	}
+
+	AbstractAuthenticationToken authenticate(String token, Function<String, Jwt> jwtDecoder,
+			Converter<Jwt, ? extends AbstractAuthenticationToken> jwtAuthenticationConverter) {
+		String key = TokenDigests.sha256(token);
+		CachedJwt cached = get(key);
+		if (cached != null) {
+			AbstractAuthenticationToken authentication = cached.authentication();
+			return (authentication != null) ? authentication : jwtAuthenticationConverter.convert(cached.jwt);
+		}
+		Jwt jwt = jwtDecoder.apply(token);
+		AbstractAuthenticationToken authentication = jwtAuthenticationConverter.convert(jwt);
+		put(key, jwt, authentication);
+		return authentication;
+	}
+
+	Mono<AbstractAuthenticationToken> authenticate(String token, Function<String, Mono<Jwt>> jwtDecoder,
+			Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter) {
+		return Mono.defer(() -> {
+			String key = TokenDigests.sha256(token);
+			CachedJwt cached = get(key);
+			if (cached != null) {
+				AbstractAuthenticationToken authentication = cached.authentication();
+				return (authentication != null) ? Mono.just(authentication)
+						: jwtAuthenticationConverter.convert(cached.jwt);
+			}
+			// @formatter:off
+			return jwtDecoder.apply(token)
+					.flatMap((jwt) -> jwtAuthenticationConverter.convert(jwt)
+						.doOnNext((authentication) -> put(key, jwt, authentication))
+					);
+			// @formatter:on
+		});
+	}
+
+	void clear() {
+		this.cache.clear();
+	}
+
+	void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	private CachedJwt get(String key) {
+		CachedJwt cached = this.cache.get(key);
+		if (cached == null) {
+			return null;
+		}
+		if (cached.isExpired(this.clock.instant())) {
+			this.cache.remove(key);
+			return null;
+		}
+		return cached;
+	}
+
+	private void put(String key, Jwt jwt, AbstractAuthenticationToken authentication) {
+		Instant now = this.clock.instant();
+		if (jwt.getExpiresAt() == null || !now.isBefore(jwt.getExpiresAt())) {
+			return;
+		}
+		this.cache.put(key, new CachedJwt(jwt, authentication));
+	}
+
+	private static final class CachedJwt {
+
+		private final Jwt jwt;
+
+		private final Collection<? extends GrantedAuthority> authorities;
+
+		private final String name;
+
+		private final Object details;
+
+		private final boolean copyable;
+
+		private CachedJwt(Jwt jwt, AbstractAuthenticationToken authentication) {
+			this.jwt = jwt;
+			// only a JwtAuthenticationToken of the same JWT can be faithfully copied
+			this.copyable = authentication != null && authentication.getClass() == JwtAuthenticationToken.class
+					&& ((JwtAuthenticationToken) authentication).getToken() == jwt && authentication.isAuthenticated();
+			this.authorities = this.copyable ? authentication.getAuthorities() : null;
+			this.name = this.copyable ? authentication.getName() : null;
+			this.details = this.copyable ? authentication.getDetails() : null;
+		}
+
+		private boolean isExpired(Instant now) {
+			return !now.isBefore(this.jwt.getExpiresAt());
+		}
+
+		private AbstractAuthenticationToken authentication() {
+			if (!this.copyable) {
+				return null;
+			}
+			JwtAuthenticationToken authentication = new JwtAuthenticationToken(this.jwt, this.authorities, this.name);
+			authentication.setDetails(this.details);
+			return authentication;
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -69,6 +69,8 @@ public final class JwtAuthenticationProvider implements AuthenticationProvider {
 
 	private Converter<Jwt, ? extends AbstractAuthenticationToken> jwtAuthenticationConverter = new JwtAuthenticationConverter();
 
+	private JwtAuthenticationCache cache;
+
 	public JwtAuthenticationProvider(JwtDecoder jwtDecoder) {
 		Assert.notNull(jwtDecoder, "jwtDecoder cannot be null");
 		this.jwtDecoder = jwtDecoder;
@@ -85,8 +87,9 @@ public final class JwtAuthenticationProvider implements AuthenticationProvider {
 	@Override
 	public Authentication authenticate(Authentication authentication) throws AuthenticationException {
 		BearerTokenAuthenticationToken bearer = (BearerTokenAuthenticationToken) authentication;
-		Jwt jwt = getJwt(bearer);
-		AbstractAuthenticationToken token = this.jwtAuthenticationConverter.convert(jwt);
+		AbstractAuthenticationToken token = (this.cache != null)
+				? this.cache.authenticate(bearer.getToken(), this::getJwt, this.jwtAuthenticationConverter)
+				: this.jwtAuthenticationConverter.convert(getJwt(bearer.getToken()));
 		if (token.getDetails() == null) {
 			token.setDetails(bearer.getDetails());
 		}
@@ -94,9 +97,9 @@ public final class JwtAuthenticationProvider implements AuthenticationProvider {
 		return token;
 	}
 
-	private Jwt getJwt(BearerTokenAuthenticationToken bearer) {
+	private Jwt getJwt(String token) {
 		try {
-			return this.jwtDecoder.decode(bearer.getToken());
+			return this.jwtDecoder.decode(token);
 		}
 		catch (BadJwtException failed) {
 			this.logger.debug("Failed to authenticate since the JWT was invalid");
@@ -116,6 +119,28 @@ public final class JwtAuthenticationProvider implements AuthenticationProvider {
 			Converter<Jwt, ? extends AbstractAuthenticationToken> jwtAuthenticationConverter) {
 		Assert.notNull(jwtAuthenticationConverter, "jwtAuthenticationConverter cannot be null");
 		this.jwtAuthenticationConverter = jwtAuthenticationConverter;
+		if (this.cache != null) {
+			this.cache.clear();
+		}
+	}
+
+	/**
+	 * Cache the decoded {@link Jwt} and the converted authentication of up to the given
+	 * number of bearer tokens, so that a bearer token that is presented again before it
+	 * expires is not decoded, verified and validated again. Bearer tokens are cached by
+	 * their SHA-256 digest, and a {@link Jwt} without an expiry is not cached. Caching is
+	 * disabled by default.
+	 * <p>
+	 * <b>NOTE:</b> A cached bearer token is not passed to the {@link JwtDecoder}, so it
+	 * is not validated again until it expires. Do not enable caching if the
+	 * {@link JwtDecoder} uses validators whose outcome can change before then.
+	 * @param maximumSize the maximum number of bearer tokens to cache, or {@code 0} to
+	 * disable caching
+	 * @since 6.3
+	 */
+	public void setCacheMaximumSize(int maximumSize) {
+		Assert.isTrue(maximumSize >= 0, "maximumSize cannot be negative");
+		this.cache = (maximumSize > 0) ? new JwtAuthenticationCache(maximumSize) : null;
 	}
 
 }
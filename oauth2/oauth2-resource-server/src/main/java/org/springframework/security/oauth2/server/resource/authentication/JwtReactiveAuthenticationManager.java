@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -44,6 +44,8 @@ public final class JwtReactiveAuthenticationManager implements ReactiveAuthentic
 	private Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter = new ReactiveJwtAuthenticationConverterAdapter(
 			new JwtAuthenticationConverter());
 
+	private JwtAuthenticationCache cache;
+
 	public JwtReactiveAuthenticationManager(ReactiveJwtDecoder jwtDecoder) {
 		Assert.notNull(jwtDecoder, "jwtDecoder cannot be null");
 		this.jwtDecoder = jwtDecoder;
@@ -56,13 +58,19 @@ public final class JwtReactiveAuthenticationManager implements ReactiveAuthentic
 				.filter((a) -> a instanceof BearerTokenAuthenticationToken)
 				.cast(BearerTokenAuthenticationToken.class)
 				.map(BearerTokenAuthenticationToken::getToken)
-				.flatMap(this.jwtDecoder::decode)
-				.flatMap(this.jwtAuthenticationConverter::convert)
+				.flatMap(this::authenticate)
 				.cast(Authentication.class)
 				.onErrorMap(JwtException.class, this::onError);
 		// @formatter:on
 	}
 
+	private Mono<? extends AbstractAuthenticationToken> authenticate(String token) {
+		if (this.cache != null) {
+			return this.cache.authenticate(token, this.jwtDecoder::decode, this.jwtAuthenticationConverter);
+		}
+		return this.jwtDecoder.decode(token).flatMap(this.jwtAuthenticationConverter::convert);
+	}
+
 	/**
 	 * Use the given {@link Converter} for converting a {@link Jwt} into an
 	 * {@link AbstractAuthenticationToken}.
@@ -72,6 +80,28 @@ public final class JwtReactiveAuthenticationManager implements ReactiveAuthentic
 			Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter) {
 		Assert.notNull(jwtAuthenticationConverter, "jwtAuthenticationConverter cannot be null");
 		this.jwtAuthenticationConverter = jwtAuthenticationConverter;
+		if (this.cache != null) {
+			this.cache.clear();
+		}
+	}
+
+	/**
+	 * Cache the decoded {@link Jwt} and the converted authentication of up to the given
+	 * number of bearer tokens, so that a bearer token that is presented again before it
+	 * expires is not decoded, verified and validated again. Bearer tokens are cached by
+	 * their SHA-256 digest, and a {@link Jwt} without an expiry is not cached. Caching is
+	 * disabled by default.
+	 * <p>
+	 * <b>NOTE:</b> A cached bearer token is not passed to the {@link ReactiveJwtDecoder},
+	 * so it is not validated again until it expires. Do not enable caching if the
+	 * {@link ReactiveJwtDecoder} uses validators whose outcome can change before then.
+	 * @param maximumSize the maximum number of bearer tokens to cache, or {@code 0} to
+	 * disable caching
+	 * @since 6.3
+	 */
+	public void setCacheMaximumSize(int maximumSize) {
+		Assert.isTrue(maximumSize >= 0, "maximumSize cannot be negative");
+		this.cache = (maximumSize > 0) ? new JwtAuthenticationCache(maximumSize) : null;
 	}
 
 	private AuthenticationException onError(JwtException ex) {
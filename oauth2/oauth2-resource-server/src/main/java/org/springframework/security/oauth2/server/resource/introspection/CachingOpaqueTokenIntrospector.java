@@ -0,0 +1,182 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.server.resource.introspection;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.util.CompletableFutures;
+import org.springframework.security.util.TokenDigests;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link OpaqueTokenIntrospector} that caches the results of another
+ * {@link OpaqueTokenIntrospector}, such as a {@link SpringOpaqueTokenIntrospector}, so
+ * that a token presented again is not sent to the introspection endpoint again.
+ * <p>
+ * An active token is cached until its {@link OAuth2TokenIntrospectionClaimNames#EXP
+ * expiry}, but no longer than the configured time to live. A token for which a
+ * {@link BadOpaqueTokenException} is thrown is cached as inactive for a shorter time.
+ * Other failures are not cached. Concurrent introspections of the same token that is not
+ * cached share a single call to the delegate. Tokens are cached by their SHA-256 digest.
+ * Whether each introspection was answered from the cache is available from
+ * {@link #getHitCount()} and {@link #getMissCount()}, and is recorded as an event on the
+ * current {@link Observation} of the {@link #setObservationRegistry(ObservationRegistry)
+ * ObservationRegistry}.
+ * <p>
+ * <b>NOTE:</b> A token that is revoked is only seen as inactive once its cached result
+ * expires.
+ *
+ * @since 6.3
+ * @see CachingReactiveOpaqueTokenIntrospector
+ */
+public final class CachingOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
+
+	private final OpaqueTokenIntrospectionCache cache = new OpaqueTokenIntrospectionCache();
+
+	private final Map<String, CompletableFuture<OAuth2AuthenticatedPrincipal>> introspections = new ConcurrentHashMap<>();
+
+	private final OpaqueTokenIntrospector delegate;
+
+	private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+	/**
+	 * Constructs a {@code CachingOpaqueTokenIntrospector} using the provided parameters.
+	 * @param delegate the {@link OpaqueTokenIntrospector} whose results to cache
+	 */
+	public CachingOpaqueTokenIntrospector(OpaqueTokenIntrospector delegate) {
+		Assert.notNull(delegate, "delegate cannot be null");
+		this.delegate = delegate;
+	}
+
+	@Override
+	public OAuth2AuthenticatedPrincipal introspect(String token) {
+		String key = TokenDigests.sha256(token);
+		OAuth2AuthenticatedPrincipal principal = this.cache.get(key, this.observationRegistry.getCurrentObservation());
+		if (principal != null) {
+			return principal;
+		}
+		CompletableFuture<OAuth2AuthenticatedPrincipal> introspection = new CompletableFuture<>();
+		CompletableFuture<OAuth2AuthenticatedPrincipal> inFlight = this.introspections.putIfAbsent(key,
+				introspection);
+		if (inFlight != null) {
+			return CompletableFutures.join(inFlight);
+		}
+		try {
+			principal = introspect(key, token);
+			introspection.complete(principal);
+			return principal;
+		}
+		catch (Throwable ex) {
+			introspection.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			this.introspections.remove(key, introspection);
+		}
+	}
+
+	private OAuth2AuthenticatedPrincipal introspect(String key, String token) {
+		try {
+			OAuth2AuthenticatedPrincipal principal = this.delegate.introspect(token);
+			if (principal != null) {
+				this.cache.put(key, principal);
+			}
+			return principal;
+		}
+		catch (BadOpaqueTokenException ex) {
+			this.cache.putInactive(key, ex);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Returns the number of introspections that were answered from the cache, including
+	 * those answered with a cached inactive token.
+	 * @return the number of cache hits
+	 */
+	public long getHitCount() {
+		return this.cache.getHitCount();
+	}
+
+	/**
+	 * Returns the number of introspections that were not answered from the cache.
+	 * Concurrent introspections of the same token each count as a miss, even though they
+	 * share a single call to the delegate.
+	 * @return the number of cache misses
+	 */
+	public long getMissCount() {
+		return this.cache.getMissCount();
+	}
+
+	/**
+	 * Sets the maximum time to cache an active token for. A token is never cached beyond
+	 * its expiry. The default is 5 minutes.
+	 * @param timeToLive the maximum time to cache an active token for
+	 */
+	public void setTimeToLive(Duration timeToLive) {
+		this.cache.setTimeToLive(timeToLive);
+	}
+
+	/**
+	 * Sets the time to cache a token for which a {@link BadOpaqueTokenException} is
+	 * thrown. Use {@link Duration#ZERO} to not cache inactive tokens. The default is 10
+	 * seconds.
+	 * @param inactiveTimeToLive the time to cache an inactive token for
+	 */
+	public void setInactiveTimeToLive(Duration inactiveTimeToLive) {
+		this.cache.setInactiveTimeToLive(inactiveTimeToLive);
+	}
+
+	/**
+	 * Sets the maximum number of tokens to cache. When exceeded, the least recently used
+	 * token is evicted. Setting the maximum size clears the cache. The default is 10000.
+	 * @param maximumSize the maximum number of cached tokens
+	 */
+	public void setMaximumSize(int maximumSize) {
+		this.cache.setMaximumSize(maximumSize);
+	}
+
+	/**
+	 * Sets the {@link ObservationRegistry} whose current {@link Observation} records
+	 * whether each introspection was answered from the cache. The default is
+	 * {@link ObservationRegistry#NOOP}.
+	 * @param observationRegistry the {@link ObservationRegistry} to use
+	 */
+	public void setObservationRegistry(ObservationRegistry observationRegistry) {
+		Assert.notNull(observationRegistry, "observationRegistry cannot be null");
+		this.observationRegistry = observationRegistry;
+	}
+
+	/**
+	 * Sets the {@link Clock} used to determine when a cached token expires. The default
+	 * is {@link Clock#systemUTC()}.
+	 * @param clock the clock
+	 */
+	public void setClock(Clock clock) {
+		this.cache.setClock(clock);
+	}
+
+}
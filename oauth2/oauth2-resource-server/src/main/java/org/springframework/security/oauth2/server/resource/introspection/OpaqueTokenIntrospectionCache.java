@@ -0,0 +1,165 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.server.resource.introspection;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.observation.Observation;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.util.LeastRecentlyUsedCache;
+import org.springframework.util.Assert;
+
+/**
+ * The introspection results cached by a {@link CachingOpaqueTokenIntrospector} or a
+ * {@link CachingReactiveOpaqueTokenIntrospector}, keyed by the SHA-256 digest of the
+ * token.
+ *
+ * @since 6.3
+ */
+final class OpaqueTokenIntrospectionCache {
+
+	static final String CACHE_HIT = "spring.security.oauth2.server.resource.introspection.cache.hit";
+
+	static final String CACHE_MISS = "spring.security.oauth2.server.resource.introspection.cache.miss";
+
+	private LeastRecentlyUsedCache<String, CachedIntrospection> cache = new LeastRecentlyUsedCache<>(10000);
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private Duration timeToLive = Duration.ofMinutes(5);
+
+	private Duration inactiveTimeToLive = Duration.ofSeconds(10);
+
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Returns the cached principal of the token with the given key, or {@code null} if
+	 * the token is not cached
+	 * @param key the key of the token
+	 * @param observation the {@link Observation} to record the hit or miss on, if any
+	 * @return the cached principal, or {@code null}
+	 * @throws BadOpaqueTokenException if the token is cached as inactive
+	 */
+	OAuth2AuthenticatedPrincipal get(String key, @Nullable Observation observation) {
+		CachedIntrospection cached = this.cache.get(key);
+		if (cached != null && cached.isExpired(this.clock.instant())) {
+			this.cache.remove(key);
+			cached = null;
+		}
+		if (cached == null) {
+			this.misses.increment();
+			recordEvent(observation, CACHE_MISS);
+			return null;
+		}
+		this.hits.increment();
+		recordEvent(observation, CACHE_HIT);
+		if (cached.principal == null) {
+			throw new BadOpaqueTokenException(cached.failure);
+		}
+		return cached.principal;
+	}
+
+	private static void recordEvent(@Nullable Observation observation, String name) {
+		if (observation != null) {
+			observation.event(Observation.Event.of(name));
+		}
+	}
+
+	void put(String key, OAuth2AuthenticatedPrincipal principal) {
+		Instant now = this.clock.instant();
+		Instant expiresAt = now.plus(this.timeToLive);
+		Object exp = principal.getAttributes().get(OAuth2TokenIntrospectionClaimNames.EXP);
+		if (exp instanceof Instant instant && instant.isBefore(expiresAt)) {
+			expiresAt = instant;
+		}
+		put(key, new CachedIntrospection(principal, null, expiresAt), now);
+	}
+
+	void putInactive(String key, BadOpaqueTokenException failure) {
+		if (this.inactiveTimeToLive.isZero()) {
+			return;
+		}
+		Instant now = this.clock.instant();
+		put(key, new CachedIntrospection(null, failure.getMessage(), now.plus(this.inactiveTimeToLive)), now);
+	}
+
+	private void put(String key, CachedIntrospection cached, Instant now) {
+		if (cached.isExpired(now)) {
+			return;
+		}
+		this.cache.put(key, cached);
+	}
+
+	long getHitCount() {
+		return this.hits.sum();
+	}
+
+	long getMissCount() {
+		return this.misses.sum();
+	}
+
+	void setTimeToLive(Duration timeToLive) {
+		Assert.notNull(timeToLive, "timeToLive cannot be null");
+		Assert.isTrue(!timeToLive.isNegative(), "timeToLive cannot be negative");
+		this.timeToLive = timeToLive;
+	}
+
+	void setInactiveTimeToLive(Duration inactiveTimeToLive) {
+		Assert.notNull(inactiveTimeToLive, "inactiveTimeToLive cannot be null");
+		Assert.isTrue(!inactiveTimeToLive.isNegative(), "inactiveTimeToLive cannot be negative");
+		this.inactiveTimeToLive = inactiveTimeToLive;
+	}
+
+	void setMaximumSize(int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+		this.cache = new LeastRecentlyUsedCache<>(maximumSize);
+	}
+
+	void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	private static final class CachedIntrospection {
+
+		private final OAuth2AuthenticatedPrincipal principal;
+
+		private final String failure;
+
+		private final Instant expiresAt;
+
+		private CachedIntrospection(OAuth2AuthenticatedPrincipal principal, String failure, Instant expiresAt) {
+			this.principal = principal;
+			this.failure = failure;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired(Instant now) {
+			return !now.isBefore(this.expiresAt);
+		}
+
+	}
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.server.resource.authentication;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AuthenticationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link CachingJwtIssuerAuthenticationManagerResolver}.
+ */
+public class CachingJwtIssuerAuthenticationManagerResolverTests {
+
+	private Converter<String, AuthenticationManager> authenticationManagerConverter;
+
+	private CachingJwtIssuerAuthenticationManagerResolver resolver;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		this.authenticationManagerConverter = mock(Converter.class);
+		given(this.authenticationManagerConverter.convert(anyString()))
+			.willAnswer((invocation) -> mock(AuthenticationManager.class));
+		this.resolver = new CachingJwtIssuerAuthenticationManagerResolver(Set.of("one", "two", "three")::contains,
+				this.authenticationManagerConverter);
+		this.resolver.setPrefetchExecutor(Runnable::run);
+	}
+
+	@Test
+	public void constructorWhenNullTrustedIssuerThenException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new CachingJwtIssuerAuthenticationManagerResolver(null));
+	}
+
+	@Test
+	public void resolveWhenTrustedIssuerThenConstructsOnce() {
+		AuthenticationManager authenticationManager = this.resolver.resolve("one");
+		assertThat(authenticationManager).isNotNull();
+		assertThat(this.resolver.resolve("one")).isSameAs(authenticationManager);
+		verify(this.authenticationManagerConverter).convert("one");
+	}
+
+	@Test
+	public void resolveWhenUntrustedIssuerThenNull() {
+		assertThat(this.resolver.resolve("untrusted")).isNull();
+		verify(this.authenticationManagerConverter, never()).convert(any());
+	}
+
+	@Test
+	public void resolveWhenMaximumSizeExceededThenEvictsLeastRecentlyUsed() {
+		this.resolver.setMaximumSize(2);
+		AuthenticationManager one = this.resolver.resolve("one");
+		this.resolver.resolve("two");
+		this.resolver.resolve("one");
+		this.resolver.resolve("three");
+		assertThat(this.resolver.resolve("one")).isSameAs(one);
+		verify(this.authenticationManagerConverter).convert("one");
+		this.resolver.resolve("two");
+		verify(this.authenticationManagerConverter, times(2)).convert("two");
+	}
+
+	@Test
+	public void resolveWhenConstructionFailsThenTriesAgain() {
+		AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+		given(this.authenticationManagerConverter.convert("one")).willThrow(new IllegalStateException("discovery"))
+			.willReturn(authenticationManager);
+		assertThatIllegalStateException().isThrownBy(() -> this.resolver.resolve("one"));
+		assertThat(this.resolver.resolve("one")).isSameAs(authenticationManager);
+		verify(this.authenticationManagerConverter, times(2)).convert("one");
+	}
+
+	@Test
+	public void resolveWhenConstructionThrowsErrorThenTriesAgain() {
+		AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+		AssertionError error = new AssertionError("discovery");
+		given(this.authenticationManagerConverter.convert("one")).willThrow(error).willReturn(authenticationManager);
+		assertThatExceptionOfType(AssertionError.class).isThrownBy(() -> this.resolver.resolve("one")).isSameAs(error);
+		assertThat(this.resolver.resolve("one")).isSameAs(authenticationManager);
+		verify(this.authenticationManagerConverter, times(2)).convert("one");
+	}
+
+	@Test
+	public void prefetchWhenIssuersThenConstructsTrustedIssuers() {
+		this.resolver.prefetch(List.of("one", "two", "untrusted"));
+		verify(this.authenticationManagerConverter).convert("one");
+		verify(this.authenticationManagerConverter).convert("two");
+		verify(this.authenticationManagerConverter, never()).convert("untrusted");
+		this.resolver.resolve("one");
+		verify(this.authenticationManagerConverter).convert("one");
+	}
+
+	@Test
+	public void prefetchWhenConstructionFailsThenNotCached() {
+		given(this.authenticationManagerConverter.convert("one")).willThrow(new IllegalStateException("discovery"))
+			.willAnswer((invocation) -> mock(AuthenticationManager.class));
+		this.resolver.prefetch(List.of("one"));
+		assertThat(this.resolver.resolve("one")).isNotNull();
+		verify(this.authenticationManagerConverter, times(2)).convert("one");
+	}
+
+	@Test
+	public void prefetchWhenIssuersThenConstructsInSingleTask() {
+		Executor prefetchExecutor = mock(Executor.class);
+		this.resolver.setPrefetchExecutor(prefetchExecutor);
+		this.resolver.prefetch(List.of("one", "two", "three"));
+		ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+		verify(prefetchExecutor).execute(task.capture());
+		verify(this.authenticationManagerConverter, never()).convert(any());
+		task.getValue().run();
+		verify(this.authenticationManagerConverter).convert("one");
+		verify(this.authenticationManagerConverter).convert("two");
+		verify(this.authenticationManagerConverter).convert("three");
+	}
+
+	@Test
+	public void prefetchWhenNoTrustedIssuersThenNothingSubmitted() {
+		Executor prefetchExecutor = mock(Executor.class);
+		this.resolver.setPrefetchExecutor(prefetchExecutor);
+		this.resolver.prefetch(List.of("untrusted"));
+		verify(prefetchExecutor, never()).execute(any());
+	}
+
+	@Test
+	public void setMaximumSizeWhenZeroThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.resolver.setMaximumSize(0));
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.server.resource.authentication;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link CachingJwtIssuerReactiveAuthenticationManagerResolver}.
+ */
+public class CachingJwtIssuerReactiveAuthenticationManagerResolverTests {
+
+	private Converter<String, Mono<ReactiveAuthenticationManager>> authenticationManagerConverter;
+
+	private CachingJwtIssuerReactiveAuthenticationManagerResolver resolver;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		this.authenticationManagerConverter = mock(Converter.class);
+		given(this.authenticationManagerConverter.convert(anyString()))
+			.willAnswer((invocation) -> Mono.just(mock(ReactiveAuthenticationManager.class)));
+		this.resolver = new CachingJwtIssuerReactiveAuthenticationManagerResolver(
+				Set.of("one", "two", "three")::contains, this.authenticationManagerConverter);
+	}
+
+	@Test
+	public void constructorWhenNullTrustedIssuerThenException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new CachingJwtIssuerReactiveAuthenticationManagerResolver(null));
+	}
+
+	@Test
+	public void resolveWhenTrustedIssuerThenConstructsOnce() {
+		ReactiveAuthenticationManager authenticationManager = this.resolver.resolve("one").block();
+		assertThat(authenticationManager).isNotNull();
+		assertThat(this.resolver.resolve("one").block()).isSameAs(authenticationManager);
+		verify(this.authenticationManagerConverter).convert("one");
+	}
+
+	@Test
+	public void resolveWhenUntrustedIssuerThenEmpty() {
+		StepVerifier.create(this.resolver.resolve("untrusted")).verifyComplete();
+		verify(this.authenticationManagerConverter, never()).convert(any());
+	}
+
+	@Test
+	public void resolveWhenMaximumSizeExceededThenEvictsLeastRecentlyUsed() {
+		this.resolver.setMaximumSize(2);
+		ReactiveAuthenticationManager one = this.resolver.resolve("one").block();
+		this.resolver.resolve("two").block();
+		this.resolver.resolve("one").block();
+		this.resolver.resolve("three").block();
+		assertThat(this.resolver.resolve("one").block()).isSameAs(one);
+		verify(this.authenticationManagerConverter).convert("one");
+		this.resolver.resolve("two").block();
+		verify(this.authenticationManagerConverter, times(2)).convert("two");
+	}
+
+	@Test
+	public void resolveWhenConstructionFailsThenTriesAgain() {
+		ReactiveAuthenticationManager authenticationManager = mock(ReactiveAuthenticationManager.class);
+		given(this.authenticationManagerConverter.convert("one"))
+			.willReturn(Mono.error(new IllegalStateException("discovery")), Mono.just(authenticationManager));
+		StepVerifier.create(this.resolver.resolve("one")).verifyError(IllegalStateException.class);
+		assertThat(this.resolver.resolve("one").block()).isSameAs(authenticationManager);
+		verify(this.authenticationManagerConverter, times(2)).convert("one");
+	}
+
+	@Test
+	public void prefetchWhenIssuersThenConstructsTrustedIssuers() {
+		this.resolver.prefetch(List.of("one", "two", "untrusted"));
+		verify(this.authenticationManagerConverter).convert("one");
+		verify(this.authenticationManagerConverter).convert("two");
+		verify(this.authenticationManagerConverter, never()).convert("untrusted");
+		this.resolver.resolve("one").block();
+		verify(this.authenticationManagerConverter).convert("one");
+	}
+
+	@Test
+	public void prefetchWhenIssuersThenConstructsOneAtATime() {
+		Sinks.One<ReactiveAuthenticationManager> one = Sinks.one();
+		given(this.authenticationManagerConverter.convert("one")).willReturn(one.asMono());
+		this.resolver.prefetch(List.of("one", "two"));
+		verify(this.authenticationManagerConverter).convert("one");
+		verify(this.authenticationManagerConverter, never()).convert("two");
+		one.tryEmitError(new IllegalStateException("discovery"));
+		verify(this.authenticationManagerConverter).convert("two");
+	}
+
+	@Test
+	public void setMaximumSizeWhenZeroThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.resolver.setMaximumSize(0));
+	}
+
+}
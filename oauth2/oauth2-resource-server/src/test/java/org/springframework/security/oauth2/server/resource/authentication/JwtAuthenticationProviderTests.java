@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.security.oauth2.server.resource.authentication;
 
+import java.time.Instant;
 import java.util.function.Predicate;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -26,7 +27,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -37,8 +41,12 @@ import org.springframework.security.oauth2.server.resource.BearerTokenErrorCodes
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests for {@link JwtAuthenticationProvider}
@@ -152,6 +160,100 @@ public class JwtAuthenticationProviderTests {
 		// @formatter:on
 	}
 
+	@Test
+	public void authenticateWhenCacheEnabledThenDecodesAndConvertsOnce() {
+		this.provider.setCacheMaximumSize(10);
+		Jwt jwt = TestJwts.jwt().build();
+		JwtAuthenticationToken authentication = new JwtAuthenticationToken(jwt,
+				AuthorityUtils.createAuthorityList("SCOPE_read"), "name");
+		given(this.jwtDecoder.decode("token")).willReturn(jwt);
+		given(this.jwtAuthenticationConverter.convert(jwt)).willReturn(authentication);
+		assertThat(this.provider.authenticate(this.authentication())).isSameAs(authentication);
+		BearerTokenAuthenticationToken token = this.authentication();
+		Object details = mock(Object.class);
+		token.setDetails(details);
+		Authentication cached = this.provider.authenticate(token);
+		assertThat(cached).isInstanceOf(JwtAuthenticationToken.class).isNotSameAs(authentication);
+		assertThat(cached.getPrincipal()).isSameAs(jwt);
+		assertThat(cached.getName()).isEqualTo("name");
+		assertThat(cached.getAuthorities()).isEqualTo(authentication.getAuthorities());
+		assertThat(cached.isAuthenticated()).isTrue();
+		assertThat(cached.getDetails()).isSameAs(details);
+		verify(this.jwtDecoder).decode("token");
+		verify(this.jwtAuthenticationConverter).convert(jwt);
+	}
+
+	@Test
+	public void authenticateWhenCacheEnabledAndOtherAuthenticationTypeThenConvertsCachedJwt() {
+		this.provider.setCacheMaximumSize(10);
+		Jwt jwt = TestJwts.jwt().build();
+		given(this.jwtDecoder.decode("token")).willReturn(jwt);
+		given(this.jwtAuthenticationConverter.convert(jwt))
+			.willReturn(new TestingAuthenticationToken("user", "password", "ROLE_USER"));
+		this.provider.authenticate(this.authentication());
+		this.provider.authenticate(this.authentication());
+		verify(this.jwtDecoder).decode("token");
+		verify(this.jwtAuthenticationConverter, times(2)).convert(jwt);
+	}
+
+	@Test
+	public void authenticateWhenCacheEnabledAndJwtExpiredThenNotCached() {
+		this.provider.setCacheMaximumSize(10);
+		Instant now = Instant.now();
+		Jwt jwt = TestJwts.jwt().issuedAt(now.minusSeconds(120)).expiresAt(now.minusSeconds(60)).build();
+		given(this.jwtDecoder.decode("token")).willReturn(jwt);
+		given(this.jwtAuthenticationConverter.convert(jwt)).willReturn(new JwtAuthenticationToken(jwt));
+		this.provider.authenticate(this.authentication());
+		this.provider.authenticate(this.authentication());
+		verify(this.jwtDecoder, times(2)).decode("token");
+	}
+
+	@Test
+	public void authenticateWhenCacheEnabledAndDecodeFailsThenNotCached() {
+		this.provider.setCacheMaximumSize(10);
+		given(this.jwtDecoder.decode("token")).willThrow(BadJwtException.class);
+		assertThatExceptionOfType(OAuth2AuthenticationException.class)
+			.isThrownBy(() -> this.provider.authenticate(this.authentication()));
+		assertThatExceptionOfType(OAuth2AuthenticationException.class)
+			.isThrownBy(() -> this.provider.authenticate(this.authentication()));
+		verify(this.jwtDecoder, times(2)).decode("token");
+	}
+
+	@Test
+	public void authenticateWhenCacheFullThenLeastRecentlyUsedEvicted() {
+		this.provider.setCacheMaximumSize(2);
+		Jwt jwt = TestJwts.jwt().build();
+		given(this.jwtDecoder.decode(any())).willReturn(jwt);
+		given(this.jwtAuthenticationConverter.convert(jwt)).willReturn(new JwtAuthenticationToken(jwt));
+		this.provider.authenticate(new BearerTokenAuthenticationToken("one"));
+		this.provider.authenticate(new BearerTokenAuthenticationToken("two"));
+		this.provider.authenticate(new BearerTokenAuthenticationToken("one"));
+		this.provider.authenticate(new BearerTokenAuthenticationToken("three"));
+		this.provider.authenticate(new BearerTokenAuthenticationToken("one"));
+		this.provider.authenticate(new BearerTokenAuthenticationToken("two"));
+		verify(this.jwtDecoder).decode("one");
+		verify(this.jwtDecoder, times(2)).decode("two");
+	}
+
+	@Test
+	public void authenticateWhenCacheFullAndDecodeFailsThenCachedTokenNotEvicted() {
+		this.provider.setCacheMaximumSize(1);
+		Jwt jwt = TestJwts.jwt().build();
+		given(this.jwtDecoder.decode("token")).willReturn(jwt);
+		given(this.jwtDecoder.decode("invalid")).willThrow(BadJwtException.class);
+		given(this.jwtAuthenticationConverter.convert(jwt)).willReturn(new JwtAuthenticationToken(jwt));
+		this.provider.authenticate(this.authentication());
+		assertThatExceptionOfType(OAuth2AuthenticationException.class)
+			.isThrownBy(() -> this.provider.authenticate(new BearerTokenAuthenticationToken("invalid")));
+		this.provider.authenticate(this.authentication());
+		verify(this.jwtDecoder).decode("token");
+	}
+
+	@Test
+	public void setCacheMaximumSizeWhenNegativeThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.provider.setCacheMaximumSize(-1));
+	}
+
 	@Test
 	public void supportsWhenBearerTokenAuthenticationTokenThenReturnsTrue() {
 		assertThat(this.provider.supports(BearerTokenAuthenticationToken.class)).isTrue();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2020 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.security.oauth2.server.resource.authentication;
 
+import java.time.Instant;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -39,6 +41,8 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * @author Rob Winch
@@ -144,4 +148,47 @@ public class JwtReactiveAuthenticationManagerTests {
 		// @formatter:on
 	}
 
+	@Test
+	public void authenticateWhenCacheEnabledThenDecodesOnce() {
+		this.manager.setCacheMaximumSize(10);
+		BearerTokenAuthenticationToken token = new BearerTokenAuthenticationToken("token-1");
+		given(this.jwtDecoder.decode(token.getToken())).willReturn(Mono.just(this.jwt));
+		Authentication authentication = this.manager.authenticate(token).block();
+		Authentication cached = this.manager.authenticate(token).block();
+		assertThat(cached).isInstanceOf(JwtAuthenticationToken.class).isNotSameAs(authentication);
+		assertThat(cached.getPrincipal()).isSameAs(this.jwt);
+		assertThat(cached.isAuthenticated()).isTrue();
+		assertThat(cached.getAuthorities()).isEqualTo(authentication.getAuthorities());
+		verify(this.jwtDecoder).decode(token.getToken());
+	}
+
+	@Test
+	public void authenticateWhenCacheEnabledAndJwtExpiredThenNotCached() {
+		this.manager.setCacheMaximumSize(10);
+		Instant now = Instant.now();
+		Jwt jwt = TestJwts.jwt().issuedAt(now.minusSeconds(120)).expiresAt(now.minusSeconds(60)).build();
+		BearerTokenAuthenticationToken token = new BearerTokenAuthenticationToken("token-1");
+		given(this.jwtDecoder.decode(token.getToken())).willReturn(Mono.just(jwt));
+		this.manager.authenticate(token).block();
+		this.manager.authenticate(token).block();
+		verify(this.jwtDecoder, times(2)).decode(token.getToken());
+	}
+
+	@Test
+	public void authenticateWhenCacheEnabledAndDecodeFailsThenNotCached() {
+		this.manager.setCacheMaximumSize(10);
+		BearerTokenAuthenticationToken token = new BearerTokenAuthenticationToken("token-1");
+		given(this.jwtDecoder.decode(token.getToken())).willReturn(Mono.error(new BadJwtException("Oops")));
+		assertThatExceptionOfType(OAuth2AuthenticationException.class)
+			.isThrownBy(() -> this.manager.authenticate(token).block());
+		assertThatExceptionOfType(OAuth2AuthenticationException.class)
+			.isThrownBy(() -> this.manager.authenticate(token).block());
+		verify(this.jwtDecoder, times(2)).decode(token.getToken());
+	}
+
+	@Test
+	public void setCacheMaximumSizeWhenNegativeThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.manager.setCacheMaximumSize(-1));
+	}
+
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.server.resource.introspection;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link CachingOpaqueTokenIntrospector}.
+ */
+public class CachingOpaqueTokenIntrospectorTests {
+
+	private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+	private OpaqueTokenIntrospector delegate;
+
+	private CachingOpaqueTokenIntrospector introspector;
+
+	@BeforeEach
+	public void setup() {
+		this.delegate = mock(OpaqueTokenIntrospector.class);
+		this.introspector = new CachingOpaqueTokenIntrospector(this.delegate);
+		this.introspector.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+	}
+
+	@Test
+	public void constructorWhenNullDelegateThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new CachingOpaqueTokenIntrospector(null));
+	}
+
+	@Test
+	public void introspectWhenCachedThenIntrospectsOnce() {
+		OAuth2AuthenticatedPrincipal principal = principal(NOW.plus(Duration.ofHours(1)));
+		given(this.delegate.introspect("token")).willReturn(principal);
+		assertThat(this.introspector.introspect("token")).isSameAs(principal);
+		assertThat(this.introspector.introspect("token")).isSameAs(principal);
+		verify(this.delegate).introspect("token");
+		assertThat(this.introspector.getHitCount()).isEqualTo(1);
+		assertThat(this.introspector.getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void introspectWhenTokenExpiresBeforeTimeToLiveThenCachedUntilExpiry() {
+		given(this.delegate.introspect("token")).willReturn(principal(NOW.plus(Duration.ofMinutes(1))));
+		this.introspector.introspect("token");
+		this.introspector.setClock(Clock.fixed(NOW.plus(Duration.ofSeconds(59)), ZoneOffset.UTC));
+		this.introspector.introspect("token");
+		verify(this.delegate).introspect("token");
+		this.introspector.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(1)), ZoneOffset.UTC));
+		this.introspector.introspect("token");
+		verify(this.delegate, times(2)).introspect("token");
+	}
+
+	@Test
+	public void introspectWhenTimeToLiveElapsedThenIntrospectsAgain() {
+		this.introspector.setTimeToLive(Duration.ofMinutes(1));
+		given(this.delegate.introspect("token")).willReturn(principal(NOW.plus(Duration.ofHours(1))));
+		this.introspector.introspect("token");
+		this.introspector.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(1)), ZoneOffset.UTC));
+		this.introspector.introspect("token");
+		verify(this.delegate, times(2)).introspect("token");
+	}
+
+	@Test
+	public void introspectWhenInactiveThenCachedForInactiveTimeToLive() {
+		given(this.delegate.introspect("token")).willThrow(new BadOpaqueTokenException("Provided token isn't active"));
+		assertThatExceptionOfType(BadOpaqueTokenException.class)
+			.isThrownBy(() -> this.introspector.introspect("token"));
+		assertThatExceptionOfType(BadOpaqueTokenException.class)
+			.isThrownBy(() -> this.introspector.introspect("token"))
+			.withMessage("Provided token isn't active");
+		verify(this.delegate).introspect("token");
+		this.introspector.setClock(Clock.fixed(NOW.plus(Duration.ofSeconds(10)), ZoneOffset.UTC));
+		assertThatExceptionOfType(BadOpaqueTokenException.class)
+			.isThrownBy(() -> this.introspector.introspect("token"));
+		verify(this.delegate, times(2)).introspect("token");
+	}
+
+	@Test
+	public void introspectWhenInactiveAndInactiveTimeToLiveZeroThenNotCached() {
+		this.introspector.setInactiveTimeToLive(Duration.ZERO);
+		given(this.delegate.introspect("token")).willThrow(new BadOpaqueTokenException("Provided token isn't active"));
+		assertThatExceptionOfType(BadOpaqueTokenException.class)
+			.isThrownBy(() -> this.introspector.introspect("token"));
+		assertThatExceptionOfType(BadOpaqueTokenException.class)
+			.isThrownBy(() -> this.introspector.introspect("token"));
+		verify(this.delegate, times(2)).introspect("token");
+	}
+
+	@Test
+	public void introspectWhenIntrospectionFailsThenNotCached() {
+		given(this.delegate.introspect("token")).willThrow(new OAuth2IntrospectionException("unavailable"));
+		assertThatExceptionOfType(OAuth2IntrospectionException.class)
+			.isThrownBy(() -> this.introspector.introspect("token"));
+		assertThatExceptionOfType(OAuth2IntrospectionException.class)
+			.isThrownBy(() -> this.introspector.introspect("token"));
+		verify(this.delegate, times(2)).introspect("token");
+	}
+
+	@Test
+	public void introspectWhenConcurrentIntrospectionsThenIntrospectsOnce() throws Exception {
+		OAuth2AuthenticatedPrincipal principal = principal(NOW.plus(Duration.ofHours(1)));
+		AtomicReference<OAuth2AuthenticatedPrincipal> concurrent = new AtomicReference<>();
+		Thread thread = new Thread(() -> concurrent.set(this.introspector.introspect("token")));
+		willAnswer((invocation) -> {
+			thread.start();
+			// wait for the concurrent introspection to join this one
+			long deadline = System.currentTimeMillis() + 5000;
+			while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+				Thread.sleep(1);
+			}
+			return principal;
+		}).given(this.delegate).introspect("token");
+		assertThat(this.introspector.introspect("token")).isSameAs(principal);
+		thread.join(5000);
+		assertThat(concurrent.get()).isSameAs(principal);
+		verify(this.delegate).introspect("token");
+	}
+
+	@Test
+	public void introspectWhenConcurrentAndDelegateThrowsErrorThenConcurrentIntrospectionReceivesError()
+			throws Exception {
+		AssertionError error = new AssertionError("failed");
+		CompletableFuture<OAuth2AuthenticatedPrincipal> concurrent = new CompletableFuture<>();
+		Thread thread = new Thread(() -> {
+			try {
+				concurrent.complete(this.introspector.introspect("token"));
+			}
+			catch (Throwable ex) {
+				concurrent.completeExceptionally(ex);
+			}
+		});
+		willAnswer((invocation) -> {
+			thread.start();
+			// wait for the concurrent introspection to join this one
+			long deadline = System.currentTimeMillis() + 5000;
+			while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+				Thread.sleep(1);
+			}
+			throw error;
+		}).given(this.delegate).introspect("token");
+		assertThatExceptionOfType(AssertionError.class).isThrownBy(() -> this.introspector.introspect("token"))
+			.isSameAs(error);
+		assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> concurrent.get(5, TimeUnit.SECONDS))
+			.withCause(error);
+		verify(this.delegate).introspect("token");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void introspectWhenObservationRegistryThenEventsRecorded() {
+		ObservationHandler<Observation.Context> handler = mock(ObservationHandler.class);
+		given(handler.supportsContext(any())).willReturn(true);
+		ObservationRegistry registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(handler);
+		this.introspector.setObservationRegistry(registry);
+		given(this.delegate.introspect("token")).willReturn(principal(NOW.plus(Duration.ofHours(1))));
+		Observation.createNotStarted("test", registry).observe(() -> {
+			this.introspector.introspect("token");
+			this.introspector.introspect("token");
+		});
+		verify(handler).onEvent(
+				argThat((event) -> OpaqueTokenIntrospectionCache.CACHE_MISS.equals(event.getName())), any());
+		verify(handler).onEvent(argThat((event) -> OpaqueTokenIntrospectionCache.CACHE_HIT.equals(event.getName())),
+				any());
+	}
+
+	@Test
+	public void introspectWhenMaximumSizeExceededThenEvicts() {
+		this.introspector.setMaximumSize(1);
+		given(this.delegate.introspect("one")).willReturn(principal(NOW.plus(Duration.ofHours(1))));
+		given(this.delegate.introspect("two")).willReturn(principal(NOW.plus(Duration.ofHours(1))));
+		this.introspector.introspect("one");
+		this.introspector.introspect("two");
+		this.introspector.introspect("one");
+		this.introspector.introspect("two");
+		assertThat(this.introspector.getHitCount()).isLessThan(2);
+	}
+
+	@Test
+	public void introspectWhenMaximumSizeExceededThenLeastRecentlyUsedEvicted() {
+		this.introspector.setMaximumSize(2);
+		given(this.delegate.introspect(any())).willReturn(principal(NOW.plus(Duration.ofHours(1))));
+		this.introspector.introspect("one");
+		this.introspector.introspect("two");
+		this.introspector.introspect("one");
+		this.introspector.introspect("three");
+		this.introspector.introspect("one");
+		this.introspector.introspect("two");
+		verify(this.delegate).introspect("one");
+		verify(this.delegate, times(2)).introspect("two");
+	}
+
+	@Test
+	public void introspectWhenIntrospectionFailsThenCachedTokenNotEvicted() {
+		this.introspector.setMaximumSize(1);
+		given(this.delegate.introspect("token")).willReturn(principal(NOW.plus(Duration.ofHours(1))));
+		given(this.delegate.introspect("other")).willThrow(new OAuth2IntrospectionException("unavailable"));
+		this.introspector.introspect("token");
+		assertThatExceptionOfType(OAuth2IntrospectionException.class)
+			.isThrownBy(() -> this.introspector.introspect("other"));
+		this.introspector.introspect("token");
+		verify(this.delegate).introspect("token");
+	}
+
+	@Test
+	public void setTimeToLiveWhenNegativeThenException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> this.introspector.setTimeToLive(Duration.ofSeconds(-1)));
+	}
+
+	@Test
+	public void setObservationRegistryWhenNullThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.introspector.setObservationRegistry(null));
+	}
+
+	@Test
+	public void setMaximumSizeWhenZeroThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.introspector.setMaximumSize(0));
+	}
+
+	private static OAuth2AuthenticatedPrincipal principal(Instant expiresAt) {
+		Map<String, Object> attributes = Map.of(OAuth2TokenIntrospectionClaimNames.SUB, "user",
+				OAuth2TokenIntrospectionClaimNames.EXP, expiresAt);
+		return new OAuth2IntrospectionAuthenticatedPrincipal(attributes, Collections.emptyList());
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.oauth2.server.resource.introspection;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Map;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link CachingReactiveOpaqueTokenIntrospector}.
+ */
+public class CachingReactiveOpaqueTokenIntrospectorTests {
+
+	private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+	private ReactiveOpaqueTokenIntrospector delegate;
+
+	private CachingReactiveOpaqueTokenIntrospector introspector;
+
+	@BeforeEach
+	public void setup() {
+		this.delegate = mock(ReactiveOpaqueTokenIntrospector.class);
+		this.introspector = new CachingReactiveOpaqueTokenIntrospector(this.delegate);
+		this.introspector.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+	}
+
+	@Test
+	public void constructorWhenNullDelegateThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new CachingReactiveOpaqueTokenIntrospector(null));
+	}
+
+	@Test
+	public void introspectWhenCachedThenIntrospectsOnce() {
+		OAuth2AuthenticatedPrincipal principal = principal(NOW.plus(Duration.ofHours(1)));
+		given(this.delegate.introspect("token")).willReturn(Mono.just(principal));
+		StepVerifier.create(this.introspector.introspect("token")).expectNext(principal).verifyComplete();
+		StepVerifier.create(this.introspector.introspect("token")).expectNext(principal).verifyComplete();
+		verify(this.delegate).introspect("token");
+		assertThat(this.introspector.getHitCount()).isEqualTo(1);
+		assertThat(this.introspector.getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void introspectWhenTokenExpiresBeforeTimeToLiveThenCachedUntilExpiry() {
+		given(this.delegate.introspect("token")).willReturn(Mono.just(principal(NOW.plus(Duration.ofMinutes(1)))));
+		this.introspector.introspect("token").block();
+		this.introspector.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(1)), ZoneOffset.UTC));
+		this.introspector.introspect("token").block();
+		verify(this.delegate, times(2)).introspect("token");
+	}
+
+	@Test
+	public void introspectWhenInactiveThenCachedForInactiveTimeToLive() {
+		given(this.delegate.introspect("token"))
+			.willReturn(Mono.error(new BadOpaqueTokenException("Provided token isn't active")));
+		StepVerifier.create(this.introspector.introspect("token")).verifyError(BadOpaqueTokenException.class);
+		StepVerifier.create(this.introspector.introspect("token")).verifyError(BadOpaqueTokenException.class);
+		verify(this.delegate).introspect("token");
+		this.introspector.setClock(Clock.fixed(NOW.plus(Duration.ofSeconds(10)), ZoneOffset.UTC));
+		StepVerifier.create(this.introspector.introspect("token")).verifyError(BadOpaqueTokenException.class);
+		verify(this.delegate, times(2)).introspect("token");
+	}
+
+	@Test
+	public void introspectWhenIntrospectionFailsThenNotCached() {
+		given(this.delegate.introspect("token"))
+			.willReturn(Mono.error(new OAuth2IntrospectionException("unavailable")));
+		StepVerifier.create(this.introspector.introspect("token")).verifyError(OAuth2IntrospectionException.class);
+		StepVerifier.create(this.introspector.introspect("token")).verifyError(OAuth2IntrospectionException.class);
+		verify(this.delegate, times(2)).introspect("token");
+	}
+
+	@Test
+	public void introspectWhenConcurrentIntrospectionsThenIntrospectsOnce() {
+		OAuth2AuthenticatedPrincipal principal = principal(NOW.plus(Duration.ofHours(1)));
+		Sinks.One<OAuth2AuthenticatedPrincipal> introspection = Sinks.one();
+		given(this.delegate.introspect("token")).willReturn(introspection.asMono());
+		Mono<OAuth2AuthenticatedPrincipal> first = this.introspector.introspect("token").cache();
+		Mono<OAuth2AuthenticatedPrincipal> second = this.introspector.introspect("token").cache();
+		first.subscribe();
+		second.subscribe();
+		introspection.tryEmitValue(principal);
+		assertThat(first.block()).isSameAs(principal);
+		assertThat(second.block()).isSameAs(principal);
+		verify(this.delegate).introspect("token");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void introspectWhenObservationInContextThenEventsRecorded() {
+		ObservationHandler<Observation.Context> handler = mock(ObservationHandler.class);
+		given(handler.supportsContext(any())).willReturn(true);
+		ObservationRegistry registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(handler);
+		Observation observation = Observation.start("test", registry);
+		given(this.delegate.introspect("token")).willReturn(Mono.just(principal(NOW.plus(Duration.ofHours(1)))));
+		this.introspector.introspect("token")
+			.contextWrite((context) -> context.put(ObservationThreadLocalAccessor.KEY, observation))
+			.block();
+		this.introspector.introspect("token")
+			.contextWrite((context) -> context.put(ObservationThreadLocalAccessor.KEY, observation))
+			.block();
+		observation.stop();
+		verify(handler).onEvent(
+				argThat((event) -> OpaqueTokenIntrospectionCache.CACHE_MISS.equals(event.getName())), any());
+		verify(handler).onEvent(argThat((event) -> OpaqueTokenIntrospectionCache.CACHE_HIT.equals(event.getName())),
+				any());
+	}
+
+	@Test
+	public void setObservationRegistryWhenNullThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.introspector.setObservationRegistry(null));
+	}
+
+	private static OAuth2AuthenticatedPrincipal principal(Instant expiresAt) {
+		Map<String, Object> attributes = Map.of(OAuth2TokenIntrospectionClaimNames.SUB, "user",
+				OAuth2TokenIntrospectionClaimNames.EXP, expiresAt);
+		return new OAuth2IntrospectionAuthenticatedPrincipal(attributes, Collections.emptyList());
+	}
+
+}
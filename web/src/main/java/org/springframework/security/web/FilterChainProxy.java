@@ -17,6 +17,7 @@
 package org.springframework.security.web;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -43,6 +44,8 @@ import org.springframework.security.web.firewall.StrictHttpFirewall;
 import org.springframework.security.web.util.ThrowableAnalyzer;
 import org.springframework.security.web.util.UrlUtils;
 import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcherEntry;
+import org.springframework.security.web.util.matcher.RequestMatcherIndex;
 import org.springframework.util.Assert;
 import org.springframework.web.filter.DelegatingFilterProxy;
 import org.springframework.web.filter.GenericFilterBean;
@@ -96,6 +99,11 @@ import org.springframework.web.filter.GenericFilterBean;
  * entered against the respective entry. The {@code FilterChainProxy} will not iterate
  * through the remainder of the map entries to locate additional {@code Filter}s.
  * <p>
+ * When a large number of chains is configured, {@link #setFilterChainIndexEnabled(boolean)}
+ * can be used to avoid evaluating every chain's {@link RequestMatcher} in turn. Chains
+ * whose matchers cannot possibly match the request path and method are then skipped,
+ * while the first-match semantics described above are retained.
+ * <p>
  * {@code FilterChainProxy} respects normal handling of {@code Filter}s that elect not to
  * call
  * {@link jakarta.servlet.Filter#doFilter(jakarta.servlet.ServletRequest, jakarta.servlet.ServletResponse, jakarta.servlet.FilterChain)}
@@ -162,6 +170,10 @@ public class FilterChainProxy extends GenericFilterBean {
 
 	private FilterChainDecorator filterChainDecorator = new VirtualFilterChainDecorator();
 
+	private RequestMatcherIndex<SecurityFilterChain> filterChainIndex;
+
+	private boolean filterChainIndexVerificationEnabled;
+
 	public FilterChainProxy() {
 	}
 
@@ -239,6 +251,12 @@ public class FilterChainProxy extends GenericFilterBean {
 	 * @return an ordered array of Filters defining the filter chain
 	 */
 	private List<Filter> getFilters(HttpServletRequest request) {
+		SecurityFilterChain chain = (this.filterChainIndex != null) ? getIndexedFilterChain(request)
+				: getFilterChain(request);
+		return (chain != null) ? chain.getFilters() : null;
+	}
+
+	private SecurityFilterChain getFilterChain(HttpServletRequest request) {
 		int count = 0;
 		for (SecurityFilterChain chain : this.filterChains) {
 			if (logger.isTraceEnabled()) {
@@ -246,12 +264,28 @@ public class FilterChainProxy extends GenericFilterBean {
 						this.filterChains.size()));
 			}
 			if (chain.matches(request)) {
-				return chain.getFilters();
+				return chain;
 			}
 		}
 		return null;
 	}
 
+	private SecurityFilterChain getIndexedFilterChain(HttpServletRequest request) {
+		RequestMatcherEntry<SecurityFilterChain> entry = this.filterChainIndex.findFirst(request);
+		SecurityFilterChain chain = (entry != null) ? entry.getEntry() : null;
+		if (logger.isTraceEnabled()) {
+			logger.trace(LogMessage.format("Indexed lookup matched request against %s", chain));
+		}
+		if (this.filterChainIndexVerificationEnabled) {
+			SecurityFilterChain expected = getFilterChain(request);
+			if (chain != expected) {
+				throw new IllegalStateException("Indexed lookup of " + requestLine(request) + " resolved " + chain
+						+ " but sequential lookup resolved " + expected);
+			}
+		}
+		return chain;
+	}
+
 	/**
 	 * Convenience method, mainly for testing.
 	 * @param url the URL
@@ -280,6 +314,49 @@ public class FilterChainProxy extends GenericFilterBean {
 		this.securityContextHolderStrategy = securityContextHolderStrategy;
 	}
 
+	/**
+	 * Sets whether the {@link SecurityFilterChain} for each request should be looked up
+	 * through an index compiled from the configured chains rather than by evaluating each
+	 * chain in turn.
+	 * <p>
+	 * The index is built from the literal path segments and HTTP methods of
+	 * {@link org.springframework.security.web.util.matcher.AntPathRequestMatcher}s used by
+	 * {@link DefaultSecurityFilterChain}s. Any other chain is evaluated for every request,
+	 * so the first matching chain is always the same as without the index. The index is
+	 * built when this method is called, and so does not reflect later changes to the
+	 * list of chains. Defaults to {@code false}.
+	 * @param filterChainIndexEnabled whether to look up chains through an index
+	 * @since 6.3
+	 * @see RequestMatcherIndex
+	 */
+	public void setFilterChainIndexEnabled(boolean filterChainIndexEnabled) {
+		if (!filterChainIndexEnabled) {
+			this.filterChainIndex = null;
+			return;
+		}
+		Assert.notNull(this.filterChains, "filterChains cannot be null");
+		List<RequestMatcherEntry<SecurityFilterChain>> entries = new ArrayList<>(this.filterChains.size());
+		for (SecurityFilterChain chain : this.filterChains) {
+			RequestMatcher matcher = (chain instanceof DefaultSecurityFilterChain defaultChain)
+					? defaultChain.getRequestMatcher() : chain::matches;
+			entries.add(new RequestMatcherEntry<>(matcher, chain));
+		}
+		this.filterChainIndex = RequestMatcherIndex.of(entries);
+	}
+
+	/**
+	 * Sets whether every indexed lookup should be cross-checked against evaluating each
+	 * chain in turn, throwing an {@link IllegalStateException} if they disagree. This is
+	 * intended for verifying an index-based configuration and should not be left enabled
+	 * in production, since it performs both lookups. Defaults to {@code false}.
+	 * @param filterChainIndexVerificationEnabled whether to verify indexed lookups
+	 * @since 6.3
+	 * @see #setFilterChainIndexEnabled(boolean)
+	 */
+	public void setFilterChainIndexVerificationEnabled(boolean filterChainIndexVerificationEnabled) {
+		this.filterChainIndexVerificationEnabled = filterChainIndexVerificationEnabled;
+	}
+
 	/**
 	 * Used (internally) to specify a validation strategy for the filters in each
 	 * configured chain.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package org.springframework.security.web.authentication.rememberme;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.Date;
 
 import org.springframework.core.log.LogMessage;
@@ -78,6 +80,23 @@ public class JdbcTokenRepositoryImpl extends JdbcDaoSupport implements Persisten
 		getJdbcTemplate().update(this.updateTokenSql, tokenValue, lastUsed, series);
 	}
 
+	/**
+	 * Updates the token value and last used date of each of the supplied tokens using a
+	 * single JDBC batch.
+	 * @param tokens the tokens to update, identified by their series
+	 * @since 6.3
+	 */
+	public void updateTokens(Collection<PersistentRememberMeToken> tokens) {
+		if (tokens.isEmpty()) {
+			return;
+		}
+		getJdbcTemplate().batchUpdate(this.updateTokenSql, tokens, tokens.size(), (ps, token) -> {
+			ps.setString(1, token.getTokenValue());
+			ps.setTimestamp(2, new Timestamp(token.getDate().getTime()));
+			ps.setString(3, token.getSeries());
+		});
+	}
+
 	/**
 	 * Loads the token data for the supplied series identifier.
 	 *
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.authentication.rememberme;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.log.LogMessage;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link PersistentTokenRepository} that takes {@link #updateToken} off the critical
+ * path of a remember-me login by caching tokens in memory and writing updates to the
+ * delegate {@link PersistentTokenRepository} in the background.
+ * <p>
+ * Updates are coalesced per series, so that only the latest token of each series is
+ * written, and are written in a single batch when the delegate is a
+ * {@link JdbcTokenRepositoryImpl}. {@link #createNewToken} and {@link #removeUserTokens}
+ * are written to the delegate immediately.
+ * <p>
+ * The cache always holds the latest token of a series until it has been written, so
+ * {@link #getTokenForSeries} never returns a token that has already been replaced and
+ * theft detection by {@link PersistentTokenBasedRememberMeServices} is unaffected. Since
+ * other instances of the application cannot see unwritten updates, this repository
+ * should only be used by a single instance, or when remember-me requests of a user are
+ * always routed to the same instance.
+ *
+ * @since 6.3
+ */
+public final class WriteBehindPersistentTokenRepository implements PersistentTokenRepository, DisposableBean {
+
+	private static final int DEFAULT_MAXIMUM_CACHED_SERIES = 10000;
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final PersistentTokenRepository delegate;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final boolean ownsScheduler;
+
+	private final Object lock = new Object();
+
+	private final Object flushLock = new Object();
+
+	private final Map<String, PersistentRememberMeToken> pending = new LinkedHashMap<>();
+
+	private final Map<String, PersistentRememberMeToken> cache = new LinkedHashMap<>(16, 0.75f, true) {
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, PersistentRememberMeToken> eldest) {
+			return size() > WriteBehindPersistentTokenRepository.this.maximumCachedSeries
+					&& !WriteBehindPersistentTokenRepository.this.pending.containsKey(eldest.getKey());
+		}
+
+	};
+
+	private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+	private long generation;
+
+	private int maximumCachedSeries = DEFAULT_MAXIMUM_CACHED_SERIES;
+
+	private Duration flushInterval = Duration.ofSeconds(1);
+
+	/**
+	 * Creates a new instance that writes updates using its own background thread
+	 * @param delegate the {@link PersistentTokenRepository} to write tokens to
+	 */
+	public WriteBehindPersistentTokenRepository(PersistentTokenRepository delegate) {
+		this(delegate, Executors.newSingleThreadScheduledExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, "remember-me-token-writer");
+			thread.setDaemon(true);
+			return thread;
+		}), true);
+	}
+
+	/**
+	 * Creates a new instance that writes updates using the given scheduler, which is not
+	 * shut down by {@link #destroy()}
+	 * @param delegate the {@link PersistentTokenRepository} to write tokens to
+	 * @param scheduler the scheduler to write updates with
+	 */
+	public WriteBehindPersistentTokenRepository(PersistentTokenRepository delegate,
+			ScheduledExecutorService scheduler) {
+		this(delegate, scheduler, false);
+	}
+
+	private WriteBehindPersistentTokenRepository(PersistentTokenRepository delegate,
+			ScheduledExecutorService scheduler, boolean ownsScheduler) {
+		Assert.notNull(delegate, "delegate cannot be null");
+		Assert.notNull(scheduler, "scheduler cannot be null");
+		this.delegate = delegate;
+		this.scheduler = scheduler;
+		this.ownsScheduler = ownsScheduler;
+	}
+
+	@Override
+	public void createNewToken(PersistentRememberMeToken token) {
+		this.delegate.createNewToken(token);
+		synchronized (this.lock) {
+			this.cache.put(token.getSeries(), token);
+		}
+	}
+
+	@Override
+	public void updateToken(String series, String tokenValue, Date lastUsed) {
+		PersistentRememberMeToken current = getTokenForSeries(series);
+		if (current == null) {
+			this.delegate.updateToken(series, tokenValue, lastUsed);
+			return;
+		}
+		PersistentRememberMeToken token = new PersistentRememberMeToken(current.getUsername(), series, tokenValue,
+				lastUsed);
+		boolean cached;
+		synchronized (this.lock) {
+			// the series is no longer cached if it was removed or evicted in the meantime
+			cached = this.cache.containsKey(series);
+			if (cached) {
+				this.pending.put(series, token);
+				this.cache.put(series, token);
+			}
+		}
+		if (cached) {
+			scheduleFlush();
+		}
+		else {
+			this.delegate.updateToken(series, tokenValue, lastUsed);
+		}
+	}
+
+	@Override
+	public PersistentRememberMeToken getTokenForSeries(String seriesId) {
+		long generation;
+		synchronized (this.lock) {
+			PersistentRememberMeToken token = this.cache.get(seriesId);
+			if (token != null) {
+				return token;
+			}
+			generation = this.generation;
+		}
+		PersistentRememberMeToken token = this.delegate.getTokenForSeries(seriesId);
+		if (token == null) {
+			return null;
+		}
+		synchronized (this.lock) {
+			// do not cache a token that was removed or replaced while it was being loaded
+			if (generation != this.generation) {
+				return token;
+			}
+			PersistentRememberMeToken cached = this.cache.putIfAbsent(seriesId, token);
+			return (cached != null) ? cached : token;
+		}
+	}
+
+	@Override
+	public void removeUserTokens(String username) {
+		this.delegate.removeUserTokens(username);
+		synchronized (this.lock) {
+			this.generation++;
+			this.pending.values().removeIf((token) -> token.getUsername().equals(username));
+			this.cache.values().removeIf((token) -> token.getUsername().equals(username));
+		}
+	}
+
+	/**
+	 * Writes all pending updates to the delegate {@link PersistentTokenRepository}.
+	 * Updates that fail to be written remain pending, unless they have been replaced in
+	 * the meantime.
+	 */
+	public void flush() {
+		synchronized (this.flushLock) {
+			List<PersistentRememberMeToken> tokens;
+			synchronized (this.lock) {
+				tokens = new ArrayList<>(this.pending.values());
+			}
+			if (tokens.isEmpty()) {
+				return;
+			}
+			try {
+				if (this.delegate instanceof JdbcTokenRepositoryImpl jdbc) {
+					jdbc.updateTokens(tokens);
+				}
+				else {
+					for (PersistentRememberMeToken token : tokens) {
+						this.delegate.updateToken(token.getSeries(), token.getTokenValue(), token.getDate());
+					}
+				}
+			}
+			catch (RuntimeException ex) {
+				this.logger.error(LogMessage.format("Failed to write %s remember-me token updates", tokens.size()), ex);
+				return;
+			}
+			synchronized (this.lock) {
+				for (PersistentRememberMeToken token : tokens) {
+					// the cache entry can be evicted once its latest token is written
+					this.pending.remove(token.getSeries(), token);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes all pending updates and, if this instance created its own background thread,
+	 * stops it
+	 */
+	@Override
+	public void destroy() {
+		if (this.ownsScheduler) {
+			this.scheduler.shutdown();
+		}
+		flush();
+	}
+
+	/**
+	 * Sets how long to wait after an update before writing it, so that further updates
+	 * can be written in the same batch. The default is one second.
+	 * @param flushInterval the interval to write updates at
+	 */
+	public void setFlushInterval(Duration flushInterval) {
+		Assert.notNull(flushInterval, "flushInterval cannot be null");
+		Assert.isTrue(!flushInterval.isNegative(), "flushInterval cannot be negative");
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Sets the maximum number of series to cache. Series with pending updates are never
+	 * evicted. The default is 10000.
+	 * @param maximumCachedSeries the maximum number of series to cache
+	 */
+	public void setMaximumCachedSeries(int maximumCachedSeries) {
+		Assert.isTrue(maximumCachedSeries > 0, "maximumCachedSeries must be greater than 0");
+		this.maximumCachedSeries = maximumCachedSeries;
+	}
+
+	private void scheduleFlush() {
+		if (!this.flushScheduled.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			this.scheduler.schedule(this::scheduledFlush, this.flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (RejectedExecutionException ex) {
+			this.flushScheduled.set(false);
+			flush();
+		}
+	}
+
+	private void scheduledFlush() {
+		this.flushScheduled.set(false);
+		flush();
+		boolean morePending;
+		synchronized (this.lock) {
+			morePending = !this.pending.isEmpty();
+		}
+		if (morePending) {
+			scheduleFlush();
+		}
+	}
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.context;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.crypto.SecretKey;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.DeferredSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * A {@link SecurityContextRepository} that stores the {@link Authentication} in an
+ * encrypted cookie, so that no server-side state is needed between requests.
+ * <p>
+ * Only the name and the authorities of the {@link Authentication} are stored, using an
+ * {@link EncryptedAuthenticationCodec}. The restored {@link Authentication} is an
+ * authenticated {@link org.springframework.security.authentication.UsernamePasswordAuthenticationToken}
+ * whose principal is the name. The cookie is only decrypted when the
+ * {@link DeferredSecurityContext} is first accessed.
+ * <p>
+ * The cookie is encrypted and authenticated with AES-GCM, so a cookie that has been
+ * tampered with is ignored. Since the cookie is valid until it expires, it cannot be revoked on the server; keep
+ * {@link #setMaxAge(Duration)} short.
+ *
+ * @since 6.3
+ */
+public final class CookieSecurityContextRepository implements SecurityContextRepository {
+
+	/**
+	 * The default cookie name to use.
+	 */
+	public static final String DEFAULT_COOKIE_NAME = "SPRING_SECURITY_CONTEXT";
+
+	private final EncryptedAuthenticationCodec codec;
+
+	private String cookieName = DEFAULT_COOKIE_NAME;
+
+	private Duration maxAge = Duration.ofMinutes(30);
+
+	private Clock clock = Clock.systemUTC();
+
+	private Consumer<ResponseCookie.ResponseCookieBuilder> cookieCustomizer = (builder) -> {
+	};
+
+	private AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+	private SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder
+		.getContextHolderStrategy();
+
+	/**
+	 * Creates a new instance
+	 * @param secretKey the AES key to encrypt and authenticate the cookie with
+	 */
+	public CookieSecurityContextRepository(SecretKey secretKey) {
+		this(new EncryptedAuthenticationCodec(secretKey));
+	}
+
+	/**
+	 * Creates a new instance
+	 * @param codec the {@link EncryptedAuthenticationCodec} to use
+	 */
+	public CookieSecurityContextRepository(EncryptedAuthenticationCodec codec) {
+		Assert.notNull(codec, "codec cannot be null");
+		this.codec = codec;
+	}
+
+	@Override
+	public boolean containsContext(HttpServletRequest request) {
+		return getCookieValue(request) != null;
+	}
+
+	@Override
+	@Deprecated
+	public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+		return loadDeferredContext(requestResponseHolder.getRequest()).get();
+	}
+
+	@Override
+	public DeferredSecurityContext loadDeferredContext(HttpServletRequest request) {
+		Supplier<SecurityContext> supplier = () -> getContext(request);
+		return new SupplierDeferredSecurityContext(supplier, this.securityContextHolderStrategy);
+	}
+
+	private SecurityContext getContext(HttpServletRequest request) {
+		Authentication authentication = this.codec.decode(getCookieValue(request), this.clock.instant());
+		if (authentication == null) {
+			return null;
+		}
+		SecurityContext context = this.securityContextHolderStrategy.createEmptyContext();
+		context.setAuthentication(authentication);
+		return context;
+	}
+
+	private String getCookieValue(HttpServletRequest request) {
+		Cookie cookie = WebUtils.getCookie(request, this.cookieName);
+		return (cookie != null && StringUtils.hasLength(cookie.getValue())) ? cookie.getValue() : null;
+	}
+
+	@Override
+	public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+		Authentication authentication = (context != null) ? context.getAuthentication() : null;
+		if (authentication == null || this.trustResolver.isAnonymous(authentication)) {
+			if (containsContext(request)) {
+				response.addCookie(createCookie(request, "", Duration.ZERO));
+			}
+			return;
+		}
+		String value = this.codec.encode(authentication, this.clock.instant().plus(this.maxAge));
+		response.addCookie(createCookie(request, value, this.maxAge));
+	}
+
+	private Cookie createCookie(HttpServletRequest request, String value, Duration maxAge) {
+		// @formatter:off
+		ResponseCookie.ResponseCookieBuilder cookieBuilder = ResponseCookie.from(this.cookieName, value)
+				.httpOnly(true)
+				.secure(request.isSecure())
+				.path(getRequestContext(request))
+				.sameSite("Lax")
+				.maxAge(maxAge);
+		// @formatter:on
+		this.cookieCustomizer.accept(cookieBuilder);
+		return mapToCookie(cookieBuilder.build());
+	}
+
+	private String getRequestContext(HttpServletRequest request) {
+		String contextPath = request.getContextPath();
+		return (contextPath.length() > 0) ? contextPath : "/";
+	}
+
+	private Cookie mapToCookie(ResponseCookie responseCookie) {
+		Cookie cookie = new Cookie(responseCookie.getName(), responseCookie.getValue());
+		cookie.setSecure(responseCookie.isSecure());
+		cookie.setPath(responseCookie.getPath());
+		cookie.setMaxAge((int) responseCookie.getMaxAge().getSeconds());
+		cookie.setHttpOnly(responseCookie.isHttpOnly());
+		if (StringUtils.hasLength(responseCookie.getDomain())) {
+			cookie.setDomain(responseCookie.getDomain());
+		}
+		if (StringUtils.hasText(responseCookie.getSameSite())) {
+			cookie.setAttribute("SameSite", responseCookie.getSameSite());
+		}
+		return cookie;
+	}
+
+	/**
+	 * Sets the name of the cookie. The default is {@link #DEFAULT_COOKIE_NAME}.
+	 * @param cookieName the cookie name
+	 */
+	public void setCookieName(String cookieName) {
+		Assert.hasLength(cookieName, "cookieName cannot be empty");
+		this.cookieName = cookieName;
+	}
+
+	/**
+	 * Sets how long a saved {@link SecurityContext} remains valid. The default is 30
+	 * minutes.
+	 * @param maxAge the maximum age of the cookie
+	 */
+	public void setMaxAge(Duration maxAge) {
+		Assert.notNull(maxAge, "maxAge cannot be null");
+		Assert.isTrue(!maxAge.isNegative() && !maxAge.isZero(), "maxAge must be positive");
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * Sets the {@link Clock} used to compute and check the expiry of the cookie.
+	 * @param clock the {@link Clock} to use
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	/**
+	 * Add a {@link Consumer} for a {@code ResponseCookieBuilder} that will be invoked for
+	 * each cookie being built, just before the call to {@code build()}.
+	 * @param cookieCustomizer consumer for a cookie builder
+	 */
+	public void setCookieCustomizer(Consumer<ResponseCookie.ResponseCookieBuilder> cookieCustomizer) {
+		Assert.notNull(cookieCustomizer, "cookieCustomizer cannot be null");
+		this.cookieCustomizer = cookieCustomizer;
+	}
+
+	/**
+	 * Sets the {@link AuthenticationTrustResolver} used to avoid saving anonymous
+	 * authentications.
+	 * @param trustResolver the {@link AuthenticationTrustResolver} to use
+	 */
+	public void setTrustResolver(AuthenticationTrustResolver trustResolver) {
+		Assert.notNull(trustResolver, "trustResolver cannot be null");
+		this.trustResolver = trustResolver;
+	}
+
+	/**
+	 * Sets the {@link SecurityContextHolderStrategy} to use. The default action is to use
+	 * the {@link SecurityContextHolderStrategy} stored in {@link SecurityContextHolder}.
+	 */
+	public void setSecurityContextHolderStrategy(SecurityContextHolderStrategy securityContextHolderStrategy) {
+		Assert.notNull(securityContextHolderStrategy, "securityContextHolderStrategy cannot be null");
+		this.securityContextHolderStrategy = securityContextHolderStrategy;
+	}
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.context;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.encrypt.AesBytesEncryptor;
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.security.crypto.keygen.KeyGenerators;
+import org.springframework.util.Assert;
+
+/**
+ * Encodes the name and authorities of an {@link Authentication} into an encrypted,
+ * URL-safe string that is suitable for a cookie, and decodes it again, without using Java
+ * serialization.
+ * <p>
+ * The binary form consists of a version, the expiry time in epoch seconds, the name and
+ * the authorities, with lengths and numbers written as variable-length integers. The
+ * authorities that are provided to {@link #setAuthorities(List)} are written as their
+ * index in that list, while any other authority is written in full. The result is
+ * encrypted with AES in Galois/Counter Mode using the provided key and a random IV, so
+ * that any value that has been tampered with fails authentication and is rejected rather
+ * than decrypted.
+ * <p>
+ * A decoded {@link Authentication} is an authenticated
+ * {@link UsernamePasswordAuthenticationToken} whose principal is the name.
+ *
+ * @since 6.3
+ * @see CookieSecurityContextRepository
+ */
+public final class EncryptedAuthenticationCodec {
+
+	private static final int VERSION = 1;
+
+	private static final int MAX_LENGTH = 8192;
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final BytesEncryptor encryptor;
+
+	private List<String> authorities = List.of();
+
+	private Map<String, Integer> authorityIds = Map.of();
+
+	/**
+	 * Creates a new instance
+	 * @param secretKey the AES key to encrypt and authenticate values with
+	 */
+	public EncryptedAuthenticationCodec(SecretKey secretKey) {
+		Assert.notNull(secretKey, "secretKey cannot be null");
+		Assert.isTrue("AES".equals(secretKey.getAlgorithm()), "secretKey must be an AES key");
+		this.encryptor = new AesBytesEncryptor(secretKey, KeyGenerators.secureRandom(16),
+				AesBytesEncryptor.CipherAlgorithm.GCM);
+	}
+
+	/**
+	 * Sets the well-known authorities that are encoded as their index in this list, in
+	 * order to keep the encoded value small. Since encoded values refer to these indexes,
+	 * authorities may only be appended to this list once values have been issued.
+	 * @param authorities the well-known authorities
+	 */
+	public void setAuthorities(List<String> authorities) {
+		Assert.notNull(authorities, "authorities cannot be null");
+		Assert.noNullElements(authorities, "authorities cannot contain null values");
+		Map<String, Integer> authorityIds = new HashMap<>();
+		for (int i = 0; i < authorities.size(); i++) {
+			authorityIds.putIfAbsent(authorities.get(i), i);
+		}
+		this.authorities = List.copyOf(authorities);
+		this.authorityIds = authorityIds;
+	}
+
+	/**
+	 * Encodes the name and authorities of the {@link Authentication}
+	 * @param authentication the {@link Authentication} to encode
+	 * @param expiresAt the time after which {@link #decode(String, Instant)} rejects the
+	 * value
+	 * @return the encrypted, URL-safe encoded value
+	 */
+	public String encode(Authentication authentication, Instant expiresAt) {
+		Assert.notNull(authentication, "authentication cannot be null");
+		Assert.notNull(expiresAt, "expiresAt cannot be null");
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+		out.write(VERSION);
+		writeVarLong(out, expiresAt.getEpochSecond());
+		writeString(out, authentication.getName());
+		List<String> authorities = new ArrayList<>(authentication.getAuthorities().size());
+		for (GrantedAuthority authority : authentication.getAuthorities()) {
+			if (authority.getAuthority() != null) {
+				authorities.add(authority.getAuthority());
+			}
+		}
+		writeVarLong(out, authorities.size());
+		for (String authority : authorities) {
+			Integer id = this.authorityIds.get(authority);
+			if (id != null) {
+				// well-known authorities are written as their index plus one
+				writeVarLong(out, id + 1);
+			}
+			else {
+				writeVarLong(out, 0);
+				writeString(out, authority);
+			}
+		}
+		byte[] encrypted = this.encryptor.encrypt(out.toByteArray());
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(encrypted);
+	}
+
+	/**
+	 * Decodes a value created by {@link #encode(Authentication, Instant)}
+	 * @param value the encoded value
+	 * @param now the current time
+	 * @return the decoded {@link Authentication}, or {@code null} if the value is invalid,
+	 * has been tampered with or has expired
+	 */
+	public Authentication decode(String value, Instant now) {
+		Assert.notNull(now, "now cannot be null");
+		if (value == null || value.isEmpty() || value.length() > MAX_LENGTH) {
+			return null;
+		}
+		try {
+			Reader in = new Reader(this.encryptor.decrypt(Base64.getUrlDecoder().decode(value)));
+			if (in.readByte() != VERSION) {
+				return null;
+			}
+			Instant expiresAt = Instant.ofEpochSecond(in.readVarLong());
+			if (!now.isBefore(expiresAt)) {
+				this.logger.trace(LogMessage.format("Ignoring authentication that expired at %s", expiresAt));
+				return null;
+			}
+			String name = in.readString();
+			int count = in.readLength();
+			List<GrantedAuthority> authorities = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				int id = in.readLength();
+				String authority = (id == 0) ? in.readString() : this.authorities.get(id - 1);
+				authorities.add(new SimpleGrantedAuthority(authority));
+			}
+			if (!in.isAtEnd()) {
+				return null;
+			}
+			return UsernamePasswordAuthenticationToken.authenticated(name, null, authorities);
+		}
+		catch (RuntimeException ex) {
+			this.logger.debug("Ignoring authentication that could not be decoded", ex);
+			return null;
+		}
+	}
+
+	private static void writeString(ByteArrayOutputStream out, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(out, bytes.length);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static void writeVarLong(ByteArrayOutputStream out, long value) {
+		long remaining = value;
+		while ((remaining & ~0x7FL) != 0) {
+			out.write((int) ((remaining & 0x7F) | 0x80));
+			remaining >>>= 7;
+		}
+		out.write((int) remaining);
+	}
+
+	private static final class Reader {
+
+		private final byte[] bytes;
+
+		private int position;
+
+		private Reader(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		int readByte() {
+			if (this.position >= this.bytes.length) {
+				throw new IllegalArgumentException("Unexpected end of input");
+			}
+			return this.bytes[this.position++] & 0xFF;
+		}
+
+		long readVarLong() {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = readByte();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IllegalArgumentException("Malformed variable-length integer");
+		}
+
+		int readLength() {
+			long length = readVarLong();
+			if (length < 0 || length > this.bytes.length) {
+				throw new IllegalArgumentException("Invalid length " + length);
+			}
+			return (int) length;
+		}
+
+		String readString() {
+			int length = readLength();
+			if (length > this.bytes.length - this.position) {
+				throw new IllegalArgumentException("Unexpected end of input");
+			}
+			String value = new String(this.bytes, this.position, length, StandardCharsets.UTF_8);
+			this.position += length;
+			return value;
+		}
+
+		boolean isAtEnd() {
+			return this.position == this.bytes.length;
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2023 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package org.springframework.security.web.context;
 
 import java.util.function.Supplier;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.AsyncContext;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
@@ -34,6 +36,7 @@ import org.springframework.security.authentication.AuthenticationTrustResolver;
 import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.Transient;
+import org.springframework.security.core.context.ChangeTrackingSecurityContext;
 import org.springframework.security.core.context.DeferredSecurityContext;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -79,6 +82,12 @@ import org.springframework.web.util.WebUtils;
  * need to conserve server memory and ensure all classes using the
  * {@code SecurityContextHolder} are designed to have no persistence of the
  * {@code SecurityContext} between web requests.
+ * <p>
+ * When the {@code SecurityContext} being saved is a {@link ChangeTrackingSecurityContext}
+ * that is already stored in the {@code HttpSession} and has not changed since, the
+ * session is not written to. This avoids a remote write per request when the
+ * {@code HttpSession} is backed by a distributed store. See
+ * {@link #setTrackContextChanges(boolean)}.
  *
  * @author Luke Taylor
  * @since 3.0
@@ -90,6 +99,10 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
 	 */
 	public static final String SPRING_SECURITY_CONTEXT_KEY = "SPRING_SECURITY_CONTEXT";
 
+	static final String SECURITY_CONTEXT_STORED = "spring.security.context.stored";
+
+	static final String SECURITY_CONTEXT_STORE_SKIPPED = "spring.security.context.store.skipped";
+
 	protected final Log logger = LogFactory.getLog(this.getClass());
 
 	private SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder
@@ -109,6 +122,10 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
 
 	private AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
 
+	private boolean trackContextChanges;
+
+	private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
 	/**
 	 * Gets the security context for the current request (if available) and returns it.
 	 * <p>
@@ -173,13 +190,43 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
 
 	private void setContextInSession(SecurityContext context, HttpSession session) {
 		if (session != null) {
-			session.setAttribute(this.springSecurityContextKey, context);
+			if (isStoredAndUnchanged(context, session)) {
+				if (this.logger.isTraceEnabled()) {
+					this.logger.trace(LogMessage.format("Did not store unchanged %s to HttpSession [%s]", context,
+							session));
+				}
+				recordEvent(SECURITY_CONTEXT_STORE_SKIPPED);
+				return;
+			}
+			SecurityContext contextToStore = context;
+			if (this.trackContextChanges && !(context instanceof ChangeTrackingSecurityContext)) {
+				contextToStore = new ChangeTrackingSecurityContext(context.getAuthentication());
+			}
+			session.setAttribute(this.springSecurityContextKey, contextToStore);
+			if (contextToStore instanceof ChangeTrackingSecurityContext tracking) {
+				tracking.clearChanged();
+			}
+			recordEvent(SECURITY_CONTEXT_STORED);
 			if (this.logger.isDebugEnabled()) {
 				this.logger.debug(LogMessage.format("Stored %s to HttpSession [%s]", context, session));
 			}
 		}
 	}
 
+	private boolean isStoredAndUnchanged(SecurityContext context, HttpSession session) {
+		if (!(context instanceof ChangeTrackingSecurityContext tracking) || tracking.isChanged()) {
+			return false;
+		}
+		return session.getAttribute(this.springSecurityContextKey) == context;
+	}
+
+	private void recordEvent(String name) {
+		Observation observation = this.observationRegistry.getCurrentObservation();
+		if (observation != null) {
+			observation.event(Observation.Event.of(name));
+		}
+	}
+
 	private void removeContextFromSession(SecurityContext context, HttpSession session) {
 		if (session != null) {
 			session.removeAttribute(this.springSecurityContextKey);
@@ -293,6 +340,35 @@ public class HttpSessionSecurityContextRepository implements SecurityContextRepo
 		this.contextObject = this.securityContextHolderStrategy.createEmptyContext();
 	}
 
+	/**
+	 * If set to true, a {@code SecurityContext} that is not a
+	 * {@link ChangeTrackingSecurityContext} is stored as a
+	 * {@link ChangeTrackingSecurityContext} with the same {@link Authentication}, so that
+	 * later requests that save it without replacing its {@link Authentication} do not
+	 * write to the {@code HttpSession}. Defaults to false.
+	 * <p>
+	 * Changes made to the {@link Authentication} itself, rather than replacing it, are
+	 * not detected, so only enable this if such an {@link Authentication} is never
+	 * modified once stored.
+	 * @param trackContextChanges whether to store contexts that track their changes
+	 * @since 6.3
+	 */
+	public void setTrackContextChanges(boolean trackContextChanges) {
+		this.trackContextChanges = trackContextChanges;
+	}
+
+	/**
+	 * Sets the {@link ObservationRegistry} used to record whether each save wrote to the
+	 * {@code HttpSession} or was skipped, as events on the current {@link Observation}.
+	 * The default is {@link ObservationRegistry#NOOP}.
+	 * @param observationRegistry the {@link ObservationRegistry} to use
+	 * @since 6.3
+	 */
+	public void setObservationRegistry(ObservationRegistry observationRegistry) {
+		Assert.notNull(observationRegistry, "observationRegistry cannot be null");
+		this.observationRegistry = observationRegistry;
+	}
+
 	private boolean isTransient(Object object) {
 		if (object == null) {
 			return false;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,7 @@ import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.springframework.security.core.context.ScopedValueSecurityContextHolderStrategy;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.context.SecurityContextHolderStrategy;
@@ -40,6 +41,11 @@ import org.springframework.web.filter.GenericFilterBean;
  * must be explicitly invoked to save the {@link SecurityContext}. This improves the
  * efficiency and provides better flexibility by allowing different authentication
  * mechanisms to choose individually if authentication should be persisted.
+ * <p>
+ * When the {@link SecurityContextHolderStrategy} is a
+ * {@link ScopedValueSecurityContextHolderStrategy}, the rest of the chain runs within a
+ * scope that is bound to the loaded {@link SecurityContext}, so that it does not need to
+ * be cleared afterwards.
  *
  * @author Rob Winch
  * @author Marcus da Coregio
@@ -77,6 +83,15 @@ public class SecurityContextHolderFilter extends GenericFilterBean {
 		}
 		request.setAttribute(FILTER_APPLIED, Boolean.TRUE);
 		Supplier<SecurityContext> deferredContext = this.securityContextRepository.loadDeferredContext(request);
+		if (this.securityContextHolderStrategy instanceof ScopedValueSecurityContextHolderStrategy scoped) {
+			try {
+				doFilterInScope(scoped, deferredContext, request, response, chain);
+			}
+			finally {
+				request.removeAttribute(FILTER_APPLIED);
+			}
+			return;
+		}
 		try {
 			this.securityContextHolderStrategy.setDeferredContext(deferredContext);
 			chain.doFilter(request, response);
@@ -87,6 +102,23 @@ public class SecurityContextHolderFilter extends GenericFilterBean {
 		}
 	}
 
+	private void doFilterInScope(ScopedValueSecurityContextHolderStrategy scoped,
+			Supplier<SecurityContext> deferredContext, HttpServletRequest request, HttpServletResponse response,
+			FilterChain chain) throws ServletException, IOException {
+		try {
+			scoped.call(deferredContext, () -> {
+				chain.doFilter(request, response);
+				return null;
+			});
+		}
+		catch (IOException | ServletException | RuntimeException ex) {
+			throw ex;
+		}
+		catch (Exception ex) {
+			throw new ServletException(ex);
+		}
+	}
+
 	/**
 	 * Sets the {@link SecurityContextHolderStrategy} to use. The default action is to use
 	 * the {@link SecurityContextHolderStrategy} stored in {@link SecurityContextHolder}.
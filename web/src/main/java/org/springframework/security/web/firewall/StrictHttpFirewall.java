@@ -16,11 +16,14 @@
 
 package org.springframework.security.web.firewall;
 
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -116,9 +119,11 @@ public class StrictHttpFirewall implements HttpFirewall {
 	private static final List<String> FORBIDDEN_PARAGRAPH_SEPARATOR = Collections
 		.unmodifiableList(Arrays.asList("\u2029"));
 
-	private Set<String> encodedUrlBlocklist = new HashSet<>();
+	private final VersionedSet encodedUrlBlocklist = new VersionedSet();
 
-	private Set<String> decodedUrlBlocklist = new HashSet<>();
+	private final VersionedSet decodedUrlBlocklist = new VersionedSet();
+
+	private volatile StrictUrlValidator urlValidator;
 
 	private Set<String> allowedHttpMethods = createDefaultAllowedHttpMethods();
 
@@ -128,11 +133,12 @@ public class StrictHttpFirewall implements HttpFirewall {
 		.compile("[\\p{IsAssigned}&&[^\\p{IsControl}]]*");
 
 	private static final Predicate<String> ASSIGNED_AND_NOT_ISO_CONTROL_PREDICATE = (
-			s) -> ASSIGNED_AND_NOT_ISO_CONTROL_PATTERN.matcher(s).matches();
+			s) -> isPrintableAscii(s, false) || ASSIGNED_AND_NOT_ISO_CONTROL_PATTERN.matcher(s).matches();
 
 	private static final Pattern HEADER_VALUE_PATTERN = Pattern.compile("[\\p{IsAssigned}&&[[^\\p{IsControl}]||\\t]]*");
 
-	private static final Predicate<String> HEADER_VALUE_PREDICATE = (s) -> HEADER_VALUE_PATTERN.matcher(s).matches();
+	private static final Predicate<String> HEADER_VALUE_PREDICATE = (s) -> isPrintableAscii(s, true)
+			|| HEADER_VALUE_PATTERN.matcher(s).matches();
 
 	private Predicate<String> allowedHeaderNames = ASSIGNED_AND_NOT_ISO_CONTROL_PREDICATE;
 
@@ -506,6 +512,11 @@ public class StrictHttpFirewall implements HttpFirewall {
 	@Override
 	public FirewalledRequest getFirewalledRequest(HttpServletRequest request) throws RequestRejectedException {
 		rejectForbiddenHttpMethod(request);
+		if (getUrlValidator().isValid(request)) {
+			rejectedUntrustedHosts(request);
+			return new StrictFirewalledRequest(request);
+		}
+		// the URL is invalid, so determine the reason in the documented order
 		rejectedBlocklistedUrls(request);
 		rejectedUntrustedHosts(request);
 		if (!isNormalized(request)) {
@@ -515,6 +526,18 @@ public class StrictHttpFirewall implements HttpFirewall {
 		return new StrictFirewalledRequest(request);
 	}
 
+	private StrictUrlValidator getUrlValidator() {
+		int encodedVersion = this.encodedUrlBlocklist.version;
+		int decodedVersion = this.decodedUrlBlocklist.version;
+		StrictUrlValidator urlValidator = this.urlValidator;
+		if (urlValidator == null || !urlValidator.isCompiledFrom(encodedVersion, decodedVersion)) {
+			urlValidator = new StrictUrlValidator(new ArrayList<>(this.encodedUrlBlocklist), encodedVersion,
+					new ArrayList<>(this.decodedUrlBlocklist), decodedVersion);
+			this.urlValidator = urlValidator;
+		}
+		return urlValidator;
+	}
+
 	private void rejectNonPrintableAsciiCharactersInFieldName(String toCheck, String propertyName) {
 		if (!containsOnlyPrintableAsciiCharacters(toCheck)) {
 			throw new RequestRejectedException(String
@@ -622,6 +645,35 @@ public class StrictHttpFirewall implements HttpFirewall {
 		return true;
 	}
 
+	/**
+	 * Checks whether a value consists only of printable ASCII characters, which are all
+	 * assigned and not ISO control characters, so that the Unicode aware patterns do not
+	 * need to be evaluated for the common case.
+	 * @param value the value to test
+	 * @param allowTab whether a horizontal tab is also allowed
+	 * @return true if the value only contains printable ASCII characters
+	 */
+	private static boolean isPrintableAscii(String value, boolean allowTab) {
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			char ch = value.charAt(i);
+			if ((ch < '\u0020' || ch > '\u007e') && !(allowTab && ch == '\t')) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean contains(Set<String> allowed, String value) {
+		return allowed != null && allowed.contains(value);
+	}
+
+	private static Set<String> add(Set<String> allowed, String value) {
+		Set<String> result = (allowed != null) ? allowed : new HashSet<>();
+		result.add(value);
+		return result;
+	}
+
 	private static boolean valueContains(String value, String contains) {
 		return value != null && value.contains(contains);
 	}
@@ -686,10 +738,91 @@ public class StrictHttpFirewall implements HttpFirewall {
 	}
 
 	/**
-	 * Strict {@link FirewalledRequest}.
+	 * A {@link Set} that tracks modifications, so that the compiled
+	 * {@link StrictUrlValidator} can be rebuilt when a blocklist changes.
+	 */
+	private static final class VersionedSet extends AbstractSet<String> {
+
+		private final Set<String> delegate = new HashSet<>();
+
+		private volatile int version;
+
+		@Override
+		public boolean add(String value) {
+			boolean added = this.delegate.add(value);
+			if (added) {
+				this.version++;
+			}
+			return added;
+		}
+
+		@Override
+		public boolean remove(Object value) {
+			boolean removed = this.delegate.remove(value);
+			if (removed) {
+				this.version++;
+			}
+			return removed;
+		}
+
+		@Override
+		public void clear() {
+			this.delegate.clear();
+			this.version++;
+		}
+
+		@Override
+		public boolean contains(Object value) {
+			return this.delegate.contains(value);
+		}
+
+		@Override
+		public int size() {
+			return this.delegate.size();
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			Iterator<String> iterator = this.delegate.iterator();
+			return new Iterator<>() {
+
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public String next() {
+					return iterator.next();
+				}
+
+				@Override
+				public void remove() {
+					iterator.remove();
+					VersionedSet.this.version++;
+				}
+
+			};
+		}
+
+	}
+
+	/**
+	 * Strict {@link FirewalledRequest}. Header and parameter names and values are
+	 * validated the first time they are read, and the values that were allowed are
+	 * remembered for the rest of the request so that they are not validated again when
+	 * they are read by subsequent filters.
 	 */
 	private class StrictFirewalledRequest extends FirewalledRequest {
 
+		private Set<String> allowedHeaderNames;
+
+		private Set<String> allowedHeaderValues;
+
+		private Set<String> allowedParameterNames;
+
+		private Set<String> allowedParameterValues;
+
 		StrictFirewalledRequest(HttpServletRequest request) {
 			super(request);
 		}
@@ -826,31 +959,47 @@ public class StrictHttpFirewall implements HttpFirewall {
 		}
 
 		private void validateAllowedHeaderName(String headerNames) {
+			if (contains(this.allowedHeaderNames, headerNames)) {
+				return;
+			}
 			if (!StrictHttpFirewall.this.allowedHeaderNames.test(headerNames)) {
 				throw new RequestRejectedException(
 						"The request was rejected because the header name \"" + headerNames + "\" is not allowed.");
 			}
+			this.allowedHeaderNames = add(this.allowedHeaderNames, headerNames);
 		}
 
 		private void validateAllowedHeaderValue(String name, String value) {
+			if (contains(this.allowedHeaderValues, value)) {
+				return;
+			}
 			if (!StrictHttpFirewall.this.allowedHeaderValues.test(value)) {
 				throw new RequestRejectedException("The request was rejected because the header: \"" + name
 						+ " \" has a value \"" + value + "\" that is not allowed.");
 			}
+			this.allowedHeaderValues = add(this.allowedHeaderValues, value);
 		}
 
 		private void validateAllowedParameterName(String name) {
+			if (contains(this.allowedParameterNames, name)) {
+				return;
+			}
 			if (!StrictHttpFirewall.this.allowedParameterNames.test(name)) {
 				throw new RequestRejectedException(
 						"The request was rejected because the parameter name \"" + name + "\" is not allowed.");
 			}
+			this.allowedParameterNames = add(this.allowedParameterNames, name);
 		}
 
 		private void validateAllowedParameterValue(String name, String value) {
+			if (contains(this.allowedParameterValues, value)) {
+				return;
+			}
 			if (!StrictHttpFirewall.this.allowedParameterValues.test(value)) {
 				throw new RequestRejectedException("The request was rejected because the parameter: \"" + name
 						+ " \" has a value \"" + value + "\" that is not allowed.");
 			}
+			this.allowedParameterValues = add(this.allowedParameterValues, value);
 		}
 
 		@Override
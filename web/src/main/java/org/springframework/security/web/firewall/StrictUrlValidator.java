@@ -0,0 +1,240 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.firewall;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Validates the URL of a request against the rules of {@link StrictHttpFirewall} in a
+ * single pass over each of the request URI, context path, servlet path and path info.
+ * <p>
+ * The encoded and decoded URL blocklists are compiled into Aho-Corasick automata over a
+ * character class table, so that each character is examined once regardless of the
+ * number of blocklisted values, and the path normalization and printable ASCII checks
+ * are performed in the same pass. Validation does not allocate.
+ * <p>
+ * This class only answers whether a request is valid. The {@link StrictHttpFirewall} is
+ * responsible for determining the reason that an invalid request is rejected.
+ *
+ * @since 6.3
+ */
+final class StrictUrlValidator {
+
+	private final Automaton encoded;
+
+	private final Automaton decoded;
+
+	private final int encodedVersion;
+
+	private final int decodedVersion;
+
+	StrictUrlValidator(Collection<String> encodedUrlBlocklist, int encodedVersion,
+			Collection<String> decodedUrlBlocklist, int decodedVersion) {
+		this.encoded = new Automaton(encodedUrlBlocklist);
+		this.decoded = new Automaton(decodedUrlBlocklist);
+		this.encodedVersion = encodedVersion;
+		this.decodedVersion = decodedVersion;
+	}
+
+	/**
+	 * Whether this validator was compiled from the given blocklist versions
+	 * @param encodedVersion the version of the encoded URL blocklist
+	 * @param decodedVersion the version of the decoded URL blocklist
+	 * @return true if the validator reflects the given versions
+	 */
+	boolean isCompiledFrom(int encodedVersion, int decodedVersion) {
+		return this.encodedVersion == encodedVersion && this.decodedVersion == decodedVersion;
+	}
+
+	/**
+	 * Checks the request URI, context path, servlet path and path info of the request
+	 * @param request the request to check
+	 * @return true if the URL contains no blocklisted values, is normalized, and the
+	 * request URI contains only printable ASCII characters
+	 */
+	boolean isValid(HttpServletRequest request) {
+		return isValid(request.getRequestURI(), this.encoded, true)
+				&& isValid(request.getContextPath(), this.encoded, false)
+				&& isValid(request.getServletPath(), this.decoded, false)
+				&& isValid(request.getPathInfo(), this.decoded, false);
+	}
+
+	private static boolean isValid(String value, Automaton blocklist, boolean printableAsciiOnly) {
+		if (value == null) {
+			return true;
+		}
+		if (blocklist.matchesEmpty) {
+			return false;
+		}
+		int length = value.length();
+		int state = 0;
+		int segmentStart = 0;
+		for (int i = 0; i < length; i++) {
+			char ch = value.charAt(i);
+			if (printableAsciiOnly && (ch < ' ' || ch > '~')) {
+				return false;
+			}
+			state = blocklist.next(state, ch);
+			if (blocklist.accepting[state]) {
+				return false;
+			}
+			if (ch == '/') {
+				if (isTraversal(value, segmentStart, i)) {
+					return false;
+				}
+				segmentStart = i + 1;
+			}
+		}
+		return !isTraversal(value, segmentStart, length);
+	}
+
+	private static boolean isTraversal(String value, int start, int end) {
+		int length = end - start;
+		if (length == 1) {
+			return value.charAt(start) == '.';
+		}
+		if (length == 2) {
+			return value.charAt(start) == '.' && value.charAt(start + 1) == '.';
+		}
+		return false;
+	}
+
+	/**
+	 * A deterministic Aho-Corasick automaton that accepts whenever any of its values has
+	 * been seen. Characters that do not occur in any value share a single class, which
+	 * always leads back to the initial state.
+	 */
+	private static final class Automaton {
+
+		private final int[] asciiClasses = new int[128];
+
+		private final char[] otherChars;
+
+		private final int[] otherClasses;
+
+		private final int classCount;
+
+		private final int[] transitions;
+
+		private final boolean[] accepting;
+
+		private final boolean matchesEmpty;
+
+		Automaton(Collection<String> values) {
+			TreeSet<Character> alphabet = new TreeSet<>();
+			boolean matchesEmpty = false;
+			for (String value : values) {
+				matchesEmpty |= value.isEmpty();
+				for (int i = 0; i < value.length(); i++) {
+					alphabet.add(value.charAt(i));
+				}
+			}
+			this.matchesEmpty = matchesEmpty;
+			List<Character> other = new ArrayList<>();
+			int classCount = 1;
+			for (Character ch : alphabet) {
+				if (ch < 128) {
+					this.asciiClasses[ch] = classCount++;
+				}
+				else {
+					other.add(ch);
+				}
+			}
+			this.otherChars = new char[other.size()];
+			this.otherClasses = new int[other.size()];
+			for (int i = 0; i < other.size(); i++) {
+				this.otherChars[i] = other.get(i);
+				this.otherClasses[i] = classCount++;
+			}
+			this.classCount = classCount;
+			// build the trie
+			List<Map<Integer, Integer>> trie = new ArrayList<>();
+			List<Boolean> terminal = new ArrayList<>();
+			trie.add(new HashMap<>());
+			terminal.add(false);
+			for (String value : values) {
+				int state = 0;
+				for (int i = 0; i < value.length(); i++) {
+					int charClass = charClass(value.charAt(i));
+					Integer next = trie.get(state).get(charClass);
+					if (next == null) {
+						next = trie.size();
+						trie.add(new HashMap<>());
+						terminal.add(false);
+						trie.get(state).put(charClass, next);
+					}
+					state = next;
+				}
+				terminal.set(state, true);
+			}
+			// compute failure links breadth first and complete the transition table
+			int stateCount = trie.size();
+			this.transitions = new int[stateCount * classCount];
+			this.accepting = new boolean[stateCount];
+			int[] failure = new int[stateCount];
+			Deque<Integer> queue = new ArrayDeque<>();
+			for (int charClass = 0; charClass < classCount; charClass++) {
+				Integer next = trie.get(0).get(charClass);
+				if (next != null) {
+					this.transitions[charClass] = next;
+					queue.add(next);
+				}
+			}
+			this.accepting[0] = terminal.get(0);
+			while (!queue.isEmpty()) {
+				int state = queue.poll();
+				this.accepting[state] = terminal.get(state) || this.accepting[failure[state]];
+				for (int charClass = 0; charClass < classCount; charClass++) {
+					Integer next = trie.get(state).get(charClass);
+					int fallback = this.transitions[failure[state] * classCount + charClass];
+					if (next != null) {
+						failure[next] = fallback;
+						this.transitions[state * classCount + charClass] = next;
+						queue.add(next);
+					}
+					else {
+						this.transitions[state * classCount + charClass] = fallback;
+					}
+				}
+			}
+		}
+
+		int next(int state, char ch) {
+			return this.transitions[state * this.classCount + charClass(ch)];
+		}
+
+		private int charClass(char ch) {
+			if (ch < 128) {
+				return this.asciiClasses[ch];
+			}
+			int index = Arrays.binarySearch(this.otherChars, ch);
+			return (index >= 0) ? this.otherClasses[index] : 0;
+		}
+
+	}
+
+}
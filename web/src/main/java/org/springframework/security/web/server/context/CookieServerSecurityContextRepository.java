@@ -0,0 +1,186 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.server.context;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import javax.crypto.SecretKey;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.HttpCookie;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.EncryptedAuthenticationCodec;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * A {@link ServerSecurityContextRepository} that stores the {@link Authentication} in an
+ * encrypted cookie, so that no {@link org.springframework.web.server.WebSession} is
+ * needed between requests.
+ * <p>
+ * Only the name and the authorities of the {@link Authentication} are stored, using an
+ * {@link EncryptedAuthenticationCodec}. The cookie is only decrypted when the returned
+ * {@link Mono} is subscribed to. The cookie is encrypted and authenticated with AES-GCM,
+ * so a cookie that has been tampered with is ignored.
+ *
+ * @since 6.3
+ * @see org.springframework.security.web.context.CookieSecurityContextRepository
+ */
+public final class CookieServerSecurityContextRepository implements ServerSecurityContextRepository {
+
+	/**
+	 * The default cookie name to use.
+	 */
+	public static final String DEFAULT_COOKIE_NAME = "SPRING_SECURITY_CONTEXT";
+
+	private final EncryptedAuthenticationCodec codec;
+
+	private String cookieName = DEFAULT_COOKIE_NAME;
+
+	private Duration maxAge = Duration.ofMinutes(30);
+
+	private Clock clock = Clock.systemUTC();
+
+	private Consumer<ResponseCookie.ResponseCookieBuilder> cookieCustomizer = (builder) -> {
+	};
+
+	private AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+	/**
+	 * Creates a new instance
+	 * @param secretKey the AES key to encrypt and authenticate the cookie with
+	 */
+	public CookieServerSecurityContextRepository(SecretKey secretKey) {
+		this(new EncryptedAuthenticationCodec(secretKey));
+	}
+
+	/**
+	 * Creates a new instance
+	 * @param codec the {@link EncryptedAuthenticationCodec} to use
+	 */
+	public CookieServerSecurityContextRepository(EncryptedAuthenticationCodec codec) {
+		Assert.notNull(codec, "codec cannot be null");
+		this.codec = codec;
+	}
+
+	@Override
+	public Mono<Void> save(ServerWebExchange exchange, SecurityContext context) {
+		return Mono.fromRunnable(() -> {
+			Authentication authentication = (context != null) ? context.getAuthentication() : null;
+			if (authentication == null || this.trustResolver.isAnonymous(authentication)) {
+				if (getCookieValue(exchange) != null) {
+					exchange.getResponse().addCookie(createCookie(exchange, "", Duration.ZERO));
+				}
+				return;
+			}
+			String value = this.codec.encode(authentication, this.clock.instant().plus(this.maxAge));
+			exchange.getResponse().addCookie(createCookie(exchange, value, this.maxAge));
+		});
+	}
+
+	@Override
+	public Mono<SecurityContext> load(ServerWebExchange exchange) {
+		return Mono.fromSupplier(() -> {
+			Authentication authentication = this.codec.decode(getCookieValue(exchange), this.clock.instant());
+			return (authentication != null) ? new SecurityContextImpl(authentication) : null;
+		});
+	}
+
+	private String getCookieValue(ServerWebExchange exchange) {
+		HttpCookie cookie = exchange.getRequest().getCookies().getFirst(this.cookieName);
+		return (cookie != null && StringUtils.hasLength(cookie.getValue())) ? cookie.getValue() : null;
+	}
+
+	private ResponseCookie createCookie(ServerWebExchange exchange, String value, Duration maxAge) {
+		ServerHttpRequest request = exchange.getRequest();
+		// @formatter:off
+		ResponseCookie.ResponseCookieBuilder cookieBuilder = ResponseCookie.from(this.cookieName, value)
+				.httpOnly(true)
+				.secure(request.getSslInfo() != null)
+				.path(getRequestContext(request))
+				.sameSite("Lax")
+				.maxAge(maxAge);
+		// @formatter:on
+		this.cookieCustomizer.accept(cookieBuilder);
+		return cookieBuilder.build();
+	}
+
+	private String getRequestContext(ServerHttpRequest request) {
+		String contextPath = request.getPath().contextPath().value();
+		return StringUtils.hasLength(contextPath) ? contextPath : "/";
+	}
+
+	/**
+	 * Sets the name of the cookie. The default is {@link #DEFAULT_COOKIE_NAME}.
+	 * @param cookieName the cookie name
+	 */
+	public void setCookieName(String cookieName) {
+		Assert.hasLength(cookieName, "cookieName cannot be empty");
+		this.cookieName = cookieName;
+	}
+
+	/**
+	 * Sets how long a saved {@link SecurityContext} remains valid. The default is 30
+	 * minutes.
+	 * @param maxAge the maximum age of the cookie
+	 */
+	public void setMaxAge(Duration maxAge) {
+		Assert.notNull(maxAge, "maxAge cannot be null");
+		Assert.isTrue(!maxAge.isNegative() && !maxAge.isZero(), "maxAge must be positive");
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * Sets the {@link Clock} used to compute and check the expiry of the cookie.
+	 * @param clock the {@link Clock} to use
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "clock cannot be null");
+		this.clock = clock;
+	}
+
+	/**
+	 * Add a {@link Consumer} for a {@code ResponseCookieBuilder} that will be invoked for
+	 * each cookie being built, just before the call to {@code build()}.
+	 * @param cookieCustomizer consumer for a cookie builder
+	 */
+	public void setCookieCustomizer(Consumer<ResponseCookie.ResponseCookieBuilder> cookieCustomizer) {
+		Assert.notNull(cookieCustomizer, "cookieCustomizer cannot be null");
+		this.cookieCustomizer = cookieCustomizer;
+	}
+
+	/**
+	 * Sets the {@link AuthenticationTrustResolver} used to avoid saving anonymous
+	 * authentications.
+	 * @param trustResolver the {@link AuthenticationTrustResolver} to use
+	 */
+	public void setTrustResolver(AuthenticationTrustResolver trustResolver) {
+		Assert.notNull(trustResolver, "trustResolver cannot be null");
+		this.trustResolver = trustResolver;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2023 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -90,6 +90,10 @@ public final class AndRequestMatcher implements RequestMatcher {
 		return MatchResult.match(variables);
 	}
 
+	List<RequestMatcher> getRequestMatchers() {
+		return this.requestMatchers;
+	}
+
 	@Override
 	public String toString() {
 		return "And " + this.requestMatchers;
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.util.matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * An ordered index over a list of {@link RequestMatcherEntry} instances that narrows down
+ * which entries can possibly match a given request before any {@link RequestMatcher} is
+ * invoked.
+ * <p>
+ * At construction time, the literal leading path segments and HTTP method of each
+ * {@link AntPathRequestMatcher} (including those nested in an {@link OrRequestMatcher} or
+ * an {@link AndRequestMatcher}) are compiled into a segment trie. Entries whose matcher
+ * cannot be analyzed, such as a {@link RegexRequestMatcher} or a case-insensitive
+ * {@link AntPathRequestMatcher}, are considered candidates for every request.
+ * <p>
+ * Candidates are always returned in their original order, so that evaluating them in
+ * turn yields exactly the same first match as evaluating the full list in turn.
+ *
+ * @param <T> the type of the entries
+ * @since 6.3
+ */
+public final class RequestMatcherIndex<T> {
+
+	private final List<RequestMatcherEntry<T>> entries;
+
+	private final Node root = new Node();
+
+	private RequestMatcherIndex(List<RequestMatcherEntry<T>> entries) {
+		this.entries = new ArrayList<>(entries);
+		for (int i = 0; i < this.entries.size(); i++) {
+			for (Key key : keys(this.entries.get(i).getRequestMatcher())) {
+				Node node = this.root;
+				for (String segment : key.segments) {
+					node = node.children.computeIfAbsent(segment, (s) -> new Node());
+				}
+				node.add(i, key.method);
+			}
+		}
+	}
+
+	/**
+	 * Creates an index over the provided entries, preserving their order.
+	 * @param entries the entries to index
+	 * @param <T> the type of the entries
+	 * @return the {@link RequestMatcherIndex}
+	 */
+	public static <T> RequestMatcherIndex<T> of(List<RequestMatcherEntry<T>> entries) {
+		Assert.notNull(entries, "entries cannot be null");
+		Assert.noNullElements(entries, "entries cannot contain null values");
+		return new RequestMatcherIndex<>(entries);
+	}
+
+	/**
+	 * Returns, in their original order, the entries that may match the given request.
+	 * Entries that are not returned are guaranteed not to match.
+	 * @param request the request
+	 * @return the candidate entries
+	 */
+	public List<RequestMatcherEntry<T>> getCandidates(HttpServletRequest request) {
+		BitSet candidates = candidates(request);
+		if (candidates.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<RequestMatcherEntry<T>> result = new ArrayList<>(candidates.cardinality());
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			result.add(this.entries.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the first entry whose {@link RequestMatcher} matches the given request, or
+	 * {@code null} if none match.
+	 * @param request the request
+	 * @return the first matching entry or {@code null}
+	 */
+	public RequestMatcherEntry<T> findFirst(HttpServletRequest request) {
+		BitSet candidates = candidates(request);
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			RequestMatcherEntry<T> entry = this.entries.get(i);
+			if (entry.getRequestMatcher().matches(request)) {
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	private BitSet candidates(HttpServletRequest request) {
+		BitSet candidates = new BitSet(this.entries.size());
+		String method = request.getMethod();
+		Node node = this.root;
+		node.collect(method, candidates);
+		String path = getRequestPath(request);
+		int length = path.length();
+		int start = 0;
+		while (start < length) {
+			int end = path.indexOf('/', start);
+			if (end == -1) {
+				end = length;
+			}
+			if (end > start) {
+				node = node.children.get(path.substring(start, end));
+				if (node == null) {
+					break;
+				}
+				node.collect(method, candidates);
+			}
+			start = end + 1;
+		}
+		return candidates;
+	}
+
+	private static String getRequestPath(HttpServletRequest request) {
+		String url = request.getServletPath();
+		String pathInfo = request.getPathInfo();
+		if (pathInfo != null) {
+			url = StringUtils.hasLength(url) ? url + pathInfo : pathInfo;
+		}
+		return (url != null) ? url : "";
+	}
+
+	private static List<Key> keys(RequestMatcher matcher) {
+		if (matcher instanceof AntPathRequestMatcher ant) {
+			return Collections.singletonList(key(ant));
+		}
+		if (matcher instanceof OrRequestMatcher or) {
+			List<Key> keys = new ArrayList<>();
+			for (RequestMatcher child : or.getRequestMatchers()) {
+				keys.addAll(keys(child));
+			}
+			return keys;
+		}
+		if (matcher instanceof AndRequestMatcher and) {
+			// every delegate must match, so any single delegate narrows the candidates
+			List<Key> best = Collections.singletonList(Key.ANY);
+			for (RequestMatcher child : and.getRequestMatchers()) {
+				List<Key> keys = keys(child);
+				if (specificity(keys) > specificity(best)) {
+					best = keys;
+				}
+			}
+			return best;
+		}
+		return Collections.singletonList(Key.ANY);
+	}
+
+	private static Key key(AntPathRequestMatcher matcher) {
+		if (!matcher.isCaseSensitive() || !matcher.isServletPathBased()) {
+			return new Key(Collections.emptyList(), matcher.getHttpMethod());
+		}
+		List<String> segments = new ArrayList<>();
+		for (String segment : StringUtils.tokenizeToStringArray(matcher.getPattern(), "/", false, true)) {
+			if (segment.indexOf('*') != -1 || segment.indexOf('?') != -1 || segment.indexOf('{') != -1) {
+				break;
+			}
+			segments.add(segment);
+		}
+		return new Key(segments, matcher.getHttpMethod());
+	}
+
+	private static int specificity(List<Key> keys) {
+		int specificity = Integer.MAX_VALUE;
+		for (Key key : keys) {
+			int weight = key.segments.size() * 2 + ((key.method != null) ? 1 : 0);
+			specificity = Math.min(specificity, weight);
+		}
+		return specificity;
+	}
+
+	private static final class Key {
+
+		private static final Key ANY = new Key(Collections.emptyList(), null);
+
+		private final List<String> segments;
+
+		private final HttpMethod method;
+
+		private Key(List<String> segments, HttpMethod method) {
+			this.segments = segments;
+			this.method = method;
+		}
+
+	}
+
+	private static final class Node {
+
+		private final Map<String, Node> children = new HashMap<>();
+
+		private int[] indexes = new int[0];
+
+		private HttpMethod[] methods = new HttpMethod[0];
+
+		void add(int index, HttpMethod method) {
+			int length = this.indexes.length;
+			this.indexes = Arrays.copyOf(this.indexes, length + 1);
+			this.methods = Arrays.copyOf(this.methods, length + 1);
+			this.indexes[length] = index;
+			this.methods[length] = method;
+		}
+
+		void collect(String method, BitSet candidates) {
+			for (int i = 0; i < this.indexes.length; i++) {
+				HttpMethod required = this.methods[i];
+				if (required == null || !StringUtils.hasText(method) || required.name().equals(method)) {
+					candidates.set(this.indexes[i]);
+				}
+			}
+		}
+
+	}
+
+}
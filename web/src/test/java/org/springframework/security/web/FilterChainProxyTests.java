@@ -48,11 +48,13 @@ import org.springframework.security.web.firewall.FirewalledRequest;
 import org.springframework.security.web.firewall.HttpFirewall;
 import org.springframework.security.web.firewall.RequestRejectedException;
 import org.springframework.security.web.firewall.RequestRejectedHandler;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
@@ -60,6 +62,7 @@ import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -445,6 +448,38 @@ public class FilterChainProxyTests {
 		assertThat(filterChainObservationContext.getChainPosition()).isEqualTo(chainPosition);
 	}
 
+	@Test
+	public void doFilterWhenFilterChainIndexEnabledThenFirstMatchingChainInvoked() throws Exception {
+		Filter apiFilter = mockFilter();
+		Filter otherFilter = mockFilter();
+		RequestMatcher opaque = mock(RequestMatcher.class);
+		this.fcp = new FilterChainProxy(
+				Arrays.asList(new DefaultSecurityFilterChain(AntPathRequestMatcher.antMatcher("/api/**"), apiFilter),
+						new DefaultSecurityFilterChain(opaque), new DefaultSecurityFilterChain(
+								AntPathRequestMatcher.antMatcher("/**"), otherFilter)));
+		this.fcp.setFilterChainIndexEnabled(true);
+		this.fcp.setFilterChainIndexVerificationEnabled(true);
+		this.fcp.doFilter(this.request, this.response, this.chain);
+		verify(apiFilter, never()).doFilter(any(), any(), any());
+		verify(opaque, atLeastOnce()).matches(any());
+		verify(otherFilter).doFilter(any(), any(), any());
+		this.request.setServletPath("/api/users");
+		this.fcp.doFilter(this.request, this.response, this.chain);
+		verify(apiFilter).doFilter(any(), any(), any());
+		verifyNoMoreInteractions(opaque);
+	}
+
+	@Test
+	public void doFilterWhenFilterChainIndexVerificationFailsThenException() throws Exception {
+		SecurityFilterChain first = mock(SecurityFilterChain.class);
+		given(first.matches(any())).willReturn(false, true);
+		this.fcp = new FilterChainProxy(first);
+		this.fcp.setFilterChainIndexEnabled(true);
+		this.fcp.setFilterChainIndexVerificationEnabled(true);
+		assertThatIllegalStateException()
+			.isThrownBy(() -> this.fcp.doFilter(this.request, this.response, this.chain));
+	}
+
 	static Filter mockFilter() throws Exception {
 		Filter filter = mock(Filter.class);
 		willAnswer((invocation) -> {
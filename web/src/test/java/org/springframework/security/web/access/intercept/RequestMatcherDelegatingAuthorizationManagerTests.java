@@ -20,6 +20,7 @@ import java.util.function.Supplier;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.http.HttpMethod;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.authentication.TestAuthentication;
 import org.springframework.security.authentication.TestingAuthenticationToken;
@@ -121,6 +122,24 @@ public class RequestMatcherDelegatingAuthorizationManagerTests {
 		assertThat(unmapped.isGranted()).isFalse();
 	}
 
+	@Test
+	public void checkWhenIndexedThenDelegatesFirstMatchingManager() {
+		RequestMatcherDelegatingAuthorizationManager manager = RequestMatcherDelegatingAuthorizationManager.builder()
+			.indexed(true)
+			.add(AntPathRequestMatcher.antMatcher(HttpMethod.POST, "/api/**"),
+					(a, o) -> new AuthorizationDecision(false))
+			.add(AntPathRequestMatcher.antMatcher("/api/{version}/users"),
+					(a, o) -> new AuthorizationDecision("v1".equals(o.getVariables().get("version"))))
+			.add(AntPathRequestMatcher.antMatcher("/public/**"), (a, o) -> new AuthorizationDecision(true))
+			.build();
+		Supplier<Authentication> authentication = () -> new TestingAuthenticationToken("user", "password", "ROLE_USER");
+		assertThat(manager.check(authentication, request("GET", "/api/v1/users")).isGranted()).isTrue();
+		assertThat(manager.check(authentication, request("GET", "/api/v2/users")).isGranted()).isFalse();
+		assertThat(manager.check(authentication, request("POST", "/api/v1/users")).isGranted()).isFalse();
+		assertThat(manager.check(authentication, request("GET", "/public/index.html")).isGranted()).isTrue();
+		assertThat(manager.check(authentication, request("GET", "/unmapped")).isGranted()).isFalse();
+	}
+
 	@Test
 	public void addWhenMappingsConsumerNullThenException() {
 		assertThatIllegalArgumentException()
@@ -404,4 +423,10 @@ public class RequestMatcherDelegatingAuthorizationManagerTests {
 		assertThat(decision.isGranted()).isFalse();
 	}
 
+	private static MockHttpServletRequest request(String method, String servletPath) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, servletPath);
+		request.setServletPath(servletPath);
+		return request;
+	}
+
 }
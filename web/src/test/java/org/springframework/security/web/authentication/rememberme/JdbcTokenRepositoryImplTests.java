@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -164,6 +164,21 @@ public class JdbcTokenRepositoryImplTests {
 		assertThat(lastUsed.getTime() > ts.getTime()).isTrue();
 	}
 
+	@Test
+	public void updateTokensModifiesEachTokenInBatch() {
+		Timestamp ts = new Timestamp(System.currentTimeMillis() - 1);
+		this.template.execute("insert into persistent_logins (series, username, token, last_used) values "
+				+ "('joesseries', 'joeuser', 'atoken', '" + ts.toString() + "')");
+		this.template.execute("insert into persistent_logins (series, username, token, last_used) values "
+				+ "('joesseries2', 'joeuser', 'atoken2', '" + ts.toString() + "')");
+		Date now = new Date();
+		this.repo.updateTokens(List.of(new PersistentRememberMeToken("joeuser", "joesseries", "newtoken", now),
+				new PersistentRememberMeToken("joeuser", "joesseries2", "newtoken2", now)));
+		assertThat(this.repo.getTokenForSeries("joesseries").getTokenValue()).isEqualTo("newtoken");
+		assertThat(this.repo.getTokenForSeries("joesseries2").getTokenValue()).isEqualTo("newtoken2");
+		assertThat(this.repo.getTokenForSeries("joesseries2").getDate().getTime()).isEqualTo(now.getTime());
+	}
+
 	@Test
 	public void createTableOnStartupCreatesCorrectTable() {
 		this.template.execute("drop table persistent_logins");
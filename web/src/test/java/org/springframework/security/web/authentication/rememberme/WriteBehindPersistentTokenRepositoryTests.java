@@ -0,0 +1,204 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.authentication.rememberme;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link WriteBehindPersistentTokenRepository}.
+ */
+public class WriteBehindPersistentTokenRepositoryTests {
+
+	private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+
+	private InMemoryTokenRepositoryImpl delegate;
+
+	private WriteBehindPersistentTokenRepository repository;
+
+	@BeforeEach
+	public void setup() {
+		this.delegate = new InMemoryTokenRepositoryImpl();
+		this.repository = new WriteBehindPersistentTokenRepository(this.delegate, this.scheduler);
+	}
+
+	@Test
+	public void constructorWhenNullDelegateThenException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new WriteBehindPersistentTokenRepository(null, this.scheduler));
+	}
+
+	@Test
+	public void createNewTokenThenWrittenImmediately() {
+		this.repository.createNewToken(token("token"));
+		assertThat(this.delegate.getTokenForSeries("series").getTokenValue()).isEqualTo("token");
+	}
+
+	@Test
+	public void updateTokenWhenCachedThenWrittenOnFlush() {
+		this.repository.createNewToken(token("token"));
+		this.repository.updateToken("series", "updated", new Date());
+		assertThat(this.repository.getTokenForSeries("series").getTokenValue()).isEqualTo("updated");
+		assertThat(this.delegate.getTokenForSeries("series").getTokenValue()).isEqualTo("token");
+		verify(this.scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+		this.repository.flush();
+		assertThat(this.delegate.getTokenForSeries("series").getTokenValue()).isEqualTo("updated");
+	}
+
+	@Test
+	public void updateTokenWhenUpdatedTwiceThenOnlyLatestWritten() {
+		PersistentTokenRepository delegate = mock(PersistentTokenRepository.class);
+		given(delegate.getTokenForSeries("series")).willReturn(token("token"));
+		WriteBehindPersistentTokenRepository repository = new WriteBehindPersistentTokenRepository(delegate,
+				this.scheduler);
+		Date lastUsed = new Date();
+		repository.updateToken("series", "first", lastUsed);
+		repository.updateToken("series", "second", lastUsed);
+		repository.flush();
+		verify(delegate).updateToken("series", "second", lastUsed);
+		verify(delegate, never()).updateToken("series", "first", lastUsed);
+		verify(this.scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+	}
+
+	@Test
+	public void flushWhenJdbcDelegateThenWrittenInBatch() {
+		JdbcTokenRepositoryImpl delegate = mock(JdbcTokenRepositoryImpl.class);
+		given(delegate.getTokenForSeries("series")).willReturn(token("token"));
+		WriteBehindPersistentTokenRepository repository = new WriteBehindPersistentTokenRepository(delegate,
+				this.scheduler);
+		repository.updateToken("series", "updated", new Date());
+		repository.flush();
+		verify(delegate).updateTokens(any());
+		verify(delegate, never()).updateToken(any(), any(), any());
+	}
+
+	@Test
+	public void flushWhenDelegateFailsThenUpdateRemainsPending() {
+		PersistentTokenRepository delegate = mock(PersistentTokenRepository.class);
+		given(delegate.getTokenForSeries("series")).willReturn(token("token"));
+		Date lastUsed = new Date();
+		willThrow(new DataAccessResourceFailureException("failed")).willDoNothing()
+			.given(delegate)
+			.updateToken("series", "updated", lastUsed);
+		WriteBehindPersistentTokenRepository repository = new WriteBehindPersistentTokenRepository(delegate,
+				this.scheduler);
+		repository.updateToken("series", "updated", lastUsed);
+		repository.flush();
+		repository.flush();
+		repository.flush();
+		verify(delegate, times(2)).updateToken("series", "updated", lastUsed);
+	}
+
+	@Test
+	public void updateTokenWhenNotFoundThenWrittenImmediately() {
+		PersistentTokenRepository delegate = mock(PersistentTokenRepository.class);
+		WriteBehindPersistentTokenRepository repository = new WriteBehindPersistentTokenRepository(delegate,
+				this.scheduler);
+		Date lastUsed = new Date();
+		repository.updateToken("series", "updated", lastUsed);
+		verify(delegate).updateToken("series", "updated", lastUsed);
+		verify(this.scheduler, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+	}
+
+	@Test
+	public void removeUserTokensWhenUpdatePendingThenDiscarded() {
+		this.repository.createNewToken(token("token"));
+		this.repository.updateToken("series", "updated", new Date());
+		this.repository.removeUserTokens("joe");
+		assertThat(this.repository.getTokenForSeries("series")).isNull();
+		this.repository.flush();
+		assertThat(this.delegate.getTokenForSeries("series")).isNull();
+	}
+
+	@Test
+	public void getTokenForSeriesWhenMaximumCachedSeriesExceededThenEldestEvicted() {
+		PersistentTokenRepository delegate = mock(PersistentTokenRepository.class);
+		PersistentRememberMeToken first = new PersistentRememberMeToken("joe", "first", "token", new Date());
+		PersistentRememberMeToken second = new PersistentRememberMeToken("joe", "second", "token", new Date());
+		given(delegate.getTokenForSeries("first")).willReturn(first);
+		given(delegate.getTokenForSeries("second")).willReturn(second);
+		WriteBehindPersistentTokenRepository repository = new WriteBehindPersistentTokenRepository(delegate,
+				this.scheduler);
+		repository.setMaximumCachedSeries(1);
+		repository.getTokenForSeries("first");
+		repository.getTokenForSeries("second");
+		repository.getTokenForSeries("second");
+		repository.getTokenForSeries("first");
+		verify(delegate, times(2)).getTokenForSeries("first");
+		verify(delegate).getTokenForSeries("second");
+	}
+
+	@Test
+	public void getTokenForSeriesWhenUpdatePendingThenNotEvicted() {
+		this.repository.setMaximumCachedSeries(1);
+		this.repository.createNewToken(token("token"));
+		this.repository.updateToken("series", "updated", new Date());
+		this.repository.createNewToken(new PersistentRememberMeToken("joe", "other", "token", new Date()));
+		assertThat(this.repository.getTokenForSeries("series").getTokenValue()).isEqualTo("updated");
+	}
+
+	@Test
+	public void processAutoLoginCookieWhenReplacedTokenPresentedThenCookieTheftDetected() {
+		PersistentTokenBasedRememberMeServices services = new PersistentTokenBasedRememberMeServices("key",
+				new AbstractRememberMeServicesTests.MockUserDetailsService(AbstractRememberMeServicesTests.joe, false),
+				this.repository);
+		this.repository.createNewToken(token("token"));
+		services.processAutoLoginCookie(new String[] { "series", "token" }, new MockHttpServletRequest(),
+				new MockHttpServletResponse());
+		assertThatExceptionOfType(CookieTheftException.class)
+			.isThrownBy(() -> services.processAutoLoginCookie(new String[] { "series", "token" },
+					new MockHttpServletRequest(), new MockHttpServletResponse()));
+		this.repository.flush();
+		assertThat(this.repository.getTokenForSeries("series")).isNull();
+		assertThat(this.delegate.getTokenForSeries("series")).isNull();
+	}
+
+	@Test
+	public void destroyThenPendingUpdatesWritten() {
+		this.repository.createNewToken(token("token"));
+		this.repository.updateToken("series", "updated", new Date());
+		this.repository.destroy();
+		assertThat(this.delegate.getTokenForSeries("series").getTokenValue()).isEqualTo("updated");
+		verify(this.scheduler, never()).shutdown();
+	}
+
+	private static PersistentRememberMeToken token(String tokenValue) {
+		return new PersistentRememberMeToken("joe", "series", tokenValue, new Date());
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.context;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestAuthentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.DeferredSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Tests for {@link CookieSecurityContextRepository}.
+ */
+class CookieSecurityContextRepositoryTests {
+
+	private final SecretKey secretKey = new SecretKeySpec(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14,
+			15, 16 }, "AES");
+
+	private MockHttpServletRequest request = new MockHttpServletRequest();
+
+	private MockHttpServletResponse response = new MockHttpServletResponse();
+
+	private CookieSecurityContextRepository repository = new CookieSecurityContextRepository(this.secretKey);
+
+	@Test
+	void constructorWhenNullSecretKeyThenException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new CookieSecurityContextRepository((SecretKey) null));
+	}
+
+	@Test
+	void setMaxAgeWhenZeroThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> this.repository.setMaxAge(Duration.ZERO));
+	}
+
+	@Test
+	void saveContextWhenAuthenticatedThenCookieWritten() {
+		this.repository.saveContext(new SecurityContextImpl(TestAuthentication.authenticatedUser()), this.request,
+				this.response);
+		Cookie cookie = this.response.getCookie(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME);
+		assertThat(cookie).isNotNull();
+		assertThat(cookie.isHttpOnly()).isTrue();
+		assertThat(cookie.getMaxAge()).isEqualTo(1800);
+		assertThat(cookie.getPath()).isEqualTo("/");
+		assertThat(cookie.getAttribute("SameSite")).isEqualTo("Lax");
+		assertThat(cookie.getValue()).doesNotContain("user");
+	}
+
+	@Test
+	void loadDeferredContextWhenSavedThenAuthenticationRestored() {
+		this.repository.saveContext(new SecurityContextImpl(TestAuthentication.authenticatedUser()), this.request,
+				this.response);
+		MockHttpServletRequest next = new MockHttpServletRequest();
+		next.setCookies(this.response.getCookies());
+		assertThat(this.repository.containsContext(next)).isTrue();
+		SecurityContext context = this.repository.loadDeferredContext(next).get();
+		assertThat(context.getAuthentication().getName()).isEqualTo("user");
+		assertThat(context.getAuthentication().isAuthenticated()).isTrue();
+		assertThat(AuthorityUtils.authorityListToSet(context.getAuthentication().getAuthorities()))
+			.containsExactly("ROLE_USER");
+	}
+
+	@Test
+	void loadDeferredContextWhenNotAccessedThenNotDecrypted() {
+		EncryptedAuthenticationCodec codec = mock(EncryptedAuthenticationCodec.class);
+		CookieSecurityContextRepository repository = new CookieSecurityContextRepository(codec);
+		this.request.setCookies(new Cookie(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME, "AAAA"));
+		DeferredSecurityContext context = repository.loadDeferredContext(this.request);
+		verifyNoInteractions(codec);
+		assertThat(context.isGenerated()).isTrue();
+		assertThat(context.get().getAuthentication()).isNull();
+	}
+
+	@Test
+	void loadDeferredContextWhenNoCookieThenGenerated() {
+		assertThat(this.repository.containsContext(this.request)).isFalse();
+		DeferredSecurityContext context = this.repository.loadDeferredContext(this.request);
+		assertThat(context.isGenerated()).isTrue();
+	}
+
+	@Test
+	void loadDeferredContextWhenExpiredThenGenerated() {
+		Instant now = Instant.parse("2024-01-01T00:00:00Z");
+		this.repository.setClock(Clock.fixed(now, ZoneOffset.UTC));
+		this.repository.saveContext(new SecurityContextImpl(TestAuthentication.authenticatedUser()), this.request,
+				this.response);
+		this.repository.setClock(Clock.fixed(now.plus(Duration.ofMinutes(30)), ZoneOffset.UTC));
+		MockHttpServletRequest next = new MockHttpServletRequest();
+		next.setCookies(this.response.getCookies());
+		assertThat(this.repository.loadDeferredContext(next).isGenerated()).isTrue();
+	}
+
+	@Test
+	void saveContextWhenAnonymousAndCookiePresentThenCookieCleared() {
+		this.request.setCookies(new Cookie(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME, "value"));
+		AnonymousAuthenticationToken anonymous = new AnonymousAuthenticationToken("key", "anonymous",
+				AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+		this.repository.saveContext(new SecurityContextImpl(anonymous), this.request, this.response);
+		Cookie cookie = this.response.getCookie(CookieSecurityContextRepository.DEFAULT_COOKIE_NAME);
+		assertThat(cookie.getMaxAge()).isZero();
+		assertThat(cookie.getValue()).isEmpty();
+	}
+
+	@Test
+	void saveContextWhenEmptyAndNoCookieThenNoCookieWritten() {
+		this.repository.saveContext(new SecurityContextImpl(), this.request, this.response);
+		assertThat(this.response.getCookies()).isEmpty();
+	}
+
+	@Test
+	void saveContextWhenCookieCustomizerThenApplied() {
+		this.repository.setCookieName("SESSION_AUTH");
+		this.repository.setCookieCustomizer((cookie) -> cookie.secure(true).sameSite("Strict"));
+		this.repository.saveContext(new SecurityContextImpl(TestAuthentication.authenticatedUser()), this.request,
+				this.response);
+		Cookie cookie = this.response.getCookie("SESSION_AUTH");
+		assertThat(cookie.getSecure()).isTrue();
+		assertThat(cookie.getAttribute("SameSite")).isEqualTo("Strict");
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.context;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Tests for {@link EncryptedAuthenticationCodec}.
+ */
+public class EncryptedAuthenticationCodecTests {
+
+	private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+	private final EncryptedAuthenticationCodec codec = new EncryptedAuthenticationCodec(key(1));
+
+	@Test
+	public void constructorWhenNullSecretKeyThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> new EncryptedAuthenticationCodec(null));
+	}
+
+	@Test
+	public void constructorWhenNotAesKeyThenException() {
+		SecretKey secretKey = new SecretKeySpec(new byte[32], "HmacSHA256");
+		assertThatIllegalArgumentException().isThrownBy(() -> new EncryptedAuthenticationCodec(secretKey));
+	}
+
+	@Test
+	public void decodeWhenEncodedThenNameAndAuthoritiesRestored() {
+		Authentication authentication = new TestingAuthenticationToken("user", "password", "ROLE_USER",
+				"SCOPE_message:read");
+		String value = this.codec.encode(authentication, NOW.plusSeconds(60));
+		Authentication decoded = this.codec.decode(value, NOW);
+		assertThat(decoded.isAuthenticated()).isTrue();
+		assertThat(decoded.getName()).isEqualTo("user");
+		assertThat(decoded.getCredentials()).isNull();
+		assertThat(AuthorityUtils.authorityListToSet(decoded.getAuthorities()))
+			.containsExactlyInAnyOrder("ROLE_USER", "SCOPE_message:read");
+	}
+
+	@Test
+	public void encodeWhenWellKnownAuthoritiesThenShorterValue() {
+		Authentication authentication = new TestingAuthenticationToken("user", "password", "ROLE_ADMINISTRATOR",
+				"ROLE_USER");
+		String literal = this.codec.encode(authentication, NOW.plusSeconds(60));
+		this.codec.setAuthorities(List.of("ROLE_USER", "ROLE_ADMINISTRATOR"));
+		String interned = this.codec.encode(authentication, NOW.plusSeconds(60));
+		assertThat(interned.length()).isLessThan(literal.length());
+		assertThat(AuthorityUtils.authorityListToSet(this.codec.decode(interned, NOW).getAuthorities()))
+			.containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMINISTRATOR");
+		assertThat(AuthorityUtils.authorityListToSet(this.codec.decode(literal, NOW).getAuthorities()))
+			.containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMINISTRATOR");
+	}
+
+	@Test
+	public void decodeWhenExpiredThenNull() {
+		String value = this.codec.encode(new TestingAuthenticationToken("user", "password", "ROLE_USER"),
+				NOW.plusSeconds(60));
+		assertThat(this.codec.decode(value, NOW.plusSeconds(60))).isNull();
+	}
+
+	@Test
+	public void decodeWhenTamperedThenNull() {
+		String value = this.codec.encode(new TestingAuthenticationToken("user", "password", "ROLE_USER"),
+				NOW.plusSeconds(60));
+		int middle = value.length() / 2;
+		char replacement = (value.charAt(middle) == 'A') ? 'B' : 'A';
+		String tampered = value.substring(0, middle) + replacement + value.substring(middle + 1);
+		assertThat(this.codec.decode(tampered, NOW)).isNull();
+	}
+
+	@Test
+	public void decodeWhenCiphertextByteFlippedThenNull() {
+		String value = this.codec.encode(new TestingAuthenticationToken("user", "password", "ROLE_USER"),
+				NOW.plusSeconds(60));
+		byte[] bytes = Base64.getUrlDecoder().decode(value);
+		// the first 16 bytes are the IV, so flip a bit of the ciphertext that follows
+		for (int i = 16; i < bytes.length; i++) {
+			byte[] tampered = bytes.clone();
+			tampered[i] ^= 0x01;
+			String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(tampered);
+			assertThat(this.codec.decode(encoded, NOW)).isNull();
+		}
+	}
+
+	@Test
+	public void decodeWhenIvByteFlippedThenNull() {
+		String value = this.codec.encode(new TestingAuthenticationToken("user", "password", "ROLE_USER"),
+				NOW.plusSeconds(60));
+		byte[] tampered = Base64.getUrlDecoder().decode(value);
+		tampered[0] ^= 0x01;
+		String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(tampered);
+		assertThat(this.codec.decode(encoded, NOW)).isNull();
+	}
+
+	@Test
+	public void decodeWhenDifferentKeyThenNull() {
+		String value = this.codec.encode(new TestingAuthenticationToken("user", "password", "ROLE_USER"),
+				NOW.plusSeconds(60));
+		EncryptedAuthenticationCodec other = new EncryptedAuthenticationCodec(key(2));
+		assertThat(other.decode(value, NOW)).isNull();
+	}
+
+	@Test
+	public void decodeWhenMalformedThenNull() {
+		assertThat(this.codec.decode(null, NOW)).isNull();
+		assertThat(this.codec.decode("", NOW)).isNull();
+		assertThat(this.codec.decode("not*base64", NOW)).isNull();
+		assertThat(this.codec.decode("AAAA", NOW)).isNull();
+	}
+
+	private static SecretKey key(int seed) {
+		byte[] bytes = new byte[16];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) (seed + i);
+		}
+		return new SecretKeySpec(bytes, "AES");
+	}
+
+}
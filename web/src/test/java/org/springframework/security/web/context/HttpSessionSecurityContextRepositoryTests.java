@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2023 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,9 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.util.Collections;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.Filter;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletOutputStream;
@@ -48,6 +51,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.Transient;
 import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ChangeTrackingSecurityContext;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.context.SecurityContextImpl;
@@ -58,11 +62,14 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
@@ -829,6 +836,74 @@ public class HttpSessionSecurityContextRepositoryTests {
 
 	}
 
+	@Test
+	public void saveContextWhenChangeTrackingContextUnchangedThenSessionNotWritten() {
+		HttpSessionSecurityContextRepository repository = new HttpSessionSecurityContextRepository();
+		ChangeTrackingSecurityContext context = new ChangeTrackingSecurityContext(
+				TestAuthentication.authenticatedUser());
+		HttpSession session = mock(HttpSession.class);
+		given(session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY))
+			.willReturn(context);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setSession(session);
+		repository.saveContext(context, request, new MockHttpServletResponse());
+		verify(session, never()).setAttribute(any(), any());
+	}
+
+	@Test
+	public void saveContextWhenChangeTrackingContextChangedThenSessionWrittenAndChangesCleared() {
+		HttpSessionSecurityContextRepository repository = new HttpSessionSecurityContextRepository();
+		ChangeTrackingSecurityContext context = new ChangeTrackingSecurityContext(
+				TestAuthentication.authenticatedUser());
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.getSession().setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
+		context.setAuthentication(TestAuthentication.authenticatedAdmin());
+		HttpSession session = spy(request.getSession());
+		request.setSession(session);
+		repository.saveContext(context, request, new MockHttpServletResponse());
+		verify(session).setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
+		assertThat(context.isChanged()).isFalse();
+	}
+
+	@Test
+	public void saveContextWhenTrackContextChangesThenLoadedContextSavedWithoutWrite() {
+		HttpSessionSecurityContextRepository repository = new HttpSessionSecurityContextRepository();
+		repository.setTrackContextChanges(true);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		repository.saveContext(new SecurityContextImpl(TestAuthentication.authenticatedUser()), request,
+				new MockHttpServletResponse());
+		SecurityContext loaded = repository.loadDeferredContext(request).get();
+		assertThat(loaded).isInstanceOf(ChangeTrackingSecurityContext.class);
+		assertThat(loaded.getAuthentication().getName()).isEqualTo("user");
+		HttpSession session = spy(request.getSession());
+		request.setSession(session);
+		repository.saveContext(loaded, request, new MockHttpServletResponse());
+		verify(session, never()).setAttribute(any(), any());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void saveContextWhenObservationRegistryThenEventsRecorded() {
+		ObservationHandler<Observation.Context> handler = mock(ObservationHandler.class);
+		given(handler.supportsContext(any())).willReturn(true);
+		ObservationRegistry registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(handler);
+		HttpSessionSecurityContextRepository repository = new HttpSessionSecurityContextRepository();
+		repository.setTrackContextChanges(true);
+		repository.setObservationRegistry(registry);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		Observation.createNotStarted("test", registry).observe(() -> {
+			repository.saveContext(new SecurityContextImpl(TestAuthentication.authenticatedUser()), request,
+					new MockHttpServletResponse());
+			repository.saveContext(repository.loadDeferredContext(request).get(), request,
+					new MockHttpServletResponse());
+		});
+		verify(handler).onEvent(argThat((event) -> HttpSessionSecurityContextRepository.SECURITY_CONTEXT_STORED
+			.equals(event.getName())), any());
+		verify(handler).onEvent(argThat((event) -> HttpSessionSecurityContextRepository.SECURITY_CONTEXT_STORE_SKIPPED
+			.equals(event.getName())), any());
+	}
+
 	@Target(ElementType.TYPE)
 	@Retention(RetentionPolicy.RUNTIME)
 	@Transient
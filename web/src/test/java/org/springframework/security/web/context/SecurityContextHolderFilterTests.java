@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2022 the original author or authors.
+ * Copyright 2002-2024 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,6 +37,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockFilterChain;
 import org.springframework.security.authentication.TestAuthentication;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ScopedValueSecurityContextHolderStrategy;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.context.SecurityContextHolderStrategy;
@@ -114,6 +115,24 @@ class SecurityContextHolderFilterTests {
 		verify(this.strategy).clearContext();
 	}
 
+	@Test
+	void doFilterWhenScopedValueStrategyThenContextBoundToScope() throws Exception {
+		ScopedValueSecurityContextHolderStrategy strategy = new ScopedValueSecurityContextHolderStrategy();
+		SecurityContext expectedContext = new SecurityContextImpl(TestAuthentication.authenticatedUser());
+		given(this.repository.loadDeferredContext(this.requestArg.capture()))
+			.willReturn(new SupplierDeferredSecurityContext(() -> expectedContext, strategy));
+		SecurityContext original = new SecurityContextImpl();
+		strategy.setContext(original);
+		FilterChain filterChain = (request, response) -> assertThat(strategy.getContext()).isEqualTo(expectedContext);
+
+		this.filter.setSecurityContextHolderStrategy(strategy);
+		this.filter.doFilter(this.request, this.response, filterChain);
+
+		assertThat(strategy.getContext()).isSameAs(original);
+		verify(this.request).removeAttribute(FILTER_APPLIED);
+		strategy.clearContext();
+	}
+
 	@Test
 	void doFilterWhenFilterAppliedThenDoNothing() throws Exception {
 		given(this.request.getAttribute(FILTER_APPLIED)).willReturn(true);
@@ -18,6 +18,7 @@ package org.springframework.security.web.firewall;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.Test;
@@ -41,6 +42,18 @@ public class StrictHttpFirewallTests {
 
 	private MockHttpServletRequest request = new MockHttpServletRequest("GET", "");
 
+	@Test
+	public void getFirewalledRequestWhenBlocklistModifiedAfterRequestThenUsesModifiedBlocklist() {
+		this.request.setRequestURI("/admin");
+		this.firewall.getFirewalledRequest(this.request);
+		this.firewall.getEncodedUrlBlocklist().add("admin");
+		assertThatExceptionOfType(RequestRejectedException.class)
+			.isThrownBy(() -> this.firewall.getFirewalledRequest(this.request))
+			.withMessageContaining("\"admin\"");
+		this.firewall.getEncodedUrlBlocklist().removeIf("admin"::equals);
+		this.firewall.getFirewalledRequest(this.request);
+	}
+
 	@Test
 	public void getFirewalledRequestWhenInvalidMethodThenThrowsRequestRejectedException() {
 		this.request.setMethod("INVALID");
@@ -731,6 +744,42 @@ public class StrictHttpFirewallTests {
 		assertThatExceptionOfType(RequestRejectedException.class).isThrownBy(() -> request.getHeader("good name"));
 	}
 
+	@Test
+	public void getFirewalledRequestGetHeaderWhenReadTwiceThenValidatedOnce() {
+		this.request.addHeader("name", "value");
+		AtomicInteger names = new AtomicInteger();
+		AtomicInteger values = new AtomicInteger();
+		this.firewall.setAllowedHeaderNames((name) -> names.incrementAndGet() > 0);
+		this.firewall.setAllowedHeaderValues((value) -> values.incrementAndGet() > 0);
+		HttpServletRequest request = this.firewall.getFirewalledRequest(this.request);
+		assertThat(request.getHeader("name")).isEqualTo("value");
+		assertThat(request.getHeader("name")).isEqualTo("value");
+		assertThat(request.getHeaders("name").nextElement()).isEqualTo("value");
+		assertThat(names.get()).isEqualTo(1);
+		assertThat(values.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void getFirewalledRequestGetParameterWhenReadTwiceThenValidatedOnce() {
+		this.request.addParameter("name", "value");
+		AtomicInteger names = new AtomicInteger();
+		AtomicInteger values = new AtomicInteger();
+		this.firewall.setAllowedParameterNames((name) -> names.incrementAndGet() > 0);
+		this.firewall.setAllowedParameterValues((value) -> values.incrementAndGet() > 0);
+		HttpServletRequest request = this.firewall.getFirewalledRequest(this.request);
+		assertThat(request.getParameter("name")).isEqualTo("value");
+		assertThat(request.getParameterValues("name")).containsExactly("value");
+		assertThat(names.get()).isEqualTo(1);
+		assertThat(values.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void getFirewalledRequestGetHeaderWhenNonAsciiHeaderValueThenNoException() {
+		this.request.addHeader("Something", "caf\u00e9");
+		HttpServletRequest request = this.firewall.getFirewalledRequest(this.request);
+		assertThat(request.getHeader("Something")).isEqualTo("caf\u00e9");
+	}
+
 	@Test
 	public void getFirewalledRequestGetDateHeaderWhenControlCharacterInHeaderNameThenException() {
 		this.request.addHeader("Bad\0Name", "some value");
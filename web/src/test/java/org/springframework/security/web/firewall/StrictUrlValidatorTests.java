@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.firewall;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link StrictUrlValidator}.
+ */
+public class StrictUrlValidatorTests {
+
+	@Test
+	public void isValidWhenBlocklistedValueOverlapsPrefixThenInvalid() {
+		StrictUrlValidator validator = validator(List.of("abc", "bcd", "%2f%2f"), List.of());
+		assertThat(validator.isValid(request("/ab/abbcd"))).isFalse();
+		assertThat(validator.isValid(request("/x%2f%2F%2f%2fy"))).isFalse();
+		assertThat(validator.isValid(request("/ab/bc/cd"))).isTrue();
+	}
+
+	@Test
+	public void isValidWhenEncodedBlocklistThenChecksRequestUriAndContextPath() {
+		StrictUrlValidator validator = validator(List.of(";"), List.of());
+		MockHttpServletRequest request = request("/path");
+		request.setContextPath("/ctx;");
+		assertThat(validator.isValid(request)).isFalse();
+		request = request("/path");
+		request.setServletPath("/path;");
+		assertThat(validator.isValid(request)).isTrue();
+	}
+
+	@Test
+	public void isValidWhenDecodedBlocklistThenChecksServletPathAndPathInfo() {
+		StrictUrlValidator validator = validator(List.of(), List.of("\u2028"));
+		MockHttpServletRequest request = request("/path");
+		request.setPathInfo("/a\u2028b");
+		assertThat(validator.isValid(request)).isFalse();
+		request.setPathInfo("/ab");
+		assertThat(validator.isValid(request)).isTrue();
+	}
+
+	@Test
+	public void isValidWhenNotNormalizedThenInvalid() {
+		StrictUrlValidator validator = validator(List.of(), List.of());
+		for (String path : List.of("/..", "/./path/", "/path/path/.", "./path", ".", "..", "/a/../b")) {
+			assertThat(validator.isValid(request(path))).describedAs(path).isFalse();
+		}
+		for (String path : List.of("", "/", "/.well-known/a", "/a..b/", "/...")) {
+			assertThat(validator.isValid(request(path))).describedAs(path).isTrue();
+		}
+	}
+
+	@Test
+	public void isValidWhenRequestUriNotPrintableAsciiThenInvalid() {
+		StrictUrlValidator validator = validator(List.of(), List.of());
+		assertThat(validator.isValid(request("/\u00e4"))).isFalse();
+		assertThat(validator.isValid(request("/\t"))).isFalse();
+	}
+
+	@Test
+	public void isValidWhenEmptyBlocklistedValueThenInvalid() {
+		StrictUrlValidator validator = validator(List.of(""), List.of());
+		assertThat(validator.isValid(request("/path"))).isFalse();
+	}
+
+	private static StrictUrlValidator validator(List<String> encoded, List<String> decoded) {
+		return new StrictUrlValidator(encoded, 0, decoded, 0);
+	}
+
+	private static MockHttpServletRequest request(String requestUri) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", requestUri);
+		request.setServletPath(requestUri);
+		return request;
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.server.context;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.ResponseCookie;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.TestAuthentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.EncryptedAuthenticationCodec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Tests for {@link CookieServerSecurityContextRepository}.
+ */
+public class CookieServerSecurityContextRepositoryTests {
+
+	private final SecretKey secretKey = new SecretKeySpec(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14,
+			15, 16 }, "AES");
+
+	private final CookieServerSecurityContextRepository repository = new CookieServerSecurityContextRepository(
+			this.secretKey);
+
+	@Test
+	public void constructorWhenNullSecretKeyThenException() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> new CookieServerSecurityContextRepository((SecretKey) null));
+	}
+
+	@Test
+	public void saveAndLoadWhenAuthenticatedThenFound() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+		this.repository.save(exchange, new SecurityContextImpl(TestAuthentication.authenticatedUser())).block();
+		ResponseCookie cookie = exchange.getResponse()
+			.getCookies()
+			.getFirst(CookieServerSecurityContextRepository.DEFAULT_COOKIE_NAME);
+		assertThat(cookie.isHttpOnly()).isTrue();
+		MockServerWebExchange next = MockServerWebExchange.from(MockServerHttpRequest.get("/").cookie(cookie));
+		SecurityContext context = this.repository.load(next).block();
+		assertThat(context.getAuthentication().getName()).isEqualTo("user");
+		assertThat(AuthorityUtils.authorityListToSet(context.getAuthentication().getAuthorities()))
+			.containsExactly("ROLE_USER");
+	}
+
+	@Test
+	public void loadWhenNoCookieThenEmpty() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+		assertThat(this.repository.load(exchange).block()).isNull();
+	}
+
+	@Test
+	public void loadWhenNotSubscribedThenNotDecrypted() {
+		EncryptedAuthenticationCodec codec = mock(EncryptedAuthenticationCodec.class);
+		CookieServerSecurityContextRepository repository = new CookieServerSecurityContextRepository(codec);
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/")
+			.cookie(ResponseCookie.from(CookieServerSecurityContextRepository.DEFAULT_COOKIE_NAME, "AAAA").build()));
+		repository.load(exchange);
+		verifyNoInteractions(codec);
+	}
+
+	@Test
+	public void saveWhenAnonymousAndCookiePresentThenCookieCleared() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/")
+			.cookie(ResponseCookie.from(CookieServerSecurityContextRepository.DEFAULT_COOKIE_NAME, "value").build()));
+		AnonymousAuthenticationToken anonymous = new AnonymousAuthenticationToken("key", "anonymous",
+				AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+		this.repository.save(exchange, new SecurityContextImpl(anonymous)).block();
+		ResponseCookie cookie = exchange.getResponse()
+			.getCookies()
+			.getFirst(CookieServerSecurityContextRepository.DEFAULT_COOKIE_NAME);
+		assertThat(cookie.getMaxAge()).isZero();
+		assertThat(cookie.getValue()).isEmpty();
+	}
+
+	@Test
+	public void saveWhenNullAndNoCookieThenNoCookieWritten() {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+		this.repository.save(exchange, null).block();
+		assertThat(exchange.getResponse().getCookies()).isEmpty();
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.security.web.util.matcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+/**
+ * Tests for {@link RequestMatcherIndex}.
+ */
+public class RequestMatcherIndexTests {
+
+	@Test
+	public void ofWhenNullThenException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> RequestMatcherIndex.of(null));
+	}
+
+	@Test
+	public void getCandidatesWhenPathDoesNotMatchLiteralPrefixThenExcluded() {
+		RequestMatcherIndex<String> index = RequestMatcherIndex.of(List.of(entry(antMatcher("/api/**"), "api"),
+				entry(antMatcher("/admin/**"), "admin"), entry(antMatcher("/**"), "all")));
+		assertThat(values(index.getCandidates(request("GET", "/api/users")))).containsExactly("api", "all");
+		assertThat(values(index.getCandidates(request("GET", "/admin")))).containsExactly("admin", "all");
+		assertThat(values(index.getCandidates(request("GET", "/other")))).containsExactly("all");
+	}
+
+	@Test
+	public void getCandidatesWhenHttpMethodDoesNotMatchThenExcluded() {
+		RequestMatcherIndex<String> index = RequestMatcherIndex.of(List.of(
+				entry(antMatcher(HttpMethod.POST, "/api/**"), "post"),
+				entry(antMatcher("/api/**"), "any")));
+		assertThat(values(index.getCandidates(request("GET", "/api/users")))).containsExactly("any");
+		assertThat(values(index.getCandidates(request("POST", "/api/users")))).containsExactly("post", "any");
+	}
+
+	@Test
+	public void getCandidatesWhenOpaqueMatcherThenAlwaysIncludedInOrder() {
+		RequestMatcher opaque = (request) -> true;
+		RequestMatcherIndex<String> index = RequestMatcherIndex.of(List.of(entry(antMatcher("/api/**"), "api"),
+				entry(new RegexRequestMatcher("/x.*", null), "regex"), entry(opaque, "opaque")));
+		assertThat(values(index.getCandidates(request("GET", "/api")))).containsExactly("api", "regex", "opaque");
+		assertThat(values(index.getCandidates(request("GET", "/x")))).containsExactly("regex", "opaque");
+	}
+
+	@Test
+	public void getCandidatesWhenCaseInsensitiveThenAlwaysIncluded() {
+		RequestMatcherIndex<String> index = RequestMatcherIndex
+			.of(List.of(entry(new AntPathRequestMatcher("/api/**", null, false), "api")));
+		assertThat(values(index.getCandidates(request("GET", "/API/users")))).containsExactly("api");
+	}
+
+	@Test
+	public void getCandidatesWhenOrRequestMatcherThenEachDelegateIndexed() {
+		RequestMatcherIndex<String> index = RequestMatcherIndex
+			.of(List.of(entry(new OrRequestMatcher(antMatcher("/a/**"), antMatcher("/b/**")), "or")));
+		assertThat(values(index.getCandidates(request("GET", "/a/1")))).containsExactly("or");
+		assertThat(values(index.getCandidates(request("GET", "/b/1")))).containsExactly("or");
+		assertThat(index.getCandidates(request("GET", "/c/1"))).isEmpty();
+	}
+
+	@Test
+	public void getCandidatesWhenAndRequestMatcherThenMostSpecificDelegateIndexed() {
+		RequestMatcherIndex<String> index = RequestMatcherIndex.of(List
+			.of(entry(new AndRequestMatcher(new RegexRequestMatcher(".*", null), antMatcher("/a/b/**")), "and")));
+		assertThat(values(index.getCandidates(request("GET", "/a/b/c")))).containsExactly("and");
+		assertThat(index.getCandidates(request("GET", "/a/c"))).isEmpty();
+	}
+
+	@Test
+	public void findFirstWhenWildcardSegmentThenMatchesLikeSequentialEvaluation() {
+		List<RequestMatcherEntry<String>> entries = List.of(entry(antMatcher("/api/*/users"), "users"),
+				entry(antMatcher("/api/{version}/orders/**"), "orders"), entry(antMatcher("/**/*.css"), "css"),
+				entry(antMatcher("/api//**"), "api"), entry(antMatcher("/**"), "all"));
+		RequestMatcherIndex<String> index = RequestMatcherIndex.of(entries);
+		for (String path : List.of("/api/v1/users", "/api/v2/orders/1", "/static/site.css", "/api", "/", "",
+				"/api//v1/users", "/other/path")) {
+			MockHttpServletRequest request = request("GET", path);
+			assertThat(index.findFirst(request).getEntry()).isEqualTo(sequential(entries, request));
+		}
+	}
+
+	@Test
+	public void findFirstWhenNoMatchThenNull() {
+		RequestMatcherIndex<String> index = RequestMatcherIndex.of(List.of(entry(antMatcher("/api/**"), "api")));
+		assertThat(index.findFirst(request("GET", "/other"))).isNull();
+	}
+
+	@Test
+	public void findFirstWhenPathInfoThenUsesServletPathAndPathInfo() {
+		RequestMatcherIndex<String> index = RequestMatcherIndex.of(List.of(entry(antMatcher("/api/v1/**"), "v1")));
+		MockHttpServletRequest request = request("GET", "/api");
+		request.setPathInfo("/v1/users");
+		assertThat(index.findFirst(request).getEntry()).isEqualTo("v1");
+	}
+
+	private static String sequential(List<RequestMatcherEntry<String>> entries, MockHttpServletRequest request) {
+		for (RequestMatcherEntry<String> entry : entries) {
+			if (entry.getRequestMatcher().matches(request)) {
+				return entry.getEntry();
+			}
+		}
+		return null;
+	}
+
+	private static RequestMatcherEntry<String> entry(RequestMatcher matcher, String value) {
+		return new RequestMatcherEntry<>(matcher, value);
+	}
+
+	private static List<String> values(List<RequestMatcherEntry<String>> entries) {
+		List<String> values = new ArrayList<>();
+		for (RequestMatcherEntry<String> entry : entries) {
+			values.add(entry.getEntry());
+		}
+		return values;
+	}
+
+	private static MockHttpServletRequest request(String method, String servletPath) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, servletPath);
+		request.setServletPath(servletPath);
+		return request;
+	}
+
+}